@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares plugin lookups of the stream-based {@link OrderAwarePluginRegistry} against the compiled dispatch chain of
+ * {@link CompiledPluginRegistry} for a set of plugins of different types, i.e. a megamorphic
+ * {@link Plugin#supports(Object)} call site for the former. Run via {@code mvn -Pjmh test-compile} and executing
+ * {@link #main(String[])} with the test classpath.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompiledPluginRegistryBenchmark {
+
+	private static final String[] DELIMITERS = { "pdf", "docx", "xlsx", "png", "jpg", "txt", "csv", "unknown" };
+
+	// Every lambda is a type of its own
+	private final List<Plugin<String>> plugins = Arrays.asList( //
+			it -> it.equals("pdf"), it -> it.equals("docx"), it -> it.equals("xlsx"), it -> it.equals("pptx"), //
+			it -> it.equals("png"), it -> it.equals("jpg"), it -> it.equals("gif"), it -> it.equals("svg"), //
+			it -> it.equals("txt"), it -> it.equals("md"), it -> it.equals("html"), it -> it.equals("xml"), //
+			it -> it.equals("json"), it -> it.equals("yaml"), it -> it.equals("csv"), it -> it.equals("tsv"), //
+			it -> it.startsWith("doc"), it -> it.startsWith("xls"), it -> it.endsWith("g"), it -> it.length() == 3);
+
+	private final PluginRegistry<Plugin<String>, String> streaming = OrderAwarePluginRegistry.of(plugins);
+	private final PluginRegistry<Plugin<String>, String> compiled = CompiledPluginRegistry.from(plugins);
+
+	@Benchmark
+	public void streamingGetPluginFor(Blackhole blackhole) {
+
+		for (String delimiter : DELIMITERS) {
+			blackhole.consume(streaming.getPluginFor(delimiter));
+		}
+	}
+
+	@Benchmark
+	public void compiledGetPluginFor(Blackhole blackhole) {
+
+		for (String delimiter : DELIMITERS) {
+			blackhole.consume(compiled.getPluginFor(delimiter));
+		}
+	}
+
+	@Benchmark
+	public void streamingGetPluginsFor(Blackhole blackhole) {
+
+		for (String delimiter : DELIMITERS) {
+			blackhole.consume(streaming.getPluginsFor(delimiter));
+		}
+	}
+
+	@Benchmark
+	public void compiledGetPluginsFor(Blackhole blackhole) {
+
+		for (String delimiter : DELIMITERS) {
+			blackhole.consume(compiled.getPluginsFor(delimiter));
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(CompiledPluginRegistryBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} optimizing the evaluation of queries that don't depend on the order of the
+ * {@link Plugin}s. The registry samples the time {@link Plugin#supports(Object)} of each {@link Plugin} takes and how
+ * often it returns {@literal true} and periodically derives an evaluation order from that, ranking {@link Plugin}s by
+ * their cost divided by their probability to support a delimiter. {@link #hasPluginFor(Object)} evaluates the
+ * {@link Plugin}s in that order and stops at the first supporting one, so that cheap {@link Plugin}s likely to support
+ * the delimiter are asked first.
+ * <p>
+ * All order-sensitive lookups still evaluate the {@link Plugin}s in registry order. {@link #countPluginsFor(Object)}
+ * has to evaluate all {@link Plugin}s anyway but contributes its samples, which aren't skewed by short-circuiting.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class AdaptivePluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private static final int SAMPLE_RATE = 16;
+	private static final int SAMPLES_PER_REORDER = 64;
+
+	private volatile Statistics<T> statistics;
+
+	/**
+	 * Creates a new {@link AdaptivePluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected AdaptivePluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link AdaptivePluginRegistry} for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> AdaptivePluginRegistry<T, S> from(List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link AdaptivePluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> AdaptivePluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new AdaptivePluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.statistics = new Statistics<>(result);
+
+		return result;
+	}
+
+	/**
+	 * Returns whether any {@link Plugin} supports the given delimiter, evaluating the {@link Plugin}s in the order
+	 * derived from their sampled cost and selectivity.
+	 *
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#hasPluginFor(java.lang.Object)
+	 */
+	@Override
+	public boolean hasPluginFor(S delimiter) {
+
+		Statistics<T> statistics = getStatistics();
+		boolean sample = ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+
+		for (int position : statistics.order) {
+
+			if (statistics.supports(position, delimiter, sample)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#countPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public int countPluginsFor(S delimiter) {
+
+		Statistics<T> statistics = getStatistics();
+		boolean sample = ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0;
+		int count = 0;
+
+		for (int i = 0; i < statistics.plugins.size(); i++) {
+			if (statistics.supports(i, delimiter, sample)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public AdaptivePluginRegistry<T, S> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/**
+	 * Returns the {@link Plugin}s in the order {@link #hasPluginFor(Object)} currently evaluates them.
+	 *
+	 * @return
+	 */
+	List<T> getEvaluationOrder() {
+
+		Statistics<T> statistics = getStatistics();
+		List<T> result = new ArrayList<>(statistics.order.length);
+
+		for (int position : statistics.order) {
+			result.add(statistics.plugins.get(position));
+		}
+
+		return result;
+	}
+
+	private Statistics<T> getStatistics() {
+
+		ensureInitialized();
+
+		return statistics;
+	}
+
+	/**
+	 * The sampled cost and selectivity of the {@link Plugin}s and the evaluation order derived from them.
+	 *
+	 * @author agent
+	 */
+	private static class Statistics<T extends Plugin<?>> {
+
+		private final List<T> plugins;
+		private final AtomicLongArray calls, matches, nanos;
+		private final AtomicInteger samples = new AtomicInteger();
+
+		private volatile int[] order;
+
+		Statistics(List<T> plugins) {
+
+			this.plugins = plugins;
+			this.calls = new AtomicLongArray(plugins.size());
+			this.matches = new AtomicLongArray(plugins.size());
+			this.nanos = new AtomicLongArray(plugins.size());
+			this.order = IntStream.range(0, plugins.size()).toArray();
+		}
+
+		/**
+		 * Invokes {@link Plugin#supports(Object)} of the {@link Plugin} at the given position and records cost and result
+		 * if requested.
+		 *
+		 * @param position
+		 * @param delimiter
+		 * @param sample whether to record the invocation.
+		 * @return
+		 */
+		@SuppressWarnings("unchecked")
+		boolean supports(int position, Object delimiter, boolean sample) {
+
+			Plugin<Object> plugin = (Plugin<Object>) plugins.get(position);
+
+			if (!sample) {
+				return plugin.supports(delimiter);
+			}
+
+			long start = System.nanoTime();
+			boolean result = plugin.supports(delimiter);
+
+			nanos.addAndGet(position, System.nanoTime() - start);
+			calls.incrementAndGet(position);
+
+			if (result) {
+				matches.incrementAndGet(position);
+			}
+
+			if (samples.incrementAndGet() % SAMPLES_PER_REORDER == 0) {
+				reorder();
+			}
+
+			return result;
+		}
+
+		/**
+		 * Ranks the {@link Plugin}s by their average cost divided by the probability to support a delimiter. Plugins
+		 * without samples are assumed to have the average cost of all sampled ones, the probabilities are smoothed to
+		 * not rule out {@link Plugin}s based on a few samples.
+		 */
+		private void reorder() {
+
+			int size = plugins.size();
+			double[] costs = new double[size];
+			double total = 0;
+			int sampled = 0;
+
+			for (int i = 0; i < size; i++) {
+
+				long calls = this.calls.get(i);
+
+				if (calls > 0) {
+					costs[i] = (double) nanos.get(i) / calls;
+					total += costs[i];
+					sampled++;
+				}
+			}
+
+			double average = sampled == 0 ? 1 : total / sampled;
+			double[] scores = new double[size];
+
+			for (int i = 0; i < size; i++) {
+
+				long calls = this.calls.get(i);
+				double probability = (matches.get(i) + 1.0) / (calls + 2.0);
+
+				scores[i] = (calls > 0 ? costs[i] : average) / probability;
+			}
+
+			this.order = IntStream.range(0, size).boxed() //
+					.sorted(Comparator.comparingDouble((Integer it) -> scores[it]).thenComparing(Integer::intValue)) //
+					.mapToInt(Integer::intValue) //
+					.toArray();
+		}
+	}
+}
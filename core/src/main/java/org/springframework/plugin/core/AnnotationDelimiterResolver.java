@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link DelimiterResolver} inspecting {@link PluginFor} annotations on the plugin type.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class AnnotationDelimiterResolver implements DelimiterResolver {
+
+	static final AnnotationDelimiterResolver INSTANCE = new AnnotationDelimiterResolver();
+
+	private final Map<Class<?>, Optional<Set<Object>>> cache = new ConcurrentReferenceHashMap<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.DelimiterResolver#resolveDelimiters(java.lang.Class)
+	 */
+	@Override
+	public Optional<Set<Object>> resolveDelimiters(Class<?> pluginType) {
+		return cache.computeIfAbsent(pluginType, AnnotationDelimiterResolver::doResolveDelimiters);
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private static Optional<Set<Object>> doResolveDelimiters(Class<?> pluginType) {
+
+		PluginFor annotation = AnnotatedElementUtils.findMergedAnnotation(pluginType, PluginFor.class);
+
+		if (annotation == null) {
+			return Optional.empty();
+		}
+
+		Set<Object> delimiters = new HashSet<>(Arrays.asList(annotation.types()));
+		Class<? extends Enum> enumType = annotation.enumType();
+
+		for (String value : annotation.value()) {
+			delimiters.add(PluginFor.None.class.equals(enumType) ? value : Enum.valueOf(enumType, value));
+		}
+
+		return Optional.of(Collections.unmodifiableSet(delimiters));
+	}
+}
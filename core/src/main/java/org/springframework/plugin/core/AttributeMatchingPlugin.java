@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+/**
+ * {@link Plugin} declaring the composite delimiters it supports via an {@link AttributePredicate}, so that
+ * {@link DecisionTreePluginRegistry} can select it without invoking {@link #supports(Object)}. Implementations are
+ * expected to keep {@link #supports(Object)} consistent with the predicate, e.g. by using
+ * {@link DelimiterAttributes#matches(AttributePredicate, Object)}. The predicate is read once when the registry is
+ * initialized.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public interface AttributeMatchingPlugin<S> extends Plugin<S> {
+
+	/**
+	 * Returns the {@link AttributePredicate} describing the delimiters the plugin supports.
+	 *
+	 * @return must not be {@literal null}.
+	 */
+	AttributePredicate getPredicate();
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * A declarative predicate over the named attributes of a composite delimiter. The predicate is a conjunction of
+ * conditions per attribute, each requiring the attribute value to be equal to a given value or to be one of a set of
+ * values. Attributes without a condition match any value. Conditions on the same attribute are intersected, so that
+ * a predicate requiring different values for an attribute never matches.
+ *
+ * <pre class="code">
+ * AttributePredicate.any() //
+ * 		.and("tenant", "acme") //
+ * 		.andIn("channel", "web", "mobile");
+ * </pre>
+ *
+ * @author agent
+ * @since 2.0
+ * @see AttributeMatchingPlugin
+ * @see DecisionTreePluginRegistry
+ */
+public final class AttributePredicate {
+
+	private static final AttributePredicate ANY = new AttributePredicate(Collections.emptyMap());
+
+	private final Map<String, Set<Object>> conditions;
+
+	private AttributePredicate(Map<String, Set<Object>> conditions) {
+		this.conditions = conditions;
+	}
+
+	/**
+	 * Returns an {@link AttributePredicate} matching any delimiter.
+	 *
+	 * @return
+	 */
+	public static AttributePredicate any() {
+		return ANY;
+	}
+
+	/**
+	 * Returns a new {@link AttributePredicate} additionally requiring the given attribute to be equal to the given value.
+	 *
+	 * @param attribute must not be {@literal null} or empty.
+	 * @param value can be {@literal null}.
+	 * @return
+	 */
+	public AttributePredicate and(String attribute, Object value) {
+		return andIn(attribute, Collections.singleton(value));
+	}
+
+	/**
+	 * Returns a new {@link AttributePredicate} additionally requiring the given attribute to be one of the given values.
+	 *
+	 * @param attribute must not be {@literal null} or empty.
+	 * @param values must not be {@literal null} or empty.
+	 * @return
+	 */
+	public AttributePredicate andIn(String attribute, Object... values) {
+
+		Assert.notNull(values, "Values must not be null!");
+
+		return andIn(attribute, Arrays.asList(values));
+	}
+
+	/**
+	 * Returns a new {@link AttributePredicate} additionally requiring the given attribute to be one of the given values.
+	 * Conditions on the same attribute are intersected.
+	 *
+	 * @param attribute must not be {@literal null} or empty.
+	 * @param values must not be {@literal null} or empty.
+	 * @return
+	 */
+	public AttributePredicate andIn(String attribute, Collection<?> values) {
+
+		Assert.hasText(attribute, "Attribute must not be null or empty!");
+		Assert.notNull(values, "Values must not be null!");
+		Assert.isTrue(!values.isEmpty(), "Values must not be empty!");
+
+		Set<Object> allowed = new HashSet<>(values);
+		Set<Object> existing = conditions.get(attribute);
+
+		if (existing != null) {
+			allowed.retainAll(existing);
+		}
+
+		Map<String, Set<Object>> result = new LinkedHashMap<>(conditions);
+		result.put(attribute, Collections.unmodifiableSet(allowed));
+
+		return new AttributePredicate(Collections.unmodifiableMap(result));
+	}
+
+	/**
+	 * Returns whether the attribute values looked up by the given {@link Function} satisfy all conditions.
+	 *
+	 * @param attributes must not be {@literal null}.
+	 * @return
+	 */
+	public boolean matches(Function<String, ?> attributes) {
+
+		Assert.notNull(attributes, "Attributes must not be null!");
+
+		for (Map.Entry<String, Set<Object>> entry : conditions.entrySet()) {
+			if (!entry.getValue().contains(attributes.apply(entry.getKey()))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the values allowed for the given attribute or {@literal null} if the attribute is unconstrained.
+	 *
+	 * @param attribute
+	 * @return
+	 */
+	Set<Object> getAllowedValues(String attribute) {
+		return conditions.get(attribute);
+	}
+
+	/**
+	 * Returns the names of all constrained attributes.
+	 *
+	 * @return
+	 */
+	Set<String> getAttributes() {
+		return conditions.keySet();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return this == obj || obj instanceof AttributePredicate && conditions.equals(((AttributePredicate) obj).conditions);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return conditions.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return conditions.isEmpty() ? "any" : conditions.toString();
+	}
+}
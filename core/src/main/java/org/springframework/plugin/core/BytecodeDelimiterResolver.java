@@ -0,0 +1,361 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.Handle;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.asm.Type;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link DelimiterResolver} inferring the delimiter a {@link Plugin} type supports from the bytecode of its
+ * {@link Plugin#supports(Object)} implementation. Recognizes implementations comparing the delimiter to a single
+ * constant, i.e. a {@link String} literal or a static field:
+ *
+ * <pre class="code">
+ * return "pdf".equals(delimiter);
+ * return CONSTANT.equals(delimiter);
+ * return delimiter.equals(CONSTANT);
+ * return delimiter == Format.PDF;
+ * </pre>
+ *
+ * Equality comparisons are only considered for constants of types with value semantics ({@link String}s, enums,
+ * {@link Class}es and boxed primitives), identity comparisons only for enum constants and {@link Class}es. All other
+ * implementations are considered to not declare any delimiters.
+ *
+ * @author agent
+ * @since 2.0
+ * @see DelimiterResolver#inferred()
+ */
+class BytecodeDelimiterResolver implements DelimiterResolver {
+
+	static final BytecodeDelimiterResolver INSTANCE = new BytecodeDelimiterResolver();
+
+	private static final Logger LOG = LoggerFactory.getLogger(BytecodeDelimiterResolver.class);
+	private static final String EQUALS_DESCRIPTOR = "(Ljava/lang/Object;)Z";
+	private static final List<Class<?>> VALUE_TYPES = Arrays.asList(String.class, Class.class, Boolean.class,
+			Character.class, Byte.class, Short.class, Integer.class, Long.class);
+
+	private final Map<Class<?>, Optional<Set<Object>>> cache = new ConcurrentReferenceHashMap<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.DelimiterResolver#resolveDelimiters(java.lang.Class)
+	 */
+	@Override
+	public Optional<Set<Object>> resolveDelimiters(Class<?> pluginType) {
+		return cache.computeIfAbsent(pluginType, BytecodeDelimiterResolver::doResolveDelimiters);
+	}
+
+	private static Optional<Set<Object>> doResolveDelimiters(Class<?> pluginType) {
+
+		Method method = findSupportsMethod(pluginType);
+
+		if (method == null || Modifier.isAbstract(method.getModifiers())) {
+			return Optional.empty();
+		}
+
+		try {
+
+			List<Instruction> instructions = readInstructions(method);
+			Optional<Object> delimiter = match(instructions, method.getDeclaringClass().getClassLoader());
+
+			delimiter.ifPresent(it -> LOG.debug("Inferred delimiter {} for plugin type {}.", it, pluginType.getName()));
+
+			return delimiter.map(Collections::singleton);
+
+		} catch (Exception o_O) {
+
+			LOG.debug("Unable to analyze supports(...) of plugin type {}.", pluginType.getName(), o_O);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Returns the single, non-bridge {@code supports} method of the given type or {@literal null} if none or multiple
+	 * ones are found.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	private static Method findSupportsMethod(Class<?> type) {
+
+		Method result = null;
+
+		for (Method method : type.getMethods()) {
+
+			if (!method.getName().equals("supports") || method.getParameterCount() != 1 || method.isBridge()
+					|| method.isSynthetic() || !method.getReturnType().equals(boolean.class)) {
+				continue;
+			}
+
+			if (result != null) {
+				return null;
+			}
+
+			result = method;
+		}
+
+		return result;
+	}
+
+	private static List<Instruction> readInstructions(Method method) throws IOException {
+
+		Class<?> owner = method.getDeclaringClass();
+		ClassLoader classLoader = owner.getClassLoader() == null ? ClassLoader.getSystemClassLoader()
+				: owner.getClassLoader();
+		String resource = ClassUtils.convertClassNameToResourcePath(owner.getName()) + ClassUtils.CLASS_FILE_SUFFIX;
+		String descriptor = Type.getMethodDescriptor(method);
+		List<Instruction> instructions = new ArrayList<>();
+
+		try (InputStream stream = classLoader.getResourceAsStream(resource)) {
+
+			if (stream == null) {
+				return instructions;
+			}
+
+			new ClassReader(stream).accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+
+				@Override
+				public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+						String[] exceptions) {
+
+					return name.equals(method.getName()) && desc.equals(descriptor) //
+							? new InstructionCollector(instructions) //
+							: null;
+				}
+
+			}, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+		}
+
+		return instructions;
+	}
+
+	/**
+	 * Matches the given instructions against the supported shapes and returns the delimiter compared to.
+	 *
+	 * @param instructions must not be {@literal null}.
+	 * @param classLoader the {@link ClassLoader} to resolve static fields with.
+	 * @return
+	 */
+	private static Optional<Object> match(List<Instruction> instructions, ClassLoader classLoader) throws Exception {
+
+		// CONSTANT.equals(delimiter) or delimiter.equals(CONSTANT)
+		if (instructions.size() == 4 && instructions.get(2).isEqualsInvocation()
+				&& instructions.get(3).opcode == Opcodes.IRETURN) {
+
+			Instruction constant = getConstantNextToDelimiter(instructions.get(0), instructions.get(1));
+
+			if (constant != null) {
+
+				Object value = constant.resolveConstant(classLoader);
+
+				return isValueType(value) ? Optional.of(value) : Optional.empty();
+			}
+		}
+
+		// delimiter == CONSTANT
+		if (instructions.size() == 7 && instructions.get(2).opcode == Opcodes.IF_ACMPNE
+				&& instructions.get(3).opcode == Opcodes.ICONST_1 && instructions.get(4).opcode == Opcodes.GOTO
+				&& instructions.get(5).opcode == Opcodes.ICONST_0 && instructions.get(6).opcode == Opcodes.IRETURN) {
+
+			Instruction constant = getConstantNextToDelimiter(instructions.get(0), instructions.get(1));
+
+			if (constant != null) {
+
+				Object value = constant.resolveConstant(classLoader);
+
+				return value instanceof Enum || value instanceof Class ? Optional.of(value) : Optional.empty();
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	private static Instruction getConstantNextToDelimiter(Instruction first, Instruction second) {
+
+		if (first.isDelimiterLoad() && second.isConstantLoad()) {
+			return second;
+		}
+
+		if (second.isDelimiterLoad() && first.isConstantLoad()) {
+			return first;
+		}
+
+		return null;
+	}
+
+	private static boolean isValueType(Object value) {
+		return value instanceof Enum || value != null && VALUE_TYPES.contains(value.getClass());
+	}
+
+	/**
+	 * A simplified bytecode instruction.
+	 *
+	 * @author agent
+	 */
+	private static class Instruction {
+
+		private final int opcode;
+		private final Object operand;
+		private final String owner, name, descriptor;
+
+		Instruction(int opcode, Object operand, String owner, String name, String descriptor) {
+
+			this.opcode = opcode;
+			this.operand = operand;
+			this.owner = owner;
+			this.name = name;
+			this.descriptor = descriptor;
+		}
+
+		boolean isDelimiterLoad() {
+			return opcode == Opcodes.ALOAD && Integer.valueOf(1).equals(operand);
+		}
+
+		boolean isConstantLoad() {
+			return opcode == Opcodes.LDC && operand instanceof String || opcode == Opcodes.GETSTATIC;
+		}
+
+		boolean isEqualsInvocation() {
+			return (opcode == Opcodes.INVOKEVIRTUAL || opcode == Opcodes.INVOKEINTERFACE) && "equals".equals(name)
+					&& EQUALS_DESCRIPTOR.equals(descriptor);
+		}
+
+		Object resolveConstant(ClassLoader classLoader) throws Exception {
+
+			if (opcode == Opcodes.LDC) {
+				return operand;
+			}
+
+			Class<?> type = ClassUtils.forName(Type.getObjectType(owner).getClassName(), classLoader);
+			Field field = ReflectionUtils.findField(type, name);
+
+			if (field == null || !Modifier.isStatic(field.getModifiers()) || !Modifier.isFinal(field.getModifiers())) {
+				return null;
+			}
+
+			ReflectionUtils.makeAccessible(field);
+
+			return field.get(null);
+		}
+	}
+
+	/**
+	 * {@link MethodVisitor} collecting all instructions of a method.
+	 *
+	 * @author agent
+	 */
+	private static class InstructionCollector extends MethodVisitor {
+
+		private final List<Instruction> instructions;
+
+		InstructionCollector(List<Instruction> instructions) {
+
+			super(SpringAsmInfo.ASM_VERSION);
+
+			this.instructions = instructions;
+		}
+
+		@Override
+		public void visitInsn(int opcode) {
+			instructions.add(new Instruction(opcode, null, null, null, null));
+		}
+
+		@Override
+		public void visitIntInsn(int opcode, int operand) {
+			instructions.add(new Instruction(opcode, operand, null, null, null));
+		}
+
+		@Override
+		public void visitVarInsn(int opcode, int var) {
+			instructions.add(new Instruction(opcode, var, null, null, null));
+		}
+
+		@Override
+		public void visitTypeInsn(int opcode, String type) {
+			instructions.add(new Instruction(opcode, type, null, null, null));
+		}
+
+		@Override
+		public void visitFieldInsn(int opcode, String owner, String name, String descriptor) {
+			instructions.add(new Instruction(opcode, null, owner, name, descriptor));
+		}
+
+		@Override
+		public void visitMethodInsn(int opcode, String owner, String name, String descriptor, boolean isInterface) {
+			instructions.add(new Instruction(opcode, null, owner, name, descriptor));
+		}
+
+		@Override
+		public void visitJumpInsn(int opcode, Label label) {
+			instructions.add(new Instruction(opcode, null, null, null, null));
+		}
+
+		@Override
+		public void visitLdcInsn(Object value) {
+			instructions.add(new Instruction(Opcodes.LDC, value, null, null, null));
+		}
+
+		@Override
+		public void visitIincInsn(int var, int increment) {
+			instructions.add(new Instruction(Opcodes.IINC, var, null, null, null));
+		}
+
+		@Override
+		public void visitTableSwitchInsn(int min, int max, Label dflt, Label... labels) {
+			instructions.add(new Instruction(Opcodes.TABLESWITCH, null, null, null, null));
+		}
+
+		@Override
+		public void visitLookupSwitchInsn(Label dflt, int[] keys, Label[] labels) {
+			instructions.add(new Instruction(Opcodes.LOOKUPSWITCH, null, null, null, null));
+		}
+
+		@Override
+		public void visitInvokeDynamicInsn(String name, String descriptor, Handle handle,
+				Object... arguments) {
+			instructions.add(new Instruction(Opcodes.INVOKEDYNAMIC, null, null, name, descriptor));
+		}
+
+		@Override
+		public void visitMultiANewArrayInsn(String descriptor, int numDimensions) {
+			instructions.add(new Instruction(Opcodes.MULTIANEWARRAY, null, null, null, descriptor));
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link OrderAwarePluginRegistry} that learns which {@link Plugin}s support a delimiter on the first lookup and
+ * answers subsequent lookups for the same delimiter from a cache. Thus, it requires {@link Plugin#supports(Object)} to
+ * be a pure function of the delimiter, which in turn needs to implement {@link Object#equals(Object)} and
+ * {@link Object#hashCode()} properly. {@literal null} delimiters are never cached. To prevent unbounded growth, new
+ * delimiters are not cached anymore once the configured limit has been reached.
+ * <p>
+ * The learned index can be persisted using {@link #writeIndex(Path)} and used to pre-populate the cache of a registry
+ * created in a new JVM via {@link #from(List, Path)}. The persisted index is only used if it was written for the same
+ * plugin classes in the same order and discarded otherwise.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class CachingPluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	static final int DEFAULT_LIMIT = 10_000;
+
+	private final Path indexFile;
+	private final int limit;
+	private final Map<Object, Positions<T>> cache;
+
+	private volatile List<T> snapshot;
+
+	/**
+	 * Creates a new {@link CachingPluginRegistry} for the given {@link Plugin}s, {@link Comparator}, index file and
+	 * cache limit.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param indexFile can be {@literal null}.
+	 * @param limit the maximum number of delimiters to cache, must be positive.
+	 */
+	protected CachingPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator, Path indexFile,
+			int limit) {
+
+		super(plugins, comparator);
+
+		Assert.isTrue(limit > 0, "Limit must be greater than zero!");
+
+		this.indexFile = indexFile;
+		this.limit = limit;
+		this.cache = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Creates a new {@link CachingPluginRegistry} for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CachingPluginRegistry<T, S> from(List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR, null, DEFAULT_LIMIT);
+	}
+
+	/**
+	 * Creates a new {@link CachingPluginRegistry} for the given {@link Plugin}s pre-populating the cache from the
+	 * given index file if it exists and is still valid for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param indexFile must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CachingPluginRegistry<T, S> from(List<? extends T> plugins, Path indexFile) {
+
+		Assert.notNull(indexFile, "Index file must not be null!");
+
+		return from(plugins, DEFAULT_COMPARATOR, indexFile, DEFAULT_LIMIT);
+	}
+
+	/**
+	 * Creates a new {@link CachingPluginRegistry} for the given {@link Plugin}s, {@link Comparator}, index file and
+	 * cache limit.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param indexFile can be {@literal null}.
+	 * @param limit the maximum number of delimiters to cache, must be positive.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CachingPluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, Path indexFile, int limit) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new CachingPluginRegistry<>(plugins, comparator, indexFile, limit);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.snapshot = result;
+
+		if (indexFile != null) {
+
+			// Delimiter types are usually declared next to the plugins, so resolve them like the plugin classes
+			ClassLoader classLoader = result.isEmpty() ? ClassUtils.getDefaultClassLoader()
+					: AopProxyUtils.ultimateTargetClass(result.get(0)).getClassLoader();
+
+			PluginIndexFile.read(indexFile, result, classLoader).forEach((delimiter, positions) -> {
+				if (cache.size() < limit) {
+					cache.put(delimiter, Positions.of(positions, result));
+				}
+			});
+		}
+
+		return result;
+	}
+
+	/**
+	 * Writes the currently learned delimiter index to the given file. Only {@link String}, {@link Integer},
+	 * {@link Long}, {@link Boolean}, {@link Enum} and {@link Class} delimiters are written.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @throws IOException in case the file cannot be written.
+	 */
+	public void writeIndex(Path file) throws IOException {
+
+		Assert.notNull(file, "File must not be null!");
+
+		Map<Object, int[]> entries = new HashMap<>(cache.size() * 2);
+		cache.forEach((delimiter, match) -> entries.put(delimiter, match.getPositions()));
+
+		PluginIndexFile.write(file, getPlugins(), entries);
+	}
+
+	/**
+	 * Returns the number of delimiters currently cached.
+	 *
+	 * @return
+	 */
+	public int getCacheSize() {
+		return cache.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(S delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		List<T> plugins = getSnapshot();
+
+		Positions<T> match = cache.get(delimiter);
+
+		if (match == null) {
+
+			if (cache.size() >= limit) {
+				return null;
+			}
+
+			// Ask the plugins outside of the map, as they might look up plugins from the registry themselves
+			Positions<T> computed = match(delimiter, plugins);
+			match = cache.putIfAbsent(delimiter, computed);
+
+			if (match == null) {
+				match = computed;
+			}
+		}
+
+		return Candidates.of(plugins, match, Candidates.NO_POSITIONS, delimiter);
+	}
+
+	private List<T> getSnapshot() {
+
+		ensureInitialized();
+
+		return snapshot;
+	}
+
+	/**
+	 * Returns the positions of the {@link Plugin}s supporting the given delimiter.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @param source must not be {@literal null}.
+	 * @return
+	 */
+	private static <S, T extends Plugin<S>> Positions<T> match(S delimiter, List<T> source) {
+
+		int[] positions = new int[source.size()];
+		int count = 0;
+
+		for (int i = 0; i < source.size(); i++) {
+			if (source.get(i).supports(delimiter)) {
+				positions[count++] = i;
+			}
+		}
+
+		int[] result = new int[count];
+		System.arraycopy(positions, 0, result, 0, count);
+
+		return Positions.of(result, source);
+	}
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * The candidate {@link Plugin}s of a lookup in a registry maintaining an index over its snapshot of {@link Plugin}s:
+ * the positions of the {@link Plugin}s the index selects for the delimiter (declared) and the positions of the
+ * {@link Plugin}s not covered by the index, which still have to be asked via {@link Plugin#supports(Object)}
+ * (undeclared). Both are ascending, so that merging them yields the supporting {@link Plugin}s in registry order. In
+ * case all {@link Plugin}s are covered by the index, {@link #getAll()} returns the shared, immutable {@link List} of
+ * the declared {@link Plugin}s.
+ *
+ * @author agent
+ * @since 2.0
+ */
+abstract class Candidates<T> {
+
+	static final int[] NO_POSITIONS = new int[0];
+
+	private final List<T> plugins;
+	private final int[] declared;
+	private final List<T> matches;
+	private final int[] undeclared;
+
+	/**
+	 * Creates new {@link Candidates} for the given snapshot of {@link Plugin}s and positions.
+	 *
+	 * @param plugins the snapshot of the registry, must not be {@literal null}.
+	 * @param declared the ascending positions of the {@link Plugin}s selected by the index, must not be {@literal null}.
+	 * @param matches the shared, immutable {@link List} of the {@link Plugin}s at the declared positions, can be
+	 *          {@literal null}.
+	 * @param undeclared the ascending positions of the {@link Plugin}s not covered by the index, must not be
+	 *          {@literal null}.
+	 */
+	Candidates(List<T> plugins, int[] declared, List<T> matches, int[] undeclared) {
+
+		this.plugins = plugins;
+		this.declared = declared;
+		this.matches = matches;
+		this.undeclared = undeclared;
+	}
+
+	/**
+	 * Creates new {@link Candidates} for the given snapshot of {@link Plugin}s and positions.
+	 *
+	 * @param plugins the snapshot of the registry, must not be {@literal null}.
+	 * @param declared the {@link Positions} of the {@link Plugin}s selected by the index, must not be {@literal null}.
+	 * @param undeclared the ascending positions of the {@link Plugin}s not covered by the index, must not be
+	 *          {@literal null}.
+	 */
+	Candidates(List<T> plugins, Positions<T> declared, int[] undeclared) {
+		this(plugins, declared.getPositions(), declared.getPlugins(), undeclared);
+	}
+
+	/**
+	 * Creates new {@link Candidates} asking the undeclared {@link Plugin}s whether they support the given delimiter.
+	 * Returns the given {@link Positions} as is if there are no undeclared {@link Plugin}s.
+	 *
+	 * @param plugins the snapshot of the registry, must not be {@literal null}.
+	 * @param declared the {@link Positions} of the {@link Plugin}s selected by the index, must not be {@literal null}.
+	 * @param undeclared the ascending positions of the {@link Plugin}s not covered by the index, must not be
+	 *          {@literal null}.
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	static <T extends Plugin<S>, S> Candidates<T> of(List<T> plugins, Positions<T> declared, int[] undeclared,
+			S delimiter) {
+
+		return undeclared.length == 0 //
+				? declared //
+				: of(plugins, declared.getPositions(), declared.getPlugins(), undeclared, delimiter);
+	}
+
+	/**
+	 * Creates new {@link Candidates} asking the undeclared {@link Plugin}s whether they support the given delimiter.
+	 *
+	 * @param plugins the snapshot of the registry, must not be {@literal null}.
+	 * @param declared the ascending positions of the {@link Plugin}s selected by the index, must not be {@literal null}.
+	 * @param matches the shared, immutable {@link List} of the {@link Plugin}s at the declared positions, can be
+	 *          {@literal null}.
+	 * @param undeclared the ascending positions of the {@link Plugin}s not covered by the index, must not be
+	 *          {@literal null}.
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	static <T extends Plugin<S>, S> Candidates<T> of(List<T> plugins, int[] declared, List<T> matches,
+			int[] undeclared, S delimiter) {
+
+		if (declared.length == 0 && undeclared.length == 0) {
+			return Positions.none();
+		}
+
+		return new Candidates<T>(plugins, declared, matches, undeclared) {
+
+			@Override
+			protected boolean supports(T plugin) {
+				return plugin.supports(delimiter);
+			}
+		};
+	}
+
+	/**
+	 * Returns the {@link Candidates} only containing the {@link Plugin}s at the positions matching the given
+	 * {@link IntPredicate}. The undeclared {@link Plugin}s at other positions are not asked anymore.
+	 *
+	 * @param positions must not be {@literal null}.
+	 * @return
+	 */
+	Candidates<T> retain(IntPredicate positions) {
+
+		Candidates<T> source = this;
+
+		return new Candidates<T>(plugins, retain(declared, positions), null, retain(undeclared, positions)) {
+
+			@Override
+			protected boolean supports(T plugin) {
+				return source.supports(plugin);
+			}
+		};
+	}
+
+	/**
+	 * Returns whether the given undeclared {@link Plugin} supports the delimiter looked up.
+	 *
+	 * @param plugin will never be {@literal null}.
+	 * @return
+	 */
+	protected abstract boolean supports(T plugin);
+
+	/**
+	 * Returns the index of the first undeclared position in the given range whose {@link Plugin} supports the delimiter
+	 * looked up. Can be overridden to evaluate the {@link Plugin}s more efficiently.
+	 *
+	 * @param from the first index into the undeclared positions to consider.
+	 * @param to the first index not to consider anymore.
+	 * @return the index or {@literal -1} if none of the {@link Plugin}s supports the delimiter.
+	 */
+	protected int next(int from, int to) {
+
+		for (int i = from; i < to; i++) {
+			if (supports(plugins.get(undeclared[i]))) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the first supporting {@link Plugin}.
+	 *
+	 * @return
+	 */
+	Optional<T> getFirst() {
+
+		int to = declared.length == 0 ? undeclared.length : getUndeclaredBefore(declared[0], 0);
+		int next = next(0, to);
+
+		if (next >= 0) {
+			return Optional.of(plugins.get(undeclared[next]));
+		}
+
+		return declared.length == 0 ? Optional.empty() : Optional.of(plugins.get(declared[0]));
+	}
+
+	/**
+	 * Returns all supporting {@link Plugin}s.
+	 *
+	 * @return
+	 */
+	List<T> getAll() {
+
+		if (undeclared.length == 0 && matches != null) {
+			return matches;
+		}
+
+		List<T> result = getAll(Integer.MAX_VALUE);
+
+		return undeclared.length == 0 ? Collections.unmodifiableList(result) : result;
+	}
+
+	/**
+	 * Returns the first supporting {@link Plugin}s, at most the given number of them.
+	 *
+	 * @param limit must not be negative.
+	 * @return
+	 */
+	List<T> getAll(int limit) {
+
+		if (undeclared.length == 0 && matches != null) {
+			return new ArrayList<>(matches.subList(0, Math.min(limit, matches.size())));
+		}
+
+		List<T> result = new ArrayList<>(Math.min(limit, declared.length + undeclared.length));
+		Spliterator<T> spliterator = spliterator();
+
+		while (result.size() < limit && spliterator.tryAdvance(result::add)) {}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of supporting {@link Plugin}s.
+	 *
+	 * @return
+	 */
+	int count() {
+
+		int count = declared.length;
+
+		for (int next = next(0, undeclared.length); next >= 0; next = next(next + 1, undeclared.length)) {
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Returns a {@link Spliterator} over the supporting {@link Plugin}s asking the undeclared ones lazily.
+	 *
+	 * @return
+	 */
+	Spliterator<T> spliterator() {
+		return new CandidateSpliterator(0, declared.length, 0, undeclared.length);
+	}
+
+	private int getUndeclaredBefore(int position, int from) {
+
+		int index = Arrays.binarySearch(undeclared, from, undeclared.length, position);
+
+		return index < 0 ? -(index + 1) : index;
+	}
+
+	private static int[] retain(int[] positions, IntPredicate predicate) {
+
+		int[] result = new int[positions.length];
+		int size = 0;
+
+		for (int position : positions) {
+			if (predicate.test(position)) {
+				result[size++] = position;
+			}
+		}
+
+		return size == positions.length ? positions : Arrays.copyOf(result, size);
+	}
+
+	private static int indexOf(int[] positions, int from, int to, int position) {
+
+		int index = Arrays.binarySearch(positions, from, to, position);
+
+		return index < 0 ? -(index + 1) : index;
+	}
+
+	/**
+	 * {@link Spliterator} merging a range of the declared positions with a range of the positions of the supporting
+	 * undeclared {@link Plugin}s step by step. Only {@link Spliterator#SIZED} if no undeclared {@link Plugin}s are left
+	 * to ask. Splits at the position in the middle of the larger of the two ranges.
+	 *
+	 * @author agent
+	 */
+	private class CandidateSpliterator implements Spliterator<T> {
+
+		private int declaredIndex, undeclaredIndex;
+		private int declaredFence, undeclaredFence;
+		private int bound = -1;
+
+		private final int characteristics;
+
+		CandidateSpliterator(int declaredIndex, int declaredFence, int undeclaredIndex, int undeclaredFence) {
+
+			this.declaredIndex = declaredIndex;
+			this.declaredFence = declaredFence;
+			this.undeclaredIndex = undeclaredIndex;
+			this.undeclaredFence = undeclaredFence;
+			this.characteristics = ORDERED | IMMUTABLE | NONNULL //
+					| (undeclaredIndex == undeclaredFence ? SIZED | SUBSIZED : 0);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+		 */
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+
+			if (bound < 0) {
+				bound = declaredIndex < declaredFence //
+						? getUndeclaredBefore(declared[declaredIndex], undeclaredIndex) //
+						: undeclaredFence;
+			}
+
+			int next = Candidates.this.next(undeclaredIndex, bound);
+
+			if (next >= 0) {
+
+				undeclaredIndex = next + 1;
+				action.accept(plugins.get(undeclared[next]));
+
+				return true;
+			}
+
+			undeclaredIndex = bound;
+			bound = -1;
+
+			if (declaredIndex == declaredFence) {
+				return false;
+			}
+
+			action.accept(plugins.get(declared[declaredIndex++]));
+
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Spliterator#trySplit()
+		 */
+		@Override
+		public Spliterator<T> trySplit() {
+
+			int declaredLeft = declaredFence - declaredIndex;
+			int undeclaredLeft = undeclaredFence - undeclaredIndex;
+
+			if (declaredLeft + undeclaredLeft < 2) {
+				return null;
+			}
+
+			int position = undeclaredLeft > declaredLeft //
+					? undeclared[(undeclaredIndex + undeclaredFence) >>> 1] //
+					: declared[(declaredIndex + declaredFence) >>> 1];
+
+			int declaredMiddle = indexOf(declared, declaredIndex, declaredFence, position);
+			int undeclaredMiddle = indexOf(undeclared, undeclaredIndex, undeclaredFence, position);
+
+			if (declaredMiddle == declaredIndex && undeclaredMiddle == undeclaredIndex) {
+				return null;
+			}
+
+			Spliterator<T> prefix = new CandidateSpliterator(declaredIndex, declaredMiddle, undeclaredIndex,
+					undeclaredMiddle);
+
+			this.declaredIndex = declaredMiddle;
+			this.undeclaredIndex = undeclaredMiddle;
+			this.bound = -1;
+
+			return prefix;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Spliterator#estimateSize()
+		 */
+		@Override
+		public long estimateSize() {
+			return declaredFence - declaredIndex + undeclaredFence - undeclaredIndex;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.Spliterator#characteristics()
+		 */
+		@Override
+		public int characteristics() {
+			return characteristics;
+		}
+	}
+
+	/**
+	 * Ascending positions of {@link Plugin}s in the snapshot of a registry and the shared, immutable {@link List} of the
+	 * {@link Plugin}s at these positions. Serve as {@link Candidates} themselves in case there are no undeclared
+	 * {@link Plugin}s to ask, so that lookups answered from an index don't allocate anything beyond their result.
+	 *
+	 * @author agent
+	 */
+	static final class Positions<T> extends Candidates<T> {
+
+		private static final Positions<?> NONE = new Positions<>(Collections.emptyList(), NO_POSITIONS,
+				Collections.emptyList());
+
+		private Positions(List<T> source, int[] positions, List<T> plugins) {
+			super(source, positions, plugins, NO_POSITIONS);
+		}
+
+		/**
+		 * Returns empty {@link Positions}.
+		 *
+		 * @return
+		 */
+		@SuppressWarnings("unchecked")
+		static <T> Positions<T> none() {
+			return (Positions<T>) NONE;
+		}
+
+		/**
+		 * Creates new {@link Positions} for the given ascending positions into the given snapshot.
+		 *
+		 * @param positions must not be {@literal null}.
+		 * @param source must not be {@literal null}.
+		 * @return
+		 */
+		static <T> Positions<T> of(int[] positions, List<T> source) {
+
+			if (positions.length == 0) {
+				return none();
+			}
+
+			List<T> plugins = new ArrayList<>(positions.length);
+
+			for (int position : positions) {
+				plugins.add(source.get(position));
+			}
+
+			return new Positions<>(source, positions, Collections.unmodifiableList(plugins));
+		}
+
+		/**
+		 * Never invoked as there are no undeclared {@link Plugin}s.
+		 *
+		 * @see org.springframework.plugin.core.Candidates#supports(java.lang.Object)
+		 */
+		@Override
+		protected boolean supports(T plugin) {
+			return false;
+		}
+
+		/**
+		 * Returns the ascending positions.
+		 *
+		 * @return
+		 */
+		int[] getPositions() {
+			return super.declared;
+		}
+
+		/**
+		 * Returns the {@link Plugin}s at the positions as shared, immutable {@link List}.
+		 *
+		 * @return
+		 */
+		List<T> getPlugins() {
+			return super.matches;
+		}
+	}
+}
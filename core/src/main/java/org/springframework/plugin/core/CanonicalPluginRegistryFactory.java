@@ -0,0 +1,344 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * Factory for {@link PluginRegistry} instances that canonicalizes the {@link Plugin} sequences handed to it, e.g. to
+ * create registries for thousands of tenants from heavily overlapping plugin sets. The {@link Plugin}s are sorted by
+ * the {@link Comparator} the created registries use, so that requests for the identical {@link Plugin} instances
+ * return the very same, immutable {@link PluginRegistry} independently of the order they're handed in. Thus the
+ * snapshot of the {@link Plugin}s and all index structures derived from it are only kept once. Registries are
+ * initialized on creation, so that the factory can identify them by their own snapshot.
+ *
+ * <pre class="code">
+ * CanonicalPluginRegistryFactory&lt;MyPlugin, String&gt; factory = CanonicalPluginRegistryFactory
+ * 		.of(plugins -> IndexedPluginRegistry.from(plugins, DelimiterResolver.annotated()));
+ *
+ * PluginRegistry&lt;MyPlugin, String&gt; registry = factory.getRegistry(pluginsForTenant);
+ * ...
+ * factory.release(registry);
+ * </pre>
+ *
+ * The factory holds on to every {@link PluginRegistry} until it has been released as often as it was handed out via
+ * {@link #release(PluginRegistry)}. It estimates the heap retained by the registries it holds, including their index
+ * structures, via {@link #getRetainedSize(PluginRegistry)} and {@link #getRetainedSize()}, compared to creating a
+ * {@link PluginRegistry} per request via {@link #getUnsharedSize()}. The estimates don't include the {@link Plugin}s
+ * themselves and reflect the state of the registries at the time of the invocation, i.e. they grow in case a
+ * registry populates caches on lookups.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class CanonicalPluginRegistryFactory<T extends Plugin<S>, S> {
+
+	private final Function<List<T>, ? extends PluginRegistry<T, S>> factory;
+	private final Comparator<? super T> comparator;
+	private final Map<Snapshot, Entry<T, S>> registries = new ConcurrentHashMap<>();
+	private final Map<PluginRegistry<T, S>, Snapshot> snapshots = Collections.synchronizedMap(new IdentityHashMap<>());
+
+	private CanonicalPluginRegistryFactory(Function<List<T>, ? extends PluginRegistry<T, S>> factory,
+			Comparator<? super T> comparator) {
+
+		this.factory = factory;
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Creates a new {@link CanonicalPluginRegistryFactory} creating {@link OrderAwarePluginRegistry} instances.
+	 *
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CanonicalPluginRegistryFactory<T, S> create() {
+		return of(OrderAwarePluginRegistry::of);
+	}
+
+	/**
+	 * Creates a new {@link CanonicalPluginRegistryFactory} using the given {@link Function} to create a
+	 * {@link PluginRegistry} for each distinct {@link Plugin} sequence. The created registries are expected to order
+	 * the {@link Plugin}s by {@link org.springframework.core.Ordered} and {@link org.springframework.core.annotation.Order}.
+	 *
+	 * @param factory must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CanonicalPluginRegistryFactory<T, S> of(
+			Function<List<T>, ? extends PluginRegistry<T, S>> factory) {
+		return of(factory, OrderAwarePluginRegistry.DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link CanonicalPluginRegistryFactory} using the given {@link Function} to create a
+	 * {@link PluginRegistry} for each distinct {@link Plugin} sequence. The {@link Plugin}s are sorted by the given
+	 * {@link Comparator} before they're handed to the {@link Function}, which is expected to create registries using
+	 * the same {@link Comparator}.
+	 *
+	 * @param factory must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CanonicalPluginRegistryFactory<T, S> of(
+			Function<List<T>, ? extends PluginRegistry<T, S>> factory, Comparator<? super T> comparator) {
+
+		Assert.notNull(factory, "Factory function must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new CanonicalPluginRegistryFactory<>(factory, comparator);
+	}
+
+	/**
+	 * Returns the {@link PluginRegistry} for the given {@link Plugin}s. Returns the same instance for the identical
+	 * {@link Plugin} instances, unless their order can't be told apart by the {@link Comparator} and they're handed in
+	 * in a different order.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 * @see #release(PluginRegistry)
+	 */
+	@SuppressWarnings("unchecked")
+	public PluginRegistry<T, S> getRegistry(List<? extends T> plugins) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+
+		Object[] elements = plugins.stream().filter(Objects::nonNull).sorted(comparator).toArray();
+		List<T> sorted = (List<T>) (List<?>) Arrays.asList(elements);
+		Snapshot requested = new Snapshot(sorted);
+
+		Entry<T, S> existing = registries.computeIfPresent(requested, (__, it) -> it.retain());
+
+		if (existing != null) {
+			return existing.registry;
+		}
+
+		// Create the registry outside of the map's lock to allow the factory function to obtain registries, too
+		PluginRegistry<T, S> registry = factory.apply(Collections.unmodifiableList(sorted));
+		Snapshot key = getSnapshot(registry, requested);
+		Entry<T, S> created = new Entry<>(registry);
+
+		return registries.compute(key, (__, it) -> {
+
+			if (it != null) {
+				return it.retain();
+			}
+
+			snapshots.put(registry, key);
+
+			return created.retain();
+
+		}).registry;
+	}
+
+	/**
+	 * Releases the given {@link PluginRegistry} obtained from {@link #getRegistry(List)}. The factory drops the
+	 * {@link PluginRegistry} once it was released as often as it was handed out.
+	 *
+	 * @param registry must not be {@literal null}.
+	 */
+	public void release(PluginRegistry<T, S> registry) {
+
+		Assert.notNull(registry, "PluginRegistry must not be null!");
+
+		Snapshot snapshot = snapshots.get(registry);
+
+		if (snapshot == null) {
+			return;
+		}
+
+		registries.computeIfPresent(snapshot, (key, entry) -> {
+
+			if (entry.registry != registry || entry.references.decrementAndGet() > 0) {
+				return entry;
+			}
+
+			snapshots.remove(registry);
+
+			return null;
+		});
+	}
+
+	/**
+	 * Returns the number of distinct {@link PluginRegistry} instances currently held.
+	 *
+	 * @return
+	 */
+	public int getRegistryCount() {
+		return registries.size();
+	}
+
+	/**
+	 * Returns the estimated heap in bytes the given {@link PluginRegistry} retains, i.e. its estimated size divided by
+	 * the number of times it is currently handed out.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @return the estimated size or {@literal 0} if the registry is not held by the current factory.
+	 */
+	public long getRetainedSize(PluginRegistry<T, S> registry) {
+
+		Assert.notNull(registry, "PluginRegistry must not be null!");
+
+		Snapshot snapshot = snapshots.get(registry);
+		Entry<T, S> entry = snapshot == null ? null : registries.get(snapshot);
+
+		if (entry == null || entry.registry != registry) {
+			return 0;
+		}
+
+		return HeapSizeEstimator.estimate(registry) / Math.max(1, entry.references.get());
+	}
+
+	/**
+	 * Returns the estimated heap in bytes retained by all registries held by the factory. Structures shared between
+	 * the registries are only counted once.
+	 *
+	 * @return
+	 */
+	public long getRetainedSize() {
+
+		HeapSizeEstimator estimator = new HeapSizeEstimator();
+
+		return registries.values().stream().mapToLong(it -> estimator.add(it.registry)).sum();
+	}
+
+	/**
+	 * Returns the estimated heap in bytes that would be retained if a separate {@link PluginRegistry} was created for
+	 * every request not released yet.
+	 *
+	 * @return
+	 */
+	public long getUnsharedSize() {
+
+		return registries.values().stream() //
+				.mapToLong(it -> HeapSizeEstimator.estimate(it.registry) * it.references.get()) //
+				.sum();
+	}
+
+	/**
+	 * Returns the {@link Snapshot} to identify the given, newly created {@link PluginRegistry} by. Prefers the
+	 * {@link Plugin} {@link List} held by the registry itself, so that the factory doesn't keep a second copy of it.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param requested must not be {@literal null}.
+	 * @return
+	 */
+	private static Snapshot getSnapshot(PluginRegistry<?, ?> registry, Snapshot requested) {
+
+		Snapshot own = new Snapshot(registry.getPlugins());
+
+		return own.equals(requested) ? own : requested;
+	}
+
+	/**
+	 * A sequence of {@link Plugin}s compared by identity.
+	 *
+	 * @author agent
+	 */
+	private static final class Snapshot {
+
+		private final List<?> elements;
+		private final int hashCode;
+
+		Snapshot(List<?> elements) {
+
+			int hashCode = 1;
+
+			for (Object element : elements) {
+				hashCode = 31 * hashCode + System.identityHashCode(element);
+			}
+
+			this.elements = elements instanceof RandomAccess ? elements : new ArrayList<>(elements);
+			this.hashCode = hashCode;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object obj) {
+
+			if (this == obj) {
+				return true;
+			}
+
+			if (!(obj instanceof Snapshot)) {
+				return false;
+			}
+
+			List<?> other = ((Snapshot) obj).elements;
+
+			if (other.size() != elements.size()) {
+				return false;
+			}
+
+			for (int i = 0; i < elements.size(); i++) {
+				if (elements.get(i) != other.get(i)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * A canonical {@link PluginRegistry} and the number of times it is currently handed out.
+	 *
+	 * @author agent
+	 */
+	private static class Entry<T extends Plugin<S>, S> {
+
+		private final PluginRegistry<T, S> registry;
+		private final AtomicInteger references = new AtomicInteger();
+
+		Entry(PluginRegistry<T, S> registry) {
+			this.registry = registry;
+		}
+
+		/**
+		 * Registers another reference to the registry.
+		 *
+		 * @return the current {@link Entry}.
+		 */
+		Entry<T, S> retain() {
+
+			references.incrementAndGet();
+
+			return this;
+		}
+	}
+}
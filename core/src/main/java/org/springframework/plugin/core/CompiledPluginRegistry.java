@@ -0,0 +1,539 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link OrderAwarePluginRegistry} that compiles its plugins into a dispatch chain on initialization. The chain is a
+ * class generated per registry that invokes {@link Plugin#supports(Object)} of each plugin from a dedicated call site.
+ * Thus every call site only ever sees a single plugin type and the JIT is able to inline the plugins' implementations,
+ * which is not possible for the single, megamorphic call site used by {@link SimplePluginRegistry}. Plugins declaring
+ * their delimiters via a {@link DelimiterResolver} are not part of the chain but looked up in a hash index, just like
+ * in {@link IndexedPluginRegistry}.
+ * <p>
+ * Generating the chain is not free: every generated class is defined in a dedicated {@link ClassLoader}, so that it
+ * can be garbage collected once no longer used, and thus occupies metaspace for both the class and its loader on top
+ * of the time spent generating and loading it on initialization. The generated classes are therefore cached by the
+ * sequence of types of the chained plugins, so that registries for identical snapshots of plugins, e.g. re-created on
+ * every refresh of an application context, share a single class. The cache only references the classes softly.
+ * Registries created for ever changing sequences of plugin types still generate a class each and should rather use a
+ * {@link SimplePluginRegistry} or {@link IndexedPluginRegistry}.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class CompiledPluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private final DelimiterResolver resolver;
+
+	private volatile Dispatch<T> dispatch;
+
+	/**
+	 * Creates a new {@link CompiledPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 */
+	protected CompiledPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			DelimiterResolver resolver) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(resolver, "DelimiterResolver must not be null!");
+
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Creates a new {@link CompiledPluginRegistry} for the given {@link Plugin}s compiling all of them into the dispatch
+	 * chain.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CompiledPluginRegistry<T, S> from(List<? extends T> plugins) {
+		return from(plugins, DelimiterResolver.NONE);
+	}
+
+	/**
+	 * Creates a new {@link CompiledPluginRegistry} for the given {@link Plugin}s and {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CompiledPluginRegistry<T, S> from(List<? extends T> plugins,
+			DelimiterResolver resolver) {
+		return from(plugins, DEFAULT_COMPARATOR, resolver);
+	}
+
+	/**
+	 * Creates a new {@link CompiledPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> CompiledPluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, DelimiterResolver resolver) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new CompiledPluginRegistry<>(plugins, comparator, resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.dispatch = new Dispatch<>(result, resolver);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public CompiledPluginRegistry<T, S> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator(), resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(S delimiter) {
+
+		Dispatch<T> dispatch = getDispatch();
+		Positions<T> declared = dispatch.getDeclared(delimiter);
+
+		if (dispatch.undeclared.length == 0) {
+			return declared;
+		}
+
+		return new Candidates<T>(dispatch.plugins, declared, dispatch.undeclared) {
+
+			@Override
+			protected boolean supports(T plugin) {
+				return plugin.supports(delimiter);
+			}
+
+			@Override
+			protected int next(int from, int to) {
+				return dispatch.chain.next(delimiter, from, to);
+			}
+		};
+	}
+
+	private Dispatch<T> getDispatch() {
+
+		ensureInitialized();
+
+		return dispatch;
+	}
+
+	/**
+	 * Base class of the generated dispatch chains. Only public to be accessible from the generated subclasses defined in
+	 * a dedicated {@link ClassLoader}, not meant to be used directly.
+	 *
+	 * @author agent
+	 */
+	public static abstract class Chain {
+
+		protected final Plugin<Object>[] plugins;
+
+		protected Chain(Plugin<Object>[] plugins) {
+			this.plugins = plugins;
+		}
+
+		/**
+		 * Returns the index of the first plugin within the given bounds supporting the given delimiter.
+		 *
+		 * @param delimiter can be {@literal null}.
+		 * @param from the index of the first plugin to consider.
+		 * @param to the index of the first plugin not to consider anymore.
+		 * @return the index of the supporting plugin or {@literal -1} if none of the plugins supports the delimiter.
+		 */
+		public abstract int next(Object delimiter, int from, int to);
+	}
+
+	/**
+	 * The index of declared delimiters and the compiled chain of plugins not declaring delimiters.
+	 *
+	 * @author agent
+	 */
+	private static class Dispatch<T> {
+
+		private final List<T> plugins;
+		private final Map<Object, Positions<T>> declared;
+		private final int[] undeclared;
+		private final Chain chain;
+
+		@SuppressWarnings("unchecked")
+		Dispatch(List<T> plugins, DelimiterResolver resolver) {
+
+			Map<Object, List<Integer>> positions = new HashMap<>();
+			List<Integer> undeclared = new ArrayList<>();
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				Optional<Set<Object>> delimiters = resolver
+						.resolveDelimiters(AopProxyUtils.ultimateTargetClass(plugins.get(i)));
+
+				if (!delimiters.isPresent()) {
+					undeclared.add(i);
+					continue;
+				}
+
+				for (Object delimiter : delimiters.get()) {
+					positions.computeIfAbsent(delimiter, __ -> new ArrayList<>()).add(i);
+				}
+			}
+
+			this.plugins = plugins;
+			this.declared = new HashMap<>(positions.size() * 2);
+			this.undeclared = undeclared.stream().mapToInt(Integer::intValue).toArray();
+
+			positions.forEach((delimiter, it) -> this.declared.put(delimiter,
+					Positions.of(it.stream().mapToInt(Integer::intValue).toArray(), plugins)));
+
+			@SuppressWarnings("rawtypes")
+			Plugin<Object>[] chained = new Plugin[this.undeclared.length];
+
+			for (int i = 0; i < chained.length; i++) {
+				chained[i] = (Plugin<Object>) plugins.get(this.undeclared[i]);
+			}
+
+			this.chain = ChainCompiler.compile(chained);
+		}
+
+		Positions<T> getDeclared(Object delimiter) {
+			return declared.getOrDefault(delimiter, Positions.none());
+		}
+	}
+
+	/**
+	 * {@link Chain} asking the plugins in a plain loop. Used if the dispatch chain cannot be generated.
+	 *
+	 * @author agent
+	 */
+	private static class LoopChain extends Chain {
+
+		LoopChain(Plugin<Object>[] plugins) {
+			super(plugins);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.plugin.core.CompiledPluginRegistry.Chain#next(java.lang.Object, int, int)
+		 */
+		@Override
+		public int next(Object delimiter, int from, int to) {
+
+			for (int i = from; i < to; i++) {
+				if (plugins[i].supports(delimiter)) {
+					return i;
+				}
+			}
+
+			return -1;
+		}
+	}
+
+	/**
+	 * Generates {@link Chain} implementations invoking {@link Plugin#supports(Object)} of each plugin from a dedicated
+	 * call site. The call sites are split into segment methods of {@value #SEGMENT_SIZE} plugins each, so that every
+	 * generated method stays well below the size up to which HotSpot compiles methods at all (8000 bytes of bytecode).
+	 * {@link Chain#next(Object, int, int)} jumps to the segment containing the first plugin to consider and asks the
+	 * following segments in turn. Falls back to a {@link LoopChain} if the class cannot be generated, e.g. because it
+	 * exceeds the limits of the class file format.
+	 *
+	 * @author agent
+	 */
+	private static class ChainCompiler {
+
+		private static final Logger LOG = LoggerFactory.getLogger(ChainCompiler.class);
+
+		private static final int SEGMENT_SHIFT = 6;
+		private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+		private static final AtomicLong COUNTER = new AtomicLong();
+		private static final Map<List<Class<?>>, Optional<Constructor<?>>> CONSTRUCTORS = //
+				new ConcurrentReferenceHashMap<>();
+
+		private static final String CHAIN = Type.getInternalName(Chain.class);
+		private static final String PLUGIN = Type.getInternalName(Plugin.class);
+		private static final String PLUGINS = Type.getDescriptor(Plugin[].class);
+		private static final String NEXT = "(Ljava/lang/Object;II)I";
+
+		static Chain compile(Plugin<Object>[] plugins) {
+
+			List<Class<?>> types = new ArrayList<>(plugins.length);
+
+			for (Plugin<Object> plugin : plugins) {
+				types.add(plugin.getClass());
+			}
+
+			Optional<Constructor<?>> constructor = CONSTRUCTORS.get(types);
+
+			// Concurrent compilations of the same types might both generate a class, only the first one is cached
+			if (constructor == null) {
+
+				constructor = generate(plugins.length);
+
+				Optional<Constructor<?>> existing = CONSTRUCTORS.putIfAbsent(types, constructor);
+				constructor = existing == null ? constructor : existing;
+			}
+
+			try {
+
+				return constructor.isPresent() //
+						? (Chain) constructor.get().newInstance((Object) plugins) //
+						: new LoopChain(plugins);
+
+			} catch (ReflectiveOperationException o_O) {
+				throw new IllegalStateException("Unable to instantiate dispatch chain!", o_O);
+			}
+		}
+
+		/**
+		 * Generates and defines a {@link Chain} class for the given number of plugins.
+		 *
+		 * @param size the number of plugins.
+		 * @return the constructor of the generated class or {@link Optional#empty()} if it cannot be generated.
+		 */
+		private static Optional<Constructor<?>> generate(int size) {
+
+			String name = CHAIN + "$$Generated$" + COUNTER.incrementAndGet();
+
+			try {
+
+				byte[] bytes = generate(name, size);
+				Class<?> type = new ChainClassLoader(Chain.class.getClassLoader()).define(name.replace('/', '.'), bytes);
+
+				return Optional.of(type.getConstructor(Plugin[].class));
+
+			} catch (RuntimeException | LinkageError | ReflectiveOperationException o_O) {
+
+				LOG.debug("Unable to generate dispatch chain for {} plugins, falling back to a loop.", size, o_O);
+
+				return Optional.empty();
+			}
+		}
+
+		private static byte[] generate(String name, int size) {
+
+			ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+			writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, CHAIN, null);
+
+			MethodVisitor constructor = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "(" + PLUGINS + ")V", null, null);
+			constructor.visitCode();
+			constructor.visitVarInsn(Opcodes.ALOAD, 0);
+			constructor.visitVarInsn(Opcodes.ALOAD, 1);
+			constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, CHAIN, "<init>", "(" + PLUGINS + ")V", false);
+			constructor.visitInsn(Opcodes.RETURN);
+			constructor.visitMaxs(0, 0);
+			constructor.visitEnd();
+
+			int segments = (size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT;
+
+			generateNext(writer, name, segments);
+
+			for (int segment = 0; segment < segments; segment++) {
+				generateSegment(writer, segment, segment << SEGMENT_SHIFT, Math.min(size, (segment + 1) << SEGMENT_SHIFT));
+			}
+
+			writer.visitEnd();
+
+			return writer.toByteArray();
+		}
+
+		/**
+		 * Generates {@link Chain#next(Object, int, int)} jumping to the segment containing the plugin at {@code from} and
+		 * asking the segments in turn until one of them returns a position or the segment starts at or beyond {@code to}.
+		 */
+		private static void generateNext(ClassWriter writer, String name, int segments) {
+
+			MethodVisitor next = writer.visitMethod(Opcodes.ACC_PUBLIC, "next", NEXT, null, null);
+			next.visitCode();
+
+			Label end = new Label();
+			Label[] entries = new Label[segments];
+
+			for (int i = 0; i < segments; i++) {
+				entries[i] = new Label();
+			}
+
+			// Jump to the segment of the first plugin to consider
+			if (segments > 0) {
+				next.visitVarInsn(Opcodes.ILOAD, 2);
+				pushInt(next, SEGMENT_SHIFT);
+				next.visitInsn(Opcodes.IUSHR);
+				next.visitTableSwitchInsn(0, segments - 1, end, entries);
+			}
+
+			for (int i = 0; i < segments; i++) {
+
+				next.visitLabel(entries[i]);
+
+				// if (start >= to) return -1;
+				pushInt(next, i << SEGMENT_SHIFT);
+				next.visitVarInsn(Opcodes.ILOAD, 3);
+				next.visitJumpInsn(Opcodes.IF_ICMPGE, end);
+
+				// int result = next$i(delimiter, from, to); if (result >= 0) return result;
+				next.visitVarInsn(Opcodes.ALOAD, 0);
+				next.visitVarInsn(Opcodes.ALOAD, 1);
+				next.visitVarInsn(Opcodes.ILOAD, 2);
+				next.visitVarInsn(Opcodes.ILOAD, 3);
+				next.visitMethodInsn(Opcodes.INVOKESPECIAL, name, "next$" + i, NEXT, false);
+				next.visitInsn(Opcodes.DUP);
+				next.visitVarInsn(Opcodes.ISTORE, 4);
+				Label found = new Label();
+				next.visitJumpInsn(Opcodes.IFGE, found);
+				next.visitJumpInsn(Opcodes.GOTO, i + 1 < segments ? entries[i + 1] : end);
+				next.visitLabel(found);
+				next.visitVarInsn(Opcodes.ILOAD, 4);
+				next.visitInsn(Opcodes.IRETURN);
+			}
+
+			next.visitLabel(end);
+			next.visitInsn(Opcodes.ICONST_M1);
+			next.visitInsn(Opcodes.IRETURN);
+			next.visitMaxs(0, 0);
+			next.visitEnd();
+		}
+
+		/**
+		 * Generates a private segment method asking the plugins from {@code start} (inclusive) to {@code end} (exclusive)
+		 * from dedicated call sites. Starts at {@code from} if it lies within the segment, at the first plugin of the
+		 * segment otherwise.
+		 */
+		private static void generateSegment(ClassWriter writer, int segment, int start, int end) {
+
+			MethodVisitor next = writer.visitMethod(Opcodes.ACC_PRIVATE, "next$" + segment, NEXT, null, null);
+			next.visitCode();
+
+			int size = end - start;
+			Label none = new Label();
+			Label[] entries = new Label[size];
+
+			for (int i = 0; i < size; i++) {
+				entries[i] = new Label();
+			}
+
+			// Jump to the first plugin to consider, start with the first one of the segment if from lies before it
+			next.visitVarInsn(Opcodes.ILOAD, 2);
+			pushInt(next, start);
+			next.visitJumpInsn(Opcodes.IF_ICMPLT, entries[0]);
+			next.visitVarInsn(Opcodes.ILOAD, 2);
+			next.visitTableSwitchInsn(start, end - 1, none, entries);
+
+			for (int i = 0; i < size; i++) {
+
+				int position = start + i;
+				Label skip = i + 1 < size ? entries[i + 1] : none;
+
+				next.visitLabel(entries[i]);
+
+				// if (position >= to) return -1;
+				pushInt(next, position);
+				next.visitVarInsn(Opcodes.ILOAD, 3);
+				next.visitJumpInsn(Opcodes.IF_ICMPGE, none);
+
+				// if (plugins[position].supports(delimiter)) return position;
+				next.visitVarInsn(Opcodes.ALOAD, 0);
+				next.visitFieldInsn(Opcodes.GETFIELD, CHAIN, "plugins", PLUGINS);
+				pushInt(next, position);
+				next.visitInsn(Opcodes.AALOAD);
+				next.visitVarInsn(Opcodes.ALOAD, 1);
+				next.visitMethodInsn(Opcodes.INVOKEINTERFACE, PLUGIN, "supports", "(Ljava/lang/Object;)Z", true);
+				next.visitJumpInsn(Opcodes.IFEQ, skip);
+				pushInt(next, position);
+				next.visitInsn(Opcodes.IRETURN);
+			}
+
+			next.visitLabel(none);
+			next.visitInsn(Opcodes.ICONST_M1);
+			next.visitInsn(Opcodes.IRETURN);
+			next.visitMaxs(0, 0);
+			next.visitEnd();
+		}
+
+		private static void pushInt(MethodVisitor visitor, int value) {
+
+			if (value >= -1 && value <= 5) {
+				visitor.visitInsn(Opcodes.ICONST_0 + value);
+			} else if (value <= Byte.MAX_VALUE) {
+				visitor.visitIntInsn(Opcodes.BIPUSH, value);
+			} else if (value <= Short.MAX_VALUE) {
+				visitor.visitIntInsn(Opcodes.SIPUSH, value);
+			} else {
+				visitor.visitLdcInsn(value);
+			}
+		}
+	}
+
+	/**
+	 * {@link ClassLoader} defining a single generated {@link Chain} class.
+	 *
+	 * @author agent
+	 */
+	private static class ChainClassLoader extends ClassLoader {
+
+		ChainClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
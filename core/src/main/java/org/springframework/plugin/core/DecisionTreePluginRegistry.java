@@ -0,0 +1,302 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for composite delimiters that compiles the {@link AttributePredicate}s declared by
+ * {@link AttributeMatchingPlugin}s into a decision tree on initialization. Each inner node of the tree tests a single
+ * attribute, declared via {@link DelimiterAttributes}, by a hash lookup of its value and each leaf holds the shared,
+ * immutable {@link List} of matching plugins in registry order. Attributes are tested in declaration order, at most
+ * once per lookup and only if any of the remaining candidates constrains them. Subtrees for the same set of candidates
+ * are shared, so that the tree actually forms a directed acyclic graph. {@link Plugin#supports(Object)} is only
+ * invoked for plugins not declaring a predicate.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class DecisionTreePluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private final DelimiterAttributes<S> attributes;
+
+	private volatile Tree<T, S> tree;
+
+	/**
+	 * Creates a new {@link DecisionTreePluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterAttributes}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param attributes must not be {@literal null}.
+	 */
+	protected DecisionTreePluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			DelimiterAttributes<S> attributes) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(attributes, "DelimiterAttributes must not be null!");
+
+		this.attributes = attributes;
+	}
+
+	/**
+	 * Creates a new {@link DecisionTreePluginRegistry} for the given {@link Plugin}s and {@link DelimiterAttributes}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param attributes must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> DecisionTreePluginRegistry<T, S> from(List<? extends T> plugins,
+			DelimiterAttributes<S> attributes) {
+		return from(plugins, DEFAULT_COMPARATOR, attributes);
+	}
+
+	/**
+	 * Creates a new {@link DecisionTreePluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterAttributes}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param attributes must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> DecisionTreePluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, DelimiterAttributes<S> attributes) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new DecisionTreePluginRegistry<>(plugins, comparator, attributes);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.tree = new Tree<>(result, attributes);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public DecisionTreePluginRegistry<T, S> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator(), attributes);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(S delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Tree<T, S> tree = getTree();
+
+		return Candidates.of(tree.plugins, tree.lookup(delimiter).positions, tree.undeclared, delimiter);
+	}
+
+	private Tree<T, S> getTree() {
+
+		ensureInitialized();
+
+		return tree;
+	}
+
+	/**
+	 * The decision tree compiled from the {@link AttributePredicate}s of all declaring plugins.
+	 *
+	 * @author agent
+	 */
+	private static class Tree<T, S> {
+
+		private final List<T> plugins;
+		private final DelimiterAttributes<S> attributes;
+		private final AttributePredicate[] predicates;
+		private final int[] undeclared;
+		private final Map<List<Object>, Node<T>> nodes;
+		private final Node<T> root;
+
+		Tree(List<T> plugins, DelimiterAttributes<S> attributes) {
+
+			List<String> names = attributes.getNames();
+			BitSet declared = new BitSet(plugins.size());
+			List<Integer> undeclared = new ArrayList<>();
+
+			this.plugins = plugins;
+			this.attributes = attributes;
+			this.predicates = new AttributePredicate[plugins.size()];
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				T plugin = plugins.get(i);
+
+				if (!(plugin instanceof AttributeMatchingPlugin)) {
+					undeclared.add(i);
+					continue;
+				}
+
+				AttributePredicate predicate = ((AttributeMatchingPlugin<?>) plugin).getPredicate();
+
+				Assert.notNull(predicate, () -> String.format("Plugin %s must not declare a null predicate!", plugin));
+
+				for (String attribute : predicate.getAttributes()) {
+					Assert.isTrue(names.contains(attribute),
+							() -> String.format("Plugin %s constrains undeclared attribute %s!", plugin, attribute));
+				}
+
+				predicates[i] = predicate;
+				declared.set(i);
+			}
+
+			this.undeclared = undeclared.stream().mapToInt(Integer::intValue).toArray();
+			this.nodes = new HashMap<>();
+			this.root = compile(0, declared);
+		}
+
+		Node<T> lookup(S delimiter) {
+
+			Node<T> current = root;
+
+			while (current.attribute >= 0) {
+
+				Node<T> next = current.branches.get(attributes.getAttribute(delimiter, current.attribute));
+				current = next == null ? current.otherwise : next;
+			}
+
+			return current;
+		}
+
+		/**
+		 * Compiles the (sub-)tree for the given candidates testing the attribute with the given index first.
+		 *
+		 * @param attribute the index of the attribute to test.
+		 * @param candidates the positions of the plugins still matching, must not be {@literal null}.
+		 * @return
+		 */
+		private Node<T> compile(int attribute, BitSet candidates) {
+
+			List<Object> key = Arrays.asList(attribute, candidates);
+			Node<T> node = nodes.get(key);
+
+			if (node != null) {
+				return node;
+			}
+
+			List<String> names = attributes.getNames();
+
+			// Skip attributes not constrained by any candidate
+			while (attribute < names.size() && !isConstrained(candidates, names.get(attribute))) {
+				attribute++;
+			}
+
+			if (attribute == names.size() || candidates.isEmpty()) {
+				node = Node.leaf(candidates, plugins);
+			} else {
+
+				String name = names.get(attribute);
+				Set<Object> values = new LinkedHashSet<>();
+
+				// Candidates allowing no value at all don't end up in any branch
+				candidates.stream() //
+						.mapToObj(it -> predicates[it].getAllowedValues(name)) //
+						.filter(it -> it != null) //
+						.forEach(values::addAll);
+
+				BitSet unconstrained = new BitSet(plugins.size());
+
+				candidates.stream() //
+						.filter(it -> predicates[it].getAllowedValues(name) == null) //
+						.forEach(unconstrained::set);
+
+				Map<Object, Node<T>> branches = new HashMap<>(values.size() * 2);
+
+				for (Object value : values) {
+
+					BitSet matching = (BitSet) unconstrained.clone();
+
+					candidates.stream() //
+							.filter(it -> predicates[it].getAllowedValues(name) != null) //
+							.filter(it -> predicates[it].getAllowedValues(name).contains(value)) //
+							.forEach(matching::set);
+
+					branches.put(value, compile(attribute + 1, matching));
+				}
+
+				node = new Node<>(attribute, branches, compile(attribute + 1, unconstrained), null);
+			}
+
+			nodes.put(key, node);
+
+			return node;
+		}
+
+		private boolean isConstrained(BitSet candidates, String attribute) {
+			return candidates.stream().anyMatch(it -> predicates[it].getAllowedValues(attribute) != null);
+		}
+	}
+
+	/**
+	 * A node of the decision tree, either testing an attribute or a leaf holding the matching plugins.
+	 *
+	 * @author agent
+	 */
+	private static class Node<T> {
+
+		private final int attribute;
+		private final Map<Object, Node<T>> branches;
+		private final Node<T> otherwise;
+		private final Positions<T> positions;
+
+		Node(int attribute, Map<Object, Node<T>> branches, Node<T> otherwise, Positions<T> positions) {
+
+			this.attribute = attribute;
+			this.branches = branches;
+			this.otherwise = otherwise;
+			this.positions = positions;
+		}
+
+		static <T> Node<T> leaf(BitSet candidates, List<T> plugins) {
+			return new Node<>(-1, Collections.emptyMap(), null, Positions.of(candidates.stream().toArray(), plugins));
+		}
+	}
+}
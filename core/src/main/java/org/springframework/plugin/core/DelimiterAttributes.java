@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.util.Assert;
+
+/**
+ * The named attributes of a composite delimiter type and the {@link Function}s to extract them. The order of
+ * declaration is the order in which {@link DecisionTreePluginRegistry} tests the attributes, so attributes
+ * distinguishing most plugins should be declared first.
+ *
+ * <pre class="code">
+ * DelimiterAttributes.of("tenant", Order::getTenant) //
+ * 		.and("region", Order::getRegion) //
+ * 		.and("channel", Order::getChannel);
+ * </pre>
+ *
+ * @author agent
+ * @since 2.0
+ * @see AttributePredicate
+ */
+public final class DelimiterAttributes<S> {
+
+	private final List<String> names;
+	private final List<Function<? super S, ?>> extractors;
+
+	private DelimiterAttributes(List<String> names, List<Function<? super S, ?>> extractors) {
+		this.names = names;
+		this.extractors = extractors;
+	}
+
+	/**
+	 * Creates a new {@link DelimiterAttributes} with the given attribute.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param extractor must not be {@literal null}.
+	 * @return
+	 */
+	public static <S> DelimiterAttributes<S> of(String name, Function<? super S, ?> extractor) {
+		return new DelimiterAttributes<S>(Collections.emptyList(), Collections.emptyList()).and(name, extractor);
+	}
+
+	/**
+	 * Returns a new {@link DelimiterAttributes} additionally declaring the given attribute.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param extractor must not be {@literal null}.
+	 * @return
+	 */
+	public DelimiterAttributes<S> and(String name, Function<? super S, ?> extractor) {
+
+		Assert.hasText(name, "Name must not be null or empty!");
+		Assert.notNull(extractor, "Extractor must not be null!");
+		Assert.isTrue(!names.contains(name), () -> String.format("Attribute %s already declared!", name));
+
+		List<String> names = new ArrayList<>(this.names);
+		List<Function<? super S, ?>> extractors = new ArrayList<>(this.extractors);
+
+		names.add(name);
+		extractors.add(extractor);
+
+		return new DelimiterAttributes<S>(Collections.unmodifiableList(names), Collections.unmodifiableList(extractors));
+	}
+
+	/**
+	 * Returns the value of the attribute with the given name for the given delimiter.
+	 *
+	 * @param delimiter must not be {@literal null}.
+	 * @param name must not be {@literal null}.
+	 * @return
+	 * @throws IllegalArgumentException in case no attribute with the given name is declared.
+	 */
+	public Object getAttribute(S delimiter, String name) {
+
+		int index = names.indexOf(name);
+
+		Assert.isTrue(index >= 0, () -> String.format("Unknown attribute %s!", name));
+
+		return extractors.get(index).apply(delimiter);
+	}
+
+	/**
+	 * Returns whether the given delimiter satisfies the given {@link AttributePredicate}.
+	 *
+	 * @param predicate must not be {@literal null}.
+	 * @param delimiter must not be {@literal null}.
+	 * @return
+	 */
+	public boolean matches(AttributePredicate predicate, S delimiter) {
+		return predicate.matches(name -> getAttribute(delimiter, name));
+	}
+
+	List<String> getNames() {
+		return names;
+	}
+
+	Object getAttribute(S delimiter, int index) {
+		return extractors.get(index).apply(delimiter);
+	}
+}
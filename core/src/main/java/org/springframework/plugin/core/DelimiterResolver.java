@@ -0,0 +1,111 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * Strategy to look up the delimiters a {@link Plugin} type statically declares to support. A {@link Plugin} type with
+ * declared delimiters is considered to support exactly those delimiters, which allows registries to select it without
+ * instantiating it or invoking {@link Plugin#supports(Object)}.
+ *
+ * @author agent
+ * @since 2.0
+ */
+@FunctionalInterface
+public interface DelimiterResolver {
+
+	/**
+	 * A {@link DelimiterResolver} that doesn't consider any {@link Plugin} type to declare delimiters.
+	 */
+	static final DelimiterResolver NONE = type -> Optional.empty();
+
+	/**
+	 * Returns a {@link DelimiterResolver} inspecting {@link PluginFor} annotations on the plugin type.
+	 *
+	 * @return
+	 */
+	static DelimiterResolver annotated() {
+		return AnnotationDelimiterResolver.INSTANCE;
+	}
+
+	/**
+	 * Returns a {@link DelimiterResolver} reading the delimiter index created by the {@code spring-plugin-indexer}
+	 * annotation processor from all {@code META-INF/spring.plugins} files available in the given {@link ClassLoader}.
+	 *
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @return
+	 */
+	static DelimiterResolver indexed(ClassLoader classLoader) {
+		return PluginIndexDelimiterResolver.load(classLoader);
+	}
+
+	/**
+	 * Returns a {@link DelimiterResolver} consulting the delimiter index available in the given {@link ClassLoader}
+	 * first and falling back to inspect {@link PluginFor} annotations for types not contained in the index.
+	 *
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @return
+	 */
+	static DelimiterResolver standard(ClassLoader classLoader) {
+
+		PluginIndexDelimiterResolver index = PluginIndexDelimiterResolver.load(classLoader);
+
+		return index.isEmpty() ? annotated() : index.orElse(annotated());
+	}
+
+	/**
+	 * Returns a {@link DelimiterResolver} inferring the delimiter from the bytecode of {@link Plugin#supports(Object)}
+	 * implementations that compare the delimiter to a single constant, e.g. {@code return "pdf".equals(delimiter);}.
+	 * Plugin types with any other implementation are considered to not declare delimiters. Use
+	 * {@link IndexedPluginRegistry#verifying()} to cross-check the inferred delimiters against the actual
+	 * implementations.
+	 *
+	 * @return
+	 */
+	static DelimiterResolver inferred() {
+		return BytecodeDelimiterResolver.INSTANCE;
+	}
+
+	/**
+	 * Returns the delimiters the given {@link Plugin} type declares to support.
+	 *
+	 * @param pluginType must not be {@literal null}.
+	 * @return the declared delimiters or {@link Optional#empty()} if the type does not declare any.
+	 */
+	Optional<Set<Object>> resolveDelimiters(Class<?> pluginType);
+
+	/**
+	 * Returns a {@link DelimiterResolver} that consults the given one in case the current one does not find any
+	 * declared delimiters.
+	 *
+	 * @param other must not be {@literal null}.
+	 * @return
+	 */
+	default DelimiterResolver orElse(DelimiterResolver other) {
+
+		Assert.notNull(other, "Other DelimiterResolver must not be null!");
+
+		return type -> {
+
+			Optional<Set<Object>> delimiters = resolveDelimiters(type);
+			return delimiters.isPresent() ? delimiters : other.resolveDelimiters(type);
+		};
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Strategy to look up the type of delimiters a {@link Plugin} type accepts at all, i.e. {@link Plugin#supports(Object)}
+ * is expected to return {@literal false} for all delimiters not being an instance of that type.
+ *
+ * @author agent
+ * @since 2.0
+ * @see TypedPluginRegistry
+ */
+@FunctionalInterface
+public interface DelimiterTypeResolver {
+
+	/**
+	 * Returns a {@link DelimiterTypeResolver} resolving the generic type argument the given {@link Plugin} type binds
+	 * for {@link Plugin}, falling back to {@link Object} in case it cannot be resolved.
+	 *
+	 * @return
+	 */
+	static DelimiterTypeResolver generic() {
+
+		return pluginType -> ClassUtils.resolvePrimitiveIfNecessary(ResolvableType //
+				.forClass(Plugin.class, pluginType) //
+				.getGeneric(0) //
+				.resolve(Object.class));
+	}
+
+	/**
+	 * Returns a {@link DelimiterTypeResolver} using the given explicitly declared delimiter types per {@link Plugin} type
+	 * and resolving the generic type argument for all other {@link Plugin} types.
+	 *
+	 * @param types must not be {@literal null}.
+	 * @return
+	 * @see #generic()
+	 */
+	static DelimiterTypeResolver declared(Map<Class<?>, Class<?>> types) {
+
+		Assert.notNull(types, "Types must not be null!");
+
+		Map<Class<?>, Class<?>> copy = new HashMap<>(types);
+		DelimiterTypeResolver fallback = generic();
+
+		return pluginType -> {
+
+			Class<?> type = copy.get(pluginType);
+
+			return type == null ? fallback.resolveDelimiterType(pluginType) : type;
+		};
+	}
+
+	/**
+	 * Returns the type of delimiters the given {@link Plugin} type accepts.
+	 *
+	 * @param pluginType must not be {@literal null}.
+	 * @return must not be {@literal null}.
+	 */
+	Class<?> resolveDelimiterType(Class<?> pluginType);
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for {@link Plugin}s using the constants of an enum as delimiters. The registry
+ * evaluates {@link Plugin#supports(Object)} once per plugin and enum constant on initialization and stores the
+ * supporting plugins in a table indexed by {@link Enum#ordinal()}. Thus, lookups are a single array access returning a
+ * shared, immutable {@link List}.
+ * <p>
+ * Plugins used with this registry have to implement {@link Plugin#supports(Object)} as a pure function of the enum
+ * constant handed to it, i.e. the result must not depend on any other state and must not change over the lifetime of
+ * the registry. Plugins violating this contract will see the result of the very first invocation for each constant.
+ * {@literal null} delimiters are not cached and still evaluated on each lookup.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class EnumPluginRegistry<T extends Plugin<E>, E extends Enum<E>> extends OrderAwarePluginRegistry<T, E> {
+
+	private final Class<E> type;
+	private final E[] constants;
+
+	private volatile List<T> snapshot;
+	private volatile Positions<T>[] table;
+
+	/**
+	 * Creates a new {@link EnumPluginRegistry} for the given enum type, {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected EnumPluginRegistry(Class<E> type, List<? extends T> plugins, Comparator<? super T> comparator) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(type, "Enum type must not be null!");
+		Assert.isTrue(type.isEnum(), () -> String.format("%s is not an enum type!", type.getName()));
+
+		this.type = type;
+		this.constants = type.getEnumConstants();
+	}
+
+	/**
+	 * Creates a new {@link EnumPluginRegistry} for the given enum type and {@link Plugin}s.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<E>, E extends Enum<E>> EnumPluginRegistry<T, E> from(Class<E> type,
+			List<? extends T> plugins) {
+		return from(type, plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link EnumPluginRegistry} for the given enum type, {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<E>, E extends Enum<E>> EnumPluginRegistry<T, E> from(Class<E> type,
+			List<? extends T> plugins, Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new EnumPluginRegistry<>(type, plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+		Positions<T>[] table = new Positions[constants.length];
+
+		for (E constant : constants) {
+
+			int[] positions = IntStream.range(0, result.size()) //
+					.filter(it -> result.get(it).supports(constant)) //
+					.toArray();
+
+			table[constant.ordinal()] = Positions.of(positions, result);
+		}
+
+		this.snapshot = result;
+		this.table = table;
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public EnumPluginRegistry<T, E> reverse() {
+		return from(type, new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(E delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Positions<T>[] table = getTable();
+
+		return Candidates.of(snapshot, table[delimiter.ordinal()], Candidates.NO_POSITIONS, delimiter);
+	}
+
+	private Positions<T>[] getTable() {
+
+		ensureInitialized();
+
+		return table;
+	}
+}
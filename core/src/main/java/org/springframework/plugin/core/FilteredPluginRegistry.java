@@ -0,0 +1,619 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.util.Assert;
+
+/**
+ * View of a {@link PluginRegistry} only containing the {@link Plugin}s matching a {@link Predicate}. The view refers to
+ * the snapshot of the {@link Plugin}s of the underlying registry and marks the matching ones in a bitmap that is
+ * computed once on first access. Thus it neither copies nor re-sorts the {@link Plugin}s. Lookups by delimiter only
+ * ask the marked {@link Plugin}s via {@link Plugin#supports(Object)}. In case the underlying registry answers lookups
+ * from an index, they are delegated to it, restricted to the positions of the marked {@link Plugin}s.
+ *
+ * @author agent
+ * @since 2.0
+ * @see PluginRegistry#filter(Predicate)
+ * @see PluginRegistry#narrow(Class)
+ */
+class FilteredPluginRegistry<T extends Plugin<S>, S> implements PluginRegistry<T, S> {
+
+	private final PluginRegistry<? super T, S> registry;
+	private final Predicate<Object> predicate;
+	private final Map<Class<?>, PluginRegistry<?, ?>> narrowed = new ConcurrentHashMap<>();
+
+	private volatile View<T> view;
+
+	private FilteredPluginRegistry(PluginRegistry<? super T, S> registry, Predicate<Object> predicate) {
+
+		this.registry = registry;
+		this.predicate = predicate;
+	}
+
+	/**
+	 * Creates a new {@link FilteredPluginRegistry} for the given {@link PluginRegistry} and {@link Predicate}.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param predicate must not be {@literal null}.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static <S, T extends Plugin<S>> FilteredPluginRegistry<T, S> of(PluginRegistry<T, S> registry,
+			Predicate<? super T> predicate) {
+
+		Assert.notNull(registry, "PluginRegistry must not be null!");
+		Assert.notNull(predicate, "Predicate must not be null!");
+
+		return new FilteredPluginRegistry<>(registry, it -> ((Predicate<Object>) predicate).test(it));
+	}
+
+	/**
+	 * Creates a new {@link FilteredPluginRegistry} for the given {@link PluginRegistry} only containing the
+	 * {@link Plugin}s of the given type.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	static <S, T extends Plugin<S>, U extends T> FilteredPluginRegistry<U, S> narrow(PluginRegistry<T, S> registry,
+			Class<U> type) {
+
+		Assert.notNull(registry, "PluginRegistry must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+
+		return new FilteredPluginRegistry<>(registry, type::isInstance);
+	}
+
+	/**
+	 * Returns the {@link FilteredPluginRegistry} for the given {@link PluginRegistry} only containing the {@link Plugin}s
+	 * of the given type from the given cache, creating and registering it if necessary. The cache is expected to be held
+	 * by the registry, so that the views go away together with it.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param cache must not be {@literal null}.
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	static <S, T extends Plugin<S>, U extends T> PluginRegistry<U, S> narrow(PluginRegistry<T, S> registry,
+			Class<U> type, Map<Class<?>, PluginRegistry<?, ?>> cache) {
+
+		Assert.notNull(cache, "Cache must not be null!");
+
+		return (PluginRegistry<U, S>) cache.computeIfAbsent(type, __ -> narrow(registry, type));
+	}
+
+	/**
+	 * Returns a view on the same underlying {@link PluginRegistry} additionally applying the given {@link Predicate}.
+	 *
+	 * @see org.springframework.plugin.core.PluginRegistry#filter(java.util.function.Predicate)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public PluginRegistry<T, S> filter(Predicate<? super T> predicate) {
+
+		Assert.notNull(predicate, "Predicate must not be null!");
+
+		return new FilteredPluginRegistry<>(registry, this.predicate.and(it -> ((Predicate<Object>) predicate).test(it)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#narrow(java.lang.Class)
+	 */
+	@Override
+	public <U extends T> PluginRegistry<U, S> narrow(Class<U> type) {
+		return narrow(this, type, narrowed);
+	}
+
+	/**
+	 * Returns the first {@link Plugin} contained in the view supporting the given delimiter.
+	 *
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object)
+	 */
+	@Override
+	public Optional<T> getPluginFor(S delimiter) {
+
+		View<T> view = getView();
+		Candidates<T> candidates = getCandidates(delimiter, view);
+
+		if (candidates != null) {
+			return candidates.getFirst();
+		}
+
+		for (int i = view.next(0); i >= 0; i = view.next(i + 1)) {
+
+			T plugin = view.getPlugin(i);
+
+			if (plugin.supports(delimiter)) {
+				return Optional.of(plugin);
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object)
+	 */
+	@Override
+	public T getRequiredPluginFor(S delimiter) {
+
+		return getRequiredPluginFor(delimiter,
+				() -> String.format("No plugin found for delimiter %s! Registered plugins: %s.", delimiter, getPlugins()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getRequiredPluginFor(S delimiter, Supplier<String> message) throws IllegalArgumentException {
+
+		Assert.notNull(message, "Message must not be null!");
+
+		return getPluginFor(delimiter, () -> new IllegalArgumentException(message.get()));
+	}
+
+	/**
+	 * Returns the {@link Plugin}s contained in the view supporting the given delimiter.
+	 *
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter) {
+		return getPluginsFor(delimiter, Integer.MAX_VALUE);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#streamPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(S delimiter) {
+
+		View<T> view = getView();
+		Candidates<T> candidates = getCandidates(delimiter, view);
+
+		return StreamSupport.stream(candidates != null ? candidates.spliterator() : spliterator(view, delimiter), false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		View<T> view = getView();
+		Candidates<T> candidates = getCandidates(delimiter, view);
+
+		if (candidates != null) {
+			return limit == Integer.MAX_VALUE ? candidates.getAll() : candidates.getAll(limit);
+		}
+
+		List<T> result = new ArrayList<>();
+
+		for (int i = view.next(0); i >= 0 && result.size() < limit; i = view.next(i + 1)) {
+
+			T plugin = view.getPlugin(i);
+
+			if (plugin.supports(delimiter)) {
+				result.add(plugin);
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#countPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public int countPluginsFor(S delimiter) {
+
+		View<T> view = getView();
+		Candidates<T> candidates = getCandidates(delimiter, view);
+
+		if (candidates != null) {
+			return candidates.count();
+		}
+
+		int count = 0;
+
+		for (int i = view.next(0); i >= 0; i = view.next(i + 1)) {
+			if (view.getPlugin(i).supports(delimiter)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> T getPluginFor(S delimiter, Supplier<E> ex) throws E {
+		return getPluginFor(delimiter).orElseThrow(ex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> List<T> getPluginsFor(S delimiter, Supplier<E> ex) throws E {
+
+		List<T> result = getPluginsFor(delimiter);
+
+		if (result.isEmpty()) {
+			throw ex.get();
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(S delimiter, T plugin) {
+		return getPluginOrDefaultFor(delimiter, () -> plugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(S delimiter, Supplier<T> defaultSupplier) {
+		return getPluginFor(delimiter).orElseGet(defaultSupplier);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.List)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, List<? extends T> plugins) {
+
+		List<T> candidates = getPluginsFor(delimiter);
+
+		return candidates.isEmpty() ? new ArrayList<T>(plugins) : candidates;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#countPlugins()
+	 */
+	@Override
+	public int countPlugins() {
+		return getView().size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#contains(org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public boolean contains(T plugin) {
+		return getView().contains(plugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#hasPluginFor(java.lang.Object)
+	 */
+	@Override
+	public boolean hasPluginFor(S delimiter) {
+		return getPluginFor(delimiter).isPresent();
+	}
+
+	/**
+	 * Returns an immutable {@link List} view of the matching {@link Plugin}s.
+	 *
+	 * @see org.springframework.plugin.core.PluginRegistry#getPlugins()
+	 */
+	@Override
+	public List<T> getPlugins() {
+		return getView();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return getView().iterator();
+	}
+
+	/**
+	 * Returns the {@link Candidates} of the underlying registry for the given delimiter restricted to the
+	 * {@link Plugin}s contained in the view in case the underlying registry answers lookups from an index.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @param view must not be {@literal null}.
+	 * @return the {@link Candidates} or {@literal null} to ask the {@link Plugin}s of the view directly.
+	 */
+	@SuppressWarnings("unchecked")
+	private Candidates<T> getCandidates(S delimiter, View<T> view) {
+
+		if (!(registry instanceof SimplePluginRegistry)) {
+			return null;
+		}
+
+		Candidates<T> candidates = ((SimplePluginRegistry<T, S>) registry).getCandidates(delimiter);
+
+		return candidates == null ? null : candidates.retain(view::isMarked);
+	}
+
+	/**
+	 * Returns a {@link Spliterator} over the {@link Plugin}s of the given {@link View} supporting the given delimiter,
+	 * asking them lazily when advancing.
+	 *
+	 * @param view must not be {@literal null}.
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	private Spliterator<T> spliterator(View<T> view, S delimiter) {
+
+		return new Spliterators.AbstractSpliterator<T>(view.size(),
+				Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL) {
+
+			int next = view.next(0);
+
+			@Override
+			public boolean tryAdvance(Consumer<? super T> action) {
+
+				while (next >= 0) {
+
+					T plugin = view.getPlugin(next);
+					next = view.next(next + 1);
+
+					if (plugin.supports(delimiter)) {
+						action.accept(plugin);
+						return true;
+					}
+				}
+
+				return false;
+			}
+		};
+	}
+
+	@SuppressWarnings("unchecked")
+	private View<T> getView() {
+
+		View<T> view = this.view;
+
+		if (view != null) {
+			return view;
+		}
+
+		synchronized (this) {
+
+			if (this.view == null) {
+				this.view = new View<>((List<T>) registry.getPlugins(), predicate);
+			}
+
+			return this.view;
+		}
+	}
+
+	/**
+	 * Immutable {@link List} of the {@link Plugin}s of a snapshot marked in a bitmap. Keeps the cumulative number of
+	 * marked {@link Plugin}s per word of the bitmap to look up the {@link Plugin}s by index.
+	 *
+	 * @author agent
+	 */
+	private static class View<T> extends AbstractList<T> implements RandomAccess {
+
+		private final List<T> snapshot;
+		private final long[] words;
+		private final int[] ranks;
+		private final int size;
+
+		View(List<T> snapshot, Predicate<Object> predicate) {
+
+			this.snapshot = snapshot;
+			this.words = new long[(snapshot.size() + 63) >>> 6];
+			this.ranks = new int[words.length];
+
+			for (int i = 0; i < snapshot.size(); i++) {
+
+				T plugin = snapshot.get(i);
+
+				if (predicate.test(plugin)) {
+					words[i >>> 6] |= 1L << i;
+				}
+			}
+
+			int size = 0;
+
+			for (int i = 0; i < words.length; i++) {
+				ranks[i] = size;
+				size += Long.bitCount(words[i]);
+			}
+
+			this.size = size;
+		}
+
+		/**
+		 * Returns the position of the next marked {@link Plugin} in the snapshot starting at the given one.
+		 *
+		 * @param from
+		 * @return the position or {@literal -1} if no further {@link Plugin} is marked.
+		 */
+		int next(int from) {
+
+			int index = from >>> 6;
+
+			if (index >= words.length) {
+				return -1;
+			}
+
+			long word = words[index] & (-1L << from);
+
+			while (word == 0) {
+
+				if (++index == words.length) {
+					return -1;
+				}
+
+				word = words[index];
+			}
+
+			return (index << 6) + Long.numberOfTrailingZeros(word);
+		}
+
+		/**
+		 * Returns whether the {@link Plugin} at the given position of the snapshot is marked in the bitmap.
+		 *
+		 * @param position must be a valid position in the snapshot.
+		 * @return
+		 */
+		boolean isMarked(int position) {
+			return (words[position >>> 6] & 1L << position) != 0;
+		}
+
+		/**
+		 * Returns the {@link Plugin} at the given position of the snapshot.
+		 *
+		 * @param position must be a valid position in the snapshot.
+		 * @return
+		 */
+		T getPlugin(int position) {
+			return snapshot.get(position);
+		}
+
+		/**
+		 * Only compares the marked {@link Plugin}s of the snapshot with the given object.
+		 *
+		 * @see java.util.AbstractCollection#contains(java.lang.Object)
+		 */
+		@Override
+		public boolean contains(Object o) {
+
+			for (int i = next(0); i >= 0; i = next(i + 1)) {
+				if (Objects.equals(o, snapshot.get(i))) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractList#get(int)
+		 */
+		@Override
+		public T get(int index) {
+
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(String.format("Index %s, size %s!", index, size));
+			}
+
+			// Find the word containing the plugin, then the plugin within the word
+			int low = 0, high = ranks.length - 1;
+
+			while (low < high) {
+
+				int middle = (low + high + 1) >>> 1;
+
+				if (ranks[middle] <= index) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+
+			long word = words[low];
+
+			for (int i = ranks[low]; i < index; i++) {
+				word &= word - 1;
+			}
+
+			return snapshot.get((low << 6) + Long.numberOfTrailingZeros(word));
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractCollection#size()
+		 */
+		@Override
+		public int size() {
+			return size;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.AbstractList#iterator()
+		 */
+		@Override
+		public Iterator<T> iterator() {
+
+			return new Iterator<T>() {
+
+				int next = View.this.next(0);
+
+				@Override
+				public boolean hasNext() {
+					return next >= 0;
+				}
+
+				@Override
+				public T next() {
+
+					if (next < 0) {
+						throw new NoSuchElementException();
+					}
+
+					T result = snapshot.get(next);
+					next = View.this.next(next + 1);
+
+					return result;
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Estimates the heap retained by object graphs like the ones of {@link PluginRegistry} instances, including their
+ * snapshots and index structures. Walks the fields of application classes reflectively. {@link Collection}s and
+ * {@link Map}s of the JDK are estimated from their size and only their elements are walked, other JDK types are
+ * estimated with a fixed size. Only the objects owned by the roots are included: {@link Plugin}s, {@link Class}es and
+ * {@link ClassLoader}s are shared with the application, and the collaborators a registry is configured with (the
+ * parent of a {@link HierarchicalPluginRegistry}, {@link DelimiterResolver}s, {@link DelimiterTypeResolver}s and their
+ * caches, {@link Comparator}s and {@link BeanFactory}s) are typically shared between registries, so the walk stops at
+ * them. Objects reachable from multiple roots added to the same estimator are only counted once. Assumes compressed
+ * references.
+ *
+ * @author agent
+ * @since 2.0
+ */
+final class HeapSizeEstimator {
+
+	private static final int OBJECT_HEADER = 12, ARRAY_HEADER = 16, REFERENCE = 4, ALIGNMENT = 8;
+
+	/**
+	 * Sizes of a {@link java.util.HashMap} itself and of one of its entries, of a collection wrapping an array and of
+	 * other JDK objects.
+	 */
+	private static final int MAP = 48, MAP_ENTRY = 32, COLLECTION = 24, OTHER = 16;
+
+	/**
+	 * Types of objects not owned by the roots.
+	 */
+	private static final Class<?>[] SHARED = { Plugin.class, Class.class, ClassLoader.class, DelimiterResolver.class,
+			DelimiterTypeResolver.class, Comparator.class, BeanFactory.class };
+
+	private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Set<Object> excluded = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Deque<Object> pending = new ArrayDeque<>();
+
+	/**
+	 * Returns the estimated heap in bytes retained by the given object.
+	 *
+	 * @param root can be {@literal null}.
+	 * @return
+	 */
+	static long estimate(Object root) {
+		return new HeapSizeEstimator().add(root);
+	}
+
+	/**
+	 * Adds the given object to the estimate and returns the heap in bytes it retains in addition to the objects added
+	 * before.
+	 *
+	 * @param root can be {@literal null}.
+	 * @return
+	 */
+	long add(Object root) {
+
+		if (root != null && visited.add(root)) {
+			pending.push(root);
+		}
+
+		long size = 0;
+
+		while (!pending.isEmpty()) {
+			size += getShallowSize(pending.pop());
+		}
+
+		return size;
+	}
+
+	private void push(Object object) {
+
+		if (object == null || isShared(object) || excluded.contains(object)) {
+			return;
+		}
+
+		if (visited.add(object)) {
+			pending.push(object);
+		}
+	}
+
+	/**
+	 * Returns the size of the given object and registers the objects it refers to.
+	 *
+	 * @param object must not be {@literal null}.
+	 * @return
+	 */
+	private long getShallowSize(Object object) {
+
+		Class<?> type = object.getClass();
+
+		if (type.isArray()) {
+
+			Class<?> component = type.getComponentType();
+			int length = Array.getLength(object);
+
+			if (!component.isPrimitive()) {
+				for (Object element : (Object[]) object) {
+					push(element);
+				}
+			}
+
+			return align(ARRAY_HEADER + (long) length * getSize(component));
+		}
+
+		if (isJdkType(type)) {
+			return getJdkSize(object);
+		}
+
+		if (object instanceof HierarchicalPluginRegistry) {
+			excluded.add(((HierarchicalPluginRegistry<?, ?>) object).getParent());
+		}
+
+		long size = OBJECT_HEADER;
+
+		for (Class<?> current = type; current != null && !isJdkType(current); current = current.getSuperclass()) {
+
+			for (Field field : current.getDeclaredFields()) {
+
+				if (Modifier.isStatic(field.getModifiers())) {
+					continue;
+				}
+
+				Class<?> fieldType = field.getType();
+
+				size += getSize(fieldType);
+
+				if (!fieldType.isPrimitive()) {
+					push(read(field, object));
+				}
+			}
+		}
+
+		return align(size);
+	}
+
+	private long getJdkSize(Object object) {
+
+		if (object instanceof Map) {
+
+			Map<?, ?> map = (Map<?, ?>) object;
+			int size = map.size();
+
+			map.forEach((key, value) -> {
+				push(key);
+				push(value);
+			});
+
+			return MAP + align(ARRAY_HEADER + (long) Integer.highestOneBit(size * 2 + 1) * REFERENCE)
+					+ (long) size * MAP_ENTRY;
+		}
+
+		if (object instanceof Collection) {
+
+			Collection<?> collection = (Collection<?>) object;
+
+			collection.forEach(this::push);
+
+			return COLLECTION + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+		}
+
+		if (object instanceof String) {
+			return OTHER + 8 + align(ARRAY_HEADER + ((String) object).length());
+		}
+
+		return OTHER;
+	}
+
+	private static boolean isShared(Object object) {
+
+		for (Class<?> type : SHARED) {
+			if (type.isInstance(object)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	private static Object read(Field field, Object target) {
+
+		try {
+
+			ReflectionUtils.makeAccessible(field);
+
+			return field.get(target);
+
+		} catch (RuntimeException | IllegalAccessException o_O) {
+			return null;
+		}
+	}
+
+	private static boolean isJdkType(Class<?> type) {
+
+		String name = type.getName();
+
+		return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jdk.")
+				|| name.startsWith("sun.");
+	}
+
+	private static int getSize(Class<?> type) {
+
+		if (!type.isPrimitive()) {
+			return REFERENCE;
+		}
+
+		if (type == long.class || type == double.class) {
+			return 8;
+		}
+
+		if (type == int.class || type == float.class) {
+			return 4;
+		}
+
+		return type == char.class || type == short.class ? 2 : 1;
+	}
+
+	private static long align(long size) {
+		return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} combining the {@link Plugin}s of a parent {@link PluginRegistry} with the ones
+ * registered locally, e.g. to let a child application context see the plugins of its parent without looking them up
+ * and indexing them again. The parent's {@link Plugin}s are taken from its immutable snapshot and merged with the
+ * local ones by order, {@link Plugin}s of the parent going first in case of equal orders.
+ * <p>
+ * Lookups query the parent {@link PluginRegistry} once, so that any index the parent maintains is reused, and look up
+ * the local {@link Plugin}s in an {@link IndexedPluginRegistry} using the configured {@link DelimiterResolver}.
+ * Lookups for the first {@link Plugin}, streaming and limited lookups merge the results of both lazily. The full
+ * results of {@link #getPluginsFor(Object)} are cached for a bounded number of delimiters, which requires
+ * {@link Plugin#supports(Object)} implementations to return the same result for equal delimiters. The parent
+ * {@link PluginRegistry} is expected to order its {@link Plugin}s by the same {@link Comparator}. The positions of all
+ * {@link Plugin}s within the merged snapshot are recorded on initialization, so that merging lookup results compares
+ * those positions instead of invoking the {@link Comparator}, i.e. resolving the orders of the {@link Plugin}s again.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class HierarchicalPluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private final PluginRegistry<T, S> parent;
+	private final DelimiterResolver resolver;
+	private final Map<S, List<T>> cache = new ConcurrentHashMap<>();
+
+	private volatile PluginRegistry<T, S> local;
+	private volatile Map<T, Integer> positions;
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry}, local
+	 * {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected HierarchicalPluginRegistry(PluginRegistry<T, S> parent, List<? extends T> plugins,
+			Comparator<? super T> comparator) {
+		this(parent, plugins, comparator, DelimiterResolver.NONE);
+	}
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry}, local
+	 * {@link Plugin}s, {@link Comparator} and {@link DelimiterResolver} to index the local {@link Plugin}s with.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 */
+	protected HierarchicalPluginRegistry(PluginRegistry<T, S> parent, List<? extends T> plugins,
+			Comparator<? super T> comparator, DelimiterResolver resolver) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(parent, "Parent PluginRegistry must not be null!");
+		Assert.notNull(resolver, "DelimiterResolver must not be null!");
+
+		this.parent = parent;
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry} and local
+	 * {@link Plugin}s.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> HierarchicalPluginRegistry<T, S> from(PluginRegistry<T, S> parent,
+			List<? extends T> plugins) {
+		return from(parent, plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry}, local
+	 * {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> HierarchicalPluginRegistry<T, S> from(PluginRegistry<T, S> parent,
+			List<? extends T> plugins, Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new HierarchicalPluginRegistry<>(parent, plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry} and local
+	 * {@link Plugin}s, selecting the local {@link Plugin}s that statically declare their delimiters via an index lookup.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 * @see IndexedPluginRegistry
+	 */
+	public static <S, T extends Plugin<S>> HierarchicalPluginRegistry<T, S> from(PluginRegistry<T, S> parent,
+			List<? extends T> plugins, DelimiterResolver resolver) {
+		return from(parent, plugins, DEFAULT_COMPARATOR, resolver);
+	}
+
+	/**
+	 * Creates a new {@link HierarchicalPluginRegistry} for the given parent {@link PluginRegistry}, local
+	 * {@link Plugin}s, {@link Comparator} and {@link DelimiterResolver} to index the local {@link Plugin}s with.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> HierarchicalPluginRegistry<T, S> from(PluginRegistry<T, S> parent,
+			List<? extends T> plugins, Comparator<? super T> comparator, DelimiterResolver resolver) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new HierarchicalPluginRegistry<>(parent, plugins, comparator, resolver);
+	}
+
+	/**
+	 * Returns the parent {@link PluginRegistry}.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	public PluginRegistry<T, S> getParent() {
+		return parent;
+	}
+
+	/**
+	 * Returns all {@link Plugin}s of the parent {@link PluginRegistry} and the local ones, merged by order.
+	 *
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> local = super.initialize(plugins);
+
+		this.local = IndexedPluginRegistry.from(local, getComparator(), resolver);
+
+		List<T> result = merge(parent.getPlugins(), local, getComparator());
+		Map<T, Integer> positions = new IdentityHashMap<>(result.size());
+
+		for (int i = 0; i < result.size(); i++) {
+			positions.putIfAbsent(result.get(i), i);
+		}
+
+		this.positions = positions;
+
+		return result;
+	}
+
+	/**
+	 * Returns the first of the {@link Plugin}s the parent and the current registry select for the given delimiter, each
+	 * of them stopping at the first supporting {@link Plugin}.
+	 *
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getPluginFor(java.lang.Object)
+	 */
+	@Override
+	public Optional<T> getPluginFor(S delimiter) {
+
+		PluginRegistry<T, S> local = getLocal();
+		Optional<T> fromParent = parent.getPluginFor(delimiter);
+		Optional<T> fromLocal = local.getPluginFor(delimiter);
+
+		if (!fromLocal.isPresent()) {
+			return fromParent;
+		}
+
+		if (!fromParent.isPresent()) {
+			return fromLocal;
+		}
+
+		return compare(fromParent.get(), fromLocal.get()) <= 0 ? fromParent : fromLocal;
+	}
+
+	/**
+	 * Returns all {@link Plugin}s of the parent and the current registry supporting the given delimiter as shared,
+	 * immutable {@link List}. The results for up to {@value CachingPluginRegistry#DEFAULT_LIMIT} non-{@literal null}
+	 * delimiters are cached.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter) {
+
+		PluginRegistry<T, S> local = getLocal();
+		List<T> result = delimiter == null ? null : cache.get(delimiter);
+
+		if (result != null) {
+			return result;
+		}
+
+		// Look up the plugins outside of the map, as plugins might look up plugins from the registry themselves
+		result = Collections
+				.unmodifiableList(merge(parent.getPluginsFor(delimiter), local.getPluginsFor(delimiter), this::compare));
+
+		if (delimiter == null || cache.size() >= CachingPluginRegistry.DEFAULT_LIMIT) {
+			return result;
+		}
+
+		List<T> existing = cache.putIfAbsent(delimiter, result);
+
+		return existing == null ? result : existing;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#hasPluginFor(java.lang.Object)
+	 */
+	@Override
+	public boolean hasPluginFor(S delimiter) {
+		return parent.hasPluginFor(delimiter) || getLocal().hasPluginFor(delimiter);
+	}
+
+	/**
+	 * Merges the {@link Stream}s of the parent and the current registry lazily.
+	 *
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#streamPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(S delimiter) {
+
+		PluginRegistry<T, S> local = getLocal();
+		Iterator<T> fromParent = parent.streamPluginsFor(delimiter).iterator();
+		Iterator<T> fromLocal = local.streamPluginsFor(delimiter).iterator();
+
+		Iterator<T> merged = new Iterator<T>() {
+
+			T nextFromParent, nextFromLocal;
+
+			@Override
+			public boolean hasNext() {
+
+				if (nextFromParent == null && fromParent.hasNext()) {
+					nextFromParent = fromParent.next();
+				}
+
+				if (nextFromLocal == null && fromLocal.hasNext()) {
+					nextFromLocal = fromLocal.next();
+				}
+
+				return nextFromParent != null || nextFromLocal != null;
+			}
+
+			@Override
+			public T next() {
+
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+
+				T result;
+
+				if (nextFromLocal == null
+						|| nextFromParent != null && compare(nextFromParent, nextFromLocal) <= 0) {
+
+					result = nextFromParent;
+					nextFromParent = null;
+
+				} else {
+
+					result = nextFromLocal;
+					nextFromLocal = null;
+				}
+
+				return result;
+			}
+		};
+
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+				Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		List<T> plugins = merge(parent.getPluginsFor(delimiter, limit), getLocal().getPluginsFor(delimiter, limit),
+				this::compare);
+
+		return new ArrayList<>(plugins.subList(0, Math.min(limit, plugins.size())));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#countPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public int countPluginsFor(S delimiter) {
+		return parent.countPluginsFor(delimiter) + getLocal().countPluginsFor(delimiter);
+	}
+
+	/**
+	 * Returns {@literal null} as the orders are only resolved for the local {@link Plugin}s.
+	 *
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#getOrderKeys()
+	 */
+	@Override
+	protected int[] getOrderKeys() {
+		return null;
+	}
+
+	/**
+	 * Returns a new, flat {@link OrderAwarePluginRegistry} with the order of all plugins of the hierarchy reverted.
+	 *
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public OrderAwarePluginRegistry<T, S> reverse() {
+		return OrderAwarePluginRegistry.of(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	private PluginRegistry<T, S> getLocal() {
+
+		ensureInitialized();
+
+		return local;
+	}
+
+	/**
+	 * Compares the given {@link Plugin}s by their position in the merged snapshot. Falls back to the {@link Comparator}
+	 * for {@link Plugin}s not contained in it, e.g. ones the parent registry only returns from lookups.
+	 *
+	 * @param fromParent must not be {@literal null}.
+	 * @param fromLocal must not be {@literal null}.
+	 * @return
+	 */
+	private int compare(T fromParent, T fromLocal) {
+
+		Integer left = positions.get(fromParent);
+		Integer right = positions.get(fromLocal);
+
+		return left != null && right != null //
+				? Integer.compare(left, right) //
+				: getComparator().compare(fromParent, fromLocal);
+	}
+
+	/**
+	 * Merges the given ordered {@link List}s of {@link Plugin}s, {@link Plugin}s of the parent going first in case of
+	 * equal orders.
+	 *
+	 * @param parent must not be {@literal null}.
+	 * @param local must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	private static <T> List<T> merge(List<T> parent, List<T> local, Comparator<? super T> comparator) {
+
+		if (local.isEmpty()) {
+			return parent;
+		}
+
+		if (parent.isEmpty()) {
+			return local;
+		}
+
+		List<T> result = new ArrayList<>(parent.size() + local.size());
+
+		for (int i = 0, j = 0; i < parent.size() || j < local.size();) {
+
+			if (j == local.size() || i < parent.size() && comparator.compare(parent.get(i), local.get(j)) <= 0) {
+				result.add(parent.get(i++));
+			} else {
+				result.add(local.get(j++));
+			}
+		}
+
+		return result;
+	}
+}
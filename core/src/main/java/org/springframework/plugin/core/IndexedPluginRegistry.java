@@ -0,0 +1,256 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} that selects {@link Plugin}s declaring their delimiters statically (e.g. via
+ * {@link PluginFor}) by a lookup of the delimiter in an index built on initialization.
+ * {@link Plugin#supports(Object)} is only invoked for plugins not declaring any delimiters. If all plugins declare
+ * their delimiters, lookups are answered by a single hash lookup returning a shared, immutable {@link List}.
+ *
+ * @author agent
+ * @since 2.0
+ * @see DelimiterResolver
+ */
+public class IndexedPluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private final DelimiterResolver resolver;
+	private final boolean verify;
+
+	private volatile Index<T> index;
+
+	/**
+	 * Creates a new {@link IndexedPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 */
+	protected IndexedPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			DelimiterResolver resolver) {
+		this(plugins, comparator, resolver, false);
+	}
+
+	private IndexedPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			DelimiterResolver resolver, boolean verify) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(resolver, "DelimiterResolver must not be null!");
+
+		this.resolver = resolver;
+		this.verify = verify;
+	}
+
+	/**
+	 * Creates a new {@link IndexedPluginRegistry} for the given {@link Plugin}s using the delimiter index available in
+	 * the default {@link ClassLoader} and {@link PluginFor} annotations.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 * @see DelimiterResolver#standard(ClassLoader)
+	 */
+	public static <S, T extends Plugin<S>> IndexedPluginRegistry<T, S> from(List<? extends T> plugins) {
+		return from(plugins, DelimiterResolver.standard(null));
+	}
+
+	/**
+	 * Creates a new {@link IndexedPluginRegistry} for the given {@link Plugin}s and {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> IndexedPluginRegistry<T, S> from(List<? extends T> plugins,
+			DelimiterResolver resolver) {
+		return from(plugins, DEFAULT_COMPARATOR, resolver);
+	}
+
+	/**
+	 * Creates a new {@link IndexedPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> IndexedPluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, DelimiterResolver resolver) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new IndexedPluginRegistry<>(plugins, comparator, resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+		Index<T> index = new Index<>(result, resolver);
+
+		if (verify) {
+			index.verify();
+		}
+
+		this.index = index;
+
+		return result;
+	}
+
+	/**
+	 * Returns a copy of the current registry that cross-checks all results obtained from the delimiter index against
+	 * the results of invoking {@link Plugin#supports(Object)} on all {@link Plugin}s. On initialization, it verifies
+	 * that all {@link Plugin}s support the delimiters they declare. Meant to be used in tests to verify delimiters
+	 * declared in or inferred by the {@link DelimiterResolver} used.
+	 *
+	 * @return will never be {@literal null}.
+	 * @throws IllegalStateException on lookups in case the index and {@link Plugin#supports(Object)} disagree.
+	 * @see DelimiterResolver#inferred()
+	 */
+	public IndexedPluginRegistry<T, S> verifying() {
+		return new IndexedPluginRegistry<>(new ArrayList<>(getPlugins()), getComparator(), resolver, true);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(S delimiter) {
+
+		Index<T> index = getIndex();
+		Candidates<T> candidates = Candidates.of(index.plugins, index.getDeclared(delimiter), index.undeclared,
+				delimiter);
+
+		// All lookups go through the candidates, so verifying them here covers all of them
+		if (verify) {
+			verify(delimiter, candidates.getAll(),
+					index.plugins.stream().filter(it -> it.supports(delimiter)).collect(Collectors.toList()));
+		}
+
+		return candidates;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public IndexedPluginRegistry<T, S> reverse() {
+
+		List<T> copy = new ArrayList<>(getPlugins());
+		return new IndexedPluginRegistry<>(copy, getReverseComparator(), resolver, verify);
+	}
+
+	private static void verify(Object delimiter, Object indexed, Object expected) {
+
+		if (!indexed.equals(expected)) {
+			throw new IllegalStateException(String.format(
+					"Delimiter index returned %s for %s but supports(...) selects %s!", indexed, delimiter, expected));
+		}
+	}
+
+	private Index<T> getIndex() {
+
+		ensureInitialized();
+
+		return index;
+	}
+
+	/**
+	 * The index of declared delimiters to the positions of the {@link Plugin}s declaring them.
+	 *
+	 * @author agent
+	 */
+	private static class Index<T> {
+
+		private final List<T> plugins;
+		private final Map<Object, Positions<T>> declared;
+		private final int[] undeclared;
+
+		Index(List<T> plugins, DelimiterResolver resolver) {
+
+			Map<Object, List<Integer>> positions = new HashMap<>();
+			List<Integer> undeclared = new ArrayList<>();
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				Optional<Set<Object>> delimiters = resolver
+						.resolveDelimiters(AopProxyUtils.ultimateTargetClass(plugins.get(i)));
+
+				if (!delimiters.isPresent()) {
+					undeclared.add(i);
+					continue;
+				}
+
+				for (Object delimiter : delimiters.get()) {
+					positions.computeIfAbsent(delimiter, __ -> new ArrayList<>()).add(i);
+				}
+			}
+
+			this.plugins = plugins;
+			this.declared = new HashMap<>(positions.size() * 2);
+			this.undeclared = toArray(undeclared);
+
+			positions.forEach((delimiter, it) -> this.declared.put(delimiter, Positions.of(toArray(it), plugins)));
+		}
+
+		Positions<T> getDeclared(Object delimiter) {
+			return declared.getOrDefault(delimiter, Positions.none());
+		}
+
+		/**
+		 * Verifies that all plugins support the delimiters they declare.
+		 *
+		 * @throws IllegalStateException in case a plugin does not support a delimiter it declares.
+		 */
+		@SuppressWarnings("unchecked")
+		void verify() {
+
+			declared.forEach((delimiter, positions) -> positions.getPlugins().forEach(it -> {
+
+				if (!((Plugin<Object>) it).supports(delimiter)) {
+					throw new IllegalStateException(
+							String.format("Plugin %s declares delimiter %s but does not support it!", it, delimiter));
+				}
+			}));
+		}
+
+		private static int[] toArray(List<Integer> source) {
+			return source.stream().mapToInt(Integer::intValue).toArray();
+		}
+	}
+}
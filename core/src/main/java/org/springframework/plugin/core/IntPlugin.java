@@ -0,0 +1,45 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+/**
+ * {@link Plugin} using primitive {@code int} delimiters, e.g. numeric type identifiers. Registries aware of this
+ * contract, like {@link IntPluginRegistry}, select plugins without boxing the delimiter.
+ *
+ * @author agent
+ * @since 2.0
+ * @see KeyedIntPlugin
+ */
+public interface IntPlugin extends Plugin<Integer> {
+
+	/**
+	 * Returns if a plugin should be invoked according to the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return if the plugin should be invoked
+	 */
+	boolean supports(int delimiter);
+
+	/**
+	 * Delegates to {@link #supports(int)}, {@literal null} delimiters are never supported.
+	 *
+	 * @see org.springframework.plugin.core.Plugin#supports(java.lang.Object)
+	 */
+	@Override
+	default boolean supports(Integer delimiter) {
+		return delimiter != null && supports(delimiter.intValue());
+	}
+}
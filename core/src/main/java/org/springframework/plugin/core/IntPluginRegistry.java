@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for {@link IntPlugin}s selecting plugins by a primitive {@code int} delimiter
+ * without boxing it. {@link KeyedIntPlugin}s are looked up in a table built on initialization, which is a plain array
+ * for compact key ranges and an open-addressing hash table otherwise. {@link IntPlugin#supports(int)} is only invoked
+ * for plugins not declaring their keys. Plugins are returned in the same order as by {@link OrderAwarePluginRegistry}.
+ *
+ * @author agent
+ * @since 2.0
+ * @see LongPluginRegistry
+ */
+public class IntPluginRegistry<T extends IntPlugin> extends OrderAwarePluginRegistry<T, Integer> {
+
+	private volatile PrimitiveKeyTable<T> table;
+
+	/**
+	 * Creates a new {@link IntPluginRegistry} for the given {@link IntPlugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected IntPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link IntPluginRegistry} for the given {@link IntPlugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends IntPlugin> IntPluginRegistry<T> from(List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link IntPluginRegistry} for the given {@link IntPlugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends IntPlugin> IntPluginRegistry<T> from(List<? extends T> plugins,
+			Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new IntPluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.table = PrimitiveKeyTable.of(result, it -> it instanceof KeyedIntPlugin //
+				? Arrays.stream(((KeyedIntPlugin) it).getKeys()).asLongStream().toArray() //
+				: null);
+
+		return result;
+	}
+
+	/**
+	 * Returns the first {@link IntPlugin} supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public Optional<T> getPluginFor(int delimiter) {
+		return getCandidates(delimiter).getFirst();
+	}
+
+	/**
+	 * Returns all {@link IntPlugin}s supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public List<T> getPluginsFor(int delimiter) {
+		return getCandidates(delimiter).getAll();
+	}
+
+	/**
+	 * Returns whether the registry contains an {@link IntPlugin} supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public boolean hasPluginFor(int delimiter) {
+		return getPluginFor(delimiter).isPresent();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public IntPluginRegistry<T> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(Integer delimiter) {
+		return delimiter == null ? null : getCandidates(delimiter.intValue());
+	}
+
+	private Candidates<T> getCandidates(int delimiter) {
+		return getTable().getCandidates(delimiter, (plugin, key) -> plugin.supports((int) key));
+	}
+
+	private PrimitiveKeyTable<T> getTable() {
+
+		ensureInitialized();
+
+		return table;
+	}
+}
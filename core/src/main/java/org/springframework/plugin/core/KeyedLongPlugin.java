@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+/**
+ * {@link LongPlugin} declaring the delimiters it supports as keys, so that {@link LongPluginRegistry} can select it by
+ * a table lookup instead of invoking {@link #supports(long)}. The keys are read once when the registry is initialized.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public interface KeyedLongPlugin extends LongPlugin {
+
+	/**
+	 * Returns the delimiters the plugin supports.
+	 *
+	 * @return must not be {@literal null}.
+	 */
+	long[] getKeys();
+
+	/**
+	 * Returns whether the given delimiter is one of the plugin's keys.
+	 *
+	 * @see org.springframework.plugin.core.LongPlugin#supports(long)
+	 */
+	@Override
+	default boolean supports(long delimiter) {
+
+		for (long key : getKeys()) {
+			if (key == delimiter) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for {@link LongPlugin}s selecting plugins by a primitive {@code long} delimiter
+ * without boxing it. {@link KeyedLongPlugin}s are looked up in a table built on initialization, which is a plain array
+ * for compact key ranges and an open-addressing hash table otherwise. {@link LongPlugin#supports(long)} is only invoked
+ * for plugins not declaring their keys. Plugins are returned in the same order as by {@link OrderAwarePluginRegistry}.
+ *
+ * @author agent
+ * @since 2.0
+ * @see IntPluginRegistry
+ */
+public class LongPluginRegistry<T extends LongPlugin> extends OrderAwarePluginRegistry<T, Long> {
+
+	private volatile PrimitiveKeyTable<T> table;
+
+	/**
+	 * Creates a new {@link LongPluginRegistry} for the given {@link LongPlugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected LongPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link LongPluginRegistry} for the given {@link LongPlugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends LongPlugin> LongPluginRegistry<T> from(List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link LongPluginRegistry} for the given {@link LongPlugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends LongPlugin> LongPluginRegistry<T> from(List<? extends T> plugins,
+			Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new LongPluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.table = PrimitiveKeyTable.of(result, it -> it instanceof KeyedLongPlugin //
+				? ((KeyedLongPlugin) it).getKeys() //
+				: null);
+
+		return result;
+	}
+
+	/**
+	 * Returns the first {@link LongPlugin} supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public Optional<T> getPluginFor(long delimiter) {
+		return getCandidates(delimiter).getFirst();
+	}
+
+	/**
+	 * Returns all {@link LongPlugin}s supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public List<T> getPluginsFor(long delimiter) {
+		return getCandidates(delimiter).getAll();
+	}
+
+	/**
+	 * Returns whether the registry contains a {@link LongPlugin} supporting the given delimiter.
+	 *
+	 * @param delimiter
+	 * @return
+	 */
+	public boolean hasPluginFor(long delimiter) {
+		return getPluginFor(delimiter).isPresent();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public LongPluginRegistry<T> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(Long delimiter) {
+		return delimiter == null ? null : getCandidates(delimiter.longValue());
+	}
+
+	private Candidates<T> getCandidates(long delimiter) {
+		return getTable().getCandidates(delimiter, (plugin, key) -> plugin.supports(key));
+	}
+
+	private PrimitiveKeyTable<T> getTable() {
+
+		ensureInitialized();
+
+		return table;
+	}
+}
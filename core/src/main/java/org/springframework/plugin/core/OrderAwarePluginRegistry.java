@@ -21,6 +21,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
+import org.springframework.core.PriorityOrdered;
 import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.util.Assert;
 
@@ -41,11 +42,18 @@ public class OrderAwarePluginRegistry<T extends Plugin<S>, S> extends SimplePlug
 	static final Comparator<Object> DEFAULT_COMPARATOR = new AnnotationAwareOrderComparator();
 
 	/**
-	 * Comparator reverting the {@value #DEFAULT_COMPARATOR}.
+	 * Comparator reverting the {@link #DEFAULT_COMPARATOR}.
 	 */
 	static final Comparator<Object> DEFAULT_REVERSE_COMPARATOR = DEFAULT_COMPARATOR.reversed();
 
 	private final Comparator<? super T> comparator;
+	private final boolean presorted;
+
+	/**
+	 * The orders of the plugins in the snapshot, resolved once on initialization. Only available if one of the default
+	 * comparators is used.
+	 */
+	private volatile int[] orderKeys;
 
 	/**
 	 * Creates a new {@link OrderAwarePluginRegistry} with the given {@link Plugin}s and {@link Comparator}.
@@ -62,6 +70,24 @@ public class OrderAwarePluginRegistry<T extends Plugin<S>, S> extends SimplePlug
 		Assert.notNull(comparator, "Comparator must not be null!");
 
 		this.comparator = comparator;
+		this.presorted = false;
+	}
+
+	/**
+	 * Creates a new {@link OrderAwarePluginRegistry} for the given {@link Plugin}s already sorted by the given
+	 * {@link Comparator} and their order keys.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param orderKeys must not be {@literal null}.
+	 */
+	private OrderAwarePluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator, int[] orderKeys) {
+
+		super(plugins);
+
+		this.comparator = comparator;
+		this.presorted = true;
+		this.orderKeys = orderKeys;
 	}
 
 	/**
@@ -214,18 +240,144 @@ public class OrderAwarePluginRegistry<T extends Plugin<S>, S> extends SimplePlug
 	protected List<T> initialize(List<T> plugins) {
 
 		List<T> result = super.initialize(plugins);
-		Collections.sort(result, comparator);
-		return result;
+
+		if (presorted) {
+			return result;
+		}
+
+		if (!isDefaultComparator(comparator)) {
+			Collections.sort(result, comparator);
+			return result;
+		}
+
+		// Resolve the orders once and sort by them instead of looking them up on each comparison
+		int size = result.size();
+		boolean reverse = comparator == DEFAULT_REVERSE_COMPARATOR;
+		long[] packed = new long[size];
+
+		for (int i = 0; i < size; i++) {
+
+			Object plugin = result.get(i);
+
+			if (plugin instanceof PriorityOrdered) {
+				Collections.sort(result, comparator);
+				return result;
+			}
+
+			int order = OrderResolver.getOrder(plugin);
+
+			// Bitwise negation reverses the order without overflow, the index in the lower bits keeps the sort stable
+			packed[i] = ((long) (reverse ? ~order : order) << 32) | i;
+		}
+
+		Arrays.sort(packed);
+
+		List<T> sorted = new ArrayList<>(size);
+		int[] keys = new int[size];
+
+		for (int i = 0; i < size; i++) {
+
+			int key = (int) (packed[i] >> 32);
+
+			sorted.add(result.get((int) packed[i]));
+			keys[i] = reverse ? ~key : key;
+		}
+
+		this.orderKeys = keys;
+
+		return sorted;
+	}
+
+	/**
+	 * Returns the {@link Comparator} used to order the {@link Plugin}s.
+	 *
+	 * @return will never be {@literal null}.
+	 * @since 2.0
+	 */
+	protected Comparator<? super T> getComparator() {
+		return comparator;
 	}
 
 	/**
-	 * Returns a new {@link OrderAwarePluginRegistry} with the order of the plugins reverted.
+	 * Returns the {@link Comparator} ordering the {@link Plugin}s the other way round than the current one.
+	 *
+	 * @return will never be {@literal null}.
+	 * @since 2.0
+	 */
+	protected Comparator<? super T> getReverseComparator() {
+
+		if (comparator == DEFAULT_COMPARATOR) {
+			return DEFAULT_REVERSE_COMPARATOR;
+		}
+
+		return comparator == DEFAULT_REVERSE_COMPARATOR ? DEFAULT_COMPARATOR : comparator.reversed();
+	}
+
+	/**
+	 * Returns the {@link Comparator} regarding {@link org.springframework.core.Ordered} and
+	 * {@link org.springframework.core.annotation.Order} that subclasses outside this package can hand into the
+	 * constructor to benefit from the orders resolved on initialization.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	protected static Comparator<Object> getDefaultComparator() {
+		return DEFAULT_COMPARATOR;
+	}
+
+	/**
+	 * Returns the orders of the {@link Plugin}s in the order of {@link #getPlugins()} if they were resolved on
+	 * initialization, i.e. if one of the default comparators is used.
+	 *
+	 * @return the order keys or {@literal null} if not available.
+	 * @since 2.0
+	 */
+	protected int[] getOrderKeys() {
+
+		ensureInitialized();
+
+		return orderKeys;
+	}
+
+	/**
+	 * Returns a new {@link OrderAwarePluginRegistry} with the order of the plugins reverted. Reuses the already resolved
+	 * orders of the {@link Plugin}s if available, so that no re-sorting is necessary.
 	 *
 	 * @return
 	 */
 	public OrderAwarePluginRegistry<T, S> reverse() {
 
-		List<T> copy = new ArrayList<>(getPlugins());
-		return create(copy, comparator.reversed());
+		List<T> plugins = getPlugins();
+		int[] keys = this.orderKeys;
+
+		if (keys == null) {
+			return create(new ArrayList<>(plugins), comparator.reversed());
+		}
+
+		int size = plugins.size();
+		List<T> reversed = new ArrayList<>(size);
+		int[] reversedKeys = new int[size];
+
+		// Reverse the runs of plugins with the same order but keep the order within a run to mimic a stable sort
+		for (int end = size; end > 0;) {
+
+			int start = end - 1;
+
+			while (start > 0 && keys[start - 1] == keys[end - 1]) {
+				start--;
+			}
+
+			for (int i = start; i < end; i++) {
+				reversedKeys[reversed.size()] = keys[i];
+				reversed.add(plugins.get(i));
+			}
+
+			end = start;
+		}
+
+		return new OrderAwarePluginRegistry<>(reversed, getReverseComparator(), reversedKeys);
+	}
+
+	private static boolean isDefaultComparator(Comparator<?> comparator) {
+		return comparator == DEFAULT_COMPARATOR || comparator == DEFAULT_REVERSE_COMPARATOR;
 	}
 }
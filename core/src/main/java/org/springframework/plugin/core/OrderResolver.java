@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+/**
+ * Resolves the order of a plugin instance the same way {@link AnnotationAwareOrderComparator} does on each comparison,
+ * so that {@link OrderAwarePluginRegistry} can resolve it once per plugin.
+ *
+ * @author agent
+ * @since 2.0
+ */
+final class OrderResolver {
+
+	private static final ExposingComparator COMPARATOR = new ExposingComparator();
+
+	private OrderResolver() {}
+
+	/**
+	 * Returns the order of the given object regarding the {@link org.springframework.core.Ordered} interface and the
+	 * {@link org.springframework.core.annotation.Order} annotation.
+	 *
+	 * @param object can be {@literal null}.
+	 * @return
+	 */
+	static int getOrder(Object object) {
+		return COMPARATOR.getOrder(object);
+	}
+
+	/**
+	 * Exposes the order lookup of {@link AnnotationAwareOrderComparator}.
+	 *
+	 * @author agent
+	 */
+	@SuppressWarnings("serial")
+	private static class ExposingComparator extends AnnotationAwareOrderComparator {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.core.OrderComparator#getOrder(java.lang.Object)
+		 */
+		@Override
+		protected int getOrder(Object obj) {
+			return super.getOrder(obj);
+		}
+	}
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * A static, read-only index mapping {@link String} keys to the ordinals of the plugins supporting them, built for very
+ * large key sets. The keys are hashed into a minimal perfect hash (hash and displace), so that the index doesn't store
+ * the keys themselves but only a 16 bit fingerprint per key and a bit-packed reference to the set of plugin ordinals
+ * the key maps to. That results in about four bytes per key and constant-time lookups. Lookups for keys not contained
+ * in the index are rejected by the fingerprint check, except for a false positive rate of 1 in 65536.
+ * <p>
+ * The index is backed by a single {@link ByteBuffer} that can be written to a file via
+ * {@link #writeTo(WritableByteChannel)} and memory-mapped via {@link #map(Path)} or wrapped from any other, e.g.
+ * direct, {@link ByteBuffer} via {@link #of(ByteBuffer)}, so that it doesn't need to live on the heap.
+ *
+ * <pre class="code">
+ * PerfectHashIndex index = PerfectHashIndex.builder() //
+ * 		.add("ACME", 0) //
+ * 		.add("GLOBEX", 1) //
+ * 		.build();
+ * </pre>
+ *
+ * @author agent
+ * @since 2.0
+ * @see PerfectHashPluginRegistry
+ */
+public final class PerfectHashIndex {
+
+	private static final int MAGIC = 0x53504849;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final int[] NO_ORDINALS = new int[0];
+
+	private final ByteBuffer buffer;
+	private final int size, buckets, bits, combinations;
+	private final long seed;
+	private final int seedsOffset, fingerprintsOffset, combinationIdsOffset, combinationsOffset;
+
+	private PerfectHashIndex(ByteBuffer buffer) {
+
+		Assert.isTrue(buffer.capacity() >= HEADER_SIZE && buffer.getInt(0) == MAGIC,
+				"Buffer does not contain a perfect hash index!");
+		Assert.isTrue(buffer.getInt(4) == VERSION, () -> String.format("Unsupported index version %s!", buffer.getInt(4)));
+
+		this.buffer = buffer;
+		this.size = buffer.getInt(8);
+		this.buckets = buffer.getInt(12);
+		this.seed = buffer.getLong(16);
+		this.bits = buffer.getInt(24);
+		this.combinations = buffer.getInt(28);
+
+		this.seedsOffset = HEADER_SIZE;
+		this.fingerprintsOffset = seedsOffset + buckets * 4;
+		this.combinationIdsOffset = fingerprintsOffset + size * 2;
+		this.combinationsOffset = combinationIdsOffset + getPackedLength(size, bits) * 8;
+
+		Assert.isTrue(buffer.capacity() >= combinationsOffset + (combinations + 1) * 4, "Index buffer is truncated!");
+	}
+
+	/**
+	 * Returns a new {@link Builder} to create a {@link PerfectHashIndex}.
+	 *
+	 * @return
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates a {@link PerfectHashIndex} backed by the given {@link ByteBuffer}, previously populated from
+	 * {@link #writeTo(WritableByteChannel)}. The buffer must not be modified after the call.
+	 *
+	 * @param buffer must not be {@literal null}.
+	 * @return
+	 */
+	public static PerfectHashIndex of(ByteBuffer buffer) {
+
+		Assert.notNull(buffer, "Buffer must not be null!");
+
+		return new PerfectHashIndex(buffer.slice().asReadOnlyBuffer());
+	}
+
+	/**
+	 * Memory-maps the {@link PerfectHashIndex} stored in the file with the given {@link Path}.
+	 *
+	 * @param path must not be {@literal null}.
+	 * @return
+	 * @throws IOException
+	 */
+	public static PerfectHashIndex map(Path path) throws IOException {
+
+		Assert.notNull(path, "Path must not be null!");
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return of(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Returns the ordinals of the plugins the given key maps to.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @return the ordinals in ascending order or an empty array if the key is not contained in the index.
+	 */
+	public int[] getOrdinals(String key) {
+		return getOrdinals(getCombination(key));
+	}
+
+	/**
+	 * Returns the number of keys contained in the index.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the size of the index in bytes.
+	 *
+	 * @return
+	 */
+	public int getSizeInBytes() {
+		return buffer.capacity();
+	}
+
+	/**
+	 * Writes the index to the given {@link WritableByteChannel}.
+	 *
+	 * @param channel must not be {@literal null}.
+	 * @throws IOException
+	 */
+	public void writeTo(WritableByteChannel channel) throws IOException {
+
+		Assert.notNull(channel, "Channel must not be null!");
+
+		ByteBuffer source = buffer.duplicate();
+		source.clear();
+
+		while (source.hasRemaining()) {
+			channel.write(source);
+		}
+	}
+
+	/**
+	 * Returns the identifier of the set of ordinals the given key maps to.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @return the identifier or {@literal -1} if the key is not contained in the index.
+	 */
+	int getCombination(String key) {
+
+		if (size == 0) {
+			return -1;
+		}
+
+		long hash = hash(key, seed);
+		int slot = getSlot(hash, buffer.getInt(seedsOffset + getBucket(hash, buckets) * 4), size);
+
+		if (buffer.getShort(fingerprintsOffset + slot * 2) != (short) hash) {
+			return -1;
+		}
+
+		return (int) readBits(buffer, combinationIdsOffset, slot, bits);
+	}
+
+	/**
+	 * Returns the ordinals of the combination with the given identifier.
+	 *
+	 * @param combination
+	 * @return
+	 */
+	int[] getOrdinals(int combination) {
+
+		if (combination < 0) {
+			return NO_ORDINALS;
+		}
+
+		int start = buffer.getInt(combinationsOffset + combination * 4);
+		int end = buffer.getInt(combinationsOffset + (combination + 1) * 4);
+		int base = combinationsOffset + (combinations + 1) * 4;
+		int[] result = new int[end - start];
+
+		for (int i = 0; i < result.length; i++) {
+			result[i] = buffer.getInt(base + (start + i) * 4);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of distinct sets of ordinals keys map to.
+	 *
+	 * @return
+	 */
+	int getCombinations() {
+		return combinations;
+	}
+
+	private static long hash(String key, long seed) {
+
+		long hash = seed ^ 0xCBF29CE484222325L;
+
+		for (int i = 0; i < key.length(); i++) {
+			hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+		}
+
+		return mix(hash);
+	}
+
+	private static long mix(long value) {
+
+		value = (value ^ value >>> 33) * 0xFF51AFD7ED558CCDL;
+		value = (value ^ value >>> 33) * 0xC4CEB9FE1A85EC53L;
+
+		return value ^ value >>> 33;
+	}
+
+	private static int getBucket(long hash, int buckets) {
+		return (int) (((hash >>> 32) * buckets) >>> 32);
+	}
+
+	/**
+	 * Returns the slot for the given hash and bucket seed. Negative seeds directly encode the slot of a bucket
+	 * containing a single key.
+	 *
+	 * @param hash
+	 * @param seed
+	 * @param size
+	 * @return
+	 */
+	private static int getSlot(long hash, int seed, int size) {
+
+		if (seed < 0) {
+			return -seed - 1;
+		}
+
+		return (int) (((mix(hash ^ (seed + 1) * 0x9E3779B97F4A7C15L) >>> 32) * size) >>> 32);
+	}
+
+	private static int getPackedLength(int count, int bits) {
+		return (int) (((long) count * bits + 63) / 64);
+	}
+
+	private static long readBits(ByteBuffer buffer, int offset, int index, int bits) {
+
+		if (bits == 0) {
+			return 0;
+		}
+
+		long position = (long) index * bits;
+		int word = (int) (position >>> 6);
+		int shift = (int) (position & 63);
+		long mask = (1L << bits) - 1;
+		long value = buffer.getLong(offset + word * 8) >>> shift;
+
+		if (shift + bits > 64) {
+			value |= buffer.getLong(offset + (word + 1) * 8) << (64 - shift);
+		}
+
+		return value & mask;
+	}
+
+	private static void writeBits(long[] words, int index, int bits, long value) {
+
+		if (bits == 0) {
+			return;
+		}
+
+		long position = (long) index * bits;
+		int word = (int) (position >>> 6);
+		int shift = (int) (position & 63);
+
+		words[word] |= value << shift;
+
+		if (shift + bits > 64) {
+			words[word + 1] |= value >>> (64 - shift);
+		}
+	}
+
+	/**
+	 * Builder for {@link PerfectHashIndex} instances.
+	 *
+	 * @author agent
+	 */
+	public static class Builder {
+
+		private static final int AVERAGE_BUCKET_SIZE = 3;
+		private static final int MAX_BUCKET_SEED = 1 << 20;
+		private static final int MAX_ATTEMPTS = 32;
+
+		private final Map<String, BitSet> ordinals = new LinkedHashMap<>();
+
+		private Builder() {}
+
+		/**
+		 * Registers the plugin with the given ordinal to support the given key.
+		 *
+		 * @param key must not be {@literal null}.
+		 * @param ordinal must not be negative.
+		 * @return
+		 */
+		public Builder add(String key, int ordinal) {
+
+			Assert.notNull(key, "Key must not be null!");
+			Assert.isTrue(ordinal >= 0, "Ordinal must not be negative!");
+
+			ordinals.computeIfAbsent(key, __ -> new BitSet()).set(ordinal);
+
+			return this;
+		}
+
+		/**
+		 * Creates the {@link PerfectHashIndex} on the heap. Use {@link PerfectHashIndex#writeTo(WritableByteChannel)} and
+		 * {@link PerfectHashIndex#map(Path)} to move it off-heap.
+		 *
+		 * @return
+		 * @throws IllegalStateException in case no perfect hash could be found for the registered keys.
+		 */
+		public PerfectHashIndex build() {
+
+			String[] keys = ordinals.keySet().toArray(new String[0]);
+			Map<BitSet, Integer> ids = new HashMap<>();
+			List<BitSet> combinations = new ArrayList<>();
+			int[] combinationIds = new int[keys.length];
+
+			for (int i = 0; i < keys.length; i++) {
+
+				BitSet combination = ordinals.get(keys[i]);
+
+				combinationIds[i] = ids.computeIfAbsent(combination, it -> {
+					combinations.add(it);
+					return combinations.size() - 1;
+				});
+			}
+
+			int size = keys.length;
+			int buckets = Math.max(1, (size + AVERAGE_BUCKET_SIZE - 1) / AVERAGE_BUCKET_SIZE);
+			int bits = combinations.size() <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(combinations.size() - 1);
+
+			for (long seed = 0; seed < MAX_ATTEMPTS; seed++) {
+
+				long[] hashes = new long[size];
+
+				for (int i = 0; i < size; i++) {
+					hashes[i] = hash(keys[i], seed);
+				}
+
+				int[] slots = new int[size];
+				int[] seeds = place(hashes, buckets, slots);
+
+				if (seeds != null) {
+					return new PerfectHashIndex(
+							write(size, buckets, seed, bits, seeds, hashes, slots, combinationIds, combinations));
+				}
+			}
+
+			throw new IllegalStateException(String.format("Unable to find a perfect hash for %s keys!", size));
+		}
+
+		/**
+		 * Assigns a slot to every hash and returns the bucket seeds leading to that assignment or {@literal null} in case
+		 * no assignment was found.
+		 *
+		 * @param hashes must not be {@literal null}.
+		 * @param buckets the number of buckets.
+		 * @param slots the array to store the slot of each hash in.
+		 * @return
+		 */
+		private static int[] place(long[] hashes, int buckets, int[] slots) {
+
+			int size = hashes.length;
+
+			// Group keys by bucket
+			int[] starts = new int[buckets + 1];
+
+			for (long hash : hashes) {
+				starts[getBucket(hash, buckets) + 1]++;
+			}
+
+			for (int i = 0; i < buckets; i++) {
+				starts[i + 1] += starts[i];
+			}
+
+			int[] members = new int[size];
+			int[] fill = starts.clone();
+
+			for (int i = 0; i < size; i++) {
+				members[fill[getBucket(hashes[i], buckets)]++] = i;
+			}
+
+			// Order buckets by descending size
+			int largest = 0;
+
+			for (int i = 0; i < buckets; i++) {
+				largest = Math.max(largest, starts[i + 1] - starts[i]);
+			}
+
+			int[] bySize = new int[largest + 2];
+
+			for (int i = 0; i < buckets; i++) {
+				bySize[largest - (starts[i + 1] - starts[i]) + 1]++;
+			}
+
+			for (int i = 0; i <= largest; i++) {
+				bySize[i + 1] += bySize[i];
+			}
+
+			int[] order = new int[buckets];
+
+			for (int i = 0; i < buckets; i++) {
+				order[bySize[largest - (starts[i + 1] - starts[i])]++] = i;
+			}
+
+			int[] seeds = new int[buckets];
+			BitSet taken = new BitSet(size);
+			int[] candidates = new int[largest];
+			int free = 0;
+
+			for (int bucket : order) {
+
+				int start = starts[bucket], count = starts[bucket + 1] - start;
+
+				if (count == 0) {
+					break;
+				}
+
+				// Singletons are assigned to the next free slot directly
+				if (count == 1) {
+
+					free = taken.nextClearBit(free);
+					taken.set(free);
+					slots[members[start]] = free;
+					seeds[bucket] = -free - 1;
+
+					continue;
+				}
+
+				int seed = findSeed(hashes, members, start, count, taken, candidates);
+
+				if (seed < 0) {
+					return null;
+				}
+
+				for (int i = 0; i < count; i++) {
+					taken.set(candidates[i]);
+					slots[members[start + i]] = candidates[i];
+				}
+
+				seeds[bucket] = seed;
+			}
+
+			return seeds;
+		}
+
+		private static int findSeed(long[] hashes, int[] members, int start, int count, BitSet taken, int[] candidates) {
+
+			int size = hashes.length;
+
+			for (int seed = 0; seed < MAX_BUCKET_SEED; seed++) {
+
+				int placed = 0;
+
+				for (; placed < count; placed++) {
+
+					int slot = getSlot(hashes[members[start + placed]], seed, size);
+
+					if (taken.get(slot) || contains(candidates, placed, slot)) {
+						break;
+					}
+
+					candidates[placed] = slot;
+				}
+
+				if (placed == count) {
+					return seed;
+				}
+			}
+
+			return -1;
+		}
+
+		private static boolean contains(int[] values, int length, int value) {
+
+			for (int i = 0; i < length; i++) {
+				if (values[i] == value) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private static ByteBuffer write(int size, int buckets, long seed, int bits, int[] seeds, long[] hashes,
+				int[] slots, int[] combinationIds, List<BitSet> combinations) {
+
+			long[] packed = new long[getPackedLength(size, bits)];
+			short[] fingerprints = new short[size];
+
+			for (int i = 0; i < size; i++) {
+				fingerprints[slots[i]] = (short) hashes[i];
+				writeBits(packed, slots[i], bits, combinationIds[i]);
+			}
+
+			int ordinalCount = combinations.stream().mapToInt(BitSet::cardinality).sum();
+			int capacity = HEADER_SIZE + buckets * 4 + size * 2 + packed.length * 8 + (combinations.size() + 1) * 4
+					+ ordinalCount * 4;
+
+			ByteBuffer buffer = ByteBuffer.allocate(capacity);
+
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(buckets).putLong(seed).putInt(bits)
+					.putInt(combinations.size());
+
+			buffer.asIntBuffer().put(seeds);
+			buffer.position(buffer.position() + buckets * 4);
+			buffer.asShortBuffer().put(fingerprints);
+			buffer.position(buffer.position() + size * 2);
+			buffer.asLongBuffer().put(packed);
+			buffer.position(buffer.position() + packed.length * 8);
+
+			int offset = 0;
+
+			for (BitSet combination : combinations) {
+				buffer.putInt(offset);
+				offset += combination.cardinality();
+			}
+
+			buffer.putInt(offset);
+
+			for (BitSet combination : combinations) {
+				combination.stream().forEach(buffer::putInt);
+			}
+
+			buffer.clear();
+
+			return buffer.asReadOnlyBuffer();
+		}
+	}
+}
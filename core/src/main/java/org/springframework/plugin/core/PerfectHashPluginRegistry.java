@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} looking up {@link Plugin}s by {@link String} delimiters in a
+ * {@link PerfectHashIndex}. The ordinals stored in the index refer to the positions of the {@link Plugin}s in the
+ * {@link List} handed into the factory methods. The index narrows down the {@link Plugin}s referred to by it to the
+ * ones mapped to the delimiter, which are then confirmed via {@link Plugin#supports(Object)}. {@link Plugin}s not
+ * referred to by the index are asked via {@link Plugin#supports(Object)} as well.
+ * <p>
+ * The confirmation is necessary as the index only stores fingerprints of its keys: a delimiter not contained in it is
+ * mistaken for a contained one with a probability of 1 in 65536, which would select the {@link Plugin}s of that key
+ * otherwise. Use {@link #unconfirmed()} only in case the delimiters looked up are known to be keys of the index, to
+ * consider a {@link Plugin} referred to by the index to support exactly the keys the index maps to it.
+ *
+ * @author agent
+ * @since 2.0
+ * @see PerfectHashIndex
+ */
+public class PerfectHashPluginRegistry<T extends Plugin<String>> extends OrderAwarePluginRegistry<T, String> {
+
+	private final List<T> keyed;
+	private final PerfectHashIndex index;
+	private final boolean confirm;
+
+	private volatile Combinations<T> combinations;
+
+	/**
+	 * Creates a new {@link PerfectHashPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link PerfectHashIndex}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param index must not be {@literal null}.
+	 */
+	protected PerfectHashPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			PerfectHashIndex index) {
+		this(plugins, comparator, index, true);
+	}
+
+	private PerfectHashPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			PerfectHashIndex index, boolean confirm) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(index, "PerfectHashIndex must not be null!");
+
+		this.keyed = new ArrayList<>(plugins);
+		this.index = index;
+		this.confirm = confirm;
+	}
+
+	/**
+	 * Creates a new {@link PerfectHashPluginRegistry} for the given {@link Plugin}s and {@link PerfectHashIndex}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param index must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<String>> PerfectHashPluginRegistry<T> from(List<? extends T> plugins,
+			PerfectHashIndex index) {
+		return from(plugins, DEFAULT_COMPARATOR, index);
+	}
+
+	/**
+	 * Creates a new {@link PerfectHashPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link PerfectHashIndex}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param index must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<String>> PerfectHashPluginRegistry<T> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, PerfectHashIndex index) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new PerfectHashPluginRegistry<>(plugins, comparator, index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.combinations = new Combinations<>(result, keyed, index);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public PerfectHashPluginRegistry<T> reverse() {
+		return new PerfectHashPluginRegistry<>(keyed, getReverseComparator(), index, confirm);
+	}
+
+	/**
+	 * Returns a copy of the current registry that trusts the {@link PerfectHashIndex}, i.e. doesn't ask the
+	 * {@link Plugin}s selected by it via {@link Plugin#supports(Object)}. Only use this in case all delimiters looked up
+	 * are keys of the index, as delimiters mistaken for keys select the {@link Plugin}s of those keys with a probability
+	 * of 1 in 65536.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	public PerfectHashPluginRegistry<T> unconfirmed() {
+		return new PerfectHashPluginRegistry<>(keyed, getComparator(), index, false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(String delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Combinations<T> combinations = getCombinations();
+		Positions<T> declared = combinations.get(index.getCombination(delimiter));
+
+		if (!confirm) {
+			return Candidates.of(combinations.plugins, declared, combinations.undeclared, delimiter);
+		}
+
+		int[] candidates = merge(declared.getPositions(), combinations.undeclared);
+
+		return Candidates.of(combinations.plugins, Candidates.NO_POSITIONS, null, candidates, delimiter);
+	}
+
+	private Combinations<T> getCombinations() {
+
+		ensureInitialized();
+
+		return combinations;
+	}
+
+	private static int[] merge(int[] left, int[] right) {
+
+		if (left.length == 0 || right.length == 0) {
+			return left.length == 0 ? right : left;
+		}
+
+		int[] result = new int[left.length + right.length];
+
+		for (int i = 0, j = 0, k = 0; k < result.length; k++) {
+			result[k] = j == right.length || i < left.length && left[i] < right[j] ? left[i++] : right[j++];
+		}
+
+		return result;
+	}
+
+	/**
+	 * The positions of the {@link Plugin}s of every combination of ordinals contained in the {@link PerfectHashIndex},
+	 * translated into the order of the registry.
+	 *
+	 * @author agent
+	 */
+	private static class Combinations<T> {
+
+		private final List<T> plugins;
+		private final Positions<T>[] positions;
+		private final int[] undeclared;
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		Combinations(List<T> plugins, List<T> keyed, PerfectHashIndex index) {
+
+			Map<T, Integer> sorted = new IdentityHashMap<>(plugins.size());
+
+			for (int i = 0; i < plugins.size(); i++) {
+				sorted.put(plugins.get(i), i);
+			}
+
+			boolean[] declared = new boolean[plugins.size()];
+
+			this.plugins = plugins;
+			this.positions = new Positions[index.getCombinations()];
+
+			for (int i = 0; i < positions.length; i++) {
+
+				int[] ordinals = index.getOrdinals(i);
+				int[] positions = new int[ordinals.length];
+
+				for (int j = 0; j < ordinals.length; j++) {
+
+					int ordinal = ordinals[j];
+
+					Assert.state(ordinal < keyed.size(),
+							() -> String.format("Index refers to plugin %s but only %s plugins given!", ordinal, keyed.size()));
+
+					positions[j] = sorted.get(keyed.get(ordinal));
+					declared[positions[j]] = true;
+				}
+
+				Arrays.sort(positions);
+
+				this.positions[i] = Positions.of(positions, plugins);
+			}
+
+			List<Integer> undeclared = new ArrayList<>();
+
+			for (int i = 0; i < declared.length; i++) {
+				if (!declared[i]) {
+					undeclared.add(i);
+				}
+			}
+
+			this.undeclared = undeclared.stream().mapToInt(Integer::intValue).toArray();
+		}
+
+		Positions<T> get(int combination) {
+			return combination < 0 ? Positions.none() : positions[combination];
+		}
+	}
+}
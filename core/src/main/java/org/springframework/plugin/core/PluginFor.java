@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Statically declares the delimiters a {@link Plugin} implementation supports. A plugin carrying this annotation is
+ * considered to support exactly the declared delimiters, so that registries can select it by a lookup instead of
+ * invoking {@link Plugin#supports(Object)}. The declarations can be collected into an index at compile time by
+ * adding {@code spring-plugin-indexer} to the annotation processor path.
+ *
+ * <pre class="code">
+ * &#64;PluginFor({ "pdf", "docx" })
+ * class DocumentRenderer implements RendererPlugin { ... }
+ *
+ * &#64;PluginFor(enumType = Format.class, value = "PDF")
+ * class PdfRenderer implements FormatPlugin { ... }
+ *
+ * &#64;PluginFor(types = Invoice.class)
+ * class InvoiceHandler implements HandlerPlugin { ... }
+ * </pre>
+ *
+ * @author agent
+ * @since 2.0
+ * @see DelimiterResolver#annotated()
+ * @see DelimiterResolver#indexed(ClassLoader)
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PluginFor {
+
+	/**
+	 * The {@link String} delimiters the plugin supports or the names of the enum constants of {@link #enumType()} if
+	 * configured.
+	 *
+	 * @return
+	 */
+	String[] value() default {};
+
+	/**
+	 * The {@link Class} delimiters the plugin supports.
+	 *
+	 * @return
+	 */
+	Class<?>[] types() default {};
+
+	/**
+	 * The enum type to resolve the constants listed in {@link #value()} from.
+	 *
+	 * @return
+	 */
+	Class<? extends Enum<?>> enumType() default None.class;
+
+	/**
+	 * Marker for {@link #enumType()} to indicate that {@link #value()} lists plain {@link String} delimiters.
+	 */
+	enum None {}
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import org.springframework.core.io.UrlResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link DelimiterResolver} reading the delimiter index written to {@value #INDEX_LOCATION} by the
+ * {@code spring-plugin-indexer} annotation processor. The index maps encoded delimiters to the names of the
+ * implementation classes declaring them via {@link PluginFor}. Delimiters are encoded as
+ * {@code $delimiterType:$value}, e.g. {@code java.lang.String:pdf}, {@code java.lang.Class:com.acme.Invoice} or
+ * {@code com.acme.Format:PDF} for enum constants.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class PluginIndexDelimiterResolver implements DelimiterResolver {
+
+	static final String INDEX_LOCATION = "META-INF/spring.plugins";
+
+	private static final Map<ClassLoader, PluginIndexDelimiterResolver> CACHE = new ConcurrentReferenceHashMap<>();
+
+	private final ClassLoader classLoader;
+	private final Map<String, List<String>> keysByType;
+	private final Map<String, Optional<Set<Object>>> delimiters;
+
+	/**
+	 * Creates a new {@link PluginIndexDelimiterResolver} for the given {@link ClassLoader} and index entries.
+	 *
+	 * @param classLoader must not be {@literal null}.
+	 * @param keysByType must not be {@literal null}.
+	 */
+	private PluginIndexDelimiterResolver(ClassLoader classLoader, Map<String, List<String>> keysByType) {
+
+		this.classLoader = classLoader;
+		this.keysByType = keysByType;
+		this.delimiters = new ConcurrentReferenceHashMap<>();
+	}
+
+	/**
+	 * Returns the {@link PluginIndexDelimiterResolver} for all indexes found in the given {@link ClassLoader}.
+	 *
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @return
+	 */
+	static PluginIndexDelimiterResolver load(ClassLoader classLoader) {
+
+		ClassLoader loader = classLoader == null ? ClassUtils.getDefaultClassLoader() : classLoader;
+
+		return CACHE.computeIfAbsent(loader, it -> new PluginIndexDelimiterResolver(it, readIndex(it)));
+	}
+
+	/**
+	 * Returns whether the index contains any entries at all.
+	 *
+	 * @return
+	 */
+	boolean isEmpty() {
+		return keysByType.isEmpty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.DelimiterResolver#resolveDelimiters(java.lang.Class)
+	 */
+	@Override
+	public Optional<Set<Object>> resolveDelimiters(Class<?> pluginType) {
+
+		List<String> keys = keysByType.get(pluginType.getName());
+
+		return keys == null //
+				? Optional.empty() //
+				: delimiters.computeIfAbsent(pluginType.getName(), __ -> Optional.of(decode(keys)));
+	}
+
+	private Set<Object> decode(List<String> keys) {
+
+		Set<Object> result = new HashSet<>(keys.size());
+
+		for (String key : keys) {
+			result.add(decode(key, classLoader));
+		}
+
+		return Collections.unmodifiableSet(result);
+	}
+
+	/**
+	 * Decodes the given index key into the delimiter instance.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @param classLoader must not be {@literal null}.
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	static Object decode(String key, ClassLoader classLoader) {
+
+		int separator = key.indexOf(':');
+
+		if (separator < 0) {
+			throw new IllegalStateException(String.format("Invalid plugin index key %s!", key));
+		}
+
+		String typeName = key.substring(0, separator);
+		String value = key.substring(separator + 1);
+
+		if (String.class.getName().equals(typeName)) {
+			return value;
+		}
+
+		try {
+
+			if (Class.class.getName().equals(typeName)) {
+				return ClassUtils.forName(value, classLoader);
+			}
+
+			Class<?> type = ClassUtils.forName(typeName, classLoader);
+
+			if (type.isEnum()) {
+				return Enum.valueOf((Class<? extends Enum>) type, value);
+			}
+
+		} catch (ClassNotFoundException o_O) {
+			throw new IllegalStateException(String.format("Could not resolve plugin index key %s!", key), o_O);
+		}
+
+		throw new IllegalStateException(String.format("Unsupported delimiter type in plugin index key %s!", key));
+	}
+
+	private static Map<String, List<String>> readIndex(ClassLoader classLoader) {
+
+		Map<String, List<String>> result = new HashMap<>();
+
+		try {
+
+			Enumeration<URL> urls = classLoader.getResources(INDEX_LOCATION);
+
+			while (urls.hasMoreElements()) {
+
+				Properties properties = PropertiesLoaderUtils.loadProperties(new UrlResource(urls.nextElement()));
+
+				for (String key : properties.stringPropertyNames()) {
+					for (String type : StringUtils.commaDelimitedListToSet(properties.getProperty(key))) {
+						result.computeIfAbsent(type.trim(), __ -> new ArrayList<>()).add(key);
+					}
+				}
+			}
+
+		} catch (IOException o_O) {
+			throw new IllegalStateException(String.format("Unable to load plugin index from %s!", INDEX_LOCATION), o_O);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Compact binary representation of a delimiter to plugin positions lookup table. The file starts with a header
+ * containing a magic number, the format version, the number of plugins and a hash over the class names of the plugins
+ * in their registry order. Only if the header matches the current plugin set, the entries are considered. Each entry
+ * consists of a type tagged delimiter key followed by the varint encoded deltas of the positions of the plugins
+ * supporting it.
+ * <p>
+ * Supported delimiter types are {@link String}, {@link Integer}, {@link Long}, {@link Boolean}, {@link Enum} and
+ * {@link Class}. Entries for other delimiters are not written.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class PluginIndexFile {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PluginIndexFile.class);
+
+	private static final int MAGIC = 0x53504958; // SPIX
+	private static final short VERSION = 1;
+
+	private static final byte STRING = 1, INTEGER = 2, LONG = 3, BOOLEAN = 4, ENUM = 5, CLASS = 6;
+
+	private PluginIndexFile() {}
+
+	/**
+	 * Returns whether the given delimiter can be written to an index file.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	static boolean isSupported(Object delimiter) {
+
+		return delimiter instanceof String || delimiter instanceof Integer || delimiter instanceof Long
+				|| delimiter instanceof Boolean || delimiter instanceof Enum || delimiter instanceof Class;
+	}
+
+	/**
+	 * Computes the hash identifying the given plugins in their current order.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	static long hash(List<?> plugins) {
+
+		long hash = IndexFiles.HASH_SEED;
+
+		for (Object plugin : plugins) {
+			hash = IndexFiles.hash(IndexFiles.hash(hash, AopProxyUtils.ultimateTargetClass(plugin).getName()), '\n');
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Atomically writes the given entries for the given plugins to the given file.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param entries must not be {@literal null}.
+	 * @throws IOException
+	 */
+	static void write(Path file, List<?> plugins, Map<Object, int[]> entries) throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		int count = 0;
+
+		for (Object delimiter : entries.keySet()) {
+			if (isSupported(delimiter)) {
+				count++;
+			}
+		}
+
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeInt(plugins.size());
+		out.writeLong(hash(plugins));
+		out.writeInt(count);
+
+		for (Entry<Object, int[]> entry : entries.entrySet()) {
+
+			if (!isSupported(entry.getKey())) {
+				continue;
+			}
+
+			writeKey(out, entry.getKey());
+
+			int[] positions = entry.getValue();
+			IndexFiles.writeVarInt(out, positions.length);
+
+			for (int i = 0, previous = 0; i < positions.length; i++) {
+				IndexFiles.writeVarInt(out, positions[i] - previous);
+				previous = positions[i];
+			}
+		}
+
+		out.flush();
+
+		IndexFiles.write(file, bytes);
+	}
+
+	/**
+	 * Reads the entries from the given file by memory-mapping it. Returns an empty {@link Map} in case the file does not
+	 * exist, is corrupt or was written for a different set of plugins.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @param plugins must not be {@literal null}.
+	 * @param classLoader can be {@literal null}.
+	 * @return will never be {@literal null}.
+	 */
+	static Map<Object, int[]> read(Path file, List<?> plugins, ClassLoader classLoader) {
+
+		if (!Files.isRegularFile(file)) {
+			return new HashMap<>();
+		}
+
+		try {
+
+			ByteBuffer buffer = IndexFiles.map(file);
+
+			if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION || buffer.getInt() != plugins.size()
+					|| buffer.getLong() != hash(plugins)) {
+
+				LOG.debug("Discarding stale plugin index {}.", file);
+				return new HashMap<>();
+			}
+
+			int count = buffer.getInt();
+			Map<Object, int[]> result = new HashMap<>(count * 2);
+
+			for (int i = 0; i < count; i++) {
+
+				Object key = readKey(buffer, classLoader);
+				int[] positions = new int[IndexFiles.readVarInt(buffer)];
+
+				for (int j = 0, previous = 0; j < positions.length; j++) {
+
+					positions[j] = previous = previous + IndexFiles.readVarInt(buffer);
+
+					if (positions[j] >= plugins.size()) {
+						throw new IllegalStateException("Invalid plugin position " + positions[j]);
+					}
+				}
+
+				result.put(key, positions);
+			}
+
+			return result;
+
+		} catch (Exception o_O) {
+
+			LOG.debug("Discarding corrupt plugin index {}.", file, o_O);
+			return new HashMap<>();
+		}
+	}
+
+	private static void writeKey(DataOutputStream out, Object key) throws IOException {
+
+		if (key instanceof String) {
+			out.writeByte(STRING);
+			IndexFiles.writeString(out, (String) key);
+		} else if (key instanceof Integer) {
+			out.writeByte(INTEGER);
+			out.writeInt((Integer) key);
+		} else if (key instanceof Long) {
+			out.writeByte(LONG);
+			out.writeLong((Long) key);
+		} else if (key instanceof Boolean) {
+			out.writeByte(BOOLEAN);
+			out.writeBoolean((Boolean) key);
+		} else if (key instanceof Enum) {
+			out.writeByte(ENUM);
+			IndexFiles.writeString(out, ((Enum<?>) key).getDeclaringClass().getName());
+			IndexFiles.writeString(out, ((Enum<?>) key).name());
+		} else {
+			out.writeByte(CLASS);
+			IndexFiles.writeString(out, ((Class<?>) key).getName());
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object readKey(ByteBuffer buffer, ClassLoader classLoader) throws ClassNotFoundException {
+
+		byte tag = buffer.get();
+
+		switch (tag) {
+			case STRING:
+				return IndexFiles.readString(buffer);
+			case INTEGER:
+				return buffer.getInt();
+			case LONG:
+				return buffer.getLong();
+			case BOOLEAN:
+				return buffer.get() != 0;
+			case ENUM:
+				Class type = ClassUtils.forName(IndexFiles.readString(buffer), classLoader);
+				return Enum.valueOf(type, IndexFiles.readString(buffer));
+			case CLASS:
+				return ClassUtils.forName(IndexFiles.readString(buffer), classLoader);
+			default:
+				throw new IllegalStateException("Unknown key tag " + tag);
+		}
+	}
+}
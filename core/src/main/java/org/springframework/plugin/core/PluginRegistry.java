@@ -15,12 +15,17 @@
  */
 package org.springframework.plugin.core;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.util.Assert;
 
@@ -128,13 +133,80 @@ public interface PluginRegistry<T extends Plugin<S>, S> extends Iterable<T> {
 	T getRequiredPluginFor(S delimiter, Supplier<String> message) throws IllegalArgumentException;
 
 	/**
-	 * Returns all plugins for the given delimiter.
+	 * Returns all plugins for the given delimiter. Registries answering lookups from an index may return a shared,
+	 * immutable {@link List}.
 	 *
 	 * @param delimiter
 	 * @return a list of plugins or an empty list if none found
 	 */
 	List<T> getPluginsFor(S delimiter);
 
+	/**
+	 * Returns a {@link Stream} of all plugins for the given delimiter. Plugins are asked whether they support the
+	 * delimiter lazily, i.e. only when the {@link Stream} advances to them, so that short-circuiting operations don't
+	 * evaluate further plugins.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return will never be {@literal null}.
+	 * @since 2.0
+	 */
+	default Stream<T> streamPluginsFor(S delimiter) {
+
+		List<T> plugins = getPlugins();
+		List<T> source = plugins instanceof RandomAccess ? plugins : new ArrayList<>(plugins);
+
+		return StreamSupport.stream(new SupportingSpliterator<>(source, delimiter), false);
+	}
+
+	/**
+	 * Returns the first plugins for the given delimiter, at most the given number of them. Stops asking plugins whether
+	 * they support the delimiter once the limit is reached.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @param limit must not be negative.
+	 * @return a list of plugins or an empty list if none found
+	 * @since 2.0
+	 */
+	default List<T> getPluginsFor(S delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		List<T> result = new ArrayList<>();
+
+		for (T plugin : getPlugins()) {
+
+			if (result.size() == limit) {
+				break;
+			}
+
+			if (plugin.supports(delimiter)) {
+				result.add(plugin);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of plugins for the given delimiter without collecting them.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 * @since 2.0
+	 */
+	default int countPluginsFor(S delimiter) {
+
+		int count = 0;
+
+		for (T plugin : getPlugins()) {
+			if (plugin.supports(delimiter)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
 	/**
 	 * Retrieves a required plugin from the registry or throw the given exception if none can be found. If more than one
 	 * plugins are found the first one will be returned.
@@ -217,4 +289,31 @@ public interface PluginRegistry<T extends Plugin<S>, S> extends Iterable<T> {
 	 * @return
 	 */
 	List<T> getPlugins();
+
+	/**
+	 * Returns a view of the current registry only containing the {@link Plugin}s matching the given {@link Predicate}.
+	 * The view refers to the current {@link Plugin}s in their current order, evaluates the {@link Predicate} once per
+	 * {@link Plugin} on first access and can be shared.
+	 *
+	 * @param predicate must not be {@literal null}.
+	 * @return
+	 * @since 2.0
+	 */
+	default PluginRegistry<T, S> filter(Predicate<? super T> predicate) {
+		return FilteredPluginRegistry.of(this, predicate);
+	}
+
+	/**
+	 * Returns a view of the current registry only containing the {@link Plugin}s of the given type, e.g. the ones
+	 * additionally implementing a more specific {@link Plugin} interface. Registries may return the same view for
+	 * repeated invocations for the same type, which {@link PluginRegistrySupport} does.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @return
+	 * @since 2.0
+	 * @see #filter(Predicate)
+	 */
+	default <U extends T> PluginRegistry<U, S> narrow(Class<U> type) {
+		return FilteredPluginRegistry.narrow(this, type);
+	}
 }
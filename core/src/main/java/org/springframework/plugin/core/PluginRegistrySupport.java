@@ -18,6 +18,8 @@ package org.springframework.plugin.core;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.util.Assert;
 
@@ -29,8 +31,10 @@ import org.springframework.util.Assert;
  */
 public abstract class PluginRegistrySupport<T extends Plugin<S>, S> implements PluginRegistry<T, S>, Iterable<T> {
 
-	private List<T> plugins;
-	private boolean initialized;
+	private final Map<Class<?>, PluginRegistry<?, ?>> narrowed = new ConcurrentHashMap<>();
+
+	private volatile List<T> plugins;
+	private volatile boolean initialized;
 
 	/**
 	 * Creates a new {@link PluginRegistrySupport} instance using the given plugins.
@@ -49,20 +53,38 @@ public abstract class PluginRegistrySupport<T extends Plugin<S>, S> implements P
 	/**
 	 * Returns all registered plugins. Only use this method if you really need to access all plugins. For distinguished
 	 * access to certain plugins favour accessor methods like {link #getPluginFor} over this one. This method should only
-	 * be used for testing purposes to check registry configuration.
+	 * be used for testing purposes to check registry configuration. Safe to be called concurrently, e.g. by a
+	 * background warm-up, the initialization happens exactly once.
 	 * 
 	 * @return all plugins of the registry
 	 */
 	public List<T> getPlugins() {
 
-		if (!initialized) {
-			this.plugins = initialize(this.plugins);
-			this.initialized = true;
-		}
+		ensureInitialized();
 
 		return plugins;
 	}
 
+	/**
+	 * Triggers the initialization unless it has already happened. Allows subclasses to access state derived from the
+	 * plugins in {@link #initialize(List)} without materializing the plugin {@link List}.
+	 *
+	 * @since 2.0
+	 */
+	protected final void ensureInitialized() {
+
+		if (!initialized) {
+
+			synchronized (this) {
+
+				if (!initialized) {
+					this.plugins = initialize(this.plugins);
+					this.initialized = true;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Callback to initialize the plugin {@link List}. Will create a defensive copy of the {@link List} to potentially
 	 * unwrap a {@link List} proxy. Will filter {@literal null} values from the source list as well.
@@ -84,6 +106,18 @@ public abstract class PluginRegistrySupport<T extends Plugin<S>, S> implements P
 		return result;
 	}
 
+	/**
+	 * Returns the view only containing the {@link Plugin}s of the given type, shared for all invocations with the same
+	 * type on the current registry.
+	 *
+	 * @see org.springframework.plugin.core.PluginRegistry#narrow(java.lang.Class)
+	 * @since 2.0
+	 */
+	@Override
+	public <U extends T> PluginRegistry<U, S> narrow(Class<U> type) {
+		return FilteredPluginRegistry.narrow(this, type, narrowed);
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see java.lang.Iterable#iterator()
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import org.springframework.plugin.core.Candidates.Positions;
+
+/**
+ * Lookup table of primitive keys to the positions of the plugins declaring them. Uses an array indexed by the key's
+ * offset to the smallest key if the keys are dense, i.e. span a range of at most {@value #DENSITY} times the number of
+ * keys, and an open-addressing hash table with linear probing otherwise. Neither of them boxes the key on lookup.
+ * Alongside the positions, the table keeps the positions of the plugins not declaring keys and shared, immutable lists
+ * of the plugins per key. Keys are {@code long}s, so that the table backs the registries for both {@code int} and
+ * {@code long} delimiters.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class PrimitiveKeyTable<T> {
+
+	private static final int DENSITY = 4;
+	private static final int MIN_DENSE_RANGE = 64;
+
+	private final List<T> plugins;
+	private final int[] undeclared;
+
+	// Dense table
+	private final long min;
+	private final int range;
+
+	// Sparse table
+	private final long[] keys;
+	private final int mask;
+
+	private final Positions<T>[] positions;
+
+	/**
+	 * Creates a new {@link PrimitiveKeyTable} for the given plugins, obtaining the keys of each plugin from the given
+	 * {@link Function}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param keys returns the keys of the given plugin or {@literal null} if it doesn't declare keys, must not be
+	 *          {@literal null}.
+	 * @return
+	 */
+	static <T> PrimitiveKeyTable<T> of(List<T> plugins, Function<? super T, long[]> keys) {
+
+		Map<Long, List<Integer>> declared = new HashMap<>();
+		List<Integer> undeclared = new ArrayList<>();
+
+		for (int i = 0; i < plugins.size(); i++) {
+
+			long[] source = keys.apply(plugins.get(i));
+
+			if (source == null) {
+				undeclared.add(i);
+				continue;
+			}
+
+			for (long key : source) {
+
+				List<Integer> positions = declared.computeIfAbsent(key, __ -> new ArrayList<>());
+
+				if (positions.isEmpty() || positions.get(positions.size() - 1) != i) {
+					positions.add(i);
+				}
+			}
+		}
+
+		return new PrimitiveKeyTable<>(plugins, declared, undeclared);
+	}
+
+	/**
+	 * Creates a new {@link PrimitiveKeyTable} for the given plugins, keys and positions of the plugins not declaring
+	 * keys.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param declared the positions of the plugins declaring a key by key, must not be {@literal null}.
+	 * @param undeclared the positions of the plugins not declaring keys, must not be {@literal null}.
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private PrimitiveKeyTable(List<T> plugins, Map<Long, List<Integer>> declared, List<Integer> undeclared) {
+
+		TreeMap<Long, List<Integer>> sorted = new TreeMap<>(declared);
+
+		this.plugins = plugins;
+		this.undeclared = toArray(undeclared);
+
+		long span = sorted.isEmpty() ? 0 : sorted.lastKey() - sorted.firstKey() + 1;
+		boolean dense = !sorted.isEmpty() && span > 0
+				&& span <= Math.max(MIN_DENSE_RANGE, (long) sorted.size() * DENSITY);
+
+		if (dense) {
+
+			this.min = sorted.firstKey();
+			this.range = (int) span;
+			this.keys = null;
+			this.mask = 0;
+			this.positions = new Positions[range];
+
+			sorted.forEach((key, it) -> put((int) (key - min), it));
+
+		} else {
+
+			int capacity = Integer.highestOneBit(Math.max(sorted.size(), 1) * 2 - 1) << 1;
+
+			this.min = 0;
+			this.range = -1;
+			this.keys = new long[capacity];
+			this.mask = capacity - 1;
+			this.positions = new Positions[capacity];
+
+			sorted.forEach((key, it) -> {
+
+				int slot = hash(key) & mask;
+
+				while (positions[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+
+				keys[slot] = key;
+				put(slot, it);
+			});
+		}
+	}
+
+	/**
+	 * Returns the {@link Candidates} for the given key, asking the plugins not declaring keys via the given
+	 * {@link KeySupport}. Returns the shared positions of the plugins declaring the key if all plugins declare keys.
+	 *
+	 * @param key
+	 * @param support must not be {@literal null}.
+	 * @return will never be {@literal null}.
+	 */
+	Candidates<T> getCandidates(long key, KeySupport<? super T> support) {
+
+		Positions<T> declared = get(key);
+
+		if (undeclared.length == 0) {
+			return declared;
+		}
+
+		return new Candidates<T>(plugins, declared, undeclared) {
+
+			@Override
+			protected boolean supports(T plugin) {
+				return support.supports(plugin, key);
+			}
+		};
+	}
+
+	/**
+	 * Returns the positions of the plugins declaring the given key.
+	 *
+	 * @param key
+	 * @return will never be {@literal null}.
+	 */
+	private Positions<T> get(long key) {
+
+		int slot = getSlot(key);
+
+		return slot < 0 ? Positions.none() : positions[slot];
+	}
+
+	private int getSlot(long key) {
+
+		if (range >= 0) {
+
+			long offset = key - min;
+
+			return offset >= 0 && offset < range && positions[(int) offset] != null ? (int) offset : -1;
+		}
+
+		for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+
+			if (positions[slot] == null) {
+				return -1;
+			}
+
+			if (keys[slot] == key) {
+				return slot;
+			}
+		}
+	}
+
+	private void put(int slot, List<Integer> source) {
+		positions[slot] = Positions.of(toArray(source), plugins);
+	}
+
+	/**
+	 * Mixes the bits of the given key (using the MurmurHash3 64 bit finalizer).
+	 *
+	 * @param key
+	 * @return
+	 */
+	private static int hash(long key) {
+
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+
+		return (int) key;
+	}
+
+	private static int[] toArray(List<Integer> source) {
+		return source.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Asks a plugin whether it supports a primitive key without boxing it.
+	 *
+	 * @author agent
+	 */
+	interface KeySupport<T> {
+
+		boolean supports(T plugin, long key);
+	}
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Objects;
+
+import org.springframework.util.Assert;
+
+/**
+ * A range of {@link Comparable} values with optional, inclusive or exclusive bounds.
+ *
+ * @author agent
+ * @since 2.0
+ * @see RangePlugin
+ */
+public final class Range<C extends Comparable<? super C>> {
+
+	private static final Range<?> UNBOUNDED = new Range<>(null, false, null, false);
+
+	private final C lower, upper;
+	private final boolean lowerInclusive, upperInclusive;
+
+	private Range(C lower, boolean lowerInclusive, C upper, boolean upperInclusive) {
+
+		Assert.isTrue(lower == null || upper == null || lower.compareTo(upper) <= 0,
+				() -> String.format("Lower bound %s must not be greater than upper bound %s!", lower, upper));
+
+		this.lower = lower;
+		this.upper = upper;
+		this.lowerInclusive = lower != null && lowerInclusive;
+		this.upperInclusive = upper != null && upperInclusive;
+	}
+
+	/**
+	 * Returns a {@link Range} containing all values.
+	 *
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <C extends Comparable<? super C>> Range<C> unbounded() {
+		return (Range<C>) UNBOUNDED;
+	}
+
+	/**
+	 * Returns a {@link Range} containing all values between the given bounds, including both of them.
+	 *
+	 * @param lower must not be {@literal null}.
+	 * @param upper must not be {@literal null}.
+	 * @return
+	 */
+	public static <C extends Comparable<? super C>> Range<C> closed(C lower, C upper) {
+
+		Assert.notNull(lower, "Lower bound must not be null!");
+		Assert.notNull(upper, "Upper bound must not be null!");
+
+		return new Range<>(lower, true, upper, true);
+	}
+
+	/**
+	 * Returns a {@link Range} containing all values between the given bounds, including the lower but excluding the
+	 * upper one.
+	 *
+	 * @param lower must not be {@literal null}.
+	 * @param upper must not be {@literal null}.
+	 * @return
+	 */
+	public static <C extends Comparable<? super C>> Range<C> closedOpen(C lower, C upper) {
+
+		Assert.notNull(lower, "Lower bound must not be null!");
+		Assert.notNull(upper, "Upper bound must not be null!");
+
+		return new Range<>(lower, true, upper, false);
+	}
+
+	/**
+	 * Returns a {@link Range} containing all values greater than or equal to the given one.
+	 *
+	 * @param lower must not be {@literal null}.
+	 * @return
+	 */
+	public static <C extends Comparable<? super C>> Range<C> atLeast(C lower) {
+
+		Assert.notNull(lower, "Lower bound must not be null!");
+
+		return new Range<>(lower, true, null, false);
+	}
+
+	/**
+	 * Returns a {@link Range} containing all values less than the given one.
+	 *
+	 * @param upper must not be {@literal null}.
+	 * @return
+	 */
+	public static <C extends Comparable<? super C>> Range<C> lessThan(C upper) {
+
+		Assert.notNull(upper, "Upper bound must not be null!");
+
+		return new Range<>(null, false, upper, false);
+	}
+
+	/**
+	 * Returns a {@link Range} with the given bounds.
+	 *
+	 * @param lower can be {@literal null} for an unbounded lower end.
+	 * @param lowerInclusive whether the lower bound is contained in the range.
+	 * @param upper can be {@literal null} for an unbounded upper end.
+	 * @param upperInclusive whether the upper bound is contained in the range.
+	 * @return
+	 */
+	public static <C extends Comparable<? super C>> Range<C> of(C lower, boolean lowerInclusive, C upper,
+			boolean upperInclusive) {
+		return new Range<>(lower, lowerInclusive, upper, upperInclusive);
+	}
+
+	/**
+	 * Returns whether the given value is contained in the range.
+	 *
+	 * @param value can be {@literal null}.
+	 * @return
+	 */
+	public boolean contains(C value) {
+
+		if (value == null) {
+			return false;
+		}
+
+		if (lower != null) {
+
+			int result = lower.compareTo(value);
+
+			if (result > 0 || result == 0 && !lowerInclusive) {
+				return false;
+			}
+		}
+
+		if (upper != null) {
+
+			int result = upper.compareTo(value);
+
+			if (result < 0 || result == 0 && !upperInclusive) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Returns the lower bound or {@literal null} if the range is unbounded below.
+	 *
+	 * @return
+	 */
+	C getLower() {
+		return lower;
+	}
+
+	/**
+	 * Returns the upper bound or {@literal null} if the range is unbounded above.
+	 *
+	 * @return
+	 */
+	C getUpper() {
+		return upper;
+	}
+
+	boolean isLowerInclusive() {
+		return lowerInclusive;
+	}
+
+	boolean isUpperInclusive() {
+		return upperInclusive;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof Range)) {
+			return false;
+		}
+
+		Range<?> that = (Range<?>) obj;
+
+		return Objects.equals(this.lower, that.lower) && this.lowerInclusive == that.lowerInclusive
+				&& Objects.equals(this.upper, that.upper) && this.upperInclusive == that.upperInclusive;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return Objects.hash(lower, lowerInclusive, upper, upperInclusive);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+
+		return String.format("%s%s,%s%s", lowerInclusive ? "[" : "(", lower == null ? "" : lower,
+				upper == null ? "" : upper, upperInclusive ? "]" : ")");
+	}
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+/**
+ * {@link Plugin} supporting all delimiters within a {@link Range}, e.g. an amount band or a validity period, so that
+ * {@link RangePluginRegistry} can select it without invoking {@link #supports(Comparable)}. The range is read once
+ * when the registry is initialized.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public interface RangePlugin<C extends Comparable<? super C>> extends Plugin<C> {
+
+	/**
+	 * Returns the {@link Range} of delimiters the plugin supports.
+	 *
+	 * @return must not be {@literal null}.
+	 */
+	Range<C> getRange();
+
+	/**
+	 * Returns whether the given delimiter is contained in the plugin's {@link Range}.
+	 *
+	 * @see org.springframework.plugin.core.Plugin#supports(java.lang.Object)
+	 */
+	@Override
+	default boolean supports(C delimiter) {
+		return getRange().contains(delimiter);
+	}
+}
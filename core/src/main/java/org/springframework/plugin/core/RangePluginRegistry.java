@@ -0,0 +1,228 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+import org.springframework.plugin.core.Candidates.Positions;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} selecting {@link RangePlugin}s by the {@link Range} they declare. On initialization,
+ * all range bounds are sorted into an endpoint array which splits the value space into elementary segments: the
+ * endpoints themselves and the open gaps between them. Each segment is assigned the shared, immutable {@link List} of
+ * plugins covering it in registry order. Thus, a lookup is a binary search over the endpoints, i.e. O(log n), plus
+ * handing out the k matching plugins. {@link Plugin#supports(Object)} is only invoked for plugins not declaring a
+ * range.
+ * <p>
+ * As the registry is static, the segment table trades memory, quadratic in the number of plugins in the worst case of
+ * all ranges overlapping each other, for lookup speed.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class RangePluginRegistry<T extends Plugin<C>, C extends Comparable<? super C>>
+		extends OrderAwarePluginRegistry<T, C> {
+
+	private volatile Segments<T, C> segments;
+
+	/**
+	 * Creates a new {@link RangePluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected RangePluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link RangePluginRegistry} for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<C>, C extends Comparable<? super C>> RangePluginRegistry<T, C> from(
+			List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link RangePluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<C>, C extends Comparable<? super C>> RangePluginRegistry<T, C> from(
+			List<? extends T> plugins, Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new RangePluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.segments = new Segments<>(result);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public RangePluginRegistry<T, C> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(C delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Segments<T, C> segments = getSegments();
+
+		return Candidates.of(segments.plugins, segments.get(delimiter), segments.undeclared, delimiter);
+	}
+
+	private Segments<T, C> getSegments() {
+
+		ensureInitialized();
+
+		return segments;
+	}
+
+	/**
+	 * The sorted endpoints of all declared {@link Range}s and the positions of the plugins covering each elementary
+	 * segment. For {@code m} endpoints {@code e}, segment {@code 2i} is the gap below {@code e[i]} and segment
+	 * {@code 2i + 1} is {@code e[i]} itself, segment {@code 2m} is the gap above the highest endpoint.
+	 *
+	 * @author agent
+	 */
+	private static class Segments<T, C extends Comparable<? super C>> {
+
+		private final List<T> plugins;
+		private final Object[] endpoints;
+		private final Positions<T>[] positions;
+		private final int[] undeclared;
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		Segments(List<T> plugins) {
+
+			TreeSet<C> endpoints = new TreeSet<>();
+			List<Integer> undeclared = new ArrayList<>();
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				T plugin = plugins.get(i);
+
+				if (!(plugin instanceof RangePlugin)) {
+					undeclared.add(i);
+					continue;
+				}
+
+				Range<C> range = ((RangePlugin<C>) plugin).getRange();
+
+				Assert.notNull(range, () -> String.format("Plugin %s must not declare a null range!", plugin));
+
+				if (range.getLower() != null) {
+					endpoints.add(range.getLower());
+				}
+
+				if (range.getUpper() != null) {
+					endpoints.add(range.getUpper());
+				}
+			}
+
+			this.plugins = plugins;
+			this.endpoints = endpoints.toArray();
+			this.undeclared = undeclared.stream().mapToInt(Integer::intValue).toArray();
+
+			int count = 2 * this.endpoints.length + 1;
+			BitSet[] covered = new BitSet[count];
+
+			for (int i = 0; i < count; i++) {
+				covered[i] = new BitSet(plugins.size());
+			}
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				if (!(plugins.get(i) instanceof RangePlugin)) {
+					continue;
+				}
+
+				Range<C> range = ((RangePlugin<C>) plugins.get(i)).getRange();
+
+				int from = range.getLower() == null ? 0
+						: 2 * indexOf(range.getLower()) + (range.isLowerInclusive() ? 1 : 2);
+				int to = range.getUpper() == null ? count - 1
+						: 2 * indexOf(range.getUpper()) + (range.isUpperInclusive() ? 1 : 0);
+
+				for (int j = from; j <= to; j++) {
+					covered[j].set(i);
+				}
+			}
+
+			this.positions = new Positions[count];
+
+			for (int i = 0; i < count; i++) {
+
+				// Share the lookup results of adjacent segments covered by the same plugins
+				positions[i] = i > 0 && covered[i].equals(covered[i - 1]) //
+						? positions[i - 1] //
+						: Positions.of(covered[i].stream().toArray(), plugins);
+			}
+		}
+
+		Positions<T> get(C value) {
+			return positions[getSegment(value)];
+		}
+
+		private int getSegment(C value) {
+
+			int index = Arrays.binarySearch(endpoints, value);
+
+			return index >= 0 ? 2 * index + 1 : 2 * -(index + 1);
+		}
+
+		private int indexOf(C endpoint) {
+			return Arrays.binarySearch(endpoints, endpoint);
+		}
+	}
+}
@@ -20,8 +20,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.springframework.util.Assert;
 
@@ -107,6 +110,12 @@ public class SimplePluginRegistry<T extends Plugin<S>, S> extends PluginRegistry
 	@Override
 	public Optional<T> getPluginFor(S delimiter) {
 
+		Candidates<T> candidates = getCandidates(delimiter);
+
+		if (candidates != null) {
+			return candidates.getFirst();
+		}
+
 		return super.getPlugins().stream()//
 				.filter(it -> it.supports(delimiter))//
 				.findFirst();
@@ -142,11 +151,91 @@ public class SimplePluginRegistry<T extends Plugin<S>, S> extends PluginRegistry
 	@Override
 	public List<T> getPluginsFor(S delimiter) {
 
+		Candidates<T> candidates = getCandidates(delimiter);
+
+		if (candidates != null) {
+			return candidates.getAll();
+		}
+
 		return super.getPlugins().stream()//
 				.filter(it -> it.supports(delimiter))//
 				.collect(Collectors.toList());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#streamPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(S delimiter) {
+
+		Candidates<T> candidates = getCandidates(delimiter);
+
+		if (candidates != null) {
+			return StreamSupport.stream(candidates.spliterator(), false);
+		}
+
+		List<T> plugins = super.getPlugins();
+		List<T> source = plugins instanceof RandomAccess ? plugins : new ArrayList<>(plugins);
+
+		return StreamSupport.stream(new SupportingSpliterator<>(source, delimiter), false);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		Candidates<T> candidates = getCandidates(delimiter);
+
+		if (candidates != null) {
+			return candidates.getAll(limit);
+		}
+
+		List<T> result = new ArrayList<>();
+
+		for (T plugin : super.getPlugins()) {
+
+			if (result.size() == limit) {
+				break;
+			}
+
+			if (plugin.supports(delimiter)) {
+				result.add(plugin);
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#countPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public int countPluginsFor(S delimiter) {
+
+		Candidates<T> candidates = getCandidates(delimiter);
+
+		if (candidates != null) {
+			return candidates.count();
+		}
+
+		int count = 0;
+
+		for (T plugin : super.getPlugins()) {
+			if (plugin.supports(delimiter)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object, org.springframework.plugin.core.PluginRegistry.Supplier)
@@ -228,4 +317,16 @@ public class SimplePluginRegistry<T extends Plugin<S>, S> extends PluginRegistry
 	public boolean hasPluginFor(S delimiter) {
 		return getPluginFor(delimiter).isPresent();
 	}
+
+	/**
+	 * Returns the {@link Candidates} to answer lookups for the given delimiter from in case the registry maintains an
+	 * index over its {@link Plugin}s. All lookups for the delimiter use them, so that they consistently return the same
+	 * {@link Plugin}s.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return the {@link Candidates} or {@literal null} to ask all {@link Plugin}s via {@link Plugin#supports(Object)}.
+	 */
+	Candidates<T> getCandidates(S delimiter) {
+		return null;
+	}
 }
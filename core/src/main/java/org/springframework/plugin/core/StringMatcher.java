@@ -0,0 +1,186 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import org.springframework.util.Assert;
+
+/**
+ * A declarative matcher for {@link String} delimiters. Supports exact matches, prefix matches and glob patterns in
+ * which {@code *} matches any characters within a single segment, i.e. up to the next {@value #SEPARATOR}, and
+ * {@code **} matches any characters including {@value #SEPARATOR}:
+ *
+ * <pre class="code">
+ * StringMatcher.exact("application/json");
+ * StringMatcher.prefix("urn:acme:");
+ * StringMatcher.glob("text/*");
+ * StringMatcher.glob("/api/v2/**");
+ * </pre>
+ *
+ * @author agent
+ * @since 2.0
+ * @see StringMatchingPlugin
+ * @see StringMatcherPluginRegistry
+ */
+public final class StringMatcher {
+
+	static final char SEPARATOR = '/';
+
+	enum Type {
+		EXACT, PREFIX, GLOB;
+	}
+
+	private final Type type;
+	private final String pattern;
+
+	private StringMatcher(Type type, String pattern) {
+
+		Assert.notNull(pattern, "Pattern must not be null!");
+
+		this.type = type;
+		this.pattern = pattern;
+	}
+
+	/**
+	 * Creates a new {@link StringMatcher} matching the given value exactly.
+	 *
+	 * @param value must not be {@literal null}.
+	 * @return
+	 */
+	public static StringMatcher exact(String value) {
+		return new StringMatcher(Type.EXACT, value);
+	}
+
+	/**
+	 * Creates a new {@link StringMatcher} matching all values starting with the given prefix.
+	 *
+	 * @param prefix must not be {@literal null}.
+	 * @return
+	 */
+	public static StringMatcher prefix(String prefix) {
+		return new StringMatcher(Type.PREFIX, prefix);
+	}
+
+	/**
+	 * Creates a new {@link StringMatcher} for the given glob pattern. Patterns without wildcards match exactly.
+	 *
+	 * @param pattern must not be {@literal null}.
+	 * @return
+	 */
+	public static StringMatcher glob(String pattern) {
+
+		Assert.notNull(pattern, "Pattern must not be null!");
+
+		return pattern.indexOf('*') < 0 ? exact(pattern) : new StringMatcher(Type.GLOB, pattern);
+	}
+
+	/**
+	 * Returns whether the given value is matched.
+	 *
+	 * @param value can be {@literal null}.
+	 * @return
+	 */
+	public boolean matches(String value) {
+
+		if (value == null) {
+			return false;
+		}
+
+		switch (type) {
+			case EXACT:
+				return pattern.equals(value);
+			case PREFIX:
+				return value.startsWith(pattern);
+			default:
+				return matches(0, value, 0);
+		}
+	}
+
+	Type getType() {
+		return type;
+	}
+
+	String getPattern() {
+		return pattern;
+	}
+
+	private boolean matches(int patternIndex, String value, int valueIndex) {
+
+		if (patternIndex == pattern.length()) {
+			return valueIndex == value.length();
+		}
+
+		char current = pattern.charAt(patternIndex);
+
+		if (current != '*') {
+			return valueIndex < value.length() && value.charAt(valueIndex) == current
+					&& matches(patternIndex + 1, value, valueIndex + 1);
+		}
+
+		boolean any = patternIndex + 1 < pattern.length() && pattern.charAt(patternIndex + 1) == '*';
+		int next = any ? patternIndex + 2 : patternIndex + 1;
+
+		for (int i = valueIndex; i <= value.length(); i++) {
+
+			if (matches(next, value, i)) {
+				return true;
+			}
+
+			if (!any && i < value.length() && value.charAt(i) == SEPARATOR) {
+				return false;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof StringMatcher)) {
+			return false;
+		}
+
+		StringMatcher that = (StringMatcher) obj;
+
+		return this.type == that.type && this.pattern.equals(that.pattern);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * type.hashCode() + pattern.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return type == Type.PREFIX ? pattern + "..." : pattern;
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for {@link String} delimiters that compiles the {@link StringMatcher}s declared by
+ * {@link StringMatchingPlugin}s into a radix trie on initialization. A lookup walks the trie once to find all declaring
+ * plugins matching the delimiter and only invokes {@link Plugin#supports(Object)} for plugins not declaring any
+ * matchers. Plugins are returned in the same order as by {@link OrderAwarePluginRegistry}.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class StringMatcherPluginRegistry<T extends Plugin<String>> extends OrderAwarePluginRegistry<T, String> {
+
+	private volatile Index<T> index;
+
+	/**
+	 * Creates a new {@link StringMatcherPluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected StringMatcherPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link StringMatcherPluginRegistry} for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<String>> StringMatcherPluginRegistry<T> from(List<? extends T> plugins) {
+		return from(plugins, DEFAULT_COMPARATOR);
+	}
+
+	/**
+	 * Creates a new {@link StringMatcherPluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends Plugin<String>> StringMatcherPluginRegistry<T> from(List<? extends T> plugins,
+			Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new StringMatcherPluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.index = new Index<>(result);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public StringMatcherPluginRegistry<T> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(String delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Index<T> index = getIndex();
+		int[] declared = index.trie.match(delimiter).stream().toArray();
+
+		return Candidates.of(index.plugins, declared, null, index.undeclared, delimiter);
+	}
+
+	private Index<T> getIndex() {
+
+		ensureInitialized();
+
+		return index;
+	}
+
+	/**
+	 * The trie compiled from the declared {@link StringMatcher}s and the positions of the plugins not declaring any.
+	 *
+	 * @author agent
+	 */
+	private static class Index<T> {
+
+		private final List<T> plugins;
+		private final StringMatcherTrie trie;
+		private final int[] undeclared;
+
+		Index(List<T> plugins) {
+
+			StringMatcherTrie.Builder builder = StringMatcherTrie.builder();
+			BitSet undeclared = new BitSet(plugins.size());
+
+			this.plugins = plugins;
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				T plugin = plugins.get(i);
+
+				if (!(plugin instanceof StringMatchingPlugin)) {
+					undeclared.set(i);
+					continue;
+				}
+
+				for (StringMatcher matcher : ((StringMatchingPlugin) plugin).getMatchers()) {
+					builder.add(matcher, i);
+				}
+			}
+
+			this.undeclared = undeclared.stream().toArray();
+			this.trie = builder.build();
+		}
+	}
+}
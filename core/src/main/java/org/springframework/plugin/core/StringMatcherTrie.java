@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.springframework.plugin.core.StringMatcher.Type;
+
+/**
+ * A radix trie compiled from {@link StringMatcher}s, each registered for a position. Literal characters are stored on
+ * compressed edges, prefix matchers and glob patterns ending with {@code **} mark a node as matching all continuations
+ * and {@code *} and {@code **} wildcards are stored as dedicated child nodes. Matching a value walks the trie once,
+ * only branching at wildcards, and collects the positions of all matchers matching the value.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class StringMatcherTrie {
+
+	private final Node root;
+	private final int size;
+
+	private StringMatcherTrie(Node root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns a new {@link Builder} for a {@link StringMatcherTrie}.
+	 *
+	 * @return
+	 */
+	static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Returns the positions of all matchers matching the given value.
+	 *
+	 * @param value must not be {@literal null}.
+	 * @return
+	 */
+	BitSet match(String value) {
+
+		BitSet result = new BitSet(size);
+
+		root.match(value, 0, result);
+
+		return result;
+	}
+
+	/**
+	 * Collects {@link StringMatcher}s and compiles them into a {@link StringMatcherTrie}.
+	 *
+	 * @author agent
+	 */
+	static class Builder {
+
+		private final Map<Character, Builder> children = new TreeMap<>();
+		private final BitSet exact = new BitSet();
+		private final BitSet prefix = new BitSet();
+
+		private Builder star, globstar;
+		private int size;
+
+		/**
+		 * Registers the given {@link StringMatcher} for the given position.
+		 *
+		 * @param matcher must not be {@literal null}.
+		 * @param position must not be negative.
+		 * @return the current {@link Builder}.
+		 */
+		Builder add(StringMatcher matcher, int position) {
+
+			String pattern = matcher.getPattern();
+			Builder current = this;
+
+			this.size = Math.max(size, position + 1);
+
+			if (matcher.getType() != Type.GLOB) {
+
+				for (int i = 0; i < pattern.length(); i++) {
+					current = current.children.computeIfAbsent(pattern.charAt(i), __ -> new Builder());
+				}
+
+				(matcher.getType() == Type.EXACT ? current.exact : current.prefix).set(position);
+
+				return this;
+			}
+
+			for (int i = 0; i < pattern.length(); i++) {
+
+				char c = pattern.charAt(i);
+
+				if (c != '*') {
+					current = current.children.computeIfAbsent(c, __ -> new Builder());
+					continue;
+				}
+
+				if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '*') {
+
+					// A trailing ** matches all continuations
+					if (i + 2 == pattern.length()) {
+						current.prefix.set(position);
+						return this;
+					}
+
+					current = current.globstar == null ? (current.globstar = new Builder()) : current.globstar;
+					i++;
+
+				} else {
+					current = current.star == null ? (current.star = new Builder()) : current.star;
+				}
+			}
+
+			current.exact.set(position);
+
+			return this;
+		}
+
+		/**
+		 * Compiles the registered {@link StringMatcher}s into a {@link StringMatcherTrie}.
+		 *
+		 * @return
+		 */
+		StringMatcherTrie build() {
+			return new StringMatcherTrie(compile(), size);
+		}
+
+		private Node compile() {
+
+			char[] first = new char[children.size()];
+			String[] labels = new String[children.size()];
+			Node[] nodes = new Node[children.size()];
+			int i = 0;
+
+			for (Entry<Character, Builder> entry : children.entrySet()) {
+
+				StringBuilder label = new StringBuilder().append(entry.getKey().charValue());
+				Builder current = entry.getValue();
+
+				// Collapse chains of nodes without any other purpose than leading to a single child
+				while (current.isPassThrough()) {
+
+					Entry<Character, Builder> next = current.children.entrySet().iterator().next();
+
+					label.append(next.getKey().charValue());
+					current = next.getValue();
+				}
+
+				first[i] = entry.getKey();
+				labels[i] = label.toString();
+				nodes[i++] = current.compile();
+			}
+
+			return new Node(first, labels, nodes, //
+					exact.isEmpty() ? null : exact, //
+					prefix.isEmpty() ? null : prefix, //
+					star == null ? null : star.compile(), //
+					globstar == null ? null : globstar.compile());
+		}
+
+		private boolean isPassThrough() {
+			return children.size() == 1 && exact.isEmpty() && prefix.isEmpty() && star == null && globstar == null;
+		}
+	}
+
+	/**
+	 * A node of the compiled trie.
+	 *
+	 * @author agent
+	 */
+	private static class Node {
+
+		private final char[] first;
+		private final String[] labels;
+		private final Node[] children;
+		private final BitSet exact, prefix;
+		private final Node star, globstar;
+
+		Node(char[] first, String[] labels, Node[] children, BitSet exact, BitSet prefix, Node star, Node globstar) {
+
+			this.first = first;
+			this.labels = labels;
+			this.children = children;
+			this.exact = exact;
+			this.prefix = prefix;
+			this.star = star;
+			this.globstar = globstar;
+		}
+
+		void match(String value, int position, BitSet result) {
+
+			int length = value.length();
+
+			if (prefix != null) {
+				result.or(prefix);
+			}
+
+			if (position == length && exact != null) {
+				result.or(exact);
+			}
+
+			if (star != null) {
+
+				for (int i = position;; i++) {
+
+					star.match(value, i, result);
+
+					if (i == length || value.charAt(i) == StringMatcher.SEPARATOR) {
+						break;
+					}
+				}
+			}
+
+			if (globstar != null) {
+				for (int i = position; i <= length; i++) {
+					globstar.match(value, i, result);
+				}
+			}
+
+			if (position == length) {
+				return;
+			}
+
+			int index = Arrays.binarySearch(first, value.charAt(position));
+
+			if (index >= 0 && value.startsWith(labels[index], position)) {
+				children[index].match(value, position + labels[index].length(), result);
+			}
+		}
+	}
+}
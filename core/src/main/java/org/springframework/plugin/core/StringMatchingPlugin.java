@@ -0,0 +1,53 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.List;
+
+/**
+ * {@link Plugin} declaring the {@link String} delimiters it supports via {@link StringMatcher}s, so that
+ * {@link StringMatcherPluginRegistry} can select it by a trie lookup instead of invoking {@link #supports(Object)}. The
+ * matchers are read once when the registry is initialized.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public interface StringMatchingPlugin extends Plugin<String> {
+
+	/**
+	 * Returns the {@link StringMatcher}s describing the delimiters the plugin supports.
+	 *
+	 * @return must not be {@literal null}.
+	 */
+	List<StringMatcher> getMatchers();
+
+	/**
+	 * Returns whether any of the plugin's {@link StringMatcher}s matches the given delimiter.
+	 *
+	 * @see org.springframework.plugin.core.Plugin#supports(java.lang.Object)
+	 */
+	@Override
+	default boolean supports(String delimiter) {
+
+		for (StringMatcher matcher : getMatchers()) {
+			if (matcher.matches(delimiter)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} over a range of a snapshot of {@link Plugin}s only returning the ones supporting a delimiter.
+ * Invokes {@link Plugin#supports(Object)} lazily when advancing. The number of supporting {@link Plugin}s is unknown
+ * upfront, so the {@link Spliterator} is not {@link Spliterator#SIZED} but reports the size of the remaining range as
+ * estimate. Splits the range in halves.
+ *
+ * @author agent
+ * @since 2.0
+ * @see PluginRegistry#streamPluginsFor(Object)
+ */
+class SupportingSpliterator<T extends Plugin<S>, S> implements Spliterator<T> {
+
+	private final List<T> plugins;
+	private final S delimiter;
+
+	private int index;
+	private final int fence;
+
+	/**
+	 * Creates a new {@link SupportingSpliterator} for the given random access {@link List} of {@link Plugin}s and
+	 * delimiter.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param delimiter can be {@literal null}.
+	 */
+	SupportingSpliterator(List<T> plugins, S delimiter) {
+		this(plugins, delimiter, 0, plugins.size());
+	}
+
+	private SupportingSpliterator(List<T> plugins, S delimiter, int index, int fence) {
+
+		this.plugins = plugins;
+		this.delimiter = delimiter;
+		this.index = index;
+		this.fence = fence;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+
+		while (index < fence) {
+
+			T candidate = plugins.get(index++);
+
+			if (candidate.supports(delimiter)) {
+				action.accept(candidate);
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#forEachRemaining(java.util.function.Consumer)
+	 */
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+
+		int fence = this.fence;
+
+		for (int i = index; i < fence; i++) {
+
+			T candidate = plugins.get(i);
+
+			if (candidate.supports(delimiter)) {
+				action.accept(candidate);
+			}
+		}
+
+		index = fence;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#trySplit()
+	 */
+	@Override
+	public Spliterator<T> trySplit() {
+
+		int middle = (index + fence) >>> 1;
+
+		if (index >= middle) {
+			return null;
+		}
+
+		Spliterator<T> prefix = new SupportingSpliterator<>(plugins, delimiter, index, middle);
+		this.index = middle;
+
+		return prefix;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#estimateSize()
+	 */
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.Spliterator#characteristics()
+	 */
+	@Override
+	public int characteristics() {
+		return ORDERED | IMMUTABLE | NONNULL;
+	}
+}
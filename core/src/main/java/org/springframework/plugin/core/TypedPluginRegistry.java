@@ -0,0 +1,207 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link OrderAwarePluginRegistry} for heterogeneous {@link Plugin}s that only accept delimiters of a certain type. The
+ * accepted type of each plugin is resolved once on initialization using a {@link DelimiterTypeResolver}, the plugins
+ * are bucketed by it and the candidate plugins for a runtime delimiter class are cached. Thus, a lookup only invokes
+ * {@link Plugin#supports(Object)} on plugins able to accept the delimiter at all.
+ *
+ * @author agent
+ * @since 2.0
+ * @see DelimiterTypeResolver
+ */
+public class TypedPluginRegistry<T extends Plugin<S>, S> extends OrderAwarePluginRegistry<T, S> {
+
+	private final DelimiterTypeResolver resolver;
+
+	private volatile Buckets<T> buckets;
+
+	/**
+	 * Creates a new {@link TypedPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterTypeResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 */
+	protected TypedPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator,
+			DelimiterTypeResolver resolver) {
+
+		super(plugins, comparator);
+
+		Assert.notNull(resolver, "DelimiterTypeResolver must not be null!");
+
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Creates a new {@link TypedPluginRegistry} for the given {@link Plugin}s resolving the accepted delimiter types from
+	 * the plugins' generic signatures.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 * @see DelimiterTypeResolver#generic()
+	 */
+	public static <S, T extends Plugin<S>> TypedPluginRegistry<T, S> from(List<? extends T> plugins) {
+		return from(plugins, DelimiterTypeResolver.generic());
+	}
+
+	/**
+	 * Creates a new {@link TypedPluginRegistry} for the given {@link Plugin}s and {@link DelimiterTypeResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> TypedPluginRegistry<T, S> from(List<? extends T> plugins,
+			DelimiterTypeResolver resolver) {
+		return from(plugins, DEFAULT_COMPARATOR, resolver);
+	}
+
+	/**
+	 * Creates a new {@link TypedPluginRegistry} for the given {@link Plugin}s, {@link Comparator} and
+	 * {@link DelimiterTypeResolver}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> TypedPluginRegistry<T, S> from(List<? extends T> plugins,
+			Comparator<? super T> comparator, DelimiterTypeResolver resolver) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new TypedPluginRegistry<>(plugins, comparator, resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+
+		this.buckets = new Buckets<>(result, resolver);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#reverse()
+	 */
+	@Override
+	public TypedPluginRegistry<T, S> reverse() {
+		return from(new ArrayList<>(getPlugins()), getReverseComparator(), resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getCandidates(java.lang.Object)
+	 */
+	@Override
+	Candidates<T> getCandidates(S delimiter) {
+
+		if (delimiter == null) {
+			return null;
+		}
+
+		Buckets<T> buckets = getBuckets();
+		int[] candidates = buckets.getCandidates(delimiter.getClass());
+
+		return Candidates.of(buckets.plugins, Candidates.NO_POSITIONS, null, candidates, delimiter);
+	}
+
+	private Buckets<T> getBuckets() {
+
+		ensureInitialized();
+
+		return buckets;
+	}
+
+	/**
+	 * The positions of the {@link Plugin}s by accepted delimiter type and a cache of the positions of the candidate
+	 * {@link Plugin}s per runtime delimiter type.
+	 *
+	 * @author agent
+	 */
+	private static class Buckets<T> {
+
+		private final List<T> plugins;
+		private final Map<Class<?>, BitSet> buckets;
+		private final Map<Class<?>, int[]> candidates;
+
+		Buckets(List<T> plugins, DelimiterTypeResolver resolver) {
+
+			this.plugins = plugins;
+			this.buckets = new LinkedHashMap<>();
+			this.candidates = new ConcurrentReferenceHashMap<>();
+
+			for (int i = 0; i < plugins.size(); i++) {
+
+				T plugin = plugins.get(i);
+				Class<?> type = resolver.resolveDelimiterType(AopProxyUtils.ultimateTargetClass(plugin));
+
+				Assert.state(type != null, () -> String.format("No delimiter type resolved for plugin %s!", plugin));
+
+				buckets.computeIfAbsent(type, __ -> new BitSet(plugins.size())).set(i);
+			}
+		}
+
+		/**
+		 * Returns the ascending positions of the {@link Plugin}s accepting delimiters of the given type.
+		 *
+		 * @param type must not be {@literal null}.
+		 * @return
+		 */
+		int[] getCandidates(Class<?> type) {
+
+			int[] result = candidates.get(type);
+
+			return result != null ? result : candidates.computeIfAbsent(type, this::doGetCandidates);
+		}
+
+		private int[] doGetCandidates(Class<?> type) {
+
+			BitSet positions = new BitSet(plugins.size());
+
+			buckets.forEach((candidate, it) -> {
+				if (candidate.isAssignableFrom(type)) {
+					positions.or(it);
+				}
+			});
+
+			return positions.stream().toArray();
+		}
+	}
+}
@@ -51,4 +51,25 @@ public @interface EnablePluginRegistries {
 	 * @return
 	 */
 	Class<? extends Plugin<?>>[] value();
+
+	/**
+	 * Whether to expose lazy {@link PluginRegistry} instances that only instantiate the plugins once they become
+	 * candidates for selection instead of looking up all of them on first access of the registry. Defaults to
+	 * {@literal false}.
+	 *
+	 * @return
+	 * @see org.springframework.plugin.core.support.LazyPluginRegistry
+	 * @since 2.0
+	 */
+	boolean lazy() default false;
+
+	/**
+	 * Whether to expose {@link org.springframework.plugin.core.IndexedPluginRegistry} instances that select plugins
+	 * declaring their delimiters via {@link org.springframework.plugin.core.PluginFor} by an index lookup. Lazy
+	 * registries always consider declared delimiters. Defaults to {@literal false}.
+	 *
+	 * @return
+	 * @since 2.0
+	 */
+	boolean indexed() default false;
 }
@@ -15,6 +15,8 @@
  */
 package org.springframework.plugin.core.config;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.support.AutowireCandidateQualifier;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
@@ -23,9 +25,12 @@ import org.springframework.beans.factory.support.RootBeanDefinition;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.plugin.core.DelimiterResolver;
 import org.springframework.plugin.core.OrderAwarePluginRegistry;
 import org.springframework.plugin.core.Plugin;
 import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.plugin.core.support.LazyPluginRegistry;
+import org.springframework.plugin.core.support.LazyPluginRegistryFactoryBean;
 import org.springframework.plugin.core.support.PluginRegistryFactoryBean;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
@@ -46,16 +51,26 @@ public class PluginRegistriesBeanDefinitionRegistrar implements ImportBeanDefini
 	@Override
 	public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
 
-		Class<?>[] types = (Class<?>[]) importingClassMetadata
-				.getAnnotationAttributes(EnablePluginRegistries.class.getName()).get("value");
+		Map<String, Object> attributes = importingClassMetadata
+				.getAnnotationAttributes(EnablePluginRegistries.class.getName());
+
+		Class<?>[] types = (Class<?>[]) attributes.get("value");
+		boolean lazy = (Boolean) attributes.get("lazy");
+		boolean indexed = (Boolean) attributes.get("indexed");
 
 		for (Class<?> type : types) {
 
-			BeanDefinitionBuilder builder = BeanDefinitionBuilder.rootBeanDefinition(PluginRegistryFactoryBean.class);
+			BeanDefinitionBuilder builder = BeanDefinitionBuilder
+					.rootBeanDefinition(lazy ? LazyPluginRegistryFactoryBean.class : PluginRegistryFactoryBean.class);
 			builder.addPropertyValue("type", type);
 
+			if (indexed && !lazy) {
+				builder.addPropertyValue("delimiterResolver", DelimiterResolver.standard(type.getClassLoader()));
+			}
+
 			RootBeanDefinition beanDefinition = (RootBeanDefinition) builder.getBeanDefinition();
-			beanDefinition.setTargetType(getTargetType(type));
+			beanDefinition
+					.setTargetType(getTargetType(type, lazy ? LazyPluginRegistry.class : OrderAwarePluginRegistry.class));
 
 			Qualifier annotation = type.getAnnotation(Qualifier.class);
 
@@ -77,15 +92,16 @@ public class PluginRegistriesBeanDefinitionRegistrar implements ImportBeanDefini
 	 * Returns the target type of the {@link PluginRegistry} for the given plugin type.
 	 * 
 	 * @param pluginType must not be {@literal null}.
+	 * @param registryType must not be {@literal null}.
 	 * @return
 	 */
-	private static ResolvableType getTargetType(Class<?> pluginClass) {
+	private static ResolvableType getTargetType(Class<?> pluginClass, Class<?> registryType) {
 
 		Assert.notNull(pluginClass, "Plugin type must not be null!");
 
 		ResolvableType delimiterType = ResolvableType.forClass(Plugin.class, pluginClass).getGeneric(0);
 		ResolvableType pluginType = ResolvableType.forClass(pluginClass);
 
-		return ResolvableType.forClassWithGenerics(OrderAwarePluginRegistry.class, pluginType, delimiterType);
+		return ResolvableType.forClassWithGenerics(registryType, pluginType, delimiterType);
 	}
 }
@@ -84,6 +84,16 @@ public abstract class AbstractTypeAwareSupport<T>
 		return (List<T>) factory.getProxy();
 	}
 
+	/**
+	 * Returns the {@link BeansOfTypeTargetSource} to look up the beans of the configured type with. Allows subclasses
+	 * to inspect the matching bean names without instantiating the beans.
+	 *
+	 * @return
+	 */
+	BeansOfTypeTargetSource getTargetSource() {
+		return targetSource;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
@@ -120,6 +130,7 @@ public abstract class AbstractTypeAwareSupport<T>
 
 		private boolean frozen = false;
 		private Collection<Object> components;
+		private List<String> beanNames;
 
 		/**
 		 * Creates a new {@link BeansOfTypeTargetSource} using the given {@link ListableBeanFactory} to lookup beans of the
@@ -190,18 +201,67 @@ public abstract class AbstractTypeAwareSupport<T>
 
 		}
 
+		/**
+		 * Returns the names of all beans of the configured type except the excluded ones without instantiating them. The
+		 * result will be cached and reused once the {@link TargetSource} is frozen.
+		 *
+		 * @return
+		 */
+		public synchronized List<String> getBeanNames() {
+
+			List<String> beanNames = this.beanNames == null ? getBeanNamesOfTypeExcept(type, exclusions)
+					: this.beanNames;
+
+			if (frozen && this.beanNames == null) {
+				this.beanNames = beanNames;
+			}
+
+			return beanNames;
+		}
+
+		/**
+		 * Returns the type of the bean with the given name without instantiating it.
+		 *
+		 * @param beanName must not be {@literal null}.
+		 * @return the type of the bean or {@literal null} if it cannot be determined.
+		 */
+		public Class<?> getType(String beanName) {
+			return context.getType(beanName);
+		}
+
+		/**
+		 * Returns the bean with the given name.
+		 *
+		 * @param beanName must not be {@literal null}.
+		 * @return
+		 */
+		public Object getBean(String beanName) {
+			return context.getBean(beanName);
+		}
+
 		private Collection<Object> getBeansOfTypeExcept(Class<?> type, Collection<Class<?>> exceptions) {
 
 			List<Object> result = new ArrayList<Object>();
 
+			for (String beanName : getBeanNamesOfTypeExcept(type, exceptions)) {
+				result.add(context.getBean(beanName));
+			}
+
+			return result;
+		}
+
+		private List<String> getBeanNamesOfTypeExcept(Class<?> type, Collection<Class<?>> exceptions) {
+
+			List<String> result = new ArrayList<String>();
+
 			for (String beanName : context.getBeanNamesForType(type, false, eagerInit)) {
 				if (exceptions.contains(context.getType(beanName))) {
 					continue;
 				}
-				result.add(context.getBean(beanName));
+				result.add(beanName);
 			}
 
-			return result;
+			return Collections.unmodifiableList(result);
 		}
 	}
 }
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core.support;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.annotation.OrderUtils;
+import org.springframework.plugin.core.DelimiterResolver;
+import org.springframework.plugin.core.OrderAwarePluginRegistry;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.plugin.core.support.AbstractTypeAwareSupport.BeansOfTypeTargetSource;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PluginRegistry} that holds on to the names of the plugin beans instead of the plugin instances and only
+ * instantiates a plugin the first time it becomes a candidate for selection. Plugins are ordered the same way
+ * {@link OrderAwarePluginRegistry} orders them by default, but by inspecting the bean type for
+ * {@link org.springframework.core.annotation.Order} and {@code javax.annotation.Priority} annotations. Only plugins
+ * implementing {@link Ordered} (or whose type cannot be determined upfront) are instantiated to resolve their order.
+ * <p>
+ * Plugin types that declare their delimiters statically as reported by the configured {@link DelimiterResolver} are
+ * selected by matching the delimiter against the declared ones and are thus only instantiated if they actually match.
+ * All other plugins get instantiated on their first lookup to invoke {@link Plugin#supports(Object)}.
+ * <p>
+ * Note that the plugin beans have to be defined as lazy-init beans (e.g. by using
+ * {@link org.springframework.context.annotation.Lazy}) as the container will instantiate all non-lazy singletons on
+ * startup otherwise.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class LazyPluginRegistry<T extends Plugin<S>, S> implements PluginRegistry<T, S> {
+
+	private final BeansOfTypeTargetSource source;
+	private final DelimiterResolver resolver;
+
+	private volatile List<LazyPlugin<T, S>> candidates;
+	private volatile List<T> plugins;
+
+	/**
+	 * Creates a new {@link LazyPluginRegistry} for the given {@link BeansOfTypeTargetSource} and
+	 * {@link DelimiterResolver}.
+	 *
+	 * @param source must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 */
+	LazyPluginRegistry(BeansOfTypeTargetSource source, DelimiterResolver resolver) {
+
+		Assert.notNull(source, "BeansOfTypeTargetSource must not be null!");
+		Assert.notNull(resolver, "DelimiterResolver must not be null!");
+
+		this.source = source;
+		this.resolver = resolver;
+	}
+
+	/**
+	 * Creates a new {@link LazyPluginRegistry} for all beans of the given type contained in the given
+	 * {@link ListableBeanFactory}. Considers delimiters declared via the delimiter index or
+	 * {@link org.springframework.plugin.core.PluginFor} annotations.
+	 *
+	 * @param factory must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> LazyPluginRegistry<T, S> from(ListableBeanFactory factory, Class<T> type) {
+		return from(factory, type, DelimiterResolver.standard(null));
+	}
+
+	/**
+	 * Creates a new {@link LazyPluginRegistry} for all beans of the given type contained in the given
+	 * {@link ListableBeanFactory} using the given {@link DelimiterResolver} to detect statically declared delimiters.
+	 *
+	 * @param factory must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param resolver must not be {@literal null}.
+	 * @return
+	 */
+	public static <S, T extends Plugin<S>> LazyPluginRegistry<T, S> from(ListableBeanFactory factory, Class<T> type,
+			DelimiterResolver resolver) {
+		return new LazyPluginRegistry<>(new BeansOfTypeTargetSource(factory, type, false, null), resolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object)
+	 */
+	@Override
+	public Optional<T> getPluginFor(S delimiter) {
+
+		for (LazyPlugin<T, S> candidate : getCandidates()) {
+			if (candidate.supports(delimiter)) {
+				return Optional.of(candidate.getPlugin());
+			}
+		}
+
+		return Optional.empty();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object)
+	 */
+	@Override
+	public T getRequiredPluginFor(S delimiter) {
+
+		return getRequiredPluginFor(delimiter,
+				() -> String.format("No plugin found for delimiter %s! Registered plugins: %s.", delimiter, getPlugins()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getRequiredPluginFor(S delimiter, Supplier<String> message) throws IllegalArgumentException {
+
+		Assert.notNull(message, "Message must not be null!");
+
+		return getPluginFor(delimiter, () -> new IllegalArgumentException(message.get()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter) {
+
+		List<T> result = new ArrayList<>();
+
+		for (LazyPlugin<T, S> candidate : getCandidates()) {
+			if (candidate.supports(delimiter)) {
+				result.add(candidate.getPlugin());
+			}
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#streamPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(S delimiter) {
+
+		return getCandidates().stream() //
+				.filter(it -> it.supports(delimiter)) //
+				.map(LazyPlugin::getPlugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		List<T> result = new ArrayList<>();
+
+		for (LazyPlugin<T, S> candidate : getCandidates()) {
+
+			if (result.size() == limit) {
+				break;
+			}
+
+			if (candidate.supports(delimiter)) {
+				result.add(candidate.getPlugin());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of plugins supporting the given delimiter. Will only instantiate the plugins not declaring
+	 * their delimiters statically.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public int countPluginsFor(S delimiter) {
+
+		int count = 0;
+
+		for (LazyPlugin<T, S> candidate : getCandidates()) {
+			if (candidate.supports(delimiter)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> T getPluginFor(S delimiter, Supplier<E> ex) throws E {
+		return getPluginFor(delimiter).orElseThrow(ex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> List<T> getPluginsFor(S delimiter, Supplier<E> ex) throws E {
+
+		List<T> result = getPluginsFor(delimiter);
+
+		if (result.isEmpty()) {
+			throw ex.get();
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(S delimiter, T plugin) {
+		return getPluginOrDefaultFor(delimiter, () -> plugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(S delimiter, Supplier<T> defaultSupplier) {
+		return getPluginFor(delimiter).orElseGet(defaultSupplier);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.List)
+	 */
+	@Override
+	public List<T> getPluginsFor(S delimiter, List<? extends T> plugins) {
+
+		List<T> candidates = getPluginsFor(delimiter);
+
+		return candidates.isEmpty() ? new ArrayList<T>(plugins) : candidates;
+	}
+
+	/**
+	 * Returns the number of registered plugins without instantiating them.
+	 *
+	 * @return the number of plugins in the registry
+	 */
+	@Override
+	public int countPlugins() {
+		return getCandidates().size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#contains(org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public boolean contains(T plugin) {
+		return getPlugins().contains(plugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#hasPluginFor(java.lang.Object)
+	 */
+	@Override
+	public boolean hasPluginFor(S delimiter) {
+
+		for (LazyPlugin<T, S> candidate : getCandidates()) {
+			if (candidate.supports(delimiter)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Returns all registered plugins. Will instantiate all plugins not instantiated yet.
+	 *
+	 * @return
+	 */
+	@Override
+	public List<T> getPlugins() {
+
+		List<T> plugins = this.plugins;
+
+		if (plugins == null) {
+
+			List<T> result = new ArrayList<>();
+
+			for (LazyPlugin<T, S> candidate : getCandidates()) {
+				result.add(candidate.getPlugin());
+			}
+
+			this.plugins = plugins = Collections.unmodifiableList(result);
+		}
+
+		return plugins;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return getPlugins().iterator();
+	}
+
+	/**
+	 * Returns all {@link LazyPlugin}s in plugin order. Resolves the bean names of the plugins on first access.
+	 *
+	 * @return
+	 */
+	private List<LazyPlugin<T, S>> getCandidates() {
+
+		List<LazyPlugin<T, S>> candidates = this.candidates;
+
+		if (candidates != null) {
+			return candidates;
+		}
+
+		synchronized (this) {
+
+			if (this.candidates == null) {
+
+				List<LazyPlugin<T, S>> result = new ArrayList<>();
+
+				for (String beanName : source.getBeanNames()) {
+					result.add(new LazyPlugin<>(beanName, source, resolver));
+				}
+
+				// Stable sort, so that plugins of the same order keep the bean definition order
+				Collections.sort(result);
+
+				this.candidates = Collections.unmodifiableList(result);
+			}
+
+			return this.candidates;
+		}
+	}
+
+	/**
+	 * A reference to a plugin bean that is instantiated on first access.
+	 *
+	 * @author agent
+	 */
+	private static class LazyPlugin<T extends Plugin<S>, S> implements Comparable<LazyPlugin<T, S>> {
+
+		private static final OrderResolver ORDER_RESOLVER = new OrderResolver();
+
+		private final String beanName;
+		private final BeansOfTypeTargetSource source;
+		private final Optional<Set<Object>> delimiters;
+		private final boolean priority;
+		private final int order;
+
+		private volatile T plugin;
+
+		/**
+		 * Creates a new {@link LazyPlugin} for the bean with the given name. Instantiates the plugin right away if the
+		 * order of it cannot be determined from its type.
+		 *
+		 * @param beanName must not be {@literal null}.
+		 * @param source must not be {@literal null}.
+		 * @param resolver must not be {@literal null}.
+		 */
+		LazyPlugin(String beanName, BeansOfTypeTargetSource source, DelimiterResolver resolver) {
+
+			this.beanName = beanName;
+			this.source = source;
+
+			Class<?> type = source.getType(beanName);
+
+			if (type == null || Proxy.isProxyClass(type) || Ordered.class.isAssignableFrom(type)) {
+
+				T plugin = getPlugin();
+
+				this.delimiters = Optional.empty();
+				this.priority = plugin instanceof PriorityOrdered;
+				this.order = ORDER_RESOLVER.getOrder(plugin);
+
+			} else {
+
+				this.delimiters = resolver.resolveDelimiters(type);
+				this.priority = false;
+				this.order = OrderUtils.getOrder(type, Ordered.LOWEST_PRECEDENCE);
+			}
+		}
+
+		/**
+		 * Returns whether the plugin supports the given delimiter. Will only instantiate the plugin if it doesn't declare
+		 * its delimiters statically.
+		 *
+		 * @param delimiter can be {@literal null}.
+		 * @return
+		 */
+		boolean supports(S delimiter) {
+
+			return delimiters.isPresent() //
+					? delimiters.get().contains(delimiter) //
+					: getPlugin().supports(delimiter);
+		}
+
+		/**
+		 * Returns the plugin instance, instantiating it if necessary.
+		 *
+		 * @return
+		 */
+		@SuppressWarnings("unchecked")
+		T getPlugin() {
+
+			T plugin = this.plugin;
+
+			if (plugin == null) {
+				this.plugin = plugin = (T) source.getBean(beanName);
+			}
+
+			return plugin;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Comparable#compareTo(java.lang.Object)
+		 */
+		@Override
+		public int compareTo(LazyPlugin<T, S> that) {
+
+			if (this.priority != that.priority) {
+				return this.priority ? -1 : 1;
+			}
+
+			return Integer.compare(this.order, that.order);
+		}
+	}
+
+	/**
+	 * Resolves the order of a plugin instance through the protected lookup of {@link AnnotationAwareOrderComparator}.
+	 *
+	 * @author agent
+	 */
+	@SuppressWarnings("serial")
+	private static class OrderResolver extends AnnotationAwareOrderComparator {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.springframework.core.OrderComparator#getOrder(java.lang.Object)
+		 */
+		@Override
+		protected int getOrder(Object obj) {
+			return super.getOrder(obj);
+		}
+	}
+}
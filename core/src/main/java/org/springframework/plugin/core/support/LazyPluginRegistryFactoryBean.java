@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core.support;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.plugin.core.DelimiterResolver;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.util.Assert;
+
+/**
+ * {@link FactoryBean} to create {@link LazyPluginRegistry} instances, i.e. {@link PluginRegistry} instances that only
+ * instantiate the plugin beans once they become candidates for selection.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class LazyPluginRegistryFactoryBean<T extends Plugin<S>, S> extends AbstractTypeAwareSupport<T>
+		implements FactoryBean<PluginRegistry<T, S>> {
+
+	private DelimiterResolver delimiterResolver = DelimiterResolver.standard(null);
+
+	/**
+	 * Configures the {@link DelimiterResolver} to detect plugin types that statically declare the delimiters they
+	 * support. Defaults to {@link DelimiterResolver#standard(ClassLoader)}.
+	 *
+	 * @param delimiterResolver must not be {@literal null}.
+	 */
+	public void setDelimiterResolver(DelimiterResolver delimiterResolver) {
+
+		Assert.notNull(delimiterResolver, "DelimiterResolver must not be null!");
+
+		this.delimiterResolver = delimiterResolver;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.FactoryBean#getObject()
+	 */
+	public LazyPluginRegistry<T, S> getObject() {
+		return new LazyPluginRegistry<>(getTargetSource(), delimiterResolver);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.FactoryBean#getObjectType()
+	 */
+	public Class<?> getObjectType() {
+		return LazyPluginRegistry.class;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.FactoryBean#isSingleton()
+	 */
+	public boolean isSingleton() {
+		return true;
+	}
+}
@@ -16,6 +16,9 @@
 package org.springframework.plugin.core.support;
 
 import org.springframework.beans.factory.FactoryBean;
+import org.springframework.plugin.core.DelimiterResolver;
+import org.springframework.plugin.core.HierarchicalPluginRegistry;
+import org.springframework.plugin.core.IndexedPluginRegistry;
 import org.springframework.plugin.core.OrderAwarePluginRegistry;
 import org.springframework.plugin.core.Plugin;
 import org.springframework.plugin.core.PluginRegistry;
@@ -28,12 +31,47 @@ import org.springframework.plugin.core.PluginRegistry;
 public class PluginRegistryFactoryBean<T extends Plugin<S>, S> extends AbstractTypeAwareSupport<T>
 		implements FactoryBean<PluginRegistry<T, S>> {
 
+	private DelimiterResolver delimiterResolver;
+	private PluginRegistry<T, S> parent;
+
+	/**
+	 * Configures a {@link DelimiterResolver} to create an {@link IndexedPluginRegistry} selecting plugins that
+	 * statically declare their delimiters via an index lookup.
+	 *
+	 * @param delimiterResolver can be {@literal null}.
+	 * @since 2.0
+	 */
+	public void setDelimiterResolver(DelimiterResolver delimiterResolver) {
+		this.delimiterResolver = delimiterResolver;
+	}
+
+	/**
+	 * Configures a parent {@link PluginRegistry}, e.g. the one of a parent application context, to create a
+	 * {@link HierarchicalPluginRegistry} combining the parent's plugins with the ones found in the current context. A
+	 * configured {@link DelimiterResolver} is used to index the plugins of the current context.
+	 *
+	 * @param parent can be {@literal null}.
+	 * @since 2.0
+	 */
+	public void setParent(PluginRegistry<T, S> parent) {
+		this.parent = parent;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.springframework.beans.factory.FactoryBean#getObject()
 	 */
 	public OrderAwarePluginRegistry<T, S> getObject() {
-		return OrderAwarePluginRegistry.of(getBeans());
+
+		if (parent != null) {
+			return delimiterResolver == null //
+					? HierarchicalPluginRegistry.from(parent, getBeans()) //
+					: HierarchicalPluginRegistry.from(parent, getBeans(), delimiterResolver);
+		}
+
+		return delimiterResolver == null //
+				? OrderAwarePluginRegistry.of(getBeans()) //
+				: IndexedPluginRegistry.from(getBeans(), delimiterResolver);
 	}
 
 	/*
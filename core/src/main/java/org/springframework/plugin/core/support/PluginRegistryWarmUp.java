@@ -0,0 +1,282 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core.support;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.util.Assert;
+
+/**
+ * Warms up all {@link PluginRegistry} instances contained in the {@link ApplicationContext} once it has been
+ * refreshed. All registries are initialized in parallel, i.e. their plugins get snapshotted, sorted and indexed.
+ * Optionally, sample delimiters can be configured per registry bean name, which are then looked up in the registry to
+ * prime caches and exercise the {@link org.springframework.plugin.core.Plugin#supports(Object)} code paths before the
+ * first real request arrives. The warm-up is bounded by a configurable time budget. Once it finishes, a
+ * {@link PluginRegistriesWarmedUpEvent} is published. If all registries were warmed up within the budget,
+ * {@link #isReady()} returns {@literal true}. Otherwise, the outstanding warm-ups are cancelled, the event is flagged
+ * as incomplete and the warm-up is retried on the next refresh.
+ * <p>
+ * Lazy registries only resolve their plugin candidates but don't instantiate the plugins unless sample delimiters are
+ * configured for them.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class PluginRegistryWarmUp implements ApplicationContextAware, ApplicationListener<ContextRefreshedEvent> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(PluginRegistryWarmUp.class);
+
+	private ApplicationContext context;
+	private Map<String, ? extends Collection<?>> samples = Collections.emptyMap();
+	private Duration timeout = Duration.ofSeconds(30);
+	private int iterations = 1;
+	private Executor executor = ForkJoinPool.commonPool();
+
+	private volatile boolean ready = false;
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.context.ApplicationContextAware#setApplicationContext(org.springframework.context.ApplicationContext)
+	 */
+	@Override
+	public void setApplicationContext(ApplicationContext context) {
+		this.context = context;
+	}
+
+	/**
+	 * Configures the sample delimiters to look up in the {@link PluginRegistry} beans with the given names.
+	 *
+	 * @param samples must not be {@literal null}.
+	 */
+	public void setSamples(Map<String, ? extends Collection<?>> samples) {
+
+		Assert.notNull(samples, "Samples must not be null!");
+
+		this.samples = samples;
+	}
+
+	/**
+	 * Configures the time budget for the entire warm-up. Defaults to 30 seconds.
+	 *
+	 * @param timeout must not be {@literal null}.
+	 */
+	public void setTimeout(Duration timeout) {
+
+		Assert.notNull(timeout, "Timeout must not be null!");
+
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Configures how often the sample delimiters shall be looked up. Defaults to 1.
+	 *
+	 * @param iterations must be greater than zero.
+	 */
+	public void setIterations(int iterations) {
+
+		Assert.isTrue(iterations > 0, "Iterations must be greater than zero!");
+
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Configures the {@link Executor} to warm up the registries with. Defaults to the common {@link ForkJoinPool}.
+	 *
+	 * @param executor must not be {@literal null}.
+	 */
+	public void setExecutor(Executor executor) {
+
+		Assert.notNull(executor, "Executor must not be null!");
+
+		this.executor = executor;
+	}
+
+	/**
+	 * Returns whether the warm-up has finished and all registries were warmed up completely within the time budget.
+	 *
+	 * @return
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	@Override
+	public void onApplicationEvent(ContextRefreshedEvent event) {
+
+		if (!context.equals(event.getApplicationContext()) || ready) {
+			return;
+		}
+
+		long start = System.nanoTime();
+		long deadline = start + timeout.toNanos();
+
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+
+		context.getBeansOfType(PluginRegistry.class).forEach((name, registry) -> {
+
+			Collection<?> delimiters = samples.containsKey(name) ? samples.get(name) : Collections.emptyList();
+			futures.add(CompletableFuture.supplyAsync(() -> warmUp(registry, delimiters, deadline), executor));
+		});
+
+		boolean complete = false;
+
+		try {
+
+			CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])) //
+					.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+
+			complete = futures.stream().allMatch(CompletableFuture::join);
+
+			if (!complete) {
+				LOG.warn("Plugin registry warm-up exceeded time budget of {}!", timeout);
+			}
+
+		} catch (TimeoutException o_O) {
+			LOG.warn("Plugin registry warm-up exceeded time budget of {}!", timeout);
+		} catch (ExecutionException o_O) {
+			LOG.warn("Plugin registry warm-up failed!", o_O.getCause());
+		} catch (InterruptedException o_O) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (!complete) {
+
+			// Keeps warm-ups not started yet from running, running ones stop at the deadline
+			futures.forEach(it -> it.cancel(false));
+		}
+
+		this.ready = complete;
+
+		LOG.debug("Warmed up {} plugin registries {}in {} ms.", futures.size(), complete ? "" : "partially ",
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		context.publishEvent(new PluginRegistriesWarmedUpEvent(context, complete));
+	}
+
+	/**
+	 * Warms up the given {@link PluginRegistry} by looking up the given delimiters.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @param delimiters must not be {@literal null}.
+	 * @param deadline the {@link System#nanoTime()} to stop at.
+	 * @return whether the registry was initialized and all delimiters were looked up before the deadline.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean warmUp(PluginRegistry<?, ?> registry, Collection<?> delimiters, long deadline) {
+
+		if (System.nanoTime() > deadline) {
+			return false;
+		}
+
+		// Triggers the snapshot, sorting and index creation without instantiating lazy plugins
+		registry.countPlugins();
+
+		if (System.nanoTime() > deadline) {
+			return false;
+		}
+
+		PluginRegistry<?, Object> target = (PluginRegistry<?, Object>) registry;
+
+		for (int i = 0; i < iterations; i++) {
+			for (Object delimiter : delimiters) {
+
+				if (System.nanoTime() > deadline) {
+					return false;
+				}
+
+				target.getPluginsFor(delimiter);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Event published once all {@link PluginRegistry} instances of an {@link ApplicationContext} have been warmed up.
+	 *
+	 * @author agent
+	 */
+	@SuppressWarnings("serial")
+	public static class PluginRegistriesWarmedUpEvent extends ApplicationEvent {
+
+		private final boolean complete;
+
+		/**
+		 * Creates a new {@link PluginRegistriesWarmedUpEvent} for the given {@link ApplicationContext} whose registries
+		 * were warmed up completely.
+		 *
+		 * @param source must not be {@literal null}.
+		 */
+		public PluginRegistriesWarmedUpEvent(ApplicationContext source) {
+			this(source, true);
+		}
+
+		/**
+		 * Creates a new {@link PluginRegistriesWarmedUpEvent} for the given {@link ApplicationContext}.
+		 *
+		 * @param source must not be {@literal null}.
+		 * @param complete whether all registries were warmed up within the time budget.
+		 */
+		public PluginRegistriesWarmedUpEvent(ApplicationContext source, boolean complete) {
+
+			super(source);
+
+			this.complete = complete;
+		}
+
+		/**
+		 * Returns whether all registries were warmed up within the time budget. If not, lookups might still have to
+		 * initialize registries or populate caches.
+		 *
+		 * @return
+		 */
+		public boolean isComplete() {
+			return complete;
+		}
+
+		/**
+		 * Returns the {@link ApplicationContext} whose registries were warmed up.
+		 *
+		 * @return
+		 */
+		public ApplicationContext getApplicationContext() {
+			return (ApplicationContext) getSource();
+		}
+	}
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link AdaptivePluginRegistry}.
+ *
+ * @author agent
+ */
+public class AdaptivePluginRegistryUnitTest {
+
+	ExpensivePlugin expensive = new ExpensivePlugin();
+	CheapPlugin cheap = new CheapPlugin();
+
+	AdaptivePluginRegistry<Plugin<String>, String> registry = AdaptivePluginRegistry
+			.from(Arrays.asList(cheap, expensive));
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void evaluatesCheapSupportingPluginsFirst() {
+
+		assertThat(registry.getEvaluationOrder(), contains(expensive, cheap));
+
+		for (int i = 0; i < 20_000; i++) {
+			assertThat(registry.hasPluginFor("pdf"), is(true));
+		}
+
+		assertThat(registry.getEvaluationOrder(), contains(cheap, expensive));
+
+		int invocations = expensive.invocations.get();
+
+		for (int i = 0; i < 1_000; i++) {
+			registry.hasPluginFor("pdf");
+		}
+
+		assertThat(expensive.invocations.get(), is(invocations));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void keepsOrderSensitiveLookupsInRegistryOrder() {
+
+		for (int i = 0; i < 20_000; i++) {
+			registry.hasPluginFor("pdf");
+		}
+
+		assertThat(registry.getEvaluationOrder(), contains(cheap, expensive));
+		assertThat(registry.getPluginFor("docx"), is(Optional.of(expensive)));
+		assertThat(registry.getPluginsFor("docx"), contains(expensive, cheap));
+		assertThat(registry.countPluginsFor("docx"), is(2));
+		assertThat(registry.hasPluginFor("txt"), is(false));
+	}
+
+	@Order(1)
+	static class ExpensivePlugin implements Plugin<String> {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		@Override
+		public boolean supports(String delimiter) {
+
+			invocations.incrementAndGet();
+
+			long hash = 0;
+
+			for (int i = 0; i < 10_000; i++) {
+				hash = hash * 31 + delimiter.hashCode() + i;
+			}
+
+			return hash != 0 && "docx".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	static class CheapPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter) || "docx".equals(delimiter);
+		}
+	}
+}
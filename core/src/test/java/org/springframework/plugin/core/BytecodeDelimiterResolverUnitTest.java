@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link BytecodeDelimiterResolver} and {@link IndexedPluginRegistry#verifying()}.
+ *
+ * @author agent
+ */
+public class BytecodeDelimiterResolverUnitTest {
+
+	DelimiterResolver resolver = DelimiterResolver.inferred();
+
+	@Test
+	public void infersConstantEqualityShapes() {
+
+		assertThat(resolver.resolveDelimiters(LiteralPlugin.class), is(Optional.of(Collections.singleton("pdf"))));
+		assertThat(resolver.resolveDelimiters(ConstantPlugin.class), is(Optional.of(Collections.singleton("docx"))));
+		assertThat(resolver.resolveDelimiters(ReversedPlugin.class), is(Optional.of(Collections.singleton("xlsx"))));
+		assertThat(resolver.resolveDelimiters(EnumPlugin.class), is(Optional.of(Collections.singleton(Format.PNG))));
+	}
+
+	@Test
+	public void leavesOtherImplementationsUndeclared() {
+
+		assertThat(resolver.resolveDelimiters(PrefixPlugin.class), is(Optional.empty()));
+		assertThat(resolver.resolveDelimiters(MutableConstantPlugin.class), is(Optional.empty()));
+		assertThat(resolver.resolveDelimiters(ObjectIdentityPlugin.class), is(Optional.empty()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void indexesInferredPluginsInVerifyingRegistry() {
+
+		IndexedPluginRegistry<Plugin<String>, String> registry = IndexedPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new ConstantPlugin(), new LiteralPlugin()), resolver).verifying();
+
+		assertThat(registry.getPluginsFor("pdf"), //
+				contains(instanceOf(LiteralPlugin.class), instanceOf(PrefixPlugin.class)));
+		assertThat(registry.getPluginFor("docx").map(Object::getClass), is(Optional.of(ConstantPlugin.class)));
+		assertThat(registry.getPluginsFor("txt"), is(empty()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void verifyingRegistryRejectsDeclarationsContradictingSupports() {
+
+		IndexedPluginRegistry.from(Arrays.asList(new ContradictingPlugin()), DelimiterResolver.annotated()) //
+				.verifying() //
+				.getPlugins();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void verifyingRegistryDetectsMissingMatches() {
+
+		DelimiterResolver incomplete = type -> Optional.of(Collections.singleton("pdf"));
+
+		IndexedPluginRegistry.from(Arrays.asList(new PrefixPlugin()), incomplete) //
+				.verifying() //
+				.getPluginsFor("pages");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void verifyingRegistryDetectsMissingMatchesWhenCounting() {
+
+		DelimiterResolver incomplete = type -> Optional.of(Collections.singleton("pdf"));
+
+		IndexedPluginRegistry.from(Arrays.asList(new PrefixPlugin()), incomplete) //
+				.verifying() //
+				.countPluginsFor("pages");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void verifyingRegistryDetectsMissingMatchesWhenStreaming() {
+
+		DelimiterResolver incomplete = type -> Optional.of(Collections.singleton("pdf"));
+
+		IndexedPluginRegistry.from(Arrays.asList(new PrefixPlugin()), incomplete) //
+				.verifying() //
+				.streamPluginsFor("pages");
+	}
+
+	enum Format {
+		PDF, PNG;
+	}
+
+	@Order(1)
+	static class LiteralPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	static class ConstantPlugin implements Plugin<String> {
+
+		private static final String DOCX = "docx";
+
+		@Override
+		public boolean supports(String delimiter) {
+			return DOCX.equals(delimiter);
+		}
+	}
+
+	static class ReversedPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return delimiter.equals("xlsx");
+		}
+	}
+
+	static class EnumPlugin implements Plugin<Format> {
+
+		@Override
+		public boolean supports(Format delimiter) {
+			return delimiter == Format.PNG;
+		}
+	}
+
+	@Order(3)
+	static class PrefixPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return delimiter.startsWith("p");
+		}
+	}
+
+	static class MutableConstantPlugin implements Plugin<String> {
+
+		static String value = "pdf";
+
+		@Override
+		public boolean supports(String delimiter) {
+			return value.equals(delimiter);
+		}
+	}
+
+	static class ObjectIdentityPlugin implements Plugin<Object> {
+
+		static final Object VALUE = new Object();
+
+		@Override
+		public boolean supports(Object delimiter) {
+			return delimiter == VALUE;
+		}
+	}
+
+	@PluginFor("pdf")
+	static class ContradictingPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "docx".equals(delimiter);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link CachingPluginRegistry}.
+ *
+ * @author agent
+ */
+public class CachingPluginRegistryUnitTest {
+
+	public @Rule TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void evaluatesSupportsOncePerDelimiter() {
+
+		FirstPlugin first = new FirstPlugin();
+		CachingPluginRegistry<CountingPlugin, Object> registry = CachingPluginRegistry.from(Arrays.asList(first));
+
+		assertThat(registry.getPluginFor("foo"), is(Optional.of(first)));
+		assertThat(registry.getPluginsFor("foo"), contains(first));
+		assertThat(registry.getPluginsFor("bar"), is(empty()));
+
+		assertThat(first.invocations, is(2));
+		assertThat(registry.getCacheSize(), is(2));
+	}
+
+	@Test
+	public void prePopulatesCacheFromPersistedIndex() throws Exception {
+
+		Path file = folder.getRoot().toPath().resolve("plugins.idx");
+
+		CachingPluginRegistry<CountingPlugin, Object> registry = CachingPluginRegistry
+				.from(Arrays.asList(new SecondPlugin(), new FirstPlugin()), file);
+
+		registry.getPluginsFor("foo");
+		registry.getPluginsFor(Format.PDF);
+		registry.getPluginsFor(42L);
+		registry.getPluginsFor(String.class);
+		registry.writeIndex(file);
+
+		FirstPlugin first = new FirstPlugin();
+		SecondPlugin second = new SecondPlugin();
+
+		CachingPluginRegistry<CountingPlugin, Object> restored = CachingPluginRegistry.from(Arrays.asList(second, first),
+				file);
+
+		assertThat(restored.getPluginsFor("foo"), contains(first, second));
+		assertThat(restored.getPluginsFor(Format.PDF), contains(second));
+		assertThat(restored.getPluginsFor(42L), contains(second));
+		assertThat(restored.getPluginsFor(String.class), contains(second));
+		assertThat(restored.getCacheSize(), is(4));
+
+		assertThat(first.invocations, is(0));
+		assertThat(second.invocations, is(0));
+	}
+
+	@Test
+	public void discardsStaleIndex() throws Exception {
+
+		Path file = folder.getRoot().toPath().resolve("plugins.idx");
+
+		CachingPluginRegistry<CountingPlugin, Object> registry = CachingPluginRegistry
+				.from(Arrays.asList(new FirstPlugin(), new SecondPlugin()), file);
+		registry.getPluginsFor("foo");
+		registry.writeIndex(file);
+
+		FirstPlugin first = new FirstPlugin();
+		CachingPluginRegistry<CountingPlugin, Object> restored = CachingPluginRegistry.from(Arrays.asList(first), file);
+
+		assertThat(restored.getPluginsFor("foo"), contains(first));
+		assertThat(first.invocations, is(1));
+	}
+
+	@Test
+	public void discardsCorruptIndex() throws Exception {
+
+		Path file = folder.getRoot().toPath().resolve("plugins.idx");
+		Files.write(file, new byte[] { 1, 2, 3 });
+
+		FirstPlugin first = new FirstPlugin();
+		CachingPluginRegistry<CountingPlugin, Object> restored = CachingPluginRegistry.from(Arrays.asList(first), file);
+
+		assertThat(restored.getPluginsFor("foo"), contains(first));
+		assertThat(restored.getCacheSize(), is(1));
+	}
+
+	@Test
+	public void allowsPluginsToLookUpPluginsFromTheRegistry() {
+
+		AtomicReference<PluginRegistry<Plugin<String>, String>> reference = new AtomicReference<>();
+
+		// "Aa" and "BB" share the same hash code
+		Plugin<String> plugin = delimiter -> !"Aa".equals(delimiter) || reference.get().hasPluginFor("BB");
+
+		reference.set(CachingPluginRegistry.from(Arrays.asList(plugin)));
+
+		assertThat(reference.get().getPluginFor("Aa"), is(Optional.of(plugin)));
+		assertThat(((CachingPluginRegistry<?, ?>) reference.get()).getCacheSize(), is(2));
+	}
+
+	enum Format {
+		PDF, DOCX;
+	}
+
+	static abstract class CountingPlugin implements Plugin<Object> {
+
+		int invocations;
+
+		@Override
+		public boolean supports(Object delimiter) {
+
+			invocations++;
+			return doSupports(delimiter);
+		}
+
+		abstract boolean doSupports(Object delimiter);
+	}
+
+	@Order(1)
+	static class FirstPlugin extends CountingPlugin {
+
+		@Override
+		boolean doSupports(Object delimiter) {
+			return "foo".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	static class SecondPlugin extends CountingPlugin {
+
+		@Override
+		boolean doSupports(Object delimiter) {
+			return !"bar".equals(delimiter);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link CanonicalPluginRegistryFactory}.
+ *
+ * @author agent
+ */
+public class CanonicalPluginRegistryFactoryUnitTest {
+
+	SamplePlugin first = new SamplePlugin("pdf"), second = new SamplePlugin("docx"), third = new SamplePlugin("xlsx");
+
+	@Test
+	public void sharesRegistryForIdenticalPluginSequences() {
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> factory = CanonicalPluginRegistryFactory.create();
+
+		PluginRegistry<SamplePlugin, String> registry = factory.getRegistry(Arrays.asList(first, second));
+
+		assertThat(factory.getRegistry(new ArrayList<>(Arrays.asList(first, second))), is(sameInstance(registry)));
+		assertThat(factory.getRegistry(Arrays.asList(second, first)), is(not(sameInstance(registry))));
+		assertThat(factory.getRegistry(Arrays.asList(first, new SamplePlugin("docx"))), is(not(sameInstance(registry))));
+		assertThat(factory.getRegistryCount(), is(3));
+		assertThat(registry.getPluginFor("docx"), is(Optional.of(second)));
+	}
+
+	@Test
+	public void usesGivenRegistryFactory() {
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> factory = CanonicalPluginRegistryFactory
+				.of(plugins -> IndexedPluginRegistry.from(plugins, DelimiterResolver.annotated()));
+
+		assertThat(factory.getRegistry(Arrays.asList(first)), is(instanceOf(IndexedPluginRegistry.class)));
+	}
+
+	@Test
+	public void allowsFactoryFunctionToObtainRegistries() {
+
+		AtomicReference<CanonicalPluginRegistryFactory<SamplePlugin, String>> factory = new AtomicReference<>();
+		List<SamplePlugin> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 32; i++) {
+			plugins.add(new SamplePlugin("pdf"));
+		}
+
+		// Obtains the registries for all tails of the sequence recursively
+		factory.set(CanonicalPluginRegistryFactory.of(it -> {
+
+			if (it.size() > 1) {
+				factory.get().getRegistry(it.subList(1, it.size()));
+			}
+
+			return OrderAwarePluginRegistry.of(it);
+		}));
+
+		PluginRegistry<SamplePlugin, String> registry = factory.get().getRegistry(plugins);
+
+		assertThat(registry.getPlugins(), is(plugins));
+		assertThat(factory.get().getRegistry(plugins), is(sameInstance(registry)));
+		assertThat(factory.get().getRegistryCount(), is(32));
+	}
+
+	@Test
+	public void sharesRegistryForPluginsHandedInInDifferentOrder() {
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> factory = CanonicalPluginRegistryFactory.create();
+
+		SamplePlugin high = new OrderedSamplePlugin("pdf", 1), low = new OrderedSamplePlugin("pdf", 2);
+		PluginRegistry<SamplePlugin, String> registry = factory.getRegistry(Arrays.asList(low, high));
+
+		assertThat(factory.getRegistry(Arrays.asList(high, low)), is(sameInstance(registry)));
+		assertThat(registry.getPlugins(), contains(high, low));
+		assertThat(factory.getRegistryCount(), is(1));
+	}
+
+	@Test
+	public void dropsRegistryOnceReleasedAsOftenAsHandedOut() {
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> factory = CanonicalPluginRegistryFactory.create();
+		List<SamplePlugin> plugins = Arrays.asList(first, second);
+
+		PluginRegistry<SamplePlugin, String> registry = factory.getRegistry(plugins);
+		factory.getRegistry(plugins);
+
+		factory.release(registry);
+
+		assertThat(factory.getRegistry(plugins), is(sameInstance(registry)));
+
+		factory.release(registry);
+		factory.release(registry);
+
+		assertThat(factory.getRegistryCount(), is(0));
+		assertThat(factory.getRetainedSize(registry), is(0L));
+		assertThat(factory.getRegistry(plugins), is(not(sameInstance(registry))));
+	}
+
+	@Test
+	public void reportsRetainedHeap() {
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> factory = CanonicalPluginRegistryFactory.create();
+		List<SamplePlugin> plugins = Arrays.asList(first, second, third);
+		PluginRegistry<SamplePlugin, String> registry = null;
+
+		for (int i = 0; i < 100; i++) {
+			registry = factory.getRegistry(plugins);
+		}
+
+		registry.getPluginFor("pdf");
+
+		assertThat(factory.getRegistryCount(), is(1));
+		assertThat(factory.getRetainedSize(), is(greaterThan(0L)));
+		assertThat(factory.getUnsharedSize(), is(factory.getRetainedSize() * 100));
+		assertThat(factory.getRetainedSize(registry), is(factory.getRetainedSize() / 100));
+		assertThat(factory.getRetainedSize(PluginRegistry.of(plugins)), is(0L));
+	}
+
+	@Test
+	public void includesSnapshotAndIndexesInRetainedHeap() {
+
+		List<SamplePlugin> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 100; i++) {
+			plugins.add(new SamplePlugin("pdf"));
+		}
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> plain = CanonicalPluginRegistryFactory.create();
+		CanonicalPluginRegistryFactory<SamplePlugin, String> indexed = CanonicalPluginRegistryFactory
+				.of(it -> IndexedPluginRegistry.from(it, type -> Optional.of(Collections.singleton("pdf"))));
+
+		PluginRegistry<SamplePlugin, String> small = plain.getRegistry(plugins.subList(0, 10));
+		PluginRegistry<SamplePlugin, String> large = plain.getRegistry(plugins);
+		PluginRegistry<SamplePlugin, String> index = indexed.getRegistry(plugins);
+
+		small.getPluginFor("pdf");
+		large.getPluginFor("pdf");
+		index.getPluginFor("pdf");
+
+		// Snapshot of 90 more references
+		assertThat(plain.getRetainedSize(large) - plain.getRetainedSize(small), is(greaterThanOrEqualTo(90L * 4)));
+
+		// Positions of all plugins in the index
+		assertThat(indexed.getRetainedSize(index) - plain.getRetainedSize(large), is(greaterThanOrEqualTo(100L * 4)));
+	}
+
+	@Test
+	public void excludesSharedCollaboratorsFromRetainedHeap() {
+
+		List<SamplePlugin> plugins = Collections.singletonList(new SamplePlugin("pdf"));
+
+		DelimiterResolver resolver = new DelimiterResolver() {
+
+			long[] cache = new long[10_000];
+
+			@Override
+			public Optional<Set<Object>> resolveDelimiters(Class<?> type) {
+				return Optional.empty();
+			}
+		};
+
+		CachingPluginRegistry<SamplePlugin, String> parent = CachingPluginRegistry
+				.from(Collections.singletonList(new SamplePlugin("txt")));
+
+		for (int i = 0; i < 1000; i++) {
+			parent.getPluginFor(String.valueOf(i));
+		}
+
+		CanonicalPluginRegistryFactory<SamplePlugin, String> configured = CanonicalPluginRegistryFactory
+				.of(it -> IndexedPluginRegistry.from(it, resolver));
+		CanonicalPluginRegistryFactory<SamplePlugin, String> child = CanonicalPluginRegistryFactory
+				.of(it -> HierarchicalPluginRegistry.from(parent, it));
+
+		PluginRegistry<SamplePlugin, String> registry = configured.getRegistry(plugins);
+		PluginRegistry<SamplePlugin, String> hierarchical = child.getRegistry(plugins);
+
+		registry.getPluginFor("pdf");
+		hierarchical.getPluginFor("pdf");
+
+		assertThat(configured.getRetainedSize(registry), is(lessThan(10_000L)));
+		assertThat(child.getRetainedSize(hierarchical), is(lessThan(10_000L)));
+	}
+
+	static class SamplePlugin implements Plugin<String> {
+
+		private final String delimiter;
+
+		SamplePlugin(String delimiter) {
+			this.delimiter = delimiter;
+		}
+
+		@Override
+		public boolean supports(String delimiter) {
+			return this.delimiter.equals(delimiter);
+		}
+	}
+
+	static class OrderedSamplePlugin extends SamplePlugin implements Ordered {
+
+		private final int order;
+
+		OrderedSamplePlugin(String delimiter, int order) {
+
+			super(delimiter);
+			this.order = order;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit tests for {@link CompiledPluginRegistry}.
+ *
+ * @author agent
+ */
+public class CompiledPluginRegistryUnitTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void selectsPluginsInOrderFromCompiledChain() {
+
+		CompiledPluginRegistry<Plugin<String>, String> registry = CompiledPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new PdfPlugin(), new AnyPlugin()));
+
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(PdfPlugin.class), instanceOf(PrefixPlugin.class),
+				instanceOf(AnyPlugin.class)));
+		assertThat(registry.getPluginFor("png").map(Object::getClass), is(Optional.of(PrefixPlugin.class)));
+		assertThat(registry.getPluginsFor("txt"), contains(instanceOf(AnyPlugin.class)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void mergesDeclaredAndCompiledPluginsInOrder() {
+
+		CompiledPluginRegistry<Plugin<String>, String> registry = CompiledPluginRegistry.from(
+				Arrays.asList(new AnyPlugin(), new DeclaredPdfPlugin(), new PrefixPlugin(), new PdfPlugin()),
+				DelimiterResolver.annotated());
+
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(PdfPlugin.class), instanceOf(DeclaredPdfPlugin.class),
+				instanceOf(PrefixPlugin.class), instanceOf(AnyPlugin.class)));
+		assertThat(registry.getPluginFor("pdf").map(Object::getClass), is(Optional.of(PdfPlugin.class)));
+		assertThat(registry.getPluginsFor("docx"), contains(instanceOf(AnyPlugin.class)));
+	}
+
+	@Test
+	public void returnsDeclaredPluginWithoutInvokingLaterChainedPlugins() {
+
+		CompiledPluginRegistry<Plugin<String>, String> registry = CompiledPluginRegistry
+				.from(Arrays.asList(new DeclaredPdfPlugin(), new FailingPlugin()), DelimiterResolver.annotated());
+
+		assertThat(registry.getPluginFor("pdf").map(Object::getClass), is(Optional.of(DeclaredPdfPlugin.class)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void compilesLargeNumberOfPlugins() {
+
+		List<Plugin<Integer>> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 300; i++) {
+			int value = i;
+			plugins.add(delimiter -> delimiter % 100 == value % 100);
+		}
+
+		CompiledPluginRegistry<Plugin<Integer>, Integer> registry = CompiledPluginRegistry.from(plugins);
+
+		assertThat(registry.getPluginsFor(142), contains(plugins.get(42), plugins.get(142), plugins.get(242)));
+		assertThat(registry.getPluginFor(299), is(Optional.of(plugins.get(99))));
+		assertThat(registry.hasPluginFor(-1), is(false));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void splitsChainOfManyPluginsIntoSegments() {
+
+		List<Plugin<Integer>> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 3_000; i++) {
+			int value = i;
+			plugins.add(delimiter -> delimiter % 1_000 == value % 1_000);
+		}
+
+		CompiledPluginRegistry<Plugin<Integer>, Integer> registry = CompiledPluginRegistry.from(plugins);
+
+		assertThat(registry.getPluginsFor(63), contains(plugins.get(63), plugins.get(1_063), plugins.get(2_063)));
+		assertThat(registry.getPluginsFor(64), contains(plugins.get(64), plugins.get(1_064), plugins.get(2_064)));
+		assertThat(registry.getPluginFor(2_999), is(Optional.of(plugins.get(999))));
+		assertThat(registry.countPluginsFor(1_000), is(3));
+		assertThat(registry.hasPluginFor(-1), is(false));
+	}
+
+	@Test
+	public void fallsBackToLoopIfChainCannotBeGenerated() {
+
+		List<Plugin<Integer>> plugins = new ArrayList<>();
+
+		// Too many segments for the dispatching method to fit into a class file
+		for (int i = 0; i < 150_000; i++) {
+			int value = i;
+			plugins.add(delimiter -> delimiter == value % 10);
+		}
+
+		CompiledPluginRegistry<Plugin<Integer>, Integer> registry = CompiledPluginRegistry.from(plugins);
+
+		assertThat(registry.getPluginFor(7), is(Optional.of(plugins.get(7))));
+		assertThat(registry.countPluginsFor(7), is(15_000));
+		assertThat(registry.hasPluginFor(-1), is(false));
+	}
+
+	@Test
+	public void handlesEmptyRegistry() {
+
+		CompiledPluginRegistry<Plugin<String>, String> registry = CompiledPluginRegistry.from(Collections.emptyList());
+
+		assertThat(registry.getPluginFor("pdf"), is(Optional.empty()));
+		assertThat(registry.getPluginsFor("pdf"), is(empty()));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void reverseRecompilesInReverseOrder() {
+
+		CompiledPluginRegistry<Plugin<String>, String> registry = CompiledPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new PdfPlugin(), new AnyPlugin())).reverse();
+
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(AnyPlugin.class), instanceOf(PrefixPlugin.class),
+				instanceOf(PdfPlugin.class)));
+	}
+
+	@Test
+	public void reusesGeneratedChainForSamePluginTypes() {
+
+		CompiledPluginRegistry<Plugin<String>, String> first = CompiledPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new PdfPlugin()));
+		CompiledPluginRegistry<Plugin<String>, String> second = CompiledPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new PdfPlugin()));
+		CompiledPluginRegistry<Plugin<String>, String> swapped = CompiledPluginRegistry
+				.from(Arrays.asList(new PrefixPlugin(), new AnyPlugin()));
+
+		assertThat(getChainType(second), is(equalTo(getChainType(first))));
+		assertThat(getChainType(swapped), is(not(equalTo(getChainType(first)))));
+	}
+
+	private static Class<?> getChainType(CompiledPluginRegistry<?, ?> registry) {
+
+		registry.countPlugins();
+
+		Object dispatch = ReflectionTestUtils.getField(registry, "dispatch");
+
+		return ReflectionTestUtils.getField(dispatch, "chain").getClass();
+	}
+
+	@Order(1)
+	static class PdfPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	@PluginFor("pdf")
+	static class DeclaredPdfPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(3)
+	static class PrefixPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return delimiter.startsWith("p");
+		}
+	}
+
+	@Order(4)
+	static class AnyPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	@Order(5)
+	static class FailingPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			throw new IllegalStateException();
+		}
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link DecisionTreePluginRegistry}.
+ *
+ * @author agent
+ */
+public class DecisionTreePluginRegistryUnitTest {
+
+	AtomicInteger lookups = new AtomicInteger();
+
+	DelimiterAttributes<Request> attributes = DelimiterAttributes.<Request> of("tenant", it -> {
+		lookups.incrementAndGet();
+		return it.tenant;
+	}).and("region", it -> {
+		lookups.incrementAndGet();
+		return it.region;
+	}).and("channel", it -> {
+		lookups.incrementAndGet();
+		return it.channel;
+	});
+
+	RequestPlugin acme = new RequestPlugin(1, AttributePredicate.any().and("tenant", "acme"));
+	RequestPlugin euWeb = new RequestPlugin(2, AttributePredicate.any().and("region", "eu").and("channel", "web"));
+	RequestPlugin mobile = new RequestPlugin(3, AttributePredicate.any().andIn("channel", "ios", "android"));
+	RequestPlugin fallback = new RequestPlugin(4, AttributePredicate.any());
+
+	@Test
+	public void selectsMatchingPluginsInOrder() {
+
+		DecisionTreePluginRegistry<RequestPlugin, Request> registry = DecisionTreePluginRegistry
+				.from(Arrays.asList(fallback, mobile, euWeb, acme), attributes);
+
+		assertThat(registry.getPluginsFor(new Request("acme", "eu", "web")), contains(acme, euWeb, fallback));
+		assertThat(registry.getPluginsFor(new Request("globex", "us", "ios")), contains(mobile, fallback));
+		assertThat(registry.getPluginFor(new Request("globex", "eu", "web")), is(Optional.of(euWeb)));
+		assertThat(registry.getPluginsFor(new Request("globex", "us", "web")), contains(fallback));
+		assertThat(registry.reverse().getPluginsFor(new Request("acme", "us", "ios")), contains(fallback, mobile, acme));
+	}
+
+	@Test
+	public void extractsEachAttributeAtMostOnce() {
+
+		DecisionTreePluginRegistry<RequestPlugin, Request> registry = DecisionTreePluginRegistry
+				.from(Arrays.asList(fallback, mobile, euWeb, acme), attributes);
+
+		registry.getPlugins();
+		lookups.set(0);
+
+		registry.getPluginsFor(new Request("acme", "eu", "web"));
+
+		assertThat(lookups.get(), is(lessThanOrEqualTo(3)));
+	}
+
+	@Test
+	public void skipsUnconstrainedAttributes() {
+
+		DecisionTreePluginRegistry<RequestPlugin, Request> registry = DecisionTreePluginRegistry
+				.from(Arrays.asList(mobile, fallback), attributes);
+
+		registry.getPlugins();
+		lookups.set(0);
+
+		assertThat(registry.getPluginsFor(new Request("acme", "eu", "ios")), contains(mobile, fallback));
+		assertThat(lookups.get(), is(1));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void mergesPluginsNotDeclaringPredicates() {
+
+		Plugin<Request> opaque = new OpaquePlugin();
+
+		DecisionTreePluginRegistry<Plugin<Request>, Request> registry = DecisionTreePluginRegistry
+				.from(Arrays.asList(opaque, euWeb, acme), attributes);
+
+		assertThat(registry.getPluginsFor(new Request("acme", "eu", "web")), contains(acme, opaque, euWeb));
+		assertThat(registry.getPluginsFor(new Request("acme", "us", "web")), contains(acme));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsPredicateOnUndeclaredAttribute() {
+
+		RequestPlugin plugin = new RequestPlugin(1, AttributePredicate.any().and("product", "book"));
+
+		DecisionTreePluginRegistry.from(Arrays.asList(plugin), attributes).getPlugins();
+	}
+
+	@Test
+	public void neverSelectsPluginsWithContradictingConditions() {
+
+		RequestPlugin contradicting = new RequestPlugin(1,
+				AttributePredicate.any().and("tenant", "acme").and("tenant", "globex"));
+
+		DecisionTreePluginRegistry<RequestPlugin, Request> registry = DecisionTreePluginRegistry
+				.from(Arrays.asList(contradicting, fallback), attributes);
+
+		assertThat(contradicting.getPredicate().matches(it -> "acme"), is(false));
+		assertThat(registry.getPluginsFor(new Request("acme", "eu", "web")), contains(fallback));
+		assertThat(registry.getPluginsFor(new Request("globex", "eu", "web")), contains(fallback));
+		assertThat(registry.getPluginsFor(new Request(null, "eu", "web")), contains(fallback));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyAllowedValues() {
+		AttributePredicate.any().andIn("channel");
+	}
+
+	static class Request {
+
+		final String tenant, region, channel;
+
+		Request(String tenant, String region, String channel) {
+			this.tenant = tenant;
+			this.region = region;
+			this.channel = channel;
+		}
+	}
+
+	static class RequestPlugin implements AttributeMatchingPlugin<Request>, Ordered {
+
+		private final int order;
+		private final AttributePredicate predicate;
+
+		RequestPlugin(int order, AttributePredicate predicate) {
+			this.order = order;
+			this.predicate = predicate;
+		}
+
+		@Override
+		public AttributePredicate getPredicate() {
+			return predicate;
+		}
+
+		@Override
+		public boolean supports(Request delimiter) {
+			throw new IllegalStateException("Must not be invoked!");
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class OpaquePlugin implements Plugin<Request>, Ordered {
+
+		@Override
+		public boolean supports(Request delimiter) {
+			return "eu".equals(delimiter.region);
+		}
+
+		@Override
+		public int getOrder() {
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link EnumPluginRegistry}.
+ *
+ * @author agent
+ */
+public class EnumPluginRegistryUnitTest {
+
+	FormatPlugin documents = new FormatPlugin(2, Format.PDF, Format.DOCX);
+	FormatPlugin images = new FormatPlugin(1, Format.PNG, Format.PDF);
+
+	@Test
+	public void selectsPluginsInOrder() {
+
+		EnumPluginRegistry<FormatPlugin, Format> registry = EnumPluginRegistry.from(Format.class,
+				Arrays.asList(documents, images));
+
+		assertThat(registry.getPluginsFor(Format.PDF), contains(images, documents));
+		assertThat(registry.getPluginFor(Format.DOCX), is(Optional.of(documents)));
+		assertThat(registry.getPluginsFor(Format.TXT), is(empty()));
+		assertThat(registry.hasPluginFor(Format.PNG), is(true));
+		assertThat(registry.reverse().getPluginsFor(Format.PDF), contains(documents, images));
+	}
+
+	@Test
+	public void evaluatesSupportsOncePerConstant() {
+
+		EnumPluginRegistry<FormatPlugin, Format> registry = EnumPluginRegistry.from(Format.class,
+				Arrays.asList(documents, images));
+
+		List<FormatPlugin> result = registry.getPluginsFor(Format.PDF);
+
+		registry.getPluginFor(Format.PDF);
+		registry.getPluginsFor(Format.TXT);
+
+		assertThat(registry.getPluginsFor(Format.PDF), is(sameInstance(result)));
+		assertThat(documents.invocations, is(Format.values().length));
+		assertThat(images.invocations, is(Format.values().length));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void answersLookupsFromSharedPositions() {
+
+		EnumPluginRegistry<FormatPlugin, Format> registry = EnumPluginRegistry.from(Format.class,
+				Arrays.asList(documents, images));
+
+		assertThat(registry.getCandidates(Format.PDF), is(instanceOf(Candidates.Positions.class)));
+		assertThat(registry.getCandidates(Format.PDF), is(sameInstance(registry.getCandidates(Format.PDF))));
+		assertThat(registry.getPluginsFor(Format.PDF, 1), contains(images));
+		assertThat(registry.countPluginsFor(Format.PDF), is(2));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void returnsImmutableLists() {
+
+		EnumPluginRegistry.from(Format.class, Arrays.asList(documents)) //
+				.getPluginsFor(Format.PDF) //
+				.add(images);
+	}
+
+	enum Format {
+		PDF, DOCX, PNG, TXT;
+	}
+
+	static class FormatPlugin implements Plugin<Format>, Ordered {
+
+		private final int order;
+		private final Set<Format> formats;
+
+		int invocations;
+
+		FormatPlugin(int order, Format... formats) {
+
+			this.order = order;
+			this.formats = EnumSet.copyOf(Arrays.asList(formats));
+		}
+
+		@Override
+		public boolean supports(Format delimiter) {
+
+			invocations++;
+
+			return formats.contains(delimiter);
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link PluginRegistry#filter(java.util.function.Predicate)} and {@link PluginRegistry#narrow(Class)}.
+ *
+ * @author agent
+ */
+public class FilteredPluginRegistryUnitTest {
+
+	PluginRegistry<SamplePlugin, String> registry = PluginRegistry
+			.of(Arrays.asList(new FallbackPlugin(), new TenantPdfPlugin(), new PdfPlugin()));
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void filtersPluginsKeepingOrder() {
+
+		PluginRegistry<SamplePlugin, String> filtered = registry.filter(it -> !(it instanceof FallbackPlugin));
+
+		assertThat(filtered.getPlugins(), contains(instanceOf(PdfPlugin.class), instanceOf(TenantPdfPlugin.class)));
+		assertThat(filtered.getPluginsFor("pdf"), contains(instanceOf(PdfPlugin.class), instanceOf(TenantPdfPlugin.class)));
+		assertThat(filtered.getPluginFor("txt"), is(Optional.empty()));
+		assertThat(filtered.countPlugins(), is(2));
+		assertThat(filtered.contains(registry.getPlugins().get(2)), is(false));
+	}
+
+	@Test
+	public void narrowsToPluginsOfGivenType() {
+
+		PluginRegistry<TenantPlugin, String> narrowed = registry.narrow(TenantPlugin.class);
+
+		assertThat(narrowed.getPlugins(), contains(instanceOf(TenantPdfPlugin.class)));
+		assertThat(narrowed.getRequiredPluginFor("pdf").getTenant(), is("acme"));
+		assertThat(narrowed.hasPluginFor("txt"), is(false));
+		assertThat(registry.narrow(TenantPlugin.class), is(sameInstance(narrowed)));
+	}
+
+	@Test
+	public void combinesFilters() {
+
+		PluginRegistry<SamplePlugin, String> filtered = registry //
+				.filter(it -> !(it instanceof PdfPlugin)) //
+				.filter(it -> !(it instanceof FallbackPlugin));
+
+		assertThat(filtered.getPlugins(), contains(instanceOf(TenantPdfPlugin.class)));
+	}
+
+	@Test
+	public void indexesLargeSnapshots() {
+
+		List<SamplePlugin> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 200; i++) {
+			plugins.add(new PdfPlugin());
+		}
+
+		List<SamplePlugin> snapshot = PluginRegistry.of(plugins).getPlugins();
+		PluginRegistry<SamplePlugin, String> filtered = PluginRegistry.of(plugins)
+				.filter(it -> snapshot.indexOf(it) % 3 == 0);
+
+		assertThat(filtered.countPlugins(), is(67));
+		assertThat(filtered.getPlugins().get(66), is(sameInstance(plugins.get(198))));
+		assertThat(filtered.getPlugins(), is(new ArrayList<>(filtered.getPlugins())));
+		assertThat(filtered.getPluginsFor("pdf"), hasSize(67));
+	}
+
+	@Test
+	public void looksUpPluginsUsingIndexOfUnderlyingRegistry() {
+
+		TenantPlugin indexed = new TenantPdfPlugin() {
+
+			@Override
+			public boolean supports(String delimiter) {
+				throw new UnsupportedOperationException();
+			}
+		};
+
+		PerfectHashIndex index = PerfectHashIndex.builder().add("txt", 0).add("txt", 1).build();
+		PluginRegistry<TenantPlugin, String> narrowed = PerfectHashPluginRegistry
+				.from(Arrays.<SamplePlugin> asList(indexed, new PdfPlugin()), index) //
+				.unconfirmed() //
+				.narrow(TenantPlugin.class);
+
+		assertThat(narrowed.getPluginsFor("txt"), contains(indexed));
+		assertThat(narrowed.getPluginFor("txt"), is(Optional.of(indexed)));
+		assertThat(narrowed.streamPluginsFor("txt").collect(Collectors.toList()), contains(indexed));
+		assertThat(narrowed.getPluginsFor("txt", 1), contains(indexed));
+		assertThat(narrowed.countPluginsFor("txt"), is(1));
+		assertThat(narrowed.narrow(TenantPdfPlugin.class), is(sameInstance(narrowed.narrow(TenantPdfPlugin.class))));
+	}
+
+	@Test
+	public void onlyAsksPluginsContainedInTheView() {
+
+		AtomicInteger invocations = new AtomicInteger();
+		List<SamplePlugin> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 1000; i++) {
+			plugins.add(delimiter -> invocations.incrementAndGet() < 0);
+		}
+
+		plugins.add(new TenantPdfPlugin());
+
+		PluginRegistry<TenantPlugin, String> narrowed = OrderAwarePluginRegistry.of(plugins).narrow(TenantPlugin.class);
+
+		assertThat(narrowed.getPluginsFor("pdf"), contains(instanceOf(TenantPdfPlugin.class)));
+		assertThat(narrowed.streamPluginsFor("pdf").count(), is(1L));
+		assertThat(narrowed.countPluginsFor("pdf"), is(1));
+		assertThat(narrowed.contains((TenantPlugin) plugins.get(1000)), is(true));
+		assertThat(invocations.get(), is(0));
+	}
+
+	interface SamplePlugin extends Plugin<String> {}
+
+	interface TenantPlugin extends SamplePlugin {
+		String getTenant();
+	}
+
+	@Order(1)
+	static class PdfPlugin implements SamplePlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	static class TenantPdfPlugin implements TenantPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+
+		@Override
+		public String getTenant() {
+			return "acme";
+		}
+	}
+
+	@Order(3)
+	static class FallbackPlugin implements SamplePlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+}
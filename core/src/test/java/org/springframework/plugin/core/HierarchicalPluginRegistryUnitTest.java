@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link HierarchicalPluginRegistry}.
+ *
+ * @author agent
+ */
+public class HierarchicalPluginRegistryUnitTest {
+
+	PluginRegistry<Plugin<String>, String> parent = IndexedPluginRegistry
+			.from(Arrays.asList(new ParentPdfPlugin(), new ParentFallbackPlugin()), DelimiterResolver.annotated());
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void mergesParentAndLocalPluginsByOrder() {
+
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(new ChildFallbackPlugin(), new ChildPdfPlugin()));
+
+		assertThat(registry.getPlugins(), contains(instanceOf(ChildPdfPlugin.class), instanceOf(ParentPdfPlugin.class),
+				instanceOf(ChildFallbackPlugin.class), instanceOf(ParentFallbackPlugin.class)));
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(ChildPdfPlugin.class),
+				instanceOf(ParentPdfPlugin.class), instanceOf(ChildFallbackPlugin.class), instanceOf(ParentFallbackPlugin.class)));
+		assertThat(registry.getPluginFor("txt").map(Object::getClass), is(Optional.of(ChildFallbackPlugin.class)));
+		assertThat(registry.countPlugins(), is(4));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void sharesParentSnapshotWithoutLocalPlugins() {
+
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Collections.emptyList());
+
+		assertThat(registry.getPlugins(), is(parent.getPlugins()));
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(ParentPdfPlugin.class),
+				instanceOf(ParentFallbackPlugin.class)));
+	}
+
+	@Test
+	public void cachesLookupResults() {
+
+		CountingPlugin plugin = new CountingPlugin();
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(plugin));
+
+		assertThat(registry.getPluginsFor("pdf"), hasItem(plugin));
+		assertThat(registry.getPluginsFor("pdf"), is(sameInstance(registry.getPluginsFor("pdf"))));
+		assertThat(registry.hasPluginFor("pdf"), is(true));
+		assertThat(plugin.invocations.get(), is(1));
+	}
+
+	@Test
+	public void stopsAtFirstSupportingLocalPlugin() {
+
+		CountingPlugin plugin = new CountingPlugin();
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(new ChildFallbackPlugin(), plugin));
+
+		assertThat(registry.getPluginFor("txt").map(Object::getClass), is(Optional.of(ChildFallbackPlugin.class)));
+		assertThat(registry.hasPluginFor("txt"), is(true));
+		assertThat(registry.getPluginsFor("txt", 1), hasSize(1));
+		assertThat(registry.streamPluginsFor("txt").findFirst(), is(registry.getPluginFor("txt")));
+		assertThat(plugin.invocations.get(), is(0));
+
+		assertThat(registry.streamPluginsFor("pdf").collect(Collectors.toList()), is(registry.getPluginsFor("pdf")));
+		assertThat(registry.countPluginsFor("pdf"), is(4));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void supportsMultipleLevels() {
+
+		HierarchicalPluginRegistry<Plugin<String>, String> child = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(new ChildPdfPlugin()));
+		HierarchicalPluginRegistry<Plugin<String>, String> grandChild = HierarchicalPluginRegistry.from(child,
+				Arrays.asList(new ChildFallbackPlugin()));
+
+		assertThat(grandChild.getPluginsFor("pdf"), contains(instanceOf(ChildPdfPlugin.class),
+				instanceOf(ParentPdfPlugin.class), instanceOf(ChildFallbackPlugin.class), instanceOf(ParentFallbackPlugin.class)));
+		assertThat(grandChild.reverse().getPluginFor("pdf").map(Object::getClass),
+				is(Optional.of(ParentFallbackPlugin.class)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void looksUpLocalPluginsInIndexIfResolverConfigured() {
+
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(new ChildIndexedPlugin(), new ChildFallbackPlugin()), DelimiterResolver.annotated());
+
+		assertThat(registry.getPluginsFor("pdf"), contains(instanceOf(ChildIndexedPlugin.class),
+				instanceOf(ParentPdfPlugin.class), instanceOf(ChildFallbackPlugin.class), instanceOf(ParentFallbackPlugin.class)));
+		assertThat(registry.getPluginFor("txt").map(Object::getClass), is(Optional.of(ChildFallbackPlugin.class)));
+	}
+
+	@Test
+	public void mergesLookupResultsWithoutComparingPluginsAgain() {
+
+		AtomicInteger comparisons = new AtomicInteger();
+		Comparator<Object> comparator = (left, right) -> {
+			comparisons.incrementAndGet();
+			return OrderAwarePluginRegistry.DEFAULT_COMPARATOR.compare(left, right);
+		};
+
+		HierarchicalPluginRegistry<Plugin<String>, String> registry = HierarchicalPluginRegistry.from(parent,
+				Arrays.asList(new ChildFallbackPlugin(), new ChildPdfPlugin()), comparator);
+
+		// Initializes the merged snapshot and the local registry
+		registry.getPluginFor("pdf");
+		comparisons.set(0);
+
+		assertThat(registry.getPluginFor("pdf").map(Object::getClass), is(Optional.of(ChildPdfPlugin.class)));
+		assertThat(registry.getPluginsFor("pdf"), hasSize(4));
+		assertThat(registry.getPluginsFor("txt", 2), hasSize(2));
+		assertThat(registry.streamPluginsFor("pdf").count(), is(4L));
+		assertThat(comparisons.get(), is(0));
+	}
+
+	@Order(1)
+	static class ChildPdfPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	@PluginFor("pdf")
+	static class ParentPdfPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "pdf".equals(delimiter);
+		}
+	}
+
+	@Order(1)
+	@PluginFor("pdf")
+	static class ChildIndexedPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	@Order(3)
+	static class ChildFallbackPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	@Order(4)
+	static class ParentFallbackPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	static class CountingPlugin implements Plugin<String> {
+
+		final AtomicInteger invocations = new AtomicInteger();
+
+		@Override
+		public boolean supports(String delimiter) {
+
+			invocations.incrementAndGet();
+			return true;
+		}
+	}
+}
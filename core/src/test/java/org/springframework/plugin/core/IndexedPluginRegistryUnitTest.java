@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link IndexedPluginRegistry}.
+ *
+ * @author agent
+ */
+public class IndexedPluginRegistryUnitTest {
+
+	DocumentPlugin pdf = new PdfPlugin();
+	DocumentPlugin office = new OfficePlugin();
+	DocumentPlugin fallback = new FallbackPlugin();
+
+	@Test
+	public void selectsDeclaredPluginsWithoutInvokingSupports() {
+
+		IndexedPluginRegistry<DocumentPlugin, String> registry = IndexedPluginRegistry.from(Arrays.asList(office, pdf),
+				DelimiterResolver.annotated());
+
+		assertThat(registry.getPluginFor("pdf"), is(Optional.of(pdf)));
+		assertThat(registry.getPluginsFor("docx"), contains(office));
+		assertThat(registry.getPluginsFor("txt"), is(empty()));
+	}
+
+	@Test
+	public void mergesUndeclaredPluginsInOrder() {
+
+		IndexedPluginRegistry<DocumentPlugin, String> registry = IndexedPluginRegistry
+				.from(Arrays.asList(fallback, office, pdf), DelimiterResolver.annotated());
+
+		assertThat(registry.getPluginsFor("pdf"), contains(pdf, fallback));
+		assertThat(registry.getPluginsFor("txt"), contains(fallback));
+		assertThat(registry.getPluginFor("docx"), is(Optional.of(office)));
+	}
+
+	@Test
+	public void reverseKeepsIndex() {
+
+		IndexedPluginRegistry<DocumentPlugin, String> registry = IndexedPluginRegistry
+				.from(Arrays.asList(fallback, office, pdf), DelimiterResolver.annotated()).reverse();
+
+		assertThat(registry.getPluginsFor("pdf"), contains(fallback, pdf));
+	}
+
+	@Test
+	public void resolvesEnumAndClassDelimiters() {
+
+		IndexedPluginRegistry<TypedPlugin, Object> registry = IndexedPluginRegistry.from(Arrays.asList(new TypedPlugin()),
+				DelimiterResolver.annotated());
+
+		assertThat(registry.hasPluginFor(Format.PDF), is(true));
+		assertThat(registry.hasPluginFor(Format.DOCX), is(false));
+		assertThat(registry.hasPluginFor(Integer.class), is(true));
+		assertThat(registry.hasPluginFor("PDF"), is(false));
+	}
+
+	interface DocumentPlugin extends Plugin<String> {}
+
+	@Order(1)
+	@PluginFor("pdf")
+	static class PdfPlugin implements DocumentPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			throw new IllegalStateException("Must not be invoked!");
+		}
+	}
+
+	@Order(2)
+	@PluginFor({ "docx", "xlsx" })
+	static class OfficePlugin implements DocumentPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			throw new IllegalStateException("Must not be invoked!");
+		}
+	}
+
+	@Order(3)
+	static class FallbackPlugin implements DocumentPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return !"docx".equals(delimiter);
+		}
+	}
+
+	enum Format {
+		PDF, DOCX;
+	}
+
+	@PluginFor(enumType = Format.class, value = "PDF", types = Integer.class)
+	static class TypedPlugin implements Plugin<Object> {
+
+		@Override
+		public boolean supports(Object delimiter) {
+			throw new IllegalStateException("Must not be invoked!");
+		}
+	}
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link IntPluginRegistry} and {@link LongPluginRegistry}.
+ *
+ * @author agent
+ */
+public class IntPluginRegistryUnitTest {
+
+	@Test
+	public void selectsPluginsFromDenseKeys() {
+
+		StatusPlugin ok = new StatusPlugin(2, 200, 201, 204);
+		StatusPlugin redirect = new StatusPlugin(1, 301, 302);
+
+		IntPluginRegistry<StatusPlugin> registry = IntPluginRegistry.from(Arrays.asList(ok, redirect));
+
+		assertThat(registry.getPluginFor(200), is(Optional.of(ok)));
+		assertThat(registry.getPluginsFor(302), contains(redirect));
+		assertThat(registry.getPluginsFor(404), is(empty()));
+		assertThat(registry.hasPluginFor(199), is(false));
+		assertThat(registry.hasPluginFor(Integer.valueOf(204)), is(true));
+	}
+
+	@Test
+	public void selectsPluginsFromSparseKeys() {
+
+		StatusPlugin low = new StatusPlugin(1, Integer.MIN_VALUE, -1);
+		StatusPlugin high = new StatusPlugin(2, 0, Integer.MAX_VALUE);
+
+		IntPluginRegistry<StatusPlugin> registry = IntPluginRegistry.from(Arrays.asList(high, low));
+
+		assertThat(registry.getPluginFor(Integer.MIN_VALUE), is(Optional.of(low)));
+		assertThat(registry.getPluginFor(Integer.MAX_VALUE), is(Optional.of(high)));
+		assertThat(registry.getPluginsFor(0), contains(high));
+		assertThat(registry.getPluginsFor(1), is(empty()));
+	}
+
+	@Test
+	public void returnsPluginsSharingKeysInOrder() {
+
+		StatusPlugin first = new StatusPlugin(1, 500);
+		StatusPlugin second = new StatusPlugin(2, 500, 503);
+
+		IntPluginRegistry<StatusPlugin> registry = IntPluginRegistry.from(Arrays.asList(second, first));
+
+		assertThat(registry.getPluginsFor(500), contains(first, second));
+		assertThat(registry.reverse().getPluginsFor(500), contains(second, first));
+	}
+
+	@Test
+	public void mergesPluginsNotDeclaringKeysInOrder() {
+
+		StatusPlugin ok = new StatusPlugin(1, 200);
+		StatusPlugin missing = new StatusPlugin(3, 404);
+		IntPlugin errors = new ErrorPlugin(2);
+
+		IntPluginRegistry<IntPlugin> registry = IntPluginRegistry.from(Arrays.asList(missing, errors, ok));
+
+		assertThat(registry.getPluginsFor(404), contains(errors, missing));
+		assertThat(registry.getPluginsFor(200), contains(ok));
+		assertThat(registry.getPluginFor(500), is(Optional.of(errors)));
+		assertThat(registry.getPluginsFor((Integer) null), is(empty()));
+	}
+
+	@Test
+	public void selectsLongPlugins() {
+
+		IdPlugin small = new IdPlugin(1, 1L, 2L, 3L);
+		IdPlugin huge = new IdPlugin(2, Long.MIN_VALUE, Long.MAX_VALUE, 3L);
+
+		LongPluginRegistry<IdPlugin> registry = LongPluginRegistry.from(Arrays.asList(huge, small));
+
+		assertThat(registry.getPluginsFor(3L), contains(small, huge));
+		assertThat(registry.getPluginFor(Long.MAX_VALUE), is(Optional.of(huge)));
+		assertThat(registry.getPluginsFor(4L), is(empty()));
+		assertThat(registry.hasPluginFor(Long.valueOf(1L)), is(true));
+	}
+
+	static class StatusPlugin implements KeyedIntPlugin, Ordered {
+
+		private final int order;
+		private final int[] keys;
+
+		StatusPlugin(int order, int... keys) {
+			this.order = order;
+			this.keys = keys;
+		}
+
+		@Override
+		public int[] getKeys() {
+			return keys;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class ErrorPlugin implements IntPlugin, Ordered {
+
+		private final int order;
+
+		ErrorPlugin(int order) {
+			this.order = order;
+		}
+
+		@Override
+		public boolean supports(int delimiter) {
+			return delimiter >= 400;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class IdPlugin implements KeyedLongPlugin, Ordered {
+
+		private final int order;
+		private final long[] keys;
+
+		IdPlugin(int order, long... keys) {
+			this.order = order;
+			this.keys = keys;
+		}
+
+		@Override
+		public long[] getKeys() {
+			return keys;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+}
@@ -19,6 +19,7 @@ import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
 import static org.springframework.plugin.core.PluginRegistry.*;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -98,6 +99,62 @@ public class OrderAwarePluginRegistryUnitTest extends SimplePluginRegistryUnitTe
 		assertThat(field, is(ReflectionTestUtils.getField(registry, "DEFAULT_REVERSE_COMPARATOR")));
 	}
 
+	@Test
+	public void resolvesOrderOfPluginsOnlyOnce() {
+
+		CountingImplementation first = new CountingImplementation(2);
+		CountingImplementation second = new CountingImplementation(1);
+		CountingImplementation third = new CountingImplementation(3);
+
+		OrderAwarePluginRegistry<TestPlugin, String> registry = OrderAwarePluginRegistry.of(first, second, third);
+
+		assertOrder(registry, second, first, third);
+		assertOrder(registry.reverse(), third, first, second);
+		assertOrder(registry.reverse().reverse(), second, first, third);
+
+		assertThat(first.invocations, is(1));
+		assertThat(second.invocations, is(1));
+		assertThat(third.invocations, is(1));
+	}
+
+	@Test
+	public void keepsRegistrationOrderForPluginsWithSameOrderOnReverse() {
+
+		TestPlugin first = new CountingImplementation(1);
+		TestPlugin second = new CountingImplementation(1);
+		TestPlugin third = new CountingImplementation(2);
+		TestPlugin fourth = new CountingImplementation(2);
+
+		OrderAwarePluginRegistry<TestPlugin, String> registry = OrderAwarePluginRegistry.of(third, first, fourth, second);
+
+		assertOrder(registry, first, second, third, fourth);
+		assertOrder(registry.reverse(), third, fourth, first, second);
+		assertOrder(OrderAwarePluginRegistry.ofReverse(Arrays.asList(third, first, fourth, second)), third, fourth, first,
+				second);
+	}
+
+	@Test
+	public void reverseUsesDefaultReverseComparator() {
+
+		OrderAwarePluginRegistry<TestPlugin, String> registry = OrderAwarePluginRegistry.of(firstPlugin, secondPlugin);
+		OrderAwarePluginRegistry<TestPlugin, String> reverse = registry.reverse();
+
+		assertThat(ReflectionTestUtils.getField(reverse, "comparator"),
+				is(ReflectionTestUtils.getField(registry, "DEFAULT_REVERSE_COMPARATOR")));
+		assertDefaultComparator(reverse.reverse());
+	}
+
+	@Test
+	public void handlesExtremeOrderValues() {
+
+		TestPlugin highest = new CountingImplementation(Ordered.HIGHEST_PRECEDENCE);
+		TestPlugin lowest = new CountingImplementation(Ordered.LOWEST_PRECEDENCE);
+
+		assertOrder(OrderAwarePluginRegistry.of(lowest, highest, firstPlugin), highest, firstPlugin, lowest);
+		assertOrder(OrderAwarePluginRegistry.ofReverse(Arrays.asList(highest, lowest, firstPlugin)), lowest, firstPlugin,
+				highest);
+	}
+
 	private static void assertOrder(PluginRegistry<TestPlugin, String> registry, TestPlugin... plugins) {
 
 		List<TestPlugin> result = registry.getPluginsFor(null);
@@ -149,6 +206,28 @@ public class OrderAwarePluginRegistryUnitTest extends SimplePluginRegistryUnitTe
 		}
 	}
 
+	private static class CountingImplementation implements TestPlugin, Ordered {
+
+		private final int order;
+		private int invocations;
+
+		CountingImplementation(int order) {
+			this.order = order;
+		}
+
+		@Override
+		public int getOrder() {
+
+			invocations++;
+			return order;
+		}
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
 	private static class ThirdImplementation implements TestPlugin, Ordered {
 
 		@Override
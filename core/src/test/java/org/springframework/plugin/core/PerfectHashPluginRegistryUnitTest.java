@@ -0,0 +1,227 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link PerfectHashIndex} and {@link PerfectHashPluginRegistry}.
+ *
+ * @author agent
+ */
+public class PerfectHashPluginRegistryUnitTest {
+
+	@Test
+	public void mapsLargeKeySetWithoutStoringKeys() {
+
+		PerfectHashIndex.Builder builder = PerfectHashIndex.builder();
+
+		for (int i = 0; i < 100_000; i++) {
+			builder.add("TENANT-" + i, i % 30);
+		}
+
+		PerfectHashIndex index = builder.build();
+
+		assertThat(index.size(), is(100_000));
+		assertThat(index.getSizeInBytes(), is(lessThan(100_000 * 5)));
+
+		for (int i = 0; i < 100_000; i++) {
+			assertThat(index.getOrdinals("TENANT-" + i), is(new int[] { i % 30 }));
+		}
+
+		int falsePositives = 0;
+
+		for (int i = 0; i < 100_000; i++) {
+			falsePositives += index.getOrdinals("PARTNER-" + i).length;
+		}
+
+		assertThat(falsePositives, is(lessThan(20)));
+	}
+
+	@Test
+	public void mapsKeysToMultipleOrdinals() {
+
+		PerfectHashIndex index = PerfectHashIndex.builder() //
+				.add("ACME", 2).add("ACME", 0) //
+				.add("GLOBEX", 1) //
+				.build();
+
+		assertThat(index.getOrdinals("ACME"), is(new int[] { 0, 2 }));
+		assertThat(index.getOrdinals("GLOBEX"), is(new int[] { 1 }));
+	}
+
+	@Test
+	public void handlesEmptyIndex() {
+		assertThat(PerfectHashIndex.builder().build().getOrdinals("ACME"), is(new int[0]));
+	}
+
+	@Test
+	public void readsIndexFromMappedFileAndDirectBuffer() throws IOException {
+
+		PerfectHashIndex index = PerfectHashIndex.builder().add("ACME", 0).add("GLOBEX", 1).add("INITECH", 1).build();
+		Path file = Files.createTempFile("plugins", ".idx");
+
+		try {
+
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				index.writeTo(channel);
+			}
+
+			PerfectHashIndex mapped = PerfectHashIndex.map(file);
+
+			assertThat(mapped.getOrdinals("INITECH"), is(new int[] { 1 }));
+			assertThat(mapped.getOrdinals("UMBRELLA"), is(new int[0]));
+
+			ByteBuffer direct = ByteBuffer.allocateDirect(index.getSizeInBytes());
+			direct.put(Files.readAllBytes(file)).flip();
+
+			assertThat(PerfectHashIndex.of(direct).getOrdinals("ACME"), is(new int[] { 0 }));
+
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsBufferNotContainingAnIndex() {
+		PerfectHashIndex.of(ByteBuffer.allocate(64));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void selectsPluginsInRegistryOrder() {
+
+		PerfectHashIndex index = PerfectHashIndex.builder() //
+				.add("ACME", 0).add("ACME", 1) //
+				.add("GLOBEX", 1) //
+				.build();
+
+		PerfectHashPluginRegistry<Plugin<String>> registry = PerfectHashPluginRegistry
+				.from(Arrays.asList(new SecondPlugin(), new FirstPlugin(), new FallbackPlugin()), index);
+
+		assertThat(registry.getPluginsFor("ACME"), contains(instanceOf(FirstPlugin.class), instanceOf(SecondPlugin.class),
+				instanceOf(FallbackPlugin.class)));
+		assertThat(registry.getPluginFor("GLOBEX").map(Object::getClass), is(Optional.of(FirstPlugin.class)));
+		assertThat(registry.getPluginsFor("UMBRELLA"), contains(instanceOf(FallbackPlugin.class)));
+		assertThat(registry.reverse().getPluginsFor("ACME"), contains(instanceOf(FallbackPlugin.class),
+				instanceOf(SecondPlugin.class), instanceOf(FirstPlugin.class)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsIndexReferringToUnknownPlugins() {
+
+		PerfectHashIndex index = PerfectHashIndex.builder().add("ACME", 1).build();
+
+		PerfectHashPluginRegistry.from(Arrays.asList(new FirstPlugin()), index).getPlugins();
+	}
+
+	@Test
+	public void confirmsPluginsSelectedByIndexUnlessOptedOut() {
+
+		PerfectHashIndex.Builder builder = PerfectHashIndex.builder();
+
+		for (int i = 0; i < 1_000; i++) {
+			builder.add("TENANT-" + i, 0);
+		}
+
+		PerfectHashIndex index = builder.build();
+
+		String falsePositive = IntStream.range(0, 10_000_000) //
+				.mapToObj(it -> "PARTNER-" + it) //
+				.filter(it -> index.getOrdinals(it).length > 0) //
+				.findFirst() //
+				.orElseThrow(IllegalStateException::new);
+
+		PerfectHashPluginRegistry<Plugin<String>> registry = PerfectHashPluginRegistry
+				.from(Arrays.asList(new TenantPlugin()), index);
+
+		assertThat(registry.getPluginsFor(falsePositive), is(empty()));
+		assertThat(registry.getPluginFor(falsePositive), is(Optional.empty()));
+		assertThat(registry.getPluginsFor("TENANT-42"), contains(instanceOf(TenantPlugin.class)));
+		assertThat(registry.unconfirmed().getPluginsFor(falsePositive), contains(instanceOf(TenantPlugin.class)));
+		assertThat(registry.unconfirmed().getPluginsFor("TENANT-42"), contains(instanceOf(TenantPlugin.class)));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void answersAllLookupsFromTheSameCandidates() {
+
+		PerfectHashIndex index = PerfectHashIndex.builder().add("ACME", 0).add("GLOBEX", 0).build();
+
+		PerfectHashPluginRegistry<Plugin<String>> registry = PerfectHashPluginRegistry
+				.from(Arrays.asList(new FirstPlugin(), new FallbackPlugin()), index);
+
+		List<Plugin<String>> plugins = registry.getPluginsFor("ACME");
+
+		assertThat(plugins, contains(instanceOf(FirstPlugin.class), instanceOf(FallbackPlugin.class)));
+		assertThat(registry.streamPluginsFor("ACME").collect(Collectors.toList()), is(plugins));
+		assertThat(registry.streamPluginsFor("ACME").parallel().collect(Collectors.toList()), is(plugins));
+		assertThat(registry.getPluginsFor("ACME", 1), is(plugins.subList(0, 1)));
+		assertThat(registry.countPluginsFor("ACME"), is(plugins.size()));
+		assertThat(registry.countPluginsFor("UMBRELLA"), is(1));
+	}
+
+	@Order(1)
+	static class FirstPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "ACME".equals(delimiter) || "GLOBEX".equals(delimiter);
+		}
+	}
+
+	@Order(2)
+	static class SecondPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return "ACME".equals(delimiter);
+		}
+	}
+
+	@Order(3)
+	static class FallbackPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	static class TenantPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return delimiter.startsWith("TENANT-");
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link RangePluginRegistry}.
+ *
+ * @author agent
+ */
+public class RangePluginRegistryUnitTest {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void selectsPluginsCoveringDelimiterInOrder() {
+
+		BandPlugin<Integer> small = new BandPlugin<>(1, Range.closedOpen(0, 100));
+		BandPlugin<Integer> medium = new BandPlugin<>(2, Range.closed(100, 1000));
+		BandPlugin<Integer> large = new BandPlugin<>(3, Range.atLeast(500));
+		BandPlugin<Integer> negative = new BandPlugin<>(4, Range.lessThan(0));
+
+		RangePluginRegistry<BandPlugin<Integer>, Integer> registry = RangePluginRegistry
+				.from(Arrays.asList(large, negative, medium, small));
+
+		assertThat(registry.getPluginsFor(-5), contains(negative));
+		assertThat(registry.getPluginsFor(0), contains(small));
+		assertThat(registry.getPluginsFor(100), contains(medium));
+		assertThat(registry.getPluginsFor(750), contains(medium, large));
+		assertThat(registry.getPluginFor(1000), is(Optional.of(medium)));
+		assertThat(registry.getPluginsFor(1001), contains(large));
+		assertThat(registry.reverse().getPluginsFor(750), contains(large, medium));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void mergesPluginsNotDeclaringRanges() {
+
+		LocalDate start = LocalDate.of(2019, 1, 1);
+
+		BandPlugin<LocalDate> q1 = new BandPlugin<>(1, Range.closedOpen(start, start.plusMonths(3)));
+		BandPlugin<LocalDate> year = new BandPlugin<>(3, Range.closedOpen(start, start.plusYears(1)));
+		WeekendPlugin weekend = new WeekendPlugin();
+
+		RangePluginRegistry<Plugin<LocalDate>, LocalDate> registry = RangePluginRegistry
+				.from(Arrays.asList(year, weekend, q1));
+
+		assertThat(registry.getPluginsFor(LocalDate.of(2019, 1, 5)), contains(q1, weekend, year));
+		assertThat(registry.getPluginsFor(LocalDate.of(2019, 4, 1)), contains(year));
+		assertThat(registry.getPluginsFor(LocalDate.of(2020, 1, 4)), contains(weekend));
+	}
+
+	@Test
+	public void agreesWithLinearScan() {
+
+		Random random = new Random(42);
+		List<BandPlugin<Integer>> plugins = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+
+			int lower = random.nextInt(100);
+			int upper = lower + random.nextInt(30);
+
+			plugins.add(new BandPlugin<>(i, Range.of(lower, random.nextBoolean(), upper, random.nextBoolean())));
+		}
+
+		RangePluginRegistry<BandPlugin<Integer>, Integer> registry = RangePluginRegistry.from(plugins);
+
+		for (int value = -1; value < 140; value++) {
+
+			int current = value;
+
+			assertThat(registry.getPluginsFor(value),
+					is(plugins.stream().filter(it -> it.supports(current)).collect(Collectors.toList())));
+		}
+	}
+
+	static class BandPlugin<C extends Comparable<? super C>> implements RangePlugin<C>, Ordered {
+
+		private final int order;
+		private final Range<C> range;
+
+		BandPlugin(int order, Range<C> range) {
+			this.order = order;
+			this.range = range;
+		}
+
+		@Override
+		public Range<C> getRange() {
+			return range;
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class WeekendPlugin implements Plugin<LocalDate>, Ordered {
+
+		@Override
+		public boolean supports(LocalDate delimiter) {
+			return delimiter.getDayOfWeek().getValue() > 5;
+		}
+
+		@Override
+		public int getOrder() {
+			return 2;
+		}
+	}
+}
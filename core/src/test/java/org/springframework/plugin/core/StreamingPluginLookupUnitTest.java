@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PluginRegistry#streamPluginsFor(Object)}, {@link PluginRegistry#getPluginsFor(Object, int)}
+ * and {@link PluginRegistry#countPluginsFor(Object)}.
+ *
+ * @author agent
+ */
+public class StreamingPluginLookupUnitTest {
+
+	AtomicInteger invocations = new AtomicInteger();
+	List<Plugin<Integer>> plugins = new ArrayList<>();
+
+	{
+		for (int i = 0; i < 100; i++) {
+
+			int value = i;
+
+			plugins.add(delimiter -> {
+				invocations.incrementAndGet();
+				return value % delimiter == 0;
+			});
+		}
+	}
+
+	PluginRegistry<Plugin<Integer>, Integer> registry = PluginRegistry.of(plugins);
+
+	@Test
+	public void streamsPluginsLazily() {
+
+		Optional<Plugin<Integer>> result = registry.streamPluginsFor(10).skip(1).findFirst();
+
+		assertThat(result, is(Optional.of(plugins.get(10))));
+		assertThat(invocations.get(), is(11));
+	}
+
+	@Test
+	public void streamsPluginsInParallelKeepingOrder() {
+
+		assertThat(registry.streamPluginsFor(7).parallel().collect(Collectors.toList()),
+				is(registry.getPluginsFor(7)));
+	}
+
+	@Test
+	public void splitsSpliteratorInHalves() {
+
+		Spliterator<Plugin<Integer>> spliterator = registry.streamPluginsFor(2).spliterator();
+		Spliterator<Plugin<Integer>> prefix = spliterator.trySplit();
+
+		assertThat(prefix.estimateSize(), is(50L));
+		assertThat(spliterator.estimateSize(), is(50L));
+		assertThat(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.IMMUTABLE), is(true));
+		assertThat(spliterator.hasCharacteristics(Spliterator.SIZED), is(false));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void stopsEvaluatingPluginsOnceLimitIsReached() {
+
+		assertThat(registry.getPluginsFor(10, 2), contains(plugins.get(0), plugins.get(10)));
+		assertThat(invocations.get(), is(11));
+		assertThat(registry.getPluginsFor(10, 0), is(empty()));
+		assertThat(registry.getPluginsFor(10, 100), hasSize(10));
+	}
+
+	@Test
+	public void countsPlugins() {
+		assertThat(registry.countPluginsFor(25), is(4));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsNegativeLimit() {
+		registry.getPluginsFor(10, -1);
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.Ordered;
+
+/**
+ * Unit tests for {@link StringMatcherPluginRegistry} and {@link StringMatcher}.
+ *
+ * @author agent
+ */
+public class StringMatcherPluginRegistryUnitTest {
+
+	@Test
+	public void matchesGlobPatterns() {
+
+		assertThat(StringMatcher.glob("text/*").matches("text/plain"), is(true));
+		assertThat(StringMatcher.glob("text/*").matches("text/plain/foo"), is(false));
+		assertThat(StringMatcher.glob("/api/**/users").matches("/api/v2/admin/users"), is(true));
+		assertThat(StringMatcher.glob("/api/**").matches("/api"), is(false));
+		assertThat(StringMatcher.glob("*.json").matches("foo.json"), is(true));
+		assertThat(StringMatcher.prefix("urn:acme:").matches("urn:acme:order"), is(true));
+		assertThat(StringMatcher.exact("foo").matches(null), is(false));
+	}
+
+	@Test
+	public void trieAgreesWithMatchers() {
+
+		List<StringMatcher> matchers = Arrays.asList(StringMatcher.exact("text/plain"), StringMatcher.prefix("text/"),
+				StringMatcher.glob("text/*"), StringMatcher.glob("*/json"), StringMatcher.glob("/api/v2/**"),
+				StringMatcher.glob("/api/*/users/*"), StringMatcher.glob("/**/users"), StringMatcher.prefix(""),
+				StringMatcher.glob("a*b*c"), StringMatcher.exact(""));
+
+		StringMatcherTrie.Builder builder = StringMatcherTrie.builder();
+
+		for (int i = 0; i < matchers.size(); i++) {
+			builder.add(matchers.get(i), i);
+		}
+
+		StringMatcherTrie trie = builder.build();
+
+		for (String value : Arrays.asList("text/plain", "text/html", "text/", "text", "application/json", "/api/v2",
+				"/api/v2/", "/api/v2/users/42", "/api/v1/users/42", "/users", "/a/b/users", "abc", "aXbYc", "ab/bc", "")) {
+
+			BitSet expected = new BitSet();
+
+			for (int i = 0; i < matchers.size(); i++) {
+				expected.set(i, matchers.get(i).matches(value));
+			}
+
+			assertThat(value, trie.match(value), is(expected));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void selectsDeclaringPluginsInOrder() {
+
+		MediaTypePlugin text = new MediaTypePlugin(2, StringMatcher.glob("text/*"));
+		MediaTypePlugin plain = new MediaTypePlugin(1, StringMatcher.exact("text/plain"));
+		MediaTypePlugin api = new MediaTypePlugin(3, StringMatcher.glob("/api/v2/**"), StringMatcher.prefix("urn:acme:"));
+
+		StringMatcherPluginRegistry<Plugin<String>> registry = StringMatcherPluginRegistry
+				.from(Arrays.asList(api, text, plain));
+
+		assertThat(registry.getPluginsFor("text/plain"), contains(plain, text));
+		assertThat(registry.getPluginFor("text/html"), is(Optional.of(text)));
+		assertThat(registry.getPluginsFor("/api/v2/users"), contains(api));
+		assertThat(registry.getPluginsFor("urn:acme:order"), contains(api));
+		assertThat(registry.getPluginsFor("application/json"), is(empty()));
+		assertThat(registry.reverse().getPluginsFor("text/plain"), contains(text, plain));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void mergesOpaquePluginsInOrder() {
+
+		MediaTypePlugin text = new MediaTypePlugin(1, StringMatcher.glob("text/*"));
+		MediaTypePlugin json = new MediaTypePlugin(3, StringMatcher.exact("application/json"));
+		OpaquePlugin opaque = new OpaquePlugin();
+
+		StringMatcherPluginRegistry<Plugin<String>> registry = StringMatcherPluginRegistry
+				.from(Arrays.asList(json, opaque, text));
+
+		assertThat(registry.getPluginsFor("application/json"), contains(opaque, json));
+		assertThat(registry.getPluginsFor("text/plain"), contains(text));
+		assertThat(registry.hasPluginFor("application/xml"), is(true));
+	}
+
+	static class MediaTypePlugin implements StringMatchingPlugin, Ordered {
+
+		private final int order;
+		private final List<StringMatcher> matchers;
+
+		MediaTypePlugin(int order, StringMatcher... matchers) {
+			this.order = order;
+			this.matchers = Arrays.asList(matchers);
+		}
+
+		@Override
+		public List<StringMatcher> getMatchers() {
+			return matchers;
+		}
+
+		@Override
+		public boolean supports(String delimiter) {
+			throw new IllegalStateException("Must not be invoked!");
+		}
+
+		@Override
+		public int getOrder() {
+			return order;
+		}
+	}
+
+	static class OpaquePlugin implements Plugin<String>, Ordered {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return delimiter.startsWith("application/");
+		}
+
+		@Override
+		public int getOrder() {
+			return 2;
+		}
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Unit tests for {@link TypedPluginRegistry}.
+ *
+ * @author agent
+ */
+public class TypedPluginRegistryUnitTest {
+
+	NumberPlugin numbers = new NumberPlugin();
+	IntegerPlugin integers = new IntegerPlugin();
+	StringPlugin strings = new StringPlugin();
+	AnyPlugin any = new AnyPlugin();
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void onlyInvokesPluginsAcceptingTheDelimiterType() {
+
+		TypedPluginRegistry<Plugin<Object>, Object> registry = TypedPluginRegistry
+				.from((List) Arrays.asList(any, strings, integers, numbers));
+
+		assertThat(registry.getPluginsFor(42), contains(integers, numbers, any));
+		assertThat(registry.getPluginsFor(4.2d), contains(numbers, any));
+		assertThat(registry.getPluginFor("foo"), is(Optional.of(strings)));
+		assertThat(registry.hasPluginFor(new Object()), is(true));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void usesDeclaredDelimiterTypes() {
+
+		LegacyPlugin legacy = new LegacyPlugin();
+
+		TypedPluginRegistry<Plugin<Object>, Object> registry = TypedPluginRegistry.from(Arrays.asList(legacy),
+				DelimiterTypeResolver.declared(Collections.singletonMap(LegacyPlugin.class, String.class)));
+
+		assertThat(registry.getPluginsFor("foo"), contains(legacy));
+		assertThat(registry.getPluginsFor(42), is(empty()));
+	}
+
+	@Order(4)
+	static class AnyPlugin implements Plugin<Object> {
+
+		@Override
+		public boolean supports(Object delimiter) {
+			return true;
+		}
+	}
+
+	@Order(1)
+	static class StringPlugin implements Plugin<String> {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	@Order(2)
+	static class IntegerPlugin implements Plugin<Integer> {
+
+		@Override
+		public boolean supports(Integer delimiter) {
+			return true;
+		}
+	}
+
+	@Order(3)
+	static class NumberPlugin implements Plugin<Number> {
+
+		@Override
+		public boolean supports(Number delimiter) {
+			return true;
+		}
+	}
+
+	static class LegacyPlugin implements Plugin<Object> {
+
+		@Override
+		public boolean supports(Object delimiter) {
+			return ((String) delimiter).startsWith("f");
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core.support;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.annotation.Order;
+import org.springframework.plugin.core.DelimiterResolver;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.plugin.core.config.EnablePluginRegistries;
+
+/**
+ * Integration tests for {@link LazyPluginRegistry}.
+ *
+ * @author agent
+ */
+public class LazyPluginRegistryIntegrationTest {
+
+	AnnotationConfigApplicationContext context;
+
+	@Before
+	public void setUp() {
+		this.context = new AnnotationConfigApplicationContext(Config.class);
+	}
+
+	@After
+	public void tearDown() {
+		this.context.close();
+	}
+
+	@Test
+	public void doesNotInstantiatePluginsOnRegistryCreation() {
+
+		LazyPluginRegistry<TestPlugin, String> registry = LazyPluginRegistry.from(context, TestPlugin.class);
+
+		assertThat(registry.countPlugins(), is(2));
+		assertThat(context.getBeanFactory().containsSingleton("first"), is(false));
+		assertThat(context.getBeanFactory().containsSingleton("second"), is(false));
+	}
+
+	@Test
+	public void ordersPluginsByTypeWithoutInstantiatingThem() {
+
+		DelimiterResolver resolver = type -> type.equals(FirstImplementation.class)
+				? Optional.of(Collections.singleton("first")) //
+				: Optional.of(Collections.singleton("second"));
+
+		LazyPluginRegistry<TestPlugin, String> registry = LazyPluginRegistry.from(context, TestPlugin.class, resolver);
+
+		assertThat(registry.getPluginFor("first"), is(Optional.of(context.getBean("first"))));
+		assertThat(context.getBeanFactory().containsSingleton("second"), is(false));
+
+		assertThat(registry.getPlugins().get(0), is(context.getBean("second")));
+		assertThat(registry.getPlugins().get(1), is(context.getBean("first")));
+	}
+
+	@Test
+	public void instantiatesUndeclaredPluginsOnLookup() {
+
+		LazyPluginRegistry<TestPlugin, String> registry = LazyPluginRegistry.from(context, TestPlugin.class);
+
+		assertThat(registry.getPluginFor("first"), is(Optional.of(context.getBean("second"))));
+		assertThat(context.getBeanFactory().containsSingleton("second"), is(true));
+	}
+
+	@Test
+	public void exposesLazyRegistryViaEnablePluginRegistries() {
+
+		PluginRegistry<?, ?> registry = context.getBean("testPluginRegistry", PluginRegistry.class);
+
+		assertThat(registry, is(instanceOf(LazyPluginRegistry.class)));
+		assertThat(registry.countPlugins(), is(2));
+	}
+
+	@Configuration
+	@EnablePluginRegistries(value = TestPlugin.class, lazy = true)
+	static class Config {
+
+		@Bean
+		@Lazy
+		FirstImplementation first() {
+			return new FirstImplementation();
+		}
+
+		@Bean
+		@Lazy
+		SecondImplementation second() {
+			return new SecondImplementation();
+		}
+	}
+
+	interface TestPlugin extends Plugin<String> {}
+
+	@Order(5)
+	static class FirstImplementation implements TestPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+
+	@Order(1)
+	static class SecondImplementation implements TestPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.core.support;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.plugin.core.SimplePluginRegistry;
+import org.springframework.plugin.core.config.EnablePluginRegistries;
+import org.springframework.plugin.core.support.PluginRegistryWarmUp.PluginRegistriesWarmedUpEvent;
+
+/**
+ * Integration tests for {@link PluginRegistryWarmUp}.
+ *
+ * @author agent
+ */
+public class PluginRegistryWarmUpIntegrationTest {
+
+	@Test
+	public void warmsUpRegistriesWithSampleDelimitersOnRefresh() {
+
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(Config.class)) {
+
+			PluginRegistryWarmUp warmUp = context.getBean(PluginRegistryWarmUp.class);
+			CountingPlugin plugin = context.getBean(CountingPlugin.class);
+			Listener listener = context.getBean(Listener.class);
+
+			assertThat(warmUp.isReady(), is(true));
+			assertThat(plugin.invocations.get(), is(4));
+			assertThat(listener.events.get(), is(1));
+			assertThat(listener.complete, is(true));
+		}
+	}
+
+	@Test
+	public void reportsIncompleteWarmUpIfTimeBudgetIsExceeded() {
+
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(SlowConfig.class)) {
+
+			PluginRegistryWarmUp warmUp = context.getBean(PluginRegistryWarmUp.class);
+			Listener listener = context.getBean(Listener.class);
+
+			assertThat(warmUp.isReady(), is(false));
+			assertThat(listener.events.get(), is(1));
+			assertThat(listener.complete, is(false));
+		}
+	}
+
+	@Test
+	public void reportsIncompleteWarmUpIfRegistryInitializationExceedsTimeBudget() {
+
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				SlowInitializationConfig.class)) {
+
+			PluginRegistryWarmUp warmUp = context.getBean(PluginRegistryWarmUp.class);
+			Listener listener = context.getBean(Listener.class);
+
+			assertThat(warmUp.isReady(), is(false));
+			assertThat(listener.complete, is(false));
+		}
+	}
+
+	@Configuration
+	@EnablePluginRegistries(TestPlugin.class)
+	static class Config {
+
+		@Bean
+		CountingPlugin plugin() {
+			return new CountingPlugin();
+		}
+
+		@Bean
+		PluginRegistryWarmUp warmUp() {
+
+			PluginRegistryWarmUp warmUp = new PluginRegistryWarmUp();
+			warmUp.setSamples(Collections.singletonMap("testPluginRegistry", Arrays.asList("foo", "bar")));
+			warmUp.setIterations(2);
+
+			return warmUp;
+		}
+
+		@Bean
+		Listener listener() {
+			return new Listener();
+		}
+	}
+
+	@Configuration
+	@EnablePluginRegistries(TestPlugin.class)
+	static class SlowConfig {
+
+		@Bean
+		SlowPlugin plugin() {
+			return new SlowPlugin();
+		}
+
+		@Bean
+		PluginRegistryWarmUp warmUp() {
+
+			PluginRegistryWarmUp warmUp = new PluginRegistryWarmUp();
+			warmUp.setSamples(Collections.singletonMap("testPluginRegistry", Arrays.asList("foo", "bar", "foobar")));
+			warmUp.setTimeout(Duration.ofMillis(50));
+
+			return warmUp;
+		}
+
+		@Bean
+		Listener listener() {
+			return new Listener();
+		}
+	}
+
+	@Configuration
+	static class SlowInitializationConfig {
+
+		@Bean
+		SimplePluginRegistry<TestPlugin, String> registry() {
+
+			return new SimplePluginRegistry<TestPlugin, String>(Collections.singletonList(new CountingPlugin())) {
+
+				@Override
+				public int countPlugins() {
+
+					try {
+						Thread.sleep(100);
+					} catch (InterruptedException o_O) {
+						Thread.currentThread().interrupt();
+					}
+
+					return super.countPlugins();
+				}
+			};
+		}
+
+		@Bean
+		PluginRegistryWarmUp warmUp() {
+
+			PluginRegistryWarmUp warmUp = new PluginRegistryWarmUp();
+			warmUp.setTimeout(Duration.ofMillis(50));
+			warmUp.setExecutor(Runnable::run);
+
+			return warmUp;
+		}
+
+		@Bean
+		Listener listener() {
+			return new Listener();
+		}
+	}
+
+	interface TestPlugin extends Plugin<String> {}
+
+	static class CountingPlugin implements TestPlugin {
+
+		AtomicInteger invocations = new AtomicInteger();
+
+		@Override
+		public boolean supports(String delimiter) {
+
+			invocations.incrementAndGet();
+			return true;
+		}
+	}
+
+	static class SlowPlugin implements TestPlugin {
+
+		@Override
+		public boolean supports(String delimiter) {
+
+			try {
+				Thread.sleep(40);
+			} catch (InterruptedException o_O) {
+				Thread.currentThread().interrupt();
+			}
+
+			return true;
+		}
+	}
+
+	static class Listener implements ApplicationListener<PluginRegistriesWarmedUpEvent> {
+
+		AtomicInteger events = new AtomicInteger();
+		volatile boolean complete;
+
+		@Override
+		public void onApplicationEvent(PluginRegistriesWarmedUpEvent event) {
+
+			events.incrementAndGet();
+			complete = event.isComplete();
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.index.processor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor collecting the delimiters declared via {@code org.springframework.plugin.core.PluginFor} into
+ * an index written to {@value #INDEX_LOCATION}. The index maps encoded delimiters to a comma-separated list of the
+ * implementation classes declaring them. Delimiters are encoded as {@code $delimiterType:$value}, i.e.
+ * {@code java.lang.String:pdf}, {@code java.lang.Class:com.acme.Invoice} or {@code com.acme.Format:PDF} for enum
+ * constants.
+ * <p>
+ * On incremental compilation, the entries of an existing index are retained for implementation classes that were not
+ * recompiled and still resolve, entries for recompiled or removed classes are replaced by the ones found now. To see
+ * recompiled classes that don't carry the annotation anymore, the processor claims all annotation types and thus runs
+ * on every compilation, it never claims the annotations it processes though.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public class PluginIndexProcessor extends AbstractProcessor {
+
+	static final String INDEX_LOCATION = "META-INF/spring.plugins";
+
+	private static final String ANNOTATION = "org.springframework.plugin.core.PluginFor";
+	private static final String NO_ENUM = ANNOTATION + ".None";
+
+	private final Map<String, Set<String>> index = new TreeMap<>();
+	private final Set<String> compiled = new HashSet<>();
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedAnnotationTypes()
+	 */
+	@Override
+	public Set<String> getSupportedAnnotationTypes() {
+		return Collections.singleton("*");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+	 */
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+	 */
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+		ElementFilter.typesIn(roundEnv.getRootElements()).forEach(this::registerCompiled);
+
+		for (TypeElement annotation : annotations) {
+
+			if (!annotation.getQualifiedName().contentEquals(ANNOTATION)) {
+				continue;
+			}
+
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element.getKind() == ElementKind.CLASS) {
+					register((TypeElement) element);
+				}
+			}
+		}
+
+		if (roundEnv.processingOver()) {
+			writeIndex();
+		}
+
+		return false;
+	}
+
+	private void registerCompiled(TypeElement type) {
+
+		compiled.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+
+		ElementFilter.typesIn(type.getEnclosedElements()).forEach(this::registerCompiled);
+	}
+
+	private void register(TypeElement type) {
+
+		String implementation = processingEnv.getElementUtils().getBinaryName(type).toString();
+
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+
+			if (!ANNOTATION.equals(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+				continue;
+			}
+
+			Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils()
+					.getElementValuesWithDefaults(mirror);
+
+			TypeElement enumType = null;
+			List<?> strings = Collections.emptyList();
+			List<?> types = Collections.emptyList();
+
+			for (Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+
+				String name = entry.getKey().getSimpleName().toString();
+				Object value = entry.getValue().getValue();
+
+				if ("value".equals(name)) {
+					strings = (List<?>) value;
+				} else if ("types".equals(name)) {
+					types = (List<?>) value;
+				} else if ("enumType".equals(name)) {
+					enumType = asTypeElement((TypeMirror) value);
+				}
+			}
+
+			boolean isEnum = enumType != null && !NO_ENUM.equals(enumType.getQualifiedName().toString());
+
+			for (Object value : strings) {
+
+				String delimiter = (String) ((AnnotationValue) value).getValue();
+
+				if (!isEnum) {
+					add(String.class.getName(), delimiter, implementation);
+					continue;
+				}
+
+				if (!hasEnumConstant(enumType, delimiter)) {
+
+					processingEnv.getMessager().printMessage(Kind.ERROR,
+							String.format("No constant %s found in enum %s!", delimiter, enumType.getQualifiedName()), type,
+							mirror);
+					continue;
+				}
+
+				add(processingEnv.getElementUtils().getBinaryName(enumType).toString(), delimiter, implementation);
+			}
+
+			for (Object value : types) {
+
+				TypeElement delimiterType = asTypeElement((TypeMirror) ((AnnotationValue) value).getValue());
+				add(Class.class.getName(), processingEnv.getElementUtils().getBinaryName(delimiterType).toString(),
+						implementation);
+			}
+		}
+	}
+
+	private void add(String delimiterType, String value, String implementation) {
+		index.computeIfAbsent(delimiterType + ":" + value, __ -> new TreeSet<>()).add(implementation);
+	}
+
+	private void writeIndex() {
+
+		Properties existing = readExistingIndex();
+
+		for (String key : existing.stringPropertyNames()) {
+
+			if (!resolvesDelimiter(key)) {
+				continue;
+			}
+
+			for (String implementation : existing.getProperty(key).split(",")) {
+
+				String name = implementation.trim();
+
+				// Recompiled classes were registered again, removed ones don't resolve anymore
+				if (!name.isEmpty() && !compiled.contains(name) && resolves(name)) {
+					index.computeIfAbsent(key, __ -> new TreeSet<>()).add(name);
+				}
+			}
+		}
+
+		if (index.isEmpty() && existing.isEmpty()) {
+			return;
+		}
+
+		Properties properties = new Properties();
+		index.forEach((key, implementations) -> properties.setProperty(key, String.join(",", implementations)));
+
+		try {
+
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+			try (OutputStream stream = file.openOutputStream()) {
+				properties.store(stream, null);
+			}
+
+		} catch (IOException o_O) {
+			processingEnv.getMessager().printMessage(Kind.ERROR, "Unable to write plugin index: " + o_O.getMessage());
+		}
+	}
+
+	/**
+	 * Reads a potentially existing index from a previous, incremental compilation.
+	 *
+	 * @return
+	 */
+	private Properties readExistingIndex() {
+
+		Properties properties = new Properties();
+
+		try {
+
+			FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+			try (InputStream stream = file.openInputStream()) {
+				properties.load(stream);
+			}
+
+		} catch (IOException o_O) {
+			// No previous index available
+		}
+
+		return properties;
+	}
+
+	/**
+	 * Returns whether the type of the given encoded delimiter still resolves, i.e. the enum type or the type referred
+	 * to by a {@link Class} delimiter.
+	 *
+	 * @param key must not be {@literal null}.
+	 * @return
+	 */
+	private boolean resolvesDelimiter(String key) {
+
+		int separator = key.indexOf(':');
+
+		if (separator < 0) {
+			return false;
+		}
+
+		String type = key.substring(0, separator);
+
+		if (String.class.getName().equals(type)) {
+			return true;
+		}
+
+		return resolves(Class.class.getName().equals(type) ? key.substring(separator + 1) : type);
+	}
+
+	private boolean resolves(String binaryName) {
+		return processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+	}
+
+	private static TypeElement asTypeElement(TypeMirror type) {
+		return (TypeElement) ((DeclaredType) type).asElement();
+	}
+
+	private static boolean hasEnumConstant(TypeElement enumType, String name) {
+
+		for (Element element : enumType.getEnclosedElements()) {
+			if (element.getKind() == ElementKind.ENUM_CONSTANT && element.getSimpleName().contentEquals(name)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.index.processor;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.plugin.core.DelimiterResolver;
+
+/**
+ * Integration tests for {@link PluginIndexProcessor}.
+ *
+ * @author agent
+ */
+public class PluginIndexProcessorIntegrationTest {
+
+	public @Rule TemporaryFolder folder = new TemporaryFolder();
+
+	File sources, output;
+
+	@Before
+	public void setUp() throws IOException {
+
+		this.sources = folder.newFolder("sources");
+		this.output = folder.newFolder("output");
+	}
+
+	@Test
+	public void writesIndexForDeclaredDelimiters() throws Exception {
+
+		compile("com/acme/Format.java", "package com.acme; public enum Format { PDF, DOCX }");
+		compile("com/acme/Invoice.java", "package com.acme; public class Invoice {}");
+		compile("com/acme/DocumentPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor({ \"pdf\", \"docx\" }) "
+				+ "public class DocumentPlugin {}");
+		compile("com/acme/FormatPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor("
+				+ "enumType = Format.class, value = \"PDF\", types = Invoice.class) public class FormatPlugin {}");
+
+		assertThat(process(), is(true));
+
+		Properties index = loadIndex();
+
+		assertThat(index.getProperty("java.lang.String:pdf"), is("com.acme.DocumentPlugin"));
+		assertThat(index.getProperty("java.lang.String:docx"), is("com.acme.DocumentPlugin"));
+		assertThat(index.getProperty("com.acme.Format:PDF"), is("com.acme.FormatPlugin"));
+		assertThat(index.getProperty("java.lang.Class:com.acme.Invoice"), is("com.acme.FormatPlugin"));
+	}
+
+	@Test
+	public void writtenIndexIsPickedUpByDelimiterResolver() throws Exception {
+
+		compile("com/acme/DocumentPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor({ \"pdf\", \"docx\" }) "
+				+ "public class DocumentPlugin {}");
+
+		assertThat(process(), is(true));
+
+		try (URLClassLoader loader = new URLClassLoader(new URL[] { output.toURI().toURL() },
+				getClass().getClassLoader())) {
+
+			Class<?> type = loader.loadClass("com.acme.DocumentPlugin");
+			Optional<Set<Object>> delimiters = DelimiterResolver.indexed(loader).resolveDelimiters(type);
+
+			assertThat(delimiters.isPresent(), is(true));
+			assertThat(delimiters.get(), containsInAnyOrder((Object) "pdf", "docx"));
+		}
+	}
+
+	@Test
+	public void dropsStaleEntriesOnIncrementalCompilation() throws Exception {
+
+		compile("com/acme/DocumentPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor(\"pdf\") "
+				+ "public class DocumentPlugin {}");
+		compile("com/acme/LegacyPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor(\"pdf\") "
+				+ "public class LegacyPlugin {}");
+		compile("com/acme/OtherPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor(\"docx\") "
+				+ "public class OtherPlugin {}");
+
+		assertThat(process(), is(true));
+
+		// OtherPlugin is not recompiled but still available, LegacyPlugin is removed, DocumentPlugin changed
+		Files.delete(new File(sources, "com/acme/OtherPlugin.java").toPath());
+		Files.delete(new File(sources, "com/acme/LegacyPlugin.java").toPath());
+		Files.delete(new File(output, "com/acme/LegacyPlugin.class").toPath());
+		compile("com/acme/DocumentPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor(\"docx\") "
+				+ "public class DocumentPlugin {}");
+
+		assertThat(process(), is(true));
+
+		Properties index = loadIndex();
+
+		assertThat(index.getProperty("java.lang.String:pdf"), is(nullValue()));
+		assertThat(index.getProperty("java.lang.String:docx"), is("com.acme.DocumentPlugin,com.acme.OtherPlugin"));
+	}
+
+	@Test
+	public void dropsEntryOfClassRecompiledWithoutAnnotation() throws Exception {
+
+		compile("com/acme/DocumentPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor(\"pdf\") "
+				+ "public class DocumentPlugin {}");
+
+		assertThat(process(), is(true));
+		assertThat(loadIndex().getProperty("java.lang.String:pdf"), is("com.acme.DocumentPlugin"));
+
+		// No type of the incremental compilation carries the annotation anymore
+		compile("com/acme/DocumentPlugin.java", "package com.acme; public class DocumentPlugin {}");
+
+		assertThat(process(), is(true));
+		assertThat(loadIndex().getProperty("java.lang.String:pdf"), is(nullValue()));
+	}
+
+	@Test
+	public void rejectsUnknownEnumConstant() throws Exception {
+
+		compile("com/acme/Format.java", "package com.acme; public enum Format { PDF }");
+		compile("com/acme/FormatPlugin.java", "package com.acme; @org.springframework.plugin.core.PluginFor("
+				+ "enumType = Format.class, value = \"XLS\") public class FormatPlugin {}");
+
+		assertThat(process(), is(false));
+	}
+
+	private void compile(String path, String source) throws IOException {
+
+		File file = new File(sources, path);
+		file.getParentFile().mkdirs();
+
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private boolean process() throws IOException {
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		try (StandardJavaFileManager manager = compiler.getStandardFileManager(null, null, null)) {
+
+			Iterable<? extends JavaFileObject> units = manager.getJavaFileObjectsFromFiles(Files.walk(sources.toPath()) //
+					.filter(it -> it.toString().endsWith(".java")) //
+					.map(it -> it.toFile()) //
+					.collect(Collectors.toList()));
+
+			// Previously compiled classes are available to incremental compilations
+			String classpath = System.getProperty("java.class.path") + File.pathSeparator + output.getAbsolutePath();
+
+			CompilationTask task = compiler.getTask(null, manager, null,
+					Arrays.asList("-d", output.getAbsolutePath(), "-classpath", classpath), null, units);
+			task.setProcessors(Collections.singleton(new PluginIndexProcessor()));
+
+			return task.call();
+		}
+	}
+
+	private Properties loadIndex() throws IOException {
+
+		Properties properties = new Properties();
+
+		try (InputStream stream = new FileInputStream(new File(output, PluginIndexProcessor.INDEX_LOCATION))) {
+			properties.load(stream);
+		}
+
+		return properties;
+	}
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares sorting-style comparisons of pre-parsed {@link Version}s against comparing their {@link String}
+ * representations by splitting them into segments on each comparison. Run via
+ * {@code mvn -Pjmh test-compile} and executing {@link #main(String[])} with the test classpath.
+ *
+ * @author agent
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VersionBenchmark {
+
+	private static final String[] SOURCES = { "1.0.0.BUILD-SNAPSHOT", "1.0.0.M1", "1.0.0.RC2", "1.0.0.RELEASE", "1.0.1",
+			"1.2", "1.10.3", "2.0.0-beta", "2.0.0", "2.0.0.SR1" };
+
+	private final Version[] versions = new Version[SOURCES.length];
+
+	public VersionBenchmark() {
+
+		for (int i = 0; i < SOURCES.length; i++) {
+			versions[i] = Version.parse(SOURCES[i]);
+		}
+	}
+
+	@Benchmark
+	public void compareParsedVersions(Blackhole blackhole) {
+
+		for (Version left : versions) {
+			for (Version right : versions) {
+				blackhole.consume(left.compareTo(right));
+			}
+		}
+	}
+
+	@Benchmark
+	public void compareVersionStrings(Blackhole blackhole) {
+
+		for (String left : SOURCES) {
+			for (String right : SOURCES) {
+				blackhole.consume(compareStrings(left, right));
+			}
+		}
+	}
+
+	@Benchmark
+	public void hashParsedVersions(Blackhole blackhole) {
+
+		for (Version version : versions) {
+			blackhole.consume(version.hashCode());
+		}
+	}
+
+	/**
+	 * Segment-wise comparison of version {@link String}s as it had to be done before {@link Version} was introduced.
+	 */
+	private static int compareStrings(String left, String right) {
+
+		String[] leftSegments = left.split("[.-]");
+		String[] rightSegments = right.split("[.-]");
+
+		for (int i = 0; i < Math.max(leftSegments.length, rightSegments.length); i++) {
+
+			String leftSegment = i < leftSegments.length ? leftSegments[i] : "0";
+			String rightSegment = i < rightSegments.length ? rightSegments[i] : "0";
+
+			boolean leftNumeric = leftSegment.chars().allMatch(Character::isDigit);
+			boolean rightNumeric = rightSegment.chars().allMatch(Character::isDigit);
+
+			int result = leftNumeric && rightNumeric //
+					? Long.compare(Long.parseLong(leftSegment), Long.parseLong(rightSegment)) //
+					: leftSegment.compareToIgnoreCase(rightSegment);
+
+			if (result != 0) {
+				return result;
+			}
+		}
+
+		return 0;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(VersionBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -15,8 +15,14 @@
  */
 package org.springframework.plugin.metadata;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.springframework.plugin.core.Plugin;
 import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.util.Assert;
 
 /**
  * Abstract base class for plugins based on {@link PluginMetadata}. Plugins based on this class can be selected from the
@@ -28,6 +34,7 @@ import org.springframework.plugin.core.PluginRegistry;
 public abstract class AbstractMetadataBasedPlugin implements Plugin<PluginMetadata>, MetadataProvider {
 
 	private final PluginMetadata metadata;
+	private final Set<String> capabilities;
 
 	/**
 	 * Creates a new instance of {@code AbstractMetadataBasedPlugin}.
@@ -36,15 +43,36 @@ public abstract class AbstractMetadataBasedPlugin implements Plugin<PluginMetada
 	 * @param version must not be {@literal null}.
 	 */
 	public AbstractMetadataBasedPlugin(String name, String version) {
-		this.metadata = new SimplePluginMetadata(name, version);
+		this(name, version, new String[0]);
 	}
 
-	/*
-	 * (non-Javadoc)
+	/**
+	 * Creates a new instance of {@code AbstractMetadataBasedPlugin} with the given capabilities.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @param version must not be {@literal null}.
+	 * @param capabilities must not be {@literal null}.
+	 * @since 2.0
+	 */
+	public AbstractMetadataBasedPlugin(String name, String version, String... capabilities) {
+
+		Assert.notNull(capabilities, "Capabilities must not be null!");
+
+		this.metadata = SimplePluginMetadata.of(name, version);
+		this.capabilities = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(capabilities)));
+	}
+
+	/**
+	 * Returns whether the given {@link PluginMetadata} equals the plugin's one. Delimiters obtained via
+	 * {@link SimplePluginMetadata#of(String, String)} are matched by identity.
+	 *
 	 * @see org.springframework.plugin.core.Plugin#supports(java.lang.Object)
 	 */
 	public boolean supports(PluginMetadata delimiter) {
-		return getMetadata().equals(delimiter);
+
+		PluginMetadata metadata = getMetadata();
+
+		return metadata == delimiter || metadata.equals(delimiter);
 	}
 
 	/*
@@ -54,4 +82,13 @@ public abstract class AbstractMetadataBasedPlugin implements Plugin<PluginMetada
 	public PluginMetadata getMetadata() {
 		return metadata;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.metadata.MetadataProvider#getCapabilities()
+	 */
+	@Override
+	public Set<String> getCapabilities() {
+		return capabilities.isEmpty() ? MetadataProvider.super.getCapabilities() : capabilities;
+	}
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+
+/**
+ * A query for plugins by their capabilities, e.g. all plugins having the capabilities {@code streaming} and
+ * {@code gpu-free} but not {@code tenant-A}:
+ *
+ * <pre class="code">
+ * CapabilityQuery.allOf("streaming", "gpu-free").andNoneOf("tenant-A");
+ * </pre>
+ *
+ * Each {@link #anyOf(String...)} and {@link #andAnyOf(String...)} adds a group of capabilities of which the plugins
+ * need to have at least one.
+ *
+ * @author agent
+ * @since 2.0
+ * @see MetadataProvider#getCapabilities()
+ * @see MetadataPluginRegistry#getPlugins(CapabilityQuery)
+ */
+public final class CapabilityQuery {
+
+	private final Set<String> all, none;
+	private final List<Set<String>> any;
+
+	private CapabilityQuery(Set<String> all, List<Set<String>> any, Set<String> none) {
+
+		this.all = all;
+		this.any = any;
+		this.none = none;
+	}
+
+	/**
+	 * Creates a new {@link CapabilityQuery} for plugins having all of the given capabilities.
+	 *
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public static CapabilityQuery allOf(String... capabilities) {
+		return new CapabilityQuery(toSet(capabilities), Collections.emptyList(), Collections.emptySet());
+	}
+
+	/**
+	 * Creates a new {@link CapabilityQuery} for plugins having at least one of the given capabilities.
+	 *
+	 * @param capabilities must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static CapabilityQuery anyOf(String... capabilities) {
+		return new CapabilityQuery(Collections.emptySet(), Collections.emptyList(), Collections.emptySet())
+				.andAnyOf(capabilities);
+	}
+
+	/**
+	 * Creates a new {@link CapabilityQuery} for plugins having none of the given capabilities.
+	 *
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public static CapabilityQuery noneOf(String... capabilities) {
+		return new CapabilityQuery(Collections.emptySet(), Collections.emptyList(), toSet(capabilities));
+	}
+
+	/**
+	 * Returns a new {@link CapabilityQuery} additionally requiring all of the given capabilities.
+	 *
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public CapabilityQuery andAllOf(String... capabilities) {
+		return new CapabilityQuery(merge(all, capabilities), any, none);
+	}
+
+	/**
+	 * Returns a new {@link CapabilityQuery} additionally requiring at least one of the given capabilities, independently
+	 * of the groups of capabilities already required that way.
+	 *
+	 * @param capabilities must not be {@literal null} or empty.
+	 * @return
+	 */
+	public CapabilityQuery andAnyOf(String... capabilities) {
+
+		Assert.notEmpty(capabilities, "Capabilities must not be null or empty!");
+
+		List<Set<String>> result = new ArrayList<>(any);
+		result.add(toSet(capabilities));
+
+		return new CapabilityQuery(all, Collections.unmodifiableList(result), none);
+	}
+
+	/**
+	 * Returns a new {@link CapabilityQuery} additionally excluding plugins with any of the given capabilities.
+	 *
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public CapabilityQuery andNoneOf(String... capabilities) {
+		return new CapabilityQuery(all, any, merge(none, capabilities));
+	}
+
+	/**
+	 * Returns whether the given capabilities match the query.
+	 *
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public boolean matches(Set<String> capabilities) {
+
+		Assert.notNull(capabilities, "Capabilities must not be null!");
+
+		return capabilities.containsAll(all) //
+				&& any.stream().allMatch(group -> group.stream().anyMatch(capabilities::contains)) //
+				&& none.stream().noneMatch(capabilities::contains);
+	}
+
+	Set<String> getAll() {
+		return all;
+	}
+
+	List<Set<String>> getAny() {
+		return any;
+	}
+
+	Set<String> getNone() {
+		return none;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("all of %s, any of %s, none of %s", all, any, none);
+	}
+
+	private static Set<String> toSet(String... capabilities) {
+
+		Assert.notNull(capabilities, "Capabilities must not be null!");
+		Assert.noNullElements(capabilities, "Capabilities must not contain null values!");
+
+		return Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(capabilities)));
+	}
+
+	private static Set<String> merge(Set<String> source, String... capabilities) {
+
+		Set<String> result = new LinkedHashSet<>(source);
+		result.addAll(toSet(capabilities));
+
+		return Collections.unmodifiableSet(result);
+	}
+}
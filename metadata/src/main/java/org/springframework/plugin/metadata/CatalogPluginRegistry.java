@@ -0,0 +1,467 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.plugin.core.PluginRegistry;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link PluginRegistry} selecting plugins by the {@link PluginDescriptor}s of a {@link PluginCatalog}. Plugin
+ * implementation classes are only loaded and instantiated once a plugin is selected for the first time, the instances
+ * are reused for subsequent lookups. Lookups of the latest version of a plugin, the highest version within a
+ * {@link VersionRange} as well as {@link #hasPluginFor(PluginMetadata)} and {@link #countPlugins()} don't load any
+ * plugin class at all. Plugins are ordered like the descriptors in the catalog. {@link #getPlugins()} instantiates all
+ * plugins.
+ *
+ * @author agent
+ * @since 2.0
+ * @see PluginCatalog
+ */
+public class CatalogPluginRegistry<T extends MetadataProvider & Plugin<PluginMetadata>>
+		implements PluginRegistry<T, PluginMetadata> {
+
+	private final List<PluginDescriptor> descriptors;
+	private final Class<T> type;
+	private final ClassLoader classLoader;
+	private final Function<Class<? extends T>, ? extends T> instantiator;
+
+	private final Map<String, Versions<Integer>> positions;
+	private final AtomicReferenceArray<T> instances;
+	private final Object[] locks;
+
+	/**
+	 * Creates a new {@link CatalogPluginRegistry} for the given {@link PluginCatalog}, plugin type, {@link ClassLoader}
+	 * and instantiator.
+	 *
+	 * @param catalog must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param classLoader can be {@literal null}.
+	 * @param instantiator must not be {@literal null}.
+	 */
+	protected CatalogPluginRegistry(PluginCatalog catalog, Class<T> type, ClassLoader classLoader,
+			Function<Class<? extends T>, ? extends T> instantiator) {
+
+		Assert.notNull(catalog, "Plugin catalog must not be null!");
+		Assert.notNull(type, "Plugin type must not be null!");
+		Assert.notNull(instantiator, "Instantiator must not be null!");
+
+		this.descriptors = catalog.getDescriptors();
+		this.type = type;
+		this.classLoader = classLoader == null ? ClassUtils.getDefaultClassLoader() : classLoader;
+		this.instantiator = instantiator;
+		this.instances = new AtomicReferenceArray<>(descriptors.size());
+		this.locks = new Object[descriptors.size()];
+
+		for (int i = 0; i < locks.length; i++) {
+			locks[i] = new Object();
+		}
+
+		Map<String, Map<String, List<Integer>>> byName = new HashMap<>();
+
+		for (int i = 0; i < descriptors.size(); i++) {
+
+			PluginMetadata metadata = descriptors.get(i).getMetadata();
+
+			byName.computeIfAbsent(metadata.getName(), __ -> new HashMap<>()) //
+					.computeIfAbsent(metadata.getVersion(), __ -> new ArrayList<>()) //
+					.add(i);
+		}
+
+		this.positions = new HashMap<>(byName.size() * 2);
+
+		byName.forEach((name, versions) -> this.positions.put(name,
+				new Versions<>(versions, it -> descriptors.get(it).getMetadata().getParsedVersion())));
+	}
+
+	/**
+	 * Creates a new {@link CatalogPluginRegistry} for the given {@link PluginCatalog} and plugin type instantiating the
+	 * plugins via their default constructor.
+	 *
+	 * @param catalog must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends MetadataProvider & Plugin<PluginMetadata>> CatalogPluginRegistry<T> from(
+			PluginCatalog catalog, Class<T> type) {
+		return from(catalog, type, type.getClassLoader(), BeanUtils::instantiateClass);
+	}
+
+	/**
+	 * Creates a new {@link CatalogPluginRegistry} for the given {@link PluginCatalog} and plugin type loading the plugin
+	 * classes from the given {@link ClassLoader} and instantiating them using the given {@link Function}, e.g.
+	 * {@code AutowireCapableBeanFactory::createBean}.
+	 *
+	 * @param catalog must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @param instantiator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends MetadataProvider & Plugin<PluginMetadata>> CatalogPluginRegistry<T> from(
+			PluginCatalog catalog, Class<T> type, ClassLoader classLoader,
+			Function<Class<? extends T>, ? extends T> instantiator) {
+		return new CatalogPluginRegistry<>(catalog, type, classLoader, instantiator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object)
+	 */
+	@Override
+	public Optional<T> getPluginFor(PluginMetadata delimiter) {
+
+		List<Integer> positions = getPositions(delimiter);
+
+		return positions.isEmpty() ? Optional.empty() : Optional.of(getPlugin(positions.get(0)));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object)
+	 */
+	@Override
+	public T getRequiredPluginFor(PluginMetadata delimiter) {
+
+		return getRequiredPluginFor(delimiter, () -> String.format(
+				"No plugin found for delimiter %s! Registered plugins: %s.", delimiter, descriptors));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getRequiredPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getRequiredPluginFor(PluginMetadata delimiter, Supplier<String> message) throws IllegalArgumentException {
+
+		Assert.notNull(message, "Message must not be null!");
+
+		return getPluginFor(delimiter, () -> new IllegalArgumentException(message.get()));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public List<T> getPluginsFor(PluginMetadata delimiter) {
+
+		List<Integer> positions = getPositions(delimiter);
+		List<T> result = new ArrayList<>(positions.size());
+
+		for (int position : positions) {
+			result.add(getPlugin(position));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns a {@link Stream} of the plugins for the given {@link PluginMetadata}, only loading the plugins the
+	 * {@link Stream} advances to.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(PluginMetadata delimiter) {
+		return getPositions(delimiter).stream().map(this::getPlugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(PluginMetadata delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		List<Integer> positions = getPositions(delimiter);
+		List<T> result = new ArrayList<>(Math.min(limit, positions.size()));
+
+		for (int i = 0; i < positions.size() && i < limit; i++) {
+			result.add(getPlugin(positions.get(i)));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the number of plugins for the given {@link PluginMetadata} listed in the catalog without loading them.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public int countPluginsFor(PluginMetadata delimiter) {
+		return getPositions(delimiter).size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> T getPluginFor(PluginMetadata delimiter, Supplier<E> ex) throws E {
+		return getPluginFor(delimiter).orElseThrow(ex);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public <E extends Exception> List<T> getPluginsFor(PluginMetadata delimiter, Supplier<E> ex) throws E {
+
+		List<T> result = getPluginsFor(delimiter);
+
+		if (result.isEmpty()) {
+			throw ex.get();
+		}
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(PluginMetadata delimiter, T plugin) {
+		return getPluginOrDefaultFor(delimiter, () -> plugin);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginOrDefaultFor(java.lang.Object, java.util.function.Supplier)
+	 */
+	@Override
+	public T getPluginOrDefaultFor(PluginMetadata delimiter, Supplier<T> defaultSupplier) {
+		return getPluginFor(delimiter).orElseGet(defaultSupplier);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#getPluginsFor(java.lang.Object, java.util.List)
+	 */
+	@Override
+	public List<T> getPluginsFor(PluginMetadata delimiter, List<? extends T> plugins) {
+
+		List<T> candidates = getPluginsFor(delimiter);
+
+		return candidates.isEmpty() ? new ArrayList<T>(plugins) : candidates;
+	}
+
+	/**
+	 * Returns the number of plugins in the catalog without loading any of them.
+	 *
+	 * @return
+	 */
+	@Override
+	public int countPlugins() {
+		return descriptors.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.PluginRegistry#contains(org.springframework.plugin.core.Plugin)
+	 */
+	@Override
+	public boolean contains(T plugin) {
+		return plugin != null && getPluginsFor(plugin.getMetadata()).contains(plugin);
+	}
+
+	/**
+	 * Returns whether a plugin for the given {@link PluginMetadata} is listed in the catalog without loading it.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public boolean hasPluginFor(PluginMetadata delimiter) {
+		return !getPositions(delimiter).isEmpty();
+	}
+
+	/**
+	 * Returns all plugins of the catalog. Will load and instantiate all plugins not instantiated yet.
+	 *
+	 * @return
+	 */
+	@Override
+	public List<T> getPlugins() {
+
+		List<T> result = new ArrayList<>(descriptors.size());
+
+		for (int i = 0; i < descriptors.size(); i++) {
+			result.add(getPlugin(i));
+		}
+
+		return Collections.unmodifiableList(result);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return getPlugins().iterator();
+	}
+
+	/**
+	 * Returns the plugin with the given name and the highest version, only instantiating that one.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @return
+	 */
+	public Optional<T> getLatest(String name) {
+		return getHighest(name, VersionRange.UNBOUNDED);
+	}
+
+	/**
+	 * Returns the plugin with the given name and the highest version included in the given {@link VersionRange}, only
+	 * instantiating that one.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @param range must not be {@literal null}.
+	 * @return
+	 */
+	public Optional<T> getHighest(String name, VersionRange range) {
+
+		Assert.notNull(name, "Name must not be null!");
+		Assert.notNull(range, "Version range must not be null!");
+
+		Versions<Integer> versions = positions.get(name);
+		Integer position = versions == null ? null : versions.getHighest(range);
+
+		return position == null ? Optional.empty() : Optional.of(getPlugin(position));
+	}
+
+	/**
+	 * Returns all plugins whose capabilities listed in the catalog match the given {@link CapabilityQuery}, only
+	 * instantiating those.
+	 *
+	 * @param query must not be {@literal null}.
+	 * @return
+	 */
+	public List<T> getPlugins(CapabilityQuery query) {
+
+		Assert.notNull(query, "Capability query must not be null!");
+
+		List<T> result = new ArrayList<>();
+
+		for (int i = 0; i < descriptors.size(); i++) {
+			if (query.matches(descriptors.get(i).getCapabilities())) {
+				result.add(getPlugin(i));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns whether the plugin for the given {@link PluginDescriptor} has already been instantiated.
+	 *
+	 * @param descriptor must not be {@literal null}.
+	 * @return
+	 */
+	public boolean isInstantiated(PluginDescriptor descriptor) {
+
+		Assert.notNull(descriptor, "Descriptor must not be null!");
+
+		int position = descriptors.indexOf(descriptor);
+
+		return position >= 0 && instances.get(position) != null;
+	}
+
+	private List<Integer> getPositions(PluginMetadata delimiter) {
+
+		if (delimiter == null) {
+			return Collections.emptyList();
+		}
+
+		Versions<Integer> versions = positions.get(delimiter.getName());
+
+		return versions == null ? Collections.emptyList() : versions.getExact(delimiter.getVersion());
+	}
+
+	/**
+	 * Returns the plugin for the {@link PluginDescriptor} at the given position, loading and instantiating it on first
+	 * access.
+	 *
+	 * @param position
+	 * @return
+	 */
+	private T getPlugin(int position) {
+
+		T plugin = instances.get(position);
+
+		if (plugin != null) {
+			return plugin;
+		}
+
+		// Lock per position so that slow plugin initializations don't block selecting other plugins
+		synchronized (locks[position]) {
+
+			plugin = instances.get(position);
+
+			if (plugin == null) {
+				plugin = instantiate(descriptors.get(position));
+				instances.set(position, plugin);
+			}
+
+			return plugin;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T instantiate(PluginDescriptor descriptor) {
+
+		Class<?> implementation;
+
+		try {
+			implementation = ClassUtils.forName(descriptor.getImplementationClassName(), classLoader);
+		} catch (ClassNotFoundException | LinkageError o_O) {
+			throw new IllegalStateException(String.format("Unable to load plugin class for %s!", descriptor), o_O);
+		}
+
+		Assert.state(type.isAssignableFrom(implementation),
+				() -> String.format("Plugin class of %s does not implement %s!", descriptor, type.getName()));
+
+		T plugin = instantiator.apply((Class<? extends T>) implementation);
+
+		Assert.state(descriptor.getMetadata().equals(plugin.getMetadata()),
+				() -> String.format("Plugin %s exposes metadata %s but is described as %s!", plugin, plugin.getMetadata(),
+						descriptor.getMetadata()));
+
+		return plugin;
+	}
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Helpers to write and read the binary index files of the plugin modules: varint encoded integers, length-prefixed
+ * UTF-8 strings, atomic writes, memory-mapped reads and FNV-1a hashes to identify the sources an index was built
+ * from. Used by {@link PluginCatalog}, the core module keeps its own copy to not expose them as API.
+ *
+ * @author agent
+ * @since 2.0
+ */
+final class IndexFiles {
+
+	/**
+	 * The initial value of a 64 bit FNV-1a hash.
+	 */
+	static final long HASH_SEED = 0xcbf29ce484222325L;
+
+	private static final long HASH_PRIME = 0x100000001b3L;
+
+	private IndexFiles() {}
+
+	/**
+	 * Continues the given FNV-1a hash with the characters of the given value.
+	 *
+	 * @param hash the hash so far, {@link #HASH_SEED} initially.
+	 * @param value must not be {@literal null}.
+	 * @return
+	 */
+	static long hash(long hash, CharSequence value) {
+
+		for (int i = 0; i < value.length(); i++) {
+			hash = (hash ^ value.charAt(i)) * HASH_PRIME;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Continues the given FNV-1a hash with the given value.
+	 *
+	 * @param hash the hash so far, {@link #HASH_SEED} initially.
+	 * @param value
+	 * @return
+	 */
+	static long hash(long hash, long value) {
+		return (hash ^ value) * HASH_PRIME;
+	}
+
+	/**
+	 * Writes the given value as varint, i.e. 7 bits per byte, least significant group first.
+	 *
+	 * @param out must not be {@literal null}.
+	 * @param value
+	 * @throws IOException
+	 */
+	static void writeVarInt(DataOutput out, int value) throws IOException {
+
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+
+		out.writeByte(value);
+	}
+
+	/**
+	 * Reads a varint written by {@link #writeVarInt(DataOutput, int)}.
+	 *
+	 * @param buffer must not be {@literal null}.
+	 * @return
+	 * @throws IllegalStateException in case the buffer doesn't contain a valid varint.
+	 */
+	static int readVarInt(ByteBuffer buffer) {
+
+		int result = 0;
+
+		for (int shift = 0; shift < 32; shift += 7) {
+
+			byte current = buffer.get();
+			result |= (current & 0x7F) << shift;
+
+			if ((current & 0x80) == 0) {
+				return result;
+			}
+		}
+
+		throw new IllegalStateException("Malformed varint!");
+	}
+
+	/**
+	 * Writes the given value as UTF-8 bytes prefixed by their number.
+	 *
+	 * @param out must not be {@literal null}.
+	 * @param value must not be {@literal null}.
+	 * @throws IOException
+	 */
+	static void writeString(DataOutput out, String value) throws IOException {
+
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a {@link String} written by {@link #writeString(DataOutput, String)}.
+	 *
+	 * @param buffer must not be {@literal null}.
+	 * @return
+	 */
+	static String readString(ByteBuffer buffer) {
+
+		byte[] bytes = new byte[readVarInt(buffer)];
+		buffer.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the given bytes to a temporary file next to the given one and atomically moves it into place, so that
+	 * concurrent readers never see a partially written file.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @param bytes must not be {@literal null}.
+	 * @throws IOException in case the file cannot be written.
+	 */
+	static void write(Path file, ByteArrayOutputStream bytes) throws IOException {
+
+		Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+
+		try (OutputStream stream = Files.newOutputStream(temp)) {
+			bytes.writeTo(stream);
+		} catch (IOException o_O) {
+
+			Files.deleteIfExists(temp);
+			throw o_O;
+		}
+
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Memory-maps the given file read-only.
+	 *
+	 * @param file must not be {@literal null}.
+	 * @return
+	 * @throws IOException in case the file cannot be read.
+	 */
+	static ByteBuffer map(Path file) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent table of canonical {@link SimplePluginMetadata} instances by name and version. The instances are only
+ * weakly referenced, so that they can be garbage collected once no longer used, e.g. by a plugin. Lookups of already
+ * interned instances don't allocate.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class MetadataInterner {
+
+	static final MetadataInterner INSTANCE = new MetadataInterner();
+
+	private final Map<String, Map<String, MetadataReference>> instances = new ConcurrentHashMap<>();
+	private final ReferenceQueue<SimplePluginMetadata> queue = new ReferenceQueue<>();
+
+	/**
+	 * Returns the canonical {@link SimplePluginMetadata} for the given name and version.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param version must not be {@literal null} or empty.
+	 * @return
+	 */
+	SimplePluginMetadata intern(String name, String version) {
+
+		Map<String, MetadataReference> versions = instances.get(name);
+		MetadataReference reference = versions == null ? null : versions.get(version);
+		SimplePluginMetadata metadata = reference == null ? null : reference.get();
+
+		if (metadata != null) {
+			return metadata;
+		}
+
+		purge();
+
+		SimplePluginMetadata candidate = new SimplePluginMetadata(name, version);
+
+		// Update the per-name table within the outer compute to not race with purge() removing it
+		Map<String, MetadataReference> current = instances.compute(name, (__, existing) -> {
+
+			Map<String, MetadataReference> result = existing == null ? new ConcurrentHashMap<>() : existing;
+
+			result.compute(version, (___, previous) -> previous != null && previous.get() != null //
+					? previous //
+					: new MetadataReference(candidate, queue));
+
+			return result;
+		});
+
+		MetadataReference result = current.get(version);
+		SimplePluginMetadata interned = result == null ? null : result.get();
+
+		return interned == null ? candidate : interned;
+	}
+
+	/**
+	 * Returns the number of currently interned instances.
+	 *
+	 * @return
+	 */
+	int size() {
+
+		purge();
+
+		return instances.values().stream().mapToInt(Map::size).sum();
+	}
+
+	/**
+	 * Removes the entries of instances that have been garbage collected and the per-name tables that became empty.
+	 */
+	private void purge() {
+
+		for (Reference<?> reference = queue.poll(); reference != null; reference = queue.poll()) {
+
+			MetadataReference cleared = (MetadataReference) reference;
+
+			instances.computeIfPresent(cleared.name, (__, versions) -> {
+
+				versions.remove(cleared.version, cleared);
+
+				return versions.isEmpty() ? null : versions;
+			});
+		}
+	}
+
+	/**
+	 * A {@link WeakReference} to an interned {@link SimplePluginMetadata} keeping its name and version to remove its
+	 * entry once cleared.
+	 *
+	 * @author agent
+	 */
+	private static class MetadataReference extends WeakReference<SimplePluginMetadata> {
+
+		private final String name, version;
+
+		MetadataReference(SimplePluginMetadata metadata, ReferenceQueue<SimplePluginMetadata> queue) {
+
+			super(metadata, queue);
+
+			this.name = metadata.getName();
+			this.version = metadata.getVersion();
+		}
+	}
+}
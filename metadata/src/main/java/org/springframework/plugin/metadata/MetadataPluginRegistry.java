@@ -0,0 +1,384 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.plugin.core.OrderAwarePluginRegistry;
+import org.springframework.plugin.core.Plugin;
+import org.springframework.util.Assert;
+
+/**
+ * {@link OrderAwarePluginRegistry} for {@link Plugin}s exposing {@link PluginMetadata} that indexes the plugins by
+ * name and version on initialization. Lookups for an exact {@link PluginMetadata} are answered by hash lookups, lookups
+ * for the latest version, the highest version within a {@link VersionRange} and all versions of a plugin use the
+ * sorted versions per name. Assumes plugins to support exactly the {@link PluginMetadata} they expose, just like
+ * {@link AbstractMetadataBasedPlugin} does.
+ * <p>
+ * In case multiple plugins expose the same name and version, they're returned in registry order.
+ *
+ * @author agent
+ * @since 2.0
+ * @see VersionRange
+ */
+public class MetadataPluginRegistry<T extends MetadataProvider & Plugin<PluginMetadata>>
+		extends OrderAwarePluginRegistry<T, PluginMetadata> {
+
+	private volatile Map<String, Versions<T>> index;
+	private volatile Capabilities capabilities;
+
+	/**
+	 * Creates a new {@link MetadataPluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 */
+	protected MetadataPluginRegistry(List<? extends T> plugins, Comparator<? super T> comparator) {
+		super(plugins, comparator);
+	}
+
+	/**
+	 * Creates a new {@link MetadataPluginRegistry} for the given {@link Plugin}s.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends MetadataProvider & Plugin<PluginMetadata>> MetadataPluginRegistry<T> from(
+			List<? extends T> plugins) {
+		return from(plugins, getDefaultComparator());
+	}
+
+	/**
+	 * Creates a new {@link MetadataPluginRegistry} for the given {@link Plugin}s and {@link Comparator}.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @param comparator must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends MetadataProvider & Plugin<PluginMetadata>> MetadataPluginRegistry<T> from(
+			List<? extends T> plugins, Comparator<? super T> comparator) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+		Assert.notNull(comparator, "Comparator must not be null!");
+
+		return new MetadataPluginRegistry<>(plugins, comparator);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.OrderAwarePluginRegistry#initialize(java.util.List)
+	 */
+	@Override
+	protected List<T> initialize(List<T> plugins) {
+
+		List<T> result = super.initialize(plugins);
+		Map<String, Map<String, List<T>>> byName = new HashMap<>();
+
+		for (T plugin : result) {
+
+			PluginMetadata metadata = plugin.getMetadata();
+
+			byName.computeIfAbsent(metadata.getName(), __ -> new HashMap<>()) //
+					.computeIfAbsent(metadata.getVersion(), __ -> new ArrayList<>()) //
+					.add(plugin);
+		}
+
+		Map<String, Versions<T>> index = new HashMap<>(byName.size() * 2);
+		byName.forEach(
+				(name, versions) -> index.put(name, new Versions<>(versions, it -> it.getMetadata().getParsedVersion())));
+
+		this.index = index;
+		this.capabilities = new Capabilities(result);
+
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getPluginFor(java.lang.Object)
+	 */
+	@Override
+	public Optional<T> getPluginFor(PluginMetadata delimiter) {
+
+		List<T> plugins = getPluginsFor(delimiter);
+
+		return plugins.isEmpty() ? Optional.empty() : Optional.of(plugins.get(0));
+	}
+
+	/**
+	 * Returns all {@link Plugin}s exposing the given {@link PluginMetadata}. Returns a shared, immutable {@link List}.
+	 *
+	 * @param delimiter can be {@literal null}.
+	 * @return
+	 */
+	@Override
+	public List<T> getPluginsFor(PluginMetadata delimiter) {
+
+		if (delimiter == null) {
+			return super.getPluginsFor(delimiter);
+		}
+
+		Versions<T> versions = getVersions(delimiter.getName());
+
+		return versions == null ? Collections.emptyList() : versions.getExact(delimiter.getVersion());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#streamPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public Stream<T> streamPluginsFor(PluginMetadata delimiter) {
+		return getPluginsFor(delimiter).stream();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#getPluginsFor(java.lang.Object, int)
+	 */
+	@Override
+	public List<T> getPluginsFor(PluginMetadata delimiter, int limit) {
+
+		Assert.isTrue(limit >= 0, "Limit must not be negative!");
+
+		List<T> plugins = getPluginsFor(delimiter);
+
+		return new ArrayList<>(plugins.subList(0, Math.min(limit, plugins.size())));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.core.SimplePluginRegistry#countPluginsFor(java.lang.Object)
+	 */
+	@Override
+	public int countPluginsFor(PluginMetadata delimiter) {
+		return getPluginsFor(delimiter).size();
+	}
+
+	/**
+	 * Returns the {@link Plugin} with the given name and the highest version.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @return
+	 */
+	public Optional<T> getLatest(String name) {
+		return getHighest(name, VersionRange.UNBOUNDED);
+	}
+
+	/**
+	 * Returns the {@link Plugin} with the given name and the highest version included in the given
+	 * {@link VersionRange}.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @param range must not be {@literal null}.
+	 * @return
+	 */
+	public Optional<T> getHighest(String name, VersionRange range) {
+
+		Assert.notNull(range, "Version range must not be null!");
+
+		Versions<T> versions = getVersions(name);
+
+		return versions == null ? Optional.empty() : Optional.ofNullable(versions.getHighest(range));
+	}
+
+	/**
+	 * Returns all {@link Plugin}s with the given name and a version included in the given {@link VersionRange} ordered
+	 * by ascending version.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @param range must not be {@literal null}.
+	 * @return
+	 */
+	public List<T> getPlugins(String name, VersionRange range) {
+
+		Assert.notNull(range, "Version range must not be null!");
+
+		Versions<T> versions = getVersions(name);
+
+		return versions == null ? Collections.emptyList() : versions.get(range);
+	}
+
+	/**
+	 * Returns all {@link Plugin}s with the given name ordered by ascending version. Returns a shared, immutable
+	 * {@link List}.
+	 *
+	 * @param name must not be {@literal null}.
+	 * @return
+	 */
+	public List<T> getAllVersions(String name) {
+
+		Versions<T> versions = getVersions(name);
+
+		return versions == null ? Collections.emptyList() : versions.getAll();
+	}
+
+	/**
+	 * Returns all {@link Plugin}s whose capabilities match the given {@link CapabilityQuery} in registry order.
+	 *
+	 * @param query must not be {@literal null}.
+	 * @return
+	 * @see MetadataProvider#getCapabilities()
+	 */
+	public List<T> getPlugins(CapabilityQuery query) {
+
+		Assert.notNull(query, "Capability query must not be null!");
+
+		List<T> plugins = getPlugins();
+		BitSet selected = getCapabilities().select(query);
+		List<T> result = new ArrayList<>(selected.cardinality());
+
+		for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+			result.add(plugins.get(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the first {@link Plugin} in registry order whose capabilities match the given {@link CapabilityQuery}.
+	 *
+	 * @param query must not be {@literal null}.
+	 * @return
+	 */
+	public Optional<T> getPluginFor(CapabilityQuery query) {
+
+		Assert.notNull(query, "Capability query must not be null!");
+
+		List<T> plugins = getPlugins();
+		int first = getCapabilities().select(query).nextSetBit(0);
+
+		return first < 0 ? Optional.empty() : Optional.of(plugins.get(first));
+	}
+
+	private Capabilities getCapabilities() {
+
+		ensureInitialized();
+
+		return capabilities;
+	}
+
+	private Versions<T> getVersions(String name) {
+
+		Assert.notNull(name, "Name must not be null!");
+
+		ensureInitialized();
+
+		return index.get(name);
+	}
+
+	/**
+	 * Index of the positions of the plugins by capability. Each capability is assigned a bit with a {@link BitSet} of
+	 * the positions of the plugins having it, so that queries are evaluated by word-level bit operations.
+	 *
+	 * @author agent
+	 */
+	private static class Capabilities {
+
+		private final int size;
+		private final Map<String, Integer> bits;
+		private final BitSet[] plugins;
+
+		Capabilities(List<? extends MetadataProvider> source) {
+
+			Map<String, Integer> bits = new HashMap<>();
+			List<BitSet> plugins = new ArrayList<>();
+
+			for (int i = 0; i < source.size(); i++) {
+				for (String capability : source.get(i).getCapabilities()) {
+
+					int bit = bits.computeIfAbsent(capability, __ -> bits.size());
+
+					if (bit == plugins.size()) {
+						plugins.add(new BitSet(source.size()));
+					}
+
+					plugins.get(bit).set(i);
+				}
+			}
+
+			this.size = source.size();
+			this.bits = bits;
+			this.plugins = plugins.toArray(new BitSet[plugins.size()]);
+		}
+
+		/**
+		 * Returns the positions of the plugins matching the given {@link CapabilityQuery}.
+		 *
+		 * @param query must not be {@literal null}.
+		 * @return
+		 */
+		BitSet select(CapabilityQuery query) {
+
+			BitSet result = new BitSet(size);
+			result.set(0, size);
+
+			for (String capability : query.getAll()) {
+
+				BitSet plugins = get(capability);
+
+				if (plugins == null) {
+					return new BitSet();
+				}
+
+				result.and(plugins);
+			}
+
+			for (Set<String> group : query.getAny()) {
+
+				BitSet any = new BitSet(size);
+
+				for (String capability : group) {
+
+					BitSet plugins = get(capability);
+
+					if (plugins != null) {
+						any.or(plugins);
+					}
+				}
+
+				result.and(any);
+			}
+
+			for (String capability : query.getNone()) {
+
+				BitSet plugins = get(capability);
+
+				if (plugins != null) {
+					result.andNot(plugins);
+				}
+			}
+
+			return result;
+		}
+
+		private BitSet get(String capability) {
+
+			Integer bit = bits.get(capability);
+
+			return bit == null ? null : plugins[bit];
+		}
+	}
+}
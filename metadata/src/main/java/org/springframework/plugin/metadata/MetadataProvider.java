@@ -15,6 +15,9 @@
  */
 package org.springframework.plugin.metadata;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Interface for plugins providing metadata information. Usually the plugins will implement this interface themselves.
  * 
@@ -28,4 +31,26 @@ public interface MetadataProvider {
 	 * @return the plugins metadata
 	 */
 	PluginMetadata getMetadata();
+
+	/**
+	 * Returns the capabilities of the plugin. Defaults to the capabilities exposed by the plugin's metadata.
+	 *
+	 * @return the capabilities of the plugin, never {@literal null}.
+	 * @since 2.0
+	 * @see CapabilityQuery
+	 */
+	default Set<String> getCapabilities() {
+		return getMetadata().getCapabilities();
+	}
+
+	/**
+	 * Returns the other plugins the plugin depends on. Defaults to the dependencies exposed by the plugin's metadata.
+	 *
+	 * @return the dependencies of the plugin, never {@literal null}.
+	 * @since 2.0
+	 * @see PluginDependencyResolver
+	 */
+	default List<PluginDependency> getDependencies() {
+		return getMetadata().getDependencies();
+	}
 }
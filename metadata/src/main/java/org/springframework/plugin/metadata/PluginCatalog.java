@@ -0,0 +1,365 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A catalog of {@link PluginDescriptor}s read from {@value #DESCRIPTOR_LOCATION} files without loading any plugin
+ * class. Each descriptor file is a properties file mapping implementation class names to a descriptor of the format
+ * {@code $name:$version[:$capability,$capability...]}:
+ *
+ * <pre class="code">
+ * com.acme.PdfRenderer=renderer:1.2:streaming,gpu-free
+ * com.acme.LegacyPdfRenderer=renderer:1.0
+ * </pre>
+ *
+ * The descriptors of all files available in a {@link ClassLoader} can be aggregated into a compact binary index file
+ * via {@link #write(Path)} that's memory-mapped on {@link #read(Path)}. The index records a hash over the locations,
+ * sizes and modification times of the descriptor files it was built from, or of the archives containing them, so that
+ * {@link #load(ClassLoader, Path)} rebuilds it in case any descriptor file is added, removed or changed without having
+ * to read them.
+ * Descriptors are ordered by name, version and implementation class name.
+ *
+ * @author agent
+ * @since 2.0
+ * @see CatalogPluginRegistry
+ */
+public final class PluginCatalog implements Iterable<PluginDescriptor> {
+
+	public static final String DESCRIPTOR_LOCATION = "META-INF/spring-plugins.catalog";
+
+	private static final Logger LOG = LoggerFactory.getLogger(PluginCatalog.class);
+
+	private static final int MAGIC = 0x53504354; // SPCT
+	private static final short VERSION = 1;
+
+	private static final Comparator<PluginDescriptor> ORDER = Comparator
+			.comparing((PluginDescriptor it) -> it.getMetadata().getName()) //
+			.thenComparing(it -> it.getMetadata().getParsedVersion()) //
+			.thenComparing(PluginDescriptor::getImplementationClassName);
+
+	private final List<PluginDescriptor> descriptors;
+	private final long stamp;
+
+	private PluginCatalog(List<PluginDescriptor> descriptors, long stamp) {
+
+		List<PluginDescriptor> sorted = new ArrayList<>(descriptors);
+		sorted.sort(ORDER);
+
+		this.descriptors = Collections.unmodifiableList(sorted);
+		this.stamp = stamp;
+	}
+
+	/**
+	 * Creates a new {@link PluginCatalog} for the given {@link PluginDescriptor}s.
+	 *
+	 * @param descriptors must not be {@literal null}.
+	 * @return
+	 */
+	public static PluginCatalog of(List<PluginDescriptor> descriptors) {
+
+		Assert.notNull(descriptors, "Descriptors must not be null!");
+
+		return new PluginCatalog(descriptors, 0);
+	}
+
+	/**
+	 * Reads all {@value #DESCRIPTOR_LOCATION} files available in the given {@link ClassLoader}.
+	 *
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @return will never be {@literal null}.
+	 * @throws IllegalStateException in case a descriptor file cannot be read or contains invalid descriptors.
+	 */
+	public static PluginCatalog load(ClassLoader classLoader) {
+
+		List<PluginDescriptor> descriptors = new ArrayList<>();
+		long stamp = IndexFiles.HASH_SEED;
+
+		for (URL url : getDescriptorUrls(classLoader)) {
+
+			byte[] content = getContent(url);
+			Properties properties = new Properties();
+
+			try {
+				properties.load(new ByteArrayInputStream(content));
+			} catch (IOException o_O) {
+				throw new IllegalStateException(String.format("Unable to read plugin descriptors from %s!", url), o_O);
+			}
+
+			properties.forEach((type, value) -> descriptors.add(PluginDescriptor.parse((String) type, (String) value)));
+			stamp = stamp(stamp, url);
+		}
+
+		return new PluginCatalog(descriptors, stamp);
+	}
+
+	/**
+	 * Reads the {@link PluginCatalog} from the given index file if it is still valid for the descriptor files available
+	 * in the given {@link ClassLoader}. Otherwise reads the descriptor files and tries to (re-)write the index file.
+	 *
+	 * @param classLoader can be {@literal null}, the default {@link ClassLoader} will be used in that case.
+	 * @param index must not be {@literal null}.
+	 * @return will never be {@literal null}.
+	 */
+	public static PluginCatalog load(ClassLoader classLoader, Path index) {
+
+		Assert.notNull(index, "Index file must not be null!");
+
+		long stamp = stamp(getDescriptorUrls(classLoader));
+		Optional<PluginCatalog> cached = read(index).filter(it -> it.stamp == stamp);
+
+		if (cached.isPresent()) {
+			return cached.get();
+		}
+
+		PluginCatalog catalog = load(classLoader);
+
+		try {
+			catalog.write(index);
+		} catch (IOException o_O) {
+			LOG.debug("Unable to write plugin catalog index {}.", index, o_O);
+		}
+
+		return catalog;
+	}
+
+	/**
+	 * Reads the {@link PluginCatalog} from the given index file by memory-mapping it.
+	 *
+	 * @param index must not be {@literal null}.
+	 * @return the {@link PluginCatalog} or {@link Optional#empty()} in case the file does not exist or is corrupt.
+	 */
+	public static Optional<PluginCatalog> read(Path index) {
+
+		Assert.notNull(index, "Index file must not be null!");
+
+		if (!Files.isRegularFile(index)) {
+			return Optional.empty();
+		}
+
+		try {
+
+			ByteBuffer buffer = IndexFiles.map(index);
+
+			if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+
+				LOG.debug("Discarding plugin catalog index {} of unknown format.", index);
+				return Optional.empty();
+			}
+
+			long stamp = buffer.getLong();
+			int count = buffer.getInt();
+			List<PluginDescriptor> descriptors = new ArrayList<>(count);
+
+			for (int i = 0; i < count; i++) {
+
+				String name = IndexFiles.readString(buffer);
+				String version = IndexFiles.readString(buffer);
+				String type = IndexFiles.readString(buffer);
+				String[] capabilities = new String[IndexFiles.readVarInt(buffer)];
+
+				for (int j = 0; j < capabilities.length; j++) {
+					capabilities[j] = IndexFiles.readString(buffer);
+				}
+
+				descriptors.add(PluginDescriptor.of(name, version, type, capabilities));
+			}
+
+			return Optional.of(new PluginCatalog(descriptors, stamp));
+
+		} catch (Exception o_O) {
+
+			LOG.debug("Discarding corrupt plugin catalog index {}.", index, o_O);
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Atomically writes the catalog to the given index file.
+	 *
+	 * @param index must not be {@literal null}.
+	 * @throws IOException in case the file cannot be written.
+	 */
+	public void write(Path index) throws IOException {
+
+		Assert.notNull(index, "Index file must not be null!");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeLong(stamp);
+		out.writeInt(descriptors.size());
+
+		for (PluginDescriptor descriptor : descriptors) {
+
+			IndexFiles.writeString(out, descriptor.getMetadata().getName());
+			IndexFiles.writeString(out, descriptor.getMetadata().getVersion());
+			IndexFiles.writeString(out, descriptor.getImplementationClassName());
+			IndexFiles.writeVarInt(out, descriptor.getCapabilities().size());
+
+			for (String capability : descriptor.getCapabilities()) {
+				IndexFiles.writeString(out, capability);
+			}
+		}
+
+		out.flush();
+
+		IndexFiles.write(index, bytes);
+	}
+
+	/**
+	 * Returns all {@link PluginDescriptor}s ordered by name, version and implementation class name.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	public List<PluginDescriptor> getDescriptors() {
+		return descriptors;
+	}
+
+	/**
+	 * Returns the number of {@link PluginDescriptor}s in the catalog.
+	 *
+	 * @return
+	 */
+	public int size() {
+		return descriptors.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	@Override
+	public Iterator<PluginDescriptor> iterator() {
+		return descriptors.iterator();
+	}
+
+	private static List<URL> getDescriptorUrls(ClassLoader classLoader) {
+
+		ClassLoader loader = classLoader == null ? ClassUtils.getDefaultClassLoader() : classLoader;
+
+		try {
+
+			Enumeration<URL> resources = loader == null //
+					? ClassLoader.getSystemResources(DESCRIPTOR_LOCATION) //
+					: loader.getResources(DESCRIPTOR_LOCATION);
+
+			return Collections.list(resources);
+
+		} catch (IOException o_O) {
+			throw new IllegalStateException("Unable to look up plugin descriptors!", o_O);
+		}
+	}
+
+	private static byte[] getContent(URL url) {
+
+		try (InputStream stream = url.openStream()) {
+			return StreamUtils.copyToByteArray(stream);
+		} catch (IOException o_O) {
+			throw new IllegalStateException(String.format("Unable to read plugin descriptors from %s!", url), o_O);
+		}
+	}
+
+	/**
+	 * Computes a stamp identifying the given descriptor files, i.e. an FNV-1a hash over their locations, sizes and
+	 * modification times.
+	 *
+	 * @param urls must not be {@literal null}.
+	 * @return
+	 */
+	private static long stamp(List<URL> urls) {
+
+		long stamp = IndexFiles.HASH_SEED;
+
+		for (URL url : urls) {
+			stamp = stamp(stamp, url);
+		}
+
+		return stamp;
+	}
+
+	/**
+	 * Continues the given stamp identifying a set of descriptor files with the location, size and modification time of
+	 * the given one. Descriptor files contained in a JAR file on the file system are represented by the size and
+	 * modification time of the JAR file, others by the ones reported by their {@link URLConnection}.
+	 *
+	 * @param stamp the stamp so far.
+	 * @param url must not be {@literal null}.
+	 * @return
+	 */
+	private static long stamp(long stamp, URL url) {
+
+		long result = IndexFiles.hash(stamp, url.toExternalForm());
+
+		try {
+
+			URLConnection connection = url.openConnection();
+			URL file = connection instanceof JarURLConnection ? ((JarURLConnection) connection).getJarFileURL() : url;
+
+			if (ResourceUtils.URL_PROTOCOL_FILE.equals(file.getProtocol())) {
+
+				Path path = Paths.get(file.toURI());
+
+				result = IndexFiles.hash(result, Files.size(path));
+				return IndexFiles.hash(result, Files.getLastModifiedTime(path).toMillis());
+			}
+
+			try {
+
+				result = IndexFiles.hash(result, connection.getContentLengthLong());
+				return IndexFiles.hash(result, connection.getLastModified());
+
+			} finally {
+
+				// Connecting might open a stream we need to release
+				connection.getInputStream().close();
+			}
+
+		} catch (IOException | URISyntaxException o_O) {
+			throw new IllegalStateException(String.format("Unable to inspect plugin descriptors at %s!", url), o_O);
+		}
+	}
+}
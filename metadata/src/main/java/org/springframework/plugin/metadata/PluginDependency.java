@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import org.springframework.util.Assert;
+
+/**
+ * A dependency of a plugin on another plugin identified by its name and a {@link VersionRange}.
+ *
+ * @author agent
+ * @since 2.0
+ * @see MetadataProvider#getDependencies()
+ * @see PluginDependencyResolver
+ */
+public final class PluginDependency {
+
+	private final String name;
+	private final VersionRange range;
+
+	private PluginDependency(String name, VersionRange range) {
+
+		Assert.hasText(name, "Name must not be null or empty!");
+		Assert.notNull(range, "Version range must not be null!");
+
+		this.name = name;
+		this.range = range;
+	}
+
+	/**
+	 * Creates a new {@link PluginDependency} on the plugin with the given name and any version.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static PluginDependency of(String name) {
+		return new PluginDependency(name, VersionRange.UNBOUNDED);
+	}
+
+	/**
+	 * Creates a new {@link PluginDependency} on the plugin with the given name and a version within the given range.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param range must not be {@literal null} or empty.
+	 * @return
+	 * @see VersionRange#parse(String)
+	 */
+	public static PluginDependency of(String name, String range) {
+		return new PluginDependency(name, VersionRange.parse(range));
+	}
+
+	/**
+	 * Creates a new {@link PluginDependency} on the plugin with the given name and a version within the given
+	 * {@link VersionRange}.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param range must not be {@literal null}.
+	 * @return
+	 */
+	public static PluginDependency of(String name, VersionRange range) {
+		return new PluginDependency(name, range);
+	}
+
+	/**
+	 * Returns the name of the plugin depended on.
+	 *
+	 * @return
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Returns the {@link VersionRange} the version of the plugin depended on has to be in.
+	 *
+	 * @return
+	 */
+	public VersionRange getRange() {
+		return range;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof PluginDependency)) {
+			return false;
+		}
+
+		PluginDependency that = (PluginDependency) obj;
+
+		return this.name.equals(that.name) && this.range.equals(that.range);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return 31 * name.hashCode() + range.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s %s", name, range);
+	}
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.plugin.core.Plugin;
+import org.springframework.util.Assert;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Resolves the activation order of plugins based on their {@link PluginDependency}s. The dependency graph of all
+ * plugins of a {@link MetadataPluginRegistry} is built once on creation: each dependency is bound to the plugin with the
+ * highest version within the declared {@link VersionRange}, plugins with unsatisfiable dependencies or being part of a
+ * dependency cycle are recorded and a topological order of all plugins is computed. Thus, resolving the activation
+ * order for a set of plugins only needs to collect the transitive dependencies of the requested plugins, which happens
+ * in parallel for plugins not connected to each other. The result is memoized per requested set of plugins. The
+ * memoized results are only referenced softly, so that resolving ever changing sets of plugins doesn't grow the
+ * resolver unboundedly but the results are released under memory pressure.
+ *
+ * @author agent
+ * @since 2.0
+ * @see MetadataProvider#getDependencies()
+ */
+public class PluginDependencyResolver<T extends MetadataProvider & Plugin<PluginMetadata>> {
+
+	private final List<T> plugins;
+	private final Map<T, Integer> positions;
+	private final int[][] dependencies;
+	private final String[] problems;
+	private final int[] ranks;
+	private final int[] components;
+	private final Map<Set<T>, List<T>> resolutions;
+
+	/**
+	 * Creates a new {@link PluginDependencyResolver} for the plugins of the given {@link MetadataPluginRegistry}.
+	 *
+	 * @param registry must not be {@literal null}.
+	 */
+	protected PluginDependencyResolver(MetadataPluginRegistry<T> registry) {
+
+		Assert.notNull(registry, "Registry must not be null!");
+
+		this.plugins = registry.getPlugins();
+		this.positions = new IdentityHashMap<>(plugins.size());
+		this.resolutions = new ConcurrentReferenceHashMap<>();
+
+		for (int i = 0; i < plugins.size(); i++) {
+			positions.putIfAbsent(plugins.get(i), i);
+		}
+
+		int size = plugins.size();
+
+		this.problems = new String[size];
+		this.dependencies = new int[size][];
+
+		// Bind the dependencies of all plugins independently of each other
+		IntStream.range(0, size).parallel().forEach(i -> dependencies[i] = bind(i, registry));
+
+		this.ranks = sort(dependencies, problems);
+		this.components = connect(dependencies);
+	}
+
+	/**
+	 * Creates a new {@link PluginDependencyResolver} for the plugins of the given {@link MetadataPluginRegistry}.
+	 *
+	 * @param registry must not be {@literal null}.
+	 * @return
+	 */
+	public static <T extends MetadataProvider & Plugin<PluginMetadata>> PluginDependencyResolver<T> of(
+			MetadataPluginRegistry<T> registry) {
+		return new PluginDependencyResolver<>(registry);
+	}
+
+	/**
+	 * Returns the given plugins and all of their transitive dependencies in activation order, i.e. every plugin is
+	 * preceded by the plugins it depends on. Plugins not depending on each other are returned in registry order.
+	 *
+	 * @param plugins must not be {@literal null}.
+	 * @return will never be {@literal null}.
+	 * @throws IllegalArgumentException in case one of the given plugins is not contained in the registry.
+	 * @throws IllegalStateException in case one of the given plugins has a dependency that cannot be satisfied or is part
+	 *           of a dependency cycle.
+	 */
+	public List<T> resolve(Collection<? extends T> plugins) {
+
+		Assert.notNull(plugins, "Plugins must not be null!");
+
+		Set<T> key = Collections.unmodifiableSet(new LinkedHashSet<>(plugins));
+		List<T> result = resolutions.get(key);
+
+		if (result != null) {
+			return result;
+		}
+
+		result = doResolve(key);
+
+		List<T> existing = resolutions.putIfAbsent(key, result);
+
+		return existing == null ? result : existing;
+	}
+
+	/**
+	 * Returns the activation order of all plugins that can be activated, i.e. neither they nor any of their transitive
+	 * dependencies have unsatisfiable dependencies or are part of a dependency cycle.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	public List<T> resolveAll() {
+
+		boolean[] blocked = new boolean[plugins.size()];
+
+		// Dependencies are ranked before their dependents
+		Integer[] byRank = IntStream.range(0, plugins.size()).boxed().toArray(Integer[]::new);
+		Arrays.sort(byRank, (left, right) -> Integer.compare(ranks[left], ranks[right]));
+
+		for (int position : byRank) {
+
+			blocked[position] = problems[position] != null;
+
+			for (int dependency : dependencies[position]) {
+				blocked[position] |= blocked[dependency];
+			}
+		}
+
+		return resolve(IntStream.range(0, plugins.size()) //
+				.filter(i -> !blocked[i]) //
+				.mapToObj(plugins::get) //
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Returns the problems detected for the given plugin, i.e. unsatisfiable dependencies or dependency cycles.
+	 *
+	 * @param plugin must not be {@literal null}.
+	 * @return the description of the problem or {@link Optional#empty()} if the plugin can be activated.
+	 */
+	public Optional<String> getProblem(T plugin) {
+		return Optional.ofNullable(problems[getPosition(plugin)]);
+	}
+
+	private List<T> doResolve(Set<T> requested) {
+
+		Map<Integer, List<Integer>> byComponent = requested.stream() //
+				.map(this::getPosition) //
+				.collect(Collectors.groupingBy(it -> components[it]));
+
+		// Plugins of different components don't share any dependencies
+		BitSet selected = byComponent.values().parallelStream() //
+				.map(this::collect) //
+				.reduce(new BitSet(plugins.size()), (left, right) -> {
+
+					BitSet result = (BitSet) left.clone();
+					result.or(right);
+
+					return result;
+				});
+
+		List<String> failures = selected.stream() //
+				.filter(it -> problems[it] != null) //
+				.mapToObj(it -> problems[it]) //
+				.collect(Collectors.toList());
+
+		if (!failures.isEmpty()) {
+			throw new IllegalStateException(
+					String.format("Unable to activate plugins %s: %s", requested, String.join(" ", failures)));
+		}
+
+		return Collections.unmodifiableList(selected.stream() //
+				.boxed() //
+				.sorted((left, right) -> Integer.compare(ranks[left], ranks[right])) //
+				.map(plugins::get) //
+				.collect(Collectors.toList()));
+	}
+
+	/**
+	 * Collects the positions of the plugins at the given positions and their transitive dependencies.
+	 *
+	 * @param roots must not be {@literal null}.
+	 * @return
+	 */
+	private BitSet collect(List<Integer> roots) {
+
+		BitSet result = new BitSet(plugins.size());
+		Deque<Integer> stack = new ArrayDeque<>(roots);
+
+		while (!stack.isEmpty()) {
+
+			int current = stack.pop();
+
+			if (result.get(current)) {
+				continue;
+			}
+
+			result.set(current);
+
+			for (int dependency : dependencies[current]) {
+				stack.push(dependency);
+			}
+		}
+
+		return result;
+	}
+
+	private int getPosition(T plugin) {
+
+		Assert.notNull(plugin, "Plugin must not be null!");
+
+		Integer position = positions.get(plugin);
+
+		Assert.isTrue(position != null, () -> String.format("Plugin %s is not contained in the registry!", plugin));
+
+		return position;
+	}
+
+	/**
+	 * Binds the dependencies of the plugin at the given position to the positions of the plugins satisfying them.
+	 *
+	 * @param position
+	 * @param registry must not be {@literal null}.
+	 * @return
+	 */
+	private int[] bind(int position, MetadataPluginRegistry<T> registry) {
+
+		T plugin = plugins.get(position);
+		List<PluginDependency> declared = plugin.getDependencies();
+		int[] result = new int[declared.size()];
+		int count = 0;
+		List<String> unsatisfied = new ArrayList<>();
+
+		for (PluginDependency dependency : declared) {
+
+			Optional<T> candidate = registry.getHighest(dependency.getName(), dependency.getRange());
+
+			if (!candidate.isPresent()) {
+
+				unsatisfied.add(String.format("%s but %s", dependency,
+						registry.getAllVersions(dependency.getName()).isEmpty() ? "no such plugin is available"
+								: "no matching version is available"));
+				continue;
+			}
+
+			result[count++] = positions.get(candidate.get());
+		}
+
+		if (!unsatisfied.isEmpty()) {
+			problems[position] = String.format("%s requires %s.", plugin.getMetadata(),
+					String.join(" and ", unsatisfied));
+		}
+
+		return Arrays.copyOf(result, count);
+	}
+
+	/**
+	 * Computes the topological rank of all plugins using Kahn's algorithm, ranking independent plugins in registry
+	 * order. Plugins that cannot be ranked are part of or depend on a cycle and get a problem recorded.
+	 *
+	 * @param dependencies must not be {@literal null}.
+	 * @param problems must not be {@literal null}.
+	 * @return
+	 */
+	private int[] sort(int[][] dependencies, String[] problems) {
+
+		int size = dependencies.length;
+		int[] pending = new int[size];
+		List<List<Integer>> dependents = new ArrayList<>(size);
+
+		for (int i = 0; i < size; i++) {
+			dependents.add(new ArrayList<>());
+		}
+
+		for (int i = 0; i < size; i++) {
+
+			pending[i] = dependencies[i].length;
+
+			for (int dependency : dependencies[i]) {
+				dependents.get(dependency).add(i);
+			}
+		}
+
+		PriorityQueue<Integer> ready = new PriorityQueue<>();
+		int[] ranks = new int[size];
+		int rank = 0;
+
+		for (int i = 0; i < size; i++) {
+			if (pending[i] == 0) {
+				ready.add(i);
+			}
+		}
+
+		while (!ready.isEmpty()) {
+
+			int current = ready.poll();
+			ranks[current] = rank++;
+
+			for (int dependent : dependents.get(current)) {
+				if (--pending[dependent] == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+
+		for (int i = 0; i < size; i++) {
+
+			if (pending[i] == 0) {
+				continue;
+			}
+
+			ranks[i] = Integer.MAX_VALUE;
+
+			if (problems[i] == null) {
+				problems[i] = String.format("%s is part of or depends on the dependency cycle %s.",
+						plugins.get(i).getMetadata(), describeCycle(i, pending));
+			}
+		}
+
+		return ranks;
+	}
+
+	/**
+	 * Follows the unranked dependencies of the plugin at the given position until a plugin is visited twice.
+	 *
+	 * @param position
+	 * @param pending must not be {@literal null}.
+	 * @return
+	 */
+	private String describeCycle(int position, int[] pending) {
+
+		List<Integer> path = new ArrayList<>();
+		int current = position;
+
+		while (!path.contains(current)) {
+
+			path.add(current);
+
+			for (int dependency : dependencies[current]) {
+				if (pending[dependency] > 0) {
+					current = dependency;
+					break;
+				}
+			}
+		}
+
+		return path.subList(path.indexOf(current), path.size()).stream() //
+				.map(it -> plugins.get(it).getMetadata().toString()) //
+				.collect(Collectors.joining(" -> ", "", " -> " + plugins.get(current).getMetadata()));
+	}
+
+	/**
+	 * Assigns all plugins the id of their weakly connected component in the dependency graph.
+	 *
+	 * @param dependencies must not be {@literal null}.
+	 * @return
+	 */
+	private static int[] connect(int[][] dependencies) {
+
+		int[] parents = IntStream.range(0, dependencies.length).toArray();
+
+		for (int i = 0; i < dependencies.length; i++) {
+			for (int dependency : dependencies[i]) {
+				parents[find(parents, i)] = find(parents, dependency);
+			}
+		}
+
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = find(parents, i);
+		}
+
+		return parents;
+	}
+
+	private static int find(int[] parents, int position) {
+
+		while (parents[position] != position) {
+			parents[position] = parents[parents[position]];
+			position = parents[position];
+		}
+
+		return position;
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Describes a plugin listed in a {@link PluginCatalog}, i.e. its {@link PluginMetadata}, capabilities and the name of
+ * its implementation class, so that it can be selected without loading the implementation class.
+ *
+ * @author agent
+ * @since 2.0
+ * @see PluginCatalog
+ */
+public final class PluginDescriptor implements MetadataProvider {
+
+	private final PluginMetadata metadata;
+	private final String implementationClassName;
+	private final Set<String> capabilities;
+
+	private PluginDescriptor(String name, String version, String implementationClassName,
+			Collection<String> capabilities) {
+
+		Assert.hasText(implementationClassName, "Implementation class name must not be null or empty!");
+		Assert.notNull(capabilities, "Capabilities must not be null!");
+
+		this.metadata = SimplePluginMetadata.of(name, version);
+		this.implementationClassName = implementationClassName;
+		this.capabilities = Collections.unmodifiableSet(new LinkedHashSet<>(capabilities));
+	}
+
+	/**
+	 * Creates a new {@link PluginDescriptor} for the given name, version, implementation class name and capabilities.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param version must not be {@literal null} or empty.
+	 * @param implementationClassName must not be {@literal null} or empty.
+	 * @param capabilities must not be {@literal null}.
+	 * @return
+	 */
+	public static PluginDescriptor of(String name, String version, String implementationClassName,
+			String... capabilities) {
+
+		Assert.notNull(capabilities, "Capabilities must not be null!");
+
+		return new PluginDescriptor(name, version, implementationClassName, Arrays.asList(capabilities));
+	}
+
+	/**
+	 * Parses a {@link PluginDescriptor} from the given implementation class name and descriptor value of the format
+	 * {@code $name:$version[:$capability,$capability...]}.
+	 *
+	 * @param implementationClassName must not be {@literal null} or empty.
+	 * @param value must not be {@literal null} or empty.
+	 * @return
+	 * @throws IllegalArgumentException in case the value is not a valid descriptor.
+	 */
+	static PluginDescriptor parse(String implementationClassName, String value) {
+
+		Assert.hasText(value, "Descriptor must not be null or empty!");
+
+		String[] parts = value.split(":", 3);
+
+		Assert.isTrue(parts.length >= 2,
+				() -> String.format("Invalid descriptor %s for %s! Expected name:version[:capabilities].", value,
+						implementationClassName));
+
+		Collection<String> capabilities = parts.length == 3 //
+				? StringUtils.commaDelimitedListToSet(parts[2].replace(" ", "")) //
+				: Collections.emptySet();
+
+		return new PluginDescriptor(parts[0].trim(), parts[1].trim(), implementationClassName.trim(), capabilities);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.metadata.MetadataProvider#getMetadata()
+	 */
+	@Override
+	public PluginMetadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * Returns the fully qualified name of the plugin's implementation class.
+	 *
+	 * @return
+	 */
+	public String getImplementationClassName() {
+		return implementationClassName;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.metadata.MetadataProvider#getCapabilities()
+	 */
+	@Override
+	public Set<String> getCapabilities() {
+		return capabilities;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof PluginDescriptor)) {
+			return false;
+		}
+
+		PluginDescriptor that = (PluginDescriptor) obj;
+
+		return this.metadata.equals(that.metadata) //
+				&& this.implementationClassName.equals(that.implementationClassName) //
+				&& this.capabilities.equals(that.capabilities);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		int result = metadata.hashCode();
+		result = 31 * result + implementationClassName.hashCode();
+
+		return 31 * result + capabilities.hashCode();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%s (%s) %s", metadata, implementationClassName, capabilities);
+	}
+}
@@ -16,6 +16,10 @@
 
 package org.springframework.plugin.metadata;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Basic interface to define a set of metadata information for plugins.
  * 
@@ -36,4 +40,35 @@ public interface PluginMetadata {
 	 * @return the version of the plugin
 	 */
 	String getVersion();
+
+	/**
+	 * Returns the plugin version parsed into a {@link Version} to allow comparisons between versions. Implementations
+	 * should cache the parsed instance.
+	 *
+	 * @return the parsed version of the plugin
+	 * @since 2.0
+	 */
+	default Version getParsedVersion() {
+		return Version.parse(getVersion());
+	}
+
+	/**
+	 * Returns the capabilities of the plugin, e.g. {@code streaming}. Defaults to no capabilities.
+	 *
+	 * @return the capabilities of the plugin, never {@literal null}.
+	 * @since 2.0
+	 */
+	default Set<String> getCapabilities() {
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Returns the other plugins the plugin depends on. Defaults to no dependencies.
+	 *
+	 * @return the dependencies of the plugin, never {@literal null}.
+	 * @since 2.0
+	 */
+	default List<PluginDependency> getDependencies() {
+		return Collections.emptyList();
+	}
 }
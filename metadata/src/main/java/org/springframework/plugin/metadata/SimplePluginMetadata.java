@@ -21,7 +21,8 @@ import static org.springframework.util.ObjectUtils.*;
 import org.springframework.util.Assert;
 
 /**
- * Value object style implementation of {@code PluginMetadata}.
+ * Value object style implementation of {@code PluginMetadata}. Prefer {@link #of(String, String)} to obtain canonical
+ * instances that can be compared by identity.
  * 
  * @author Oliver Gierke
  */
@@ -29,6 +30,8 @@ public class SimplePluginMetadata implements PluginMetadata {
 
 	private final String name;
 	private final String version;
+	private final Version parsedVersion;
+	private final int hash;
 
 	/**
 	 * Creates a new instance of {@code SimplePluginMetadata}.
@@ -43,6 +46,25 @@ public class SimplePluginMetadata implements PluginMetadata {
 
 		this.name = name;
 		this.version = version;
+		this.parsedVersion = Version.parse(version);
+		this.hash = hash(name, version);
+	}
+
+	/**
+	 * Returns the canonical {@link SimplePluginMetadata} for the given name and version. Subsequent calls with the same
+	 * name and version return the same instance as long as it's still referenced elsewhere, without allocating.
+	 *
+	 * @param name must not be {@literal null} or empty.
+	 * @param version must not be {@literal null} or empty.
+	 * @return
+	 * @since 2.0
+	 */
+	public static SimplePluginMetadata of(String name, String version) {
+
+		Assert.hasText(name, "Name must not be null or empty!");
+		Assert.hasText(version, "Version must not be null or empty!");
+
+		return MetadataInterner.INSTANCE.intern(name, version);
 	}
 
 	/*
@@ -61,6 +83,15 @@ public class SimplePluginMetadata implements PluginMetadata {
 		return version;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.plugin.metadata.PluginMetadata#getParsedVersion()
+	 */
+	@Override
+	public Version getParsedVersion() {
+		return parsedVersion;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see java.lang.Object#toString()
@@ -85,6 +116,10 @@ public class SimplePluginMetadata implements PluginMetadata {
 			return false;
 		}
 
+		if (obj instanceof SimplePluginMetadata && this.hash != ((SimplePluginMetadata) obj).hash) {
+			return false;
+		}
+
 		PluginMetadata that = (PluginMetadata) obj;
 
 		boolean sameName = nullSafeEquals(this.getName(), that.getName());
@@ -99,6 +134,26 @@ public class SimplePluginMetadata implements PluginMetadata {
 	 */
 	@Override
 	public int hashCode() {
-		return nullSafeHashCode(name) + nullSafeHashCode(version);
+		return hash;
+	}
+
+	/**
+	 * Combines the hash codes of name and version in an order dependent way and mixes the bits of the result (using the
+	 * MurmurHash3 finalizer) to spread similar names and versions across hash buckets.
+	 *
+	 * @param name can be {@literal null}.
+	 * @param version can be {@literal null}.
+	 * @return
+	 */
+	private static int hash(String name, String version) {
+
+		int hash = 31 * nullSafeHashCode(name) + nullSafeHashCode(version);
+
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+
+		return hash ^ (hash >>> 16);
 	}
 }
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.Locale;
+
+import org.springframework.util.Assert;
+
+/**
+ * A version of a plugin parsed into its major, minor and patch components and an optional qualifier. Well-known
+ * qualifiers are ranked so that {@code 1.0.0.BUILD-SNAPSHOT < 1.0.0-alpha < 1.0.0-beta < 1.0.0.M1 < 1.0.0.RC1 < 1.0.0
+ * < 1.0.0.SR1}. {@code RELEASE}, {@code GA} and {@code FINAL} are considered to be the same as no qualifier at all and
+ * missing components default to {@code 0}, i.e. {@code 1.0} equals {@code 1.0.0.RELEASE}. Unknown qualifiers, e.g.
+ * {@code dev} or {@code preview}, are considered pre-releases ranking right above snapshots and are compared
+ * alphabetically, i.e. {@code 1.0.0.BUILD-SNAPSHOT < 1.0.0-dev < 1.0.0-preview < 1.0.0-alpha}. A qualifier suffixed with {@code SNAPSHOT} ranks right below the
+ * qualifier itself, i.e. {@code 1.0.0.M1 < 1.0.0.RC1-SNAPSHOT < 1.0.0.RC1}.
+ * <p>
+ * Instances are immutable and compare without allocating.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public final class Version implements Comparable<Version> {
+
+	private static final int SNAPSHOT = 0, OTHER = 1, ALPHA = 2, BETA = 3, MILESTONE = 4, RELEASE_CANDIDATE = 5,
+			RELEASE = 6, SERVICE_RELEASE = 7;
+
+	private final String source;
+	private final int major, minor, patch;
+	private final int qualifierRank, qualifierNumber;
+	private final boolean snapshot;
+	private final String qualifier;
+	private final int hash;
+
+	private Version(String source, int major, int minor, int patch, int qualifierRank, int qualifierNumber,
+			boolean snapshot, String qualifier) {
+
+		this.source = source;
+		this.major = major;
+		this.minor = minor;
+		this.patch = patch;
+		this.qualifierRank = qualifierRank;
+		this.qualifierNumber = qualifierNumber;
+		this.snapshot = snapshot;
+		this.qualifier = qualifier;
+
+		int hash = major;
+		hash = 31 * hash + minor;
+		hash = 31 * hash + patch;
+		hash = 31 * hash + qualifierRank;
+		hash = 31 * hash + qualifierNumber;
+		hash = 31 * hash + (snapshot ? 1 : 0);
+
+		this.hash = 31 * hash + (qualifier == null ? 0 : qualifier.hashCode());
+	}
+
+	/**
+	 * Parses the given version {@link String}. Versions not starting with a number are considered to be a qualifier of
+	 * version {@code 0.0.0}.
+	 *
+	 * @param version must not be {@literal null} or empty.
+	 * @return
+	 */
+	public static Version parse(String version) {
+
+		Assert.hasText(version, "Version must not be null or empty!");
+
+		String source = version.trim();
+		int[] components = new int[3];
+		int position = 0;
+
+		for (int i = 0; i < components.length; i++) {
+
+			int start = position;
+			long value = 0;
+
+			while (position < source.length() && Character.isDigit(source.charAt(position))) {
+				value = Math.min(value * 10 + source.charAt(position++) - '0', Integer.MAX_VALUE);
+			}
+
+			if (position == start) {
+				break;
+			}
+
+			components[i] = (int) value;
+
+			// Only consume the separator if followed by another numeric component
+			if (i < components.length - 1 && position + 1 < source.length() && source.charAt(position) == '.'
+					&& Character.isDigit(source.charAt(position + 1))) {
+				position++;
+			} else {
+				break;
+			}
+		}
+
+		if (position < source.length() && (source.charAt(position) == '.' || source.charAt(position) == '-')) {
+			position++;
+		}
+
+		String qualifier = source.substring(position).toUpperCase(Locale.ENGLISH);
+		boolean snapshot = false;
+
+		// Rank qualifiers like RC1-SNAPSHOT by their base qualifier, plain SNAPSHOTs below all others
+		if (qualifier.endsWith("SNAPSHOT")) {
+
+			int base = qualifier.length() - "SNAPSHOT".length();
+
+			if (base > 0 && (qualifier.charAt(base - 1) == '-' || qualifier.charAt(base - 1) == '.')) {
+				base--;
+			}
+
+			if (base > 0 && !qualifier.startsWith("BUILD")) {
+				qualifier = qualifier.substring(0, base);
+				snapshot = true;
+			}
+		}
+
+		int number = 0, end = qualifier.length();
+
+		while (end > 0 && Character.isDigit(qualifier.charAt(end - 1))) {
+			end--;
+		}
+
+		if (end < qualifier.length() && qualifier.length() - end < 10) {
+			number = Integer.parseInt(qualifier.substring(end));
+		}
+
+		String prefix = qualifier.substring(0, end);
+		int rank = rank(qualifier, prefix);
+
+		return new Version(source, components[0], components[1], components[2], rank, rank == OTHER ? 0 : number,
+				snapshot, rank == OTHER ? qualifier : null);
+	}
+
+	/**
+	 * Returns the major version.
+	 *
+	 * @return
+	 */
+	public int getMajor() {
+		return major;
+	}
+
+	/**
+	 * Returns the minor version.
+	 *
+	 * @return
+	 */
+	public int getMinor() {
+		return minor;
+	}
+
+	/**
+	 * Returns the patch version.
+	 *
+	 * @return
+	 */
+	public int getPatch() {
+		return patch;
+	}
+
+	/**
+	 * Returns whether the version is a release or service release, i.e. doesn't carry a pre-release or unknown
+	 * qualifier.
+	 *
+	 * @return
+	 */
+	public boolean isRelease() {
+		return (qualifierRank == RELEASE || qualifierRank == SERVICE_RELEASE) && !snapshot;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Comparable#compareTo(java.lang.Object)
+	 */
+	@Override
+	public int compareTo(Version that) {
+
+		int result = Integer.compare(this.major, that.major);
+
+		if (result != 0) {
+			return result;
+		}
+
+		if ((result = Integer.compare(this.minor, that.minor)) != 0) {
+			return result;
+		}
+
+		if ((result = Integer.compare(this.patch, that.patch)) != 0) {
+			return result;
+		}
+
+		if ((result = Integer.compare(this.qualifierRank, that.qualifierRank)) != 0) {
+			return result;
+		}
+
+		if ((result = Integer.compare(this.qualifierNumber, that.qualifierNumber)) != 0) {
+			return result;
+		}
+
+		if (qualifierRank == OTHER && (result = this.qualifier.compareTo(that.qualifier)) != 0) {
+			return result;
+		}
+
+		return Boolean.compare(that.snapshot, this.snapshot);
+	}
+
+	/**
+	 * Returns whether the current version is greater than the given one.
+	 *
+	 * @param version must not be {@literal null}.
+	 * @return
+	 */
+	public boolean isGreaterThan(Version version) {
+		return compareTo(version) > 0;
+	}
+
+	/**
+	 * Returns whether the current version is less than the given one.
+	 *
+	 * @param version must not be {@literal null}.
+	 * @return
+	 */
+	public boolean isLessThan(Version version) {
+		return compareTo(version) < 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof Version)) {
+			return false;
+		}
+
+		Version that = (Version) obj;
+
+		return this.hash == that.hash && compareTo(that) == 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	/**
+	 * Returns the {@link String} the version was parsed from.
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return source;
+	}
+
+	private static int rank(String qualifier, String prefix) {
+
+		if (qualifier.isEmpty() || qualifier.equals("RELEASE") || qualifier.equals("GA") || qualifier.equals("FINAL")) {
+			return RELEASE;
+		}
+
+		if (qualifier.endsWith("SNAPSHOT")) {
+			return SNAPSHOT;
+		}
+
+		switch (prefix) {
+			case "A":
+			case "ALPHA":
+			case "ALPHA-":
+			case "ALPHA.":
+				return ALPHA;
+			case "B":
+			case "BETA":
+			case "BETA-":
+			case "BETA.":
+				return BETA;
+			case "M":
+			case "MILESTONE":
+			case "MILESTONE-":
+			case "MILESTONE.":
+				return MILESTONE;
+			case "RC":
+			case "CR":
+			case "RC-":
+			case "RC.":
+				return RELEASE_CANDIDATE;
+			case "SR":
+			case "SR-":
+				return SERVICE_RELEASE;
+			default:
+				return OTHER;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * A range of plugin versions expressed in interval notation, e.g. {@code [1.2,2.0)} for all versions from 1.2
+ * (inclusive) to 2.0 (exclusive). Either bound can be omitted to express an unbounded range ({@code [1.2,)}). A plain
+ * version (e.g. {@code 1.2}) is considered to be the lower, inclusive bound of an otherwise unbounded range.
+ *
+ * @author agent
+ * @since 2.0
+ */
+public final class VersionRange {
+
+	/**
+	 * A {@link VersionRange} including all versions.
+	 */
+	public static final VersionRange UNBOUNDED = new VersionRange(null, false, null, false);
+
+	private final Version lower, upper;
+	private final boolean lowerInclusive, upperInclusive;
+
+	private VersionRange(Version lower, boolean lowerInclusive, Version upper, boolean upperInclusive) {
+
+		this.lower = lower;
+		this.lowerInclusive = lowerInclusive;
+		this.upper = upper;
+		this.upperInclusive = upperInclusive;
+	}
+
+	/**
+	 * Parses the given {@link String} into a {@link VersionRange}.
+	 *
+	 * @param range must not be {@literal null} or empty.
+	 * @return
+	 * @throws IllegalArgumentException in case the given {@link String} is not a valid range.
+	 */
+	public static VersionRange parse(String range) {
+
+		Assert.hasText(range, "Range must not be null or empty!");
+
+		String source = range.trim();
+		char first = source.charAt(0);
+		char last = source.charAt(source.length() - 1);
+
+		if (first != '[' && first != '(') {
+			return new VersionRange(Version.parse(source), true, null, false);
+		}
+
+		Assert.isTrue(last == ']' || last == ')', () -> String.format("Invalid version range %s!", range));
+
+		String[] bounds = StringUtils.delimitedListToStringArray(source.substring(1, source.length() - 1), ",");
+
+		Assert.isTrue(bounds.length == 2, () -> String.format("Invalid version range %s!", range));
+
+		Version lower = StringUtils.hasText(bounds[0]) ? Version.parse(bounds[0]) : null;
+		Version upper = StringUtils.hasText(bounds[1]) ? Version.parse(bounds[1]) : null;
+
+		if (lower != null && upper != null) {
+			Assert.isTrue(!lower.isGreaterThan(upper),
+					() -> String.format("Lower bound of version range %s must not be greater than the upper one!", range));
+		}
+
+		return new VersionRange(lower, lower != null && first == '[', upper, upper != null && last == ']');
+	}
+
+	/**
+	 * Returns whether the given version is included in the current range.
+	 *
+	 * @param version must not be {@literal null} or empty.
+	 * @return
+	 */
+	public boolean includes(String version) {
+		return includes(Version.parse(version));
+	}
+
+	/**
+	 * Returns whether the given {@link Version} is included in the current range.
+	 *
+	 * @param version must not be {@literal null}.
+	 * @return
+	 */
+	public boolean includes(Version version) {
+
+		Assert.notNull(version, "Version must not be null!");
+
+		return !isBelow(version) && !isAbove(version);
+	}
+
+	/**
+	 * Returns whether the given {@link Version} is lower than the lower bound of the range.
+	 *
+	 * @param version must not be {@literal null}.
+	 * @return
+	 */
+	boolean isBelow(Version version) {
+
+		if (lower == null) {
+			return false;
+		}
+
+		int result = version.compareTo(lower);
+
+		return lowerInclusive ? result < 0 : result <= 0;
+	}
+
+	/**
+	 * Returns whether the given {@link Version} is greater than the upper bound of the range.
+	 *
+	 * @param version must not be {@literal null}.
+	 * @return
+	 */
+	boolean isAbove(Version version) {
+
+		if (upper == null) {
+			return false;
+		}
+
+		int result = version.compareTo(upper);
+
+		return upperInclusive ? result > 0 : result >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+
+		if (!(obj instanceof VersionRange)) {
+			return false;
+		}
+
+		VersionRange that = (VersionRange) obj;
+
+		return ObjectUtils.nullSafeEquals(this.lower, that.lower) //
+				&& ObjectUtils.nullSafeEquals(this.upper, that.upper) //
+				&& this.lowerInclusive == that.lowerInclusive //
+				&& this.upperInclusive == that.upperInclusive;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+
+		int result = ObjectUtils.nullSafeHashCode(lower);
+		result = 31 * result + ObjectUtils.nullSafeHashCode(upper);
+		result = 31 * result + (lowerInclusive ? 1 : 0);
+
+		return 31 * result + (upperInclusive ? 1 : 0);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+
+		return String.format("%s%s,%s%s", lowerInclusive ? '[' : '(', lower == null ? "" : lower,
+				upper == null ? "" : upper, upperInclusive ? ']' : ')');
+	}
+}
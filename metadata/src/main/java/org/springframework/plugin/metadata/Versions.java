@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * The elements registered for a particular plugin name, by version. Keeps the exact version {@link String}s for hash
+ * lookups and the parsed {@link Version}s in ascending order for lookups by {@link VersionRange}.
+ *
+ * @author agent
+ * @since 2.0
+ */
+class Versions<T> {
+
+	private final Map<String, List<T>> exact;
+	private final Version[] versions;
+	private final List<List<T>> elements;
+	private final List<T> all;
+
+	/**
+	 * Creates a new {@link Versions} instance from the given elements by version.
+	 *
+	 * @param source must not be {@literal null}.
+	 * @param version the function to obtain the parsed {@link Version} of an element, must not be {@literal null}.
+	 */
+	Versions(Map<String, List<T>> source, Function<? super T, Version> version) {
+
+		// Versions considered equal (e.g. 1.0 and 1.0.0) are ordered by their String representation
+		Map<Version, List<T>> sorted = new TreeMap<>(
+				Comparator.<Version> naturalOrder().thenComparing(Version::toString));
+
+		this.exact = new HashMap<>(source.size() * 2);
+
+		source.forEach((key, it) -> {
+
+			List<T> elements = Collections.unmodifiableList(new ArrayList<>(it));
+
+			this.exact.put(key, elements);
+			sorted.merge(version.apply(it.get(0)), elements, (left, right) -> {
+
+				List<T> merged = new ArrayList<>(left);
+				merged.addAll(right);
+
+				return Collections.unmodifiableList(merged);
+			});
+		});
+
+		this.versions = new Version[sorted.size()];
+		this.elements = new ArrayList<>(sorted.size());
+
+		List<T> all = new ArrayList<>();
+		int i = 0;
+
+		for (Map.Entry<Version, List<T>> entry : sorted.entrySet()) {
+
+			this.versions[i++] = entry.getKey();
+			this.elements.add(entry.getValue());
+
+			all.addAll(entry.getValue());
+		}
+
+		this.all = Collections.unmodifiableList(all);
+	}
+
+	/**
+	 * Returns the elements registered for exactly the given version {@link String}.
+	 *
+	 * @param version can be {@literal null}.
+	 * @return will never be {@literal null}.
+	 */
+	List<T> getExact(String version) {
+		return exact.getOrDefault(version, Collections.emptyList());
+	}
+
+	/**
+	 * Returns all elements ordered by ascending version.
+	 *
+	 * @return will never be {@literal null}.
+	 */
+	List<T> getAll() {
+		return all;
+	}
+
+	/**
+	 * Returns the first element with the highest version included in the given {@link VersionRange}.
+	 *
+	 * @param range must not be {@literal null}.
+	 * @return the element or {@literal null} if no version is included in the range.
+	 */
+	T getHighest(VersionRange range) {
+
+		int position = getUpperPosition(range);
+
+		return position < 0 || range.isBelow(versions[position]) ? null : elements.get(position).get(0);
+	}
+
+	/**
+	 * Returns all elements with a version included in the given {@link VersionRange} ordered by ascending version.
+	 *
+	 * @param range must not be {@literal null}.
+	 * @return will never be {@literal null}.
+	 */
+	List<T> get(VersionRange range) {
+
+		int upper = getUpperPosition(range);
+		int lower = getLowerPosition(range);
+
+		if (lower == 0 && upper == versions.length - 1) {
+			return all;
+		}
+
+		List<T> result = new ArrayList<>();
+
+		for (int i = lower; i <= upper; i++) {
+			result.addAll(elements.get(i));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Returns the position of the highest version not above the given {@link VersionRange}.
+	 *
+	 * @param range must not be {@literal null}.
+	 * @return the position or {@literal -1} if all versions are above the range.
+	 */
+	private int getUpperPosition(VersionRange range) {
+
+		int low = 0, high = versions.length - 1;
+
+		while (low <= high) {
+
+			int middle = (low + high) >>> 1;
+
+			if (range.isAbove(versions[middle])) {
+				high = middle - 1;
+			} else {
+				low = middle + 1;
+			}
+		}
+
+		return high;
+	}
+
+	/**
+	 * Returns the position of the lowest version not below the given {@link VersionRange}.
+	 *
+	 * @param range must not be {@literal null}.
+	 * @return the position or the number of versions if all versions are below the range.
+	 */
+	private int getLowerPosition(VersionRange range) {
+
+		int low = 0, high = versions.length - 1;
+
+		while (low <= high) {
+
+			int middle = (low + high) >>> 1;
+
+			if (range.isBelow(versions[middle])) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return low;
+	}
+}
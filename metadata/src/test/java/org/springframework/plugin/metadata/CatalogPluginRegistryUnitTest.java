@@ -0,0 +1,187 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests for {@link CatalogPluginRegistry} and {@link PluginCatalog}.
+ *
+ * @author agent
+ */
+public class CatalogPluginRegistryUnitTest {
+
+	@Rule public TemporaryFolder folder = new TemporaryFolder();
+
+	PluginCatalog catalog = PluginCatalog.load(getClass().getClassLoader());
+	CatalogPluginRegistry<RendererPlugin> registry = CatalogPluginRegistry.from(catalog, RendererPlugin.class);
+
+	@Test
+	public void readsDescriptorsWithoutLoadingClasses() {
+
+		assertThat(catalog.size(), is(3));
+		assertThat(catalog.getDescriptors().get(0), is(PluginDescriptor.of("missing", "1.0", "com.acme.Missing", "streaming")));
+		assertThat(catalog.getDescriptors().get(2).getCapabilities(), contains("streaming", "gpu-free"));
+	}
+
+	@Test
+	public void instantiatesOnlySelectedPlugin() {
+
+		PluginDescriptor oneOh = catalog.getDescriptors().get(1);
+		PluginDescriptor twoOh = catalog.getDescriptors().get(2);
+
+		assertThat(registry.countPlugins(), is(3));
+		assertThat(registry.hasPluginFor(SimplePluginMetadata.of("missing", "1.0")), is(true));
+		assertThat(registry.isInstantiated(oneOh), is(false));
+
+		Optional<RendererPlugin> plugin = registry.getPluginFor(SimplePluginMetadata.of("renderer", "1.0"));
+
+		assertThat(plugin.map(Object::getClass), is(Optional.of(RendererOneOh.class)));
+		assertThat(registry.getPluginFor(SimplePluginMetadata.of("renderer", "1.0")), is(plugin));
+		assertThat(registry.isInstantiated(oneOh), is(true));
+		assertThat(registry.isInstantiated(twoOh), is(false));
+	}
+
+	@Test
+	public void looksUpLatestVersionAndCapabilities() {
+
+		assertThat(registry.getLatest("renderer").map(Object::getClass), is(Optional.of(RendererTwoOh.class)));
+		assertThat(registry.getHighest("renderer", VersionRange.parse("[1.0,2.0)")).map(Object::getClass),
+				is(Optional.of(RendererOneOh.class)));
+		assertThat(registry.getPlugins(CapabilityQuery.allOf("gpu-free")), contains(instanceOf(RendererTwoOh.class)));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void rejectsMissingPluginClassOnSelection() {
+		registry.getPluginFor(SimplePluginMetadata.of("missing", "1.0"));
+	}
+
+	@Test
+	public void roundTripsCatalogThroughIndexFile() throws Exception {
+
+		Path index = folder.getRoot().toPath().resolve("plugins.idx");
+
+		PluginCatalog written = PluginCatalog.load(getClass().getClassLoader(), index);
+
+		assertThat(Files.exists(index), is(true));
+		assertThat(PluginCatalog.read(index).map(PluginCatalog::getDescriptors), is(Optional.of(written.getDescriptors())));
+		assertThat(PluginCatalog.load(getClass().getClassLoader(), index).getDescriptors(), is(catalog.getDescriptors()));
+	}
+
+	@Test
+	public void discardsCorruptIndexFile() throws Exception {
+
+		Path index = folder.newFile().toPath();
+		Files.write(index, new byte[] { 1, 2, 3 });
+
+		assertThat(PluginCatalog.read(index), is(Optional.empty()));
+		assertThat(PluginCatalog.load(getClass().getClassLoader(), index).size(), is(3));
+	}
+
+	@Test
+	public void rebuildsIndexFileIfDescriptorChanges() throws Exception {
+
+		Path root = folder.newFolder().toPath();
+		Path descriptors = root.resolve(PluginCatalog.DESCRIPTOR_LOCATION);
+		Path index = folder.getRoot().toPath().resolve("changing.idx");
+
+		Files.createDirectories(descriptors.getParent());
+		Files.write(descriptors, "com.acme.First=first:1.0".getBytes(StandardCharsets.ISO_8859_1));
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { root.toUri().toURL() }, null)) {
+
+			assertThat(PluginCatalog.load(classLoader, index).getDescriptors().get(0).getMetadata().getName(),
+					is("first"));
+
+			// Same size, different content, written later
+			FileTime modified = Files.getLastModifiedTime(descriptors);
+			Files.write(descriptors, "com.acme.Other=other:1.0".getBytes(StandardCharsets.ISO_8859_1));
+			Files.setLastModifiedTime(descriptors, FileTime.fromMillis(modified.toMillis() + 2000));
+
+			assertThat(PluginCatalog.load(classLoader, index).getDescriptors().get(0).getMetadata().getName(),
+					is("other"));
+			assertThat(PluginCatalog.read(index).map(it -> it.getDescriptors().get(0).getMetadata().getName()),
+					is(Optional.of("other")));
+		}
+	}
+
+	@Test
+	public void rebuildsIndexFileIfJarContainingDescriptorChanges() throws Exception {
+
+		Path jar = folder.getRoot().toPath().resolve("plugins.jar");
+		Path index = folder.getRoot().toPath().resolve("jar.idx");
+
+		writeJar(jar, "com.acme.First=first:1.0");
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+
+			assertThat(PluginCatalog.load(classLoader, index).getDescriptors().get(0).getMetadata().getName(),
+					is("first"));
+			assertThat(PluginCatalog.read(index).isPresent(), is(true));
+		}
+
+		FileTime modified = Files.getLastModifiedTime(jar);
+		writeJar(jar, "com.acme.Second=second:1.0");
+		Files.setLastModifiedTime(jar, FileTime.fromMillis(modified.toMillis() + 2000));
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+
+			assertThat(PluginCatalog.load(classLoader, index).getDescriptors().get(0).getMetadata().getName(),
+					is("second"));
+		}
+	}
+
+	private static void writeJar(Path jar, String descriptors) throws Exception {
+
+		try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+
+			out.putNextEntry(new JarEntry(PluginCatalog.DESCRIPTOR_LOCATION));
+			out.write(descriptors.getBytes(StandardCharsets.ISO_8859_1));
+			out.closeEntry();
+		}
+	}
+
+	interface RendererPlugin extends MetadataProvider, org.springframework.plugin.core.Plugin<PluginMetadata> {}
+
+	static class RendererOneOh extends AbstractMetadataBasedPlugin implements RendererPlugin {
+
+		public RendererOneOh() {
+			super("renderer", "1.0");
+		}
+	}
+
+	static class RendererTwoOh extends AbstractMetadataBasedPlugin implements RendererPlugin {
+
+		public RendererTwoOh() {
+			super("renderer", "2.0", "streaming", "gpu-free");
+		}
+	}
+}
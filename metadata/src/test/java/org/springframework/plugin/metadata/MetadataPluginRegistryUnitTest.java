@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link MetadataPluginRegistry}.
+ *
+ * @author agent
+ */
+public class MetadataPluginRegistryUnitTest {
+
+	SamplePlugin fooOneOh = new SamplePlugin("foo", "1.0");
+	SamplePlugin fooOneTwo = new SamplePlugin("foo", "1.2");
+	SamplePlugin fooOneTen = new SamplePlugin("foo", "1.10");
+	SamplePlugin fooTwoOhRc = new SamplePlugin("foo", "2.0-RC1");
+	SamplePlugin fooTwoOh = new SamplePlugin("foo", "2.0");
+	SamplePlugin barOneOh = new SamplePlugin("bar", "1.0");
+
+	MetadataPluginRegistry<SamplePlugin> registry = MetadataPluginRegistry
+			.from(Arrays.asList(fooTwoOh, fooOneTen, barOneOh, fooOneOh, fooTwoOhRc, fooOneTwo));
+
+	@Test
+	public void looksUpPluginsByExactMetadata() {
+
+		assertThat(registry.getPluginFor(new SimplePluginMetadata("foo", "1.2")), is(Optional.of(fooOneTwo)));
+		assertThat(registry.getPluginsFor(new SimplePluginMetadata("bar", "1.0")), contains(barOneOh));
+		assertThat(registry.getPluginFor(new SimplePluginMetadata("bar", "2.0")), is(Optional.empty()));
+		assertThat(registry.getPluginsFor(new SimplePluginMetadata("baz", "1.0")), is(empty()));
+	}
+
+	@Test
+	public void looksUpLatestVersion() {
+
+		assertThat(registry.getLatest("foo"), is(Optional.of(fooTwoOh)));
+		assertThat(registry.getLatest("bar"), is(Optional.of(barOneOh)));
+		assertThat(registry.getLatest("baz"), is(Optional.empty()));
+	}
+
+	@Test
+	public void looksUpHighestVersionInRange() {
+
+		assertThat(registry.getHighest("foo", VersionRange.parse("[1.2,2.0)")), is(Optional.of(fooTwoOhRc)));
+		assertThat(registry.getHighest("foo", VersionRange.parse("[1.2,2.0-RC1)")), is(Optional.of(fooOneTen)));
+		assertThat(registry.getHighest("foo", VersionRange.parse("[1.0,1.2]")), is(Optional.of(fooOneTwo)));
+		assertThat(registry.getHighest("foo", VersionRange.parse("(1.0,1.2)")), is(Optional.empty()));
+		assertThat(registry.getHighest("foo", VersionRange.parse("1.5")), is(Optional.of(fooTwoOh)));
+		assertThat(registry.getHighest("foo", VersionRange.parse("[3.0,)")), is(Optional.empty()));
+		assertThat(registry.getHighest("foo", VersionRange.parse("(,0.9]")), is(Optional.empty()));
+	}
+
+	@Test
+	public void prefersReleaseOverUnknownQualifierOfSameVersion() {
+
+		SamplePlugin preview = new SamplePlugin("foo", "1.0.0-preview");
+		SamplePlugin release = new SamplePlugin("foo", "1.0.0");
+
+		MetadataPluginRegistry<SamplePlugin> registry = MetadataPluginRegistry.from(Arrays.asList(preview, release));
+
+		assertThat(registry.getLatest("foo"), is(Optional.of(release)));
+		assertThat(registry.getHighest("foo", VersionRange.parse("[0.9,1.0.0)")), is(Optional.of(preview)));
+	}
+
+	@Test
+	public void returnsAllVersionsInAscendingOrder() {
+
+		assertThat(registry.getAllVersions("foo"), contains(fooOneOh, fooOneTwo, fooOneTen, fooTwoOhRc, fooTwoOh));
+		assertThat(registry.getPlugins("foo", VersionRange.parse("(1.0,2.0)")), contains(fooOneTwo, fooOneTen, fooTwoOhRc));
+		assertThat(registry.getPlugins("foo", VersionRange.UNBOUNDED), is(registry.getAllVersions("foo")));
+		assertThat(registry.getAllVersions("baz"), is(empty()));
+	}
+
+	@Test
+	public void returnsPluginsWithSameMetadataInRegistryOrder() {
+
+		SamplePlugin first = new SamplePlugin("foo", "1.0");
+		SamplePlugin second = new SamplePlugin("foo", "1.0");
+
+		MetadataPluginRegistry<SamplePlugin> registry = MetadataPluginRegistry.from(Arrays.asList(first, second));
+
+		assertThat(registry.getPluginsFor(new SimplePluginMetadata("foo", "1.0")), contains(first, second));
+		assertThat(registry.getLatest("foo"), is(Optional.of(first)));
+	}
+
+	@Test
+	public void parsesVersionRanges() {
+
+		VersionRange range = VersionRange.parse("[1.2,2.0)");
+
+		assertThat(range.includes("1.2"), is(true));
+		assertThat(range.includes("1.2.0"), is(true));
+		assertThat(range.includes("1.10"), is(true));
+		assertThat(range.includes("2.0-SNAPSHOT"), is(true));
+		assertThat(range.includes("2.0"), is(false));
+		assertThat(range.includes("1.1"), is(false));
+		assertThat(range.toString(), is("[1.2,2.0)"));
+		assertThat(VersionRange.parse(" [1.2, 2.0) "), is(range));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsInvalidVersionRange() {
+		VersionRange.parse("[2.0,1.0]");
+	}
+
+	@Test
+	public void selectsPluginsByCapabilities() {
+
+		SamplePlugin first = new SamplePlugin("first", "1.0", "streaming", "gpu-free");
+		SamplePlugin second = new SamplePlugin("second", "1.0", "streaming", "tenant-A");
+		SamplePlugin third = new SamplePlugin("third", "1.0", "streaming", "gpu-free", "tenant-A");
+		SamplePlugin fourth = new SamplePlugin("fourth", "1.0");
+
+		MetadataPluginRegistry<SamplePlugin> registry = MetadataPluginRegistry
+				.from(Arrays.asList(first, second, third, fourth));
+
+		assertThat(registry.getPlugins(CapabilityQuery.allOf("streaming", "gpu-free").andNoneOf("tenant-A")),
+				contains(first));
+		assertThat(registry.getPlugins(CapabilityQuery.allOf("streaming")), contains(first, second, third));
+		assertThat(registry.getPlugins(CapabilityQuery.anyOf("tenant-A", "gpu-free")), contains(first, second, third));
+		assertThat(registry.getPlugins(CapabilityQuery.noneOf("streaming")), contains(fourth));
+		assertThat(registry.getPlugins(CapabilityQuery.allOf("unknown")), is(empty()));
+		assertThat(registry.getPlugins(CapabilityQuery.allOf()), contains(first, second, third, fourth));
+		assertThat(registry.getPluginFor(CapabilityQuery.allOf("tenant-A")), is(Optional.of(second)));
+		assertThat(registry.getPluginFor(CapabilityQuery.anyOf("unknown")), is(Optional.empty()));
+	}
+
+	@Test
+	public void combinesMultipleAnyOfCapabilityGroups() {
+
+		SamplePlugin first = new SamplePlugin("first", "1.0", "streaming", "gpu-free");
+		SamplePlugin second = new SamplePlugin("second", "1.0", "batch", "tenant-A");
+		SamplePlugin third = new SamplePlugin("third", "1.0", "streaming", "tenant-B");
+
+		MetadataPluginRegistry<SamplePlugin> registry = MetadataPluginRegistry
+				.from(Arrays.asList(first, second, third));
+
+		CapabilityQuery query = CapabilityQuery.anyOf("streaming", "batch").andAnyOf("tenant-A", "tenant-B");
+
+		assertThat(registry.getPlugins(query), contains(second, third));
+		assertThat(query.matches(new HashSet<>(Arrays.asList("streaming", "tenant-B"))), is(true));
+		assertThat(query.matches(Collections.singleton("streaming")), is(false));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyAnyOfCapabilities() {
+		CapabilityQuery.anyOf();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsEmptyAndAnyOfCapabilities() {
+		CapabilityQuery.allOf("streaming").andAnyOf();
+	}
+
+	@Test
+	public void capabilityQueryMatchesCapabilitySets() {
+
+		CapabilityQuery query = CapabilityQuery.allOf("a", "b").andNoneOf("c");
+
+		assertThat(query.matches(new HashSet<>(Arrays.asList("a", "b"))), is(true));
+		assertThat(query.matches(new HashSet<>(Arrays.asList("a", "b", "c"))), is(false));
+		assertThat(query.matches(Collections.singleton("a")), is(false));
+	}
+
+	static class SamplePlugin extends AbstractMetadataBasedPlugin {
+
+		SamplePlugin(String name, String version, String... capabilities) {
+			super(name, version, capabilities);
+		}
+	}
+}
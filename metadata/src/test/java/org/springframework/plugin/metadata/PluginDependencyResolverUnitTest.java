@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link PluginDependencyResolver}.
+ *
+ * @author agent
+ */
+public class PluginDependencyResolverUnitTest {
+
+	SamplePlugin coreOneOh = new SamplePlugin("core", "1.0");
+	SamplePlugin coreTwoOh = new SamplePlugin("core", "2.0");
+	SamplePlugin web = new SamplePlugin("web", "1.0", PluginDependency.of("core", "[1.0,2.0)"));
+	SamplePlugin security = new SamplePlugin("security", "1.0", PluginDependency.of("web"),
+			PluginDependency.of("core", "[1.0,3.0)"));
+	SamplePlugin standalone = new SamplePlugin("standalone", "1.0");
+
+	@Test
+	public void resolvesDependenciesBeforeDependents() {
+
+		PluginDependencyResolver<SamplePlugin> resolver = resolver(security, standalone, web, coreTwoOh, coreOneOh);
+
+		assertThat(resolver.resolve(Collections.singleton(web)), contains(coreOneOh, web));
+		assertThat(resolver.resolve(Arrays.asList(security, standalone)),
+				contains(standalone, coreTwoOh, coreOneOh, web, security));
+	}
+
+	@Test
+	public void memoizesResolutionPerRequestedSet() {
+
+		PluginDependencyResolver<SamplePlugin> resolver = resolver(security, web, coreOneOh, coreTwoOh);
+
+		List<SamplePlugin> first = resolver.resolve(Arrays.asList(security, web));
+
+		assertThat(resolver.resolve(Arrays.asList(web, security)), is(sameInstance(first)));
+	}
+
+	@Test
+	public void detectsMissingVersions() {
+
+		PluginDependencyResolver<SamplePlugin> resolver = resolver(web, coreTwoOh, standalone);
+
+		assertThat(resolver.getProblem(web).orElse(""), containsString("no matching version"));
+		assertThat(resolver.getProblem(coreTwoOh), is(Optional.empty()));
+		assertThat(resolver.resolveAll(), contains(coreTwoOh, standalone));
+
+		try {
+			resolver.resolve(Collections.singleton(web));
+			fail("Expected IllegalStateException!");
+		} catch (IllegalStateException o_O) {
+			assertThat(o_O.getMessage(), containsString("core [1.0,2.0)"));
+		}
+	}
+
+	@Test
+	public void reportsAllUnsatisfiedDependencies() {
+
+		SamplePlugin dependent = new SamplePlugin("dependent", "1.0", PluginDependency.of("core", "[3.0,4.0)"),
+				PluginDependency.of("missing"));
+
+		PluginDependencyResolver<SamplePlugin> resolver = resolver(dependent, coreTwoOh);
+
+		assertThat(resolver.getProblem(dependent).orElse(""),
+				allOf(containsString("core [3.0,4.0) but no matching version"), containsString("no such plugin")));
+	}
+
+	@Test
+	public void detectsCycles() {
+
+		SamplePlugin first = new SamplePlugin("first", "1.0", PluginDependency.of("second"));
+		SamplePlugin second = new SamplePlugin("second", "1.0", PluginDependency.of("first"));
+		SamplePlugin dependent = new SamplePlugin("dependent", "1.0", PluginDependency.of("first"));
+
+		PluginDependencyResolver<SamplePlugin> resolver = resolver(first, second, dependent, standalone);
+
+		assertThat(resolver.getProblem(dependent).orElse(""), containsString("first:1.0 -> second:1.0 -> first:1.0"));
+		assertThat(resolver.resolveAll(), contains(standalone));
+
+		try {
+			resolver.resolve(Collections.singleton(dependent));
+			fail("Expected IllegalStateException!");
+		} catch (IllegalStateException o_O) {
+			assertThat(o_O.getMessage(), containsString("cycle"));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnknownPlugin() {
+		resolver(coreOneOh).resolve(Collections.singleton(standalone));
+	}
+
+	private static PluginDependencyResolver<SamplePlugin> resolver(SamplePlugin... plugins) {
+		return PluginDependencyResolver.of(MetadataPluginRegistry.from(Arrays.asList(plugins)));
+	}
+
+	static class SamplePlugin extends AbstractMetadataBasedPlugin {
+
+		private final List<PluginDependency> dependencies;
+
+		SamplePlugin(String name, String version, PluginDependency... dependencies) {
+
+			super(name, version);
+
+			this.dependencies = Arrays.asList(dependencies);
+		}
+
+		@Override
+		public List<PluginDependency> getDependencies() {
+			return dependencies;
+		}
+	}
+}
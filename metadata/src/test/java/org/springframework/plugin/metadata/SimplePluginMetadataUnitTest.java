@@ -48,4 +48,36 @@ public class SimplePluginMetadataUnitTest {
 		assertThat(nameOneOh, is(not(anotherNameOneOh)));
 		assertThat(anotherNameOneOh, is(not(nameOneOh)));
 	}
+
+	@Test
+	public void returnsCanonicalInstances() {
+
+		SimplePluginMetadata metadata = SimplePluginMetadata.of("Name", "1.0");
+
+		assertThat(SimplePluginMetadata.of("Name", "1.0"), is(sameInstance(metadata)));
+		assertThat(SimplePluginMetadata.of("Name", "2.0"), is(not(sameInstance(metadata))));
+		assertThat(metadata, is(new SimplePluginMetadata("Name", "1.0")));
+		assertThat(metadata.hashCode(), is(new SimplePluginMetadata("Name", "1.0").hashCode()));
+	}
+
+	@Test
+	public void swappedNameAndVersionDontCollide() {
+
+		SimplePluginMetadata left = new SimplePluginMetadata("1.0", "2.0");
+		SimplePluginMetadata right = new SimplePluginMetadata("2.0", "1.0");
+
+		assertThat(left, is(not(right)));
+		assertThat(left.hashCode(), is(not(right.hashCode())));
+	}
+
+	@Test
+	public void pluginSupportsCanonicalAndEqualMetadata() {
+
+		AbstractMetadataBasedPlugin plugin = new AbstractMetadataBasedPlugin("Name", "1.0") {};
+
+		assertThat(plugin.getMetadata(), is(sameInstance(SimplePluginMetadata.of("Name", "1.0"))));
+		assertThat(plugin.supports(SimplePluginMetadata.of("Name", "1.0")), is(true));
+		assertThat(plugin.supports(new SimplePluginMetadata("Name", "1.0")), is(true));
+		assertThat(plugin.supports(SimplePluginMetadata.of("Name", "2.0")), is(false));
+	}
 }
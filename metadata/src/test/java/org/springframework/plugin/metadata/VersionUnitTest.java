@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.plugin.metadata;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link Version}.
+ *
+ * @author agent
+ */
+public class VersionUnitTest {
+
+	@Test
+	public void parsesComponents() {
+
+		Version version = Version.parse("1.2.3.RELEASE");
+
+		assertThat(version.getMajor(), is(1));
+		assertThat(version.getMinor(), is(2));
+		assertThat(version.getPatch(), is(3));
+		assertThat(version.isRelease(), is(true));
+		assertThat(version.toString(), is("1.2.3.RELEASE"));
+	}
+
+	@Test
+	public void defaultsMissingComponentsToZero() {
+
+		assertThat(Version.parse("1.0"), is(Version.parse("1.0.0")));
+		assertThat(Version.parse("1"), is(Version.parse("1.0.0.RELEASE")));
+		assertThat(Version.parse("1.0").hashCode(), is(Version.parse("1.0.0.GA").hashCode()));
+	}
+
+	@Test
+	public void ordersVersionsByComponentsAndQualifier() {
+
+		List<String> versions = Arrays.asList("2.0", "1.0.0.BUILD-SNAPSHOT", "1.10", "1.0.0-alpha", "1.0.0.M2", "1.0.0-beta",
+				"1.0.0.SR1", "1.2", "1.0.0.RC1", "1.0.0.M10", "1.0");
+
+		List<String> sorted = versions.stream() //
+				.map(Version::parse) //
+				.sorted() //
+				.map(Version::toString) //
+				.collect(Collectors.toList());
+
+		assertThat(sorted, contains("1.0.0.BUILD-SNAPSHOT", "1.0.0-alpha", "1.0.0-beta", "1.0.0.M2", "1.0.0.M10",
+				"1.0.0.RC1", "1.0", "1.0.0.SR1", "1.2", "1.10", "2.0"));
+	}
+
+	@Test
+	public void ranksSnapshotOfQualifierRightBelowQualifier() {
+
+		Version snapshot = Version.parse("1.0.0-RC1-SNAPSHOT");
+
+		assertThat(snapshot, is(not(Version.parse("1.0.0.BUILD-SNAPSHOT"))));
+		assertThat(snapshot.isGreaterThan(Version.parse("1.0.0.BUILD-SNAPSHOT")), is(true));
+		assertThat(snapshot.isGreaterThan(Version.parse("1.0.0.RC0")), is(true));
+		assertThat(snapshot.isLessThan(Version.parse("1.0.0.RC1")), is(true));
+		assertThat(snapshot.isRelease(), is(false));
+	}
+
+	@Test
+	public void ordersSnapshotsOfDifferentQualifiers() {
+
+		Version milestone = Version.parse("1.0.0-M2-SNAPSHOT");
+
+		assertThat(milestone, is(not(Version.parse("1.0.0-RC1-SNAPSHOT"))));
+		assertThat(milestone.isLessThan(Version.parse("1.0.0-RC1-SNAPSHOT")), is(true));
+		assertThat(milestone.isGreaterThan(Version.parse("1.0.0.M1")), is(true));
+		assertThat(milestone, is(Version.parse("1.0.0.m2.snapshot")));
+	}
+
+	@Test
+	public void includesSnapshotOfQualifierInRange() {
+
+		VersionRange range = VersionRange.parse("[1.0.0.M1,2.0)");
+
+		assertThat(range.includes("1.0.0.RC1-SNAPSHOT"), is(true));
+		assertThat(range.includes("1.0.0.M1-SNAPSHOT"), is(false));
+		assertThat(range.includes("1.0.0.BUILD-SNAPSHOT"), is(false));
+	}
+
+	@Test
+	public void treatsNonNumericVersionAsQualifier() {
+
+		Version version = Version.parse("foo");
+
+		assertThat(version.getMajor(), is(0));
+		assertThat(version.isLessThan(Version.parse("0.0.0")), is(true));
+		assertThat(version.isGreaterThan(Version.parse("0.0.0.BUILD-SNAPSHOT")), is(true));
+	}
+
+	@Test
+	public void ranksUnknownQualifiersAsPreReleases() {
+
+		Version preview = Version.parse("1.0.0-preview");
+		Version dev = Version.parse("1.0.0-dev");
+
+		assertThat(preview.isRelease(), is(false));
+		assertThat(dev.isRelease(), is(false));
+		assertThat(Version.parse("1.0.0.SR1").isRelease(), is(true));
+
+		assertThat(preview.isLessThan(Version.parse("1.0.0")), is(true));
+		assertThat(preview.isLessThan(Version.parse("1.0.0-alpha")), is(true));
+		assertThat(dev.isLessThan(preview), is(true));
+		assertThat(dev.isGreaterThan(Version.parse("1.0.0.BUILD-SNAPSHOT")), is(true));
+	}
+
+	@Test
+	public void exposesParsedVersionOnMetadata() {
+
+		SimplePluginMetadata metadata = new SimplePluginMetadata("Name", "1.2.0");
+
+		assertThat(metadata.getParsedVersion(), is(Version.parse("1.2")));
+		assertThat(metadata.getParsedVersion(), is(sameInstance(metadata.getParsedVersion())));
+	}
+}